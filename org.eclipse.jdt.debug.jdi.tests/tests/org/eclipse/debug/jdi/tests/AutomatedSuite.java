@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2012 IBM Corporation and others.
+ * Copyright (c) 2004, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -40,6 +40,7 @@ public class AutomatedSuite extends TestSuite {
 		addTest(new TestSuite(BreakpointRequestTest.class));
 		addTest(new TestSuite(ByteValueTest.class));
 		addTest(new TestSuite(CharValueTest.class));
+		addTest(new TestSuite(ClassIndexTest.class));
 		addTest(new TestSuite(ClassLoaderReferenceTest.class));
 		addTest(new TestSuite(ClassPrepareEventTest.class));
 		addTest(new TestSuite(ClassPrepareRequestTest.class));
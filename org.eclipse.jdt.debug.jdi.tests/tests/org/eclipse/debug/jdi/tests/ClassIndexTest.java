@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.jdi.tests;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdi.internal.VirtualMachineImpl;
+
+import com.sun.jdi.ArrayType;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.request.ClassPrepareRequest;
+
+/**
+ * Tests the index of loaded classes of
+ * {@link VirtualMachineImpl#setUseClassIndex(boolean)}
+ */
+public class ClassIndexTest extends AbstractJDITest {
+	private ClassPrepareRequest fRequest;
+
+	/**
+	 * Creates a new test.
+	 */
+	public ClassIndexTest() {
+		super();
+	}
+
+	/**
+	 * Init the fields that are used by this test only.
+	 */
+	@Override
+	public void localSetUp() {
+		getVM().setUseClassIndex(true);
+		// Seed the index, then trigger a class prepare event
+		getVM().allClasses();
+		fRequest = fVM.eventRequestManager().createClassPrepareRequest();
+		triggerAndWait(fRequest, "ClassPrepareEvent", true);
+	}
+
+	/**
+	 * Make sure the test leaves the VM in the same state it found it.
+	 */
+	@Override
+	public void localTearDown() {
+		// The test has resumed the test thread, so suspend it
+		waitUntilReady();
+
+		fVM.eventRequestManager().deleteEventRequest(fRequest);
+		getVM().setUseClassIndex(false);
+	}
+
+	/**
+	 * Run all tests and output to standard output.
+	 * @param args
+	 */
+	public static void main(java.lang.String[] args) {
+		new ClassIndexTest().runSuite(args);
+	}
+
+	/**
+	 * Gets the name of the test case.
+	 * @see junit.framework.TestCase#getName()
+	 */
+	@Override
+	public String getName() {
+		return "org.eclipse.jdi.internal.ClassIndex";
+	}
+
+	private VirtualMachineImpl getVM() {
+		return (VirtualMachineImpl) fVM;
+	}
+
+	/**
+	 * Test that the index holds all classes and interfaces loaded in the VM.
+	 */
+	public void testAllClasses() {
+		Set<ReferenceType> indexed = new HashSet<>(fVM.allClasses());
+		getVM().setUseClassIndex(false);
+		List<ReferenceType> loaded = fVM.allClasses();
+		for (ReferenceType type : loaded) {
+			if (!(type instanceof ArrayType)) {
+				assertTrue("Should be indexed: " + type.name(), indexed.contains(type));
+			}
+		}
+	}
+
+	/**
+	 * Test that a class prepared after the index was seeded is found.
+	 */
+	public void testPreparedClass() {
+		List<ReferenceType> classes = fVM.classesByName("org.eclipse.debug.jdi.tests.program.TestClass");
+		assertEquals("Should be one class for TestClass", 1, classes.size());
+	}
+
+	/**
+	 * Test that the index finds the same class as the VM.
+	 */
+	public void testClassesByName() {
+		List<ReferenceType> classes = fVM.classesByName("java.lang.String");
+		assertEquals("Should be one class for java.lang.String", 1, classes.size());
+		getVM().setUseClassIndex(false);
+		assertEquals(fVM.classesByName("java.lang.String"), classes);
+	}
+
+	/**
+	 * Test that array types are still found.
+	 */
+	public void testArrayClassesByName() {
+		List<ReferenceType> classes = fVM.classesByName("java.lang.String[]");
+		assertTrue("Should be a class for java.lang.String[]", classes.size() == 1
+				&& classes.get(0).signature().equals("[Ljava/lang/String;"));
+	}
+
+	/**
+	 * Test looking up classes by name prefix.
+	 */
+	public void testClassesByNamePrefix() {
+		Set<String> names = new HashSet<>();
+		for (ReferenceType type : getVM().classesByNamePrefix("org.eclipse.debug.jdi.tests.program.")) {
+			assertTrue(type.name().startsWith("org.eclipse.debug.jdi.tests.program."));
+			names.add(type.name());
+		}
+		assertTrue("Should find MainClass", names.contains("org.eclipse.debug.jdi.tests.program.MainClass"));
+		assertTrue("Should find TestClass", names.contains("org.eclipse.debug.jdi.tests.program.TestClass"));
+	}
+}
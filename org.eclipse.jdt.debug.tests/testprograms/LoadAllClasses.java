@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Loads all classes of the jar passed as first argument, which must be on the
+ * class path, and prints their number.
+ */
+public class LoadAllClasses {
+
+	public static void main(String[] args) throws Exception {
+		ClassLoader loader = LoadAllClasses.class.getClassLoader();
+		JarFile jar = new JarFile(args[0]);
+		int count = 0;
+		try {
+			for (Enumeration entries = jar.entries(); entries.hasMoreElements();) {
+				String name = ((JarEntry) entries.nextElement()).getName();
+				if (name.endsWith(".class")) {
+					Class.forName(name.substring(0, name.length() - 6).replace('/', '.'), false, loader);
+					count++;
+				}
+			}
+		} finally {
+			jar.close();
+		}
+		System.out.print(count);
+	}
+}
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A map that another thread keeps adding entries to.
+ */
+public class LogicalStructureMapWriter {
+
+	public static void main(String[] args) throws Exception {
+		final Map map = Collections.synchronizedMap(new HashMap());
+		Thread writer = new Thread("Map writer") {
+			public void run() {
+				for (int i = 0; i < 100000; i++) {
+					map.put("key" + i, new Integer(i));
+					try {
+						Thread.sleep(10);
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+			}
+		};
+		writer.setDaemon(true);
+		writer.start();
+		while (map.isEmpty()) {
+			Thread.sleep(10);
+		}
+		System.out.println(map.size());
+	}
+
+}
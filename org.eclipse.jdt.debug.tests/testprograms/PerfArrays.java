@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+/**
+ * A loop over large primitive arrays
+ */
+public class PerfArrays {
+
+	public static void main(String[] args) {
+		byte[] bytes = new byte[1 << 20];
+		long[] longs = new long[1 << 16];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) i;
+		}
+		long sum = 0;
+		for (int i = 0; i < 100000; i++) {
+			longs[i % longs.length] = sum;
+			sum += bytes[i % bytes.length];
+		}
+		System.out.println(sum);
+	}
+}
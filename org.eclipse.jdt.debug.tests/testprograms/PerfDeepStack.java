@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+/**
+ * A loop at the bottom of a deep stack
+ */
+public class PerfDeepStack {
+
+	public static void main(String[] args) {
+		new PerfDeepStack().recurse(300, "deep");
+	}
+
+	int recurse(int depth, String name) {
+		if (depth > 0) {
+			return recurse(depth - 1, name) + 1;
+		}
+		int sum = 0;
+		for (int i = 0; i < 100000; i++) {
+			sum += i;
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+import java.util.HashMap;
+
+/**
+ * A loop over 200 hash maps
+ */
+public class PerfHashMaps {
+
+	public static void main(String[] args) {
+		HashMap[] maps = new HashMap[200];
+		for (int i = 0; i < maps.length; i++) {
+			maps[i] = new HashMap();
+			for (int j = 0; j < 20; j++) {
+				maps[i].put("key" + j, new Integer(i * j));
+			}
+		}
+		int sum = 0;
+		for (int i = 0; i < 100000; i++) {
+			sum += maps[i % maps.length].size();
+		}
+		System.out.println(sum);
+	}
+}
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+/**
+ * Rounds of many small method calls, each round ending with a call to a
+ * method that is not called otherwise
+ */
+public class PerfMethodBreakpoint {
+
+	public static void main(String[] args) {
+		PerfMethodBreakpoint test = new PerfMethodBreakpoint();
+		for (int round = 0; round < 14; round++) {
+			test.round();
+		}
+	}
+
+	void round() {
+		int sum = 0;
+		for (int i = 0; i < 2000000; i++) {
+			sum += work(i);
+		}
+		mark(sum);
+	}
+
+	int work(int i) {
+		return i % 7;
+	}
+
+	int mark(int sum) {
+		if (sum < 0) {
+			throw new IllegalStateException();
+		}
+		return sum;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2011 IBM Corporation and others.
+ *  Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -17,12 +17,26 @@ import junit.framework.Test;
 import junit.framework.TestSuite;
 
 import org.eclipse.jdt.debug.tests.performance.BreakpointManagerPerfTests;
+import org.eclipse.jdt.debug.tests.performance.PerfArrayPartitionTests;
 import org.eclipse.jdt.debug.tests.performance.PerfBreakpointTests;
+import org.eclipse.jdt.debug.tests.performance.PerfClasspathShortenerTests;
 import org.eclipse.jdt.debug.tests.performance.PerfConditionalBreakpointsTests;
 import org.eclipse.jdt.debug.tests.performance.PerfConsoleTests;
 import org.eclipse.jdt.debug.tests.performance.PerfContextualLaunchMenu;
+import org.eclipse.jdt.debug.tests.performance.PerfDeadlockDetectorTests;
+import org.eclipse.jdt.debug.tests.performance.PerfDeepStackTests;
+import org.eclipse.jdt.debug.tests.performance.PerfExecutionEnvironmentBuildTests;
+import org.eclipse.jdt.debug.tests.performance.PerfInterpreterTests;
+import org.eclipse.jdt.debug.tests.performance.PerfJavaagentStartupTests;
+import org.eclipse.jdt.debug.tests.performance.PerfLibraryInfoTests;
+import org.eclipse.jdt.debug.tests.performance.PerfLogicalStructureTests;
+import org.eclipse.jdt.debug.tests.performance.PerfMethodBreakpointTests;
+import org.eclipse.jdt.debug.tests.performance.PerfPacketReceiveManagerTests;
+import org.eclipse.jdt.debug.tests.performance.PerfSocketConnectionTests;
 import org.eclipse.jdt.debug.tests.performance.PerfSteppingTests;
+import org.eclipse.jdt.debug.tests.performance.PerfValueCacheTests;
 import org.eclipse.jdt.debug.tests.performance.PerfVariableDetailTests;
+import org.eclipse.jdt.debug.tests.performance.PerfWorkspaceProjectSourceContainersTests;
 
 /**
  * Tests for integration and nightly builds.
@@ -50,5 +64,19 @@ public class PerformanceSuite extends DebugSuite {
         addTest(new TestSuite(PerfConsoleTests.class));
         addTest(new TestSuite(PerfVariableDetailTests.class));
         addTest(new TestSuite(BreakpointManagerPerfTests.class));
+        addTest(new TestSuite(PerfPacketReceiveManagerTests.class));
+        addTest(new TestSuite(PerfSocketConnectionTests.class));
+        addTest(new TestSuite(PerfValueCacheTests.class));
+        addTest(new TestSuite(PerfDeepStackTests.class));
+        addTest(new TestSuite(PerfInterpreterTests.class));
+        addTest(new TestSuite(PerfLibraryInfoTests.class));
+        addTest(new TestSuite(PerfJavaagentStartupTests.class));
+        addTest(new TestSuite(PerfWorkspaceProjectSourceContainersTests.class));
+        addTest(new TestSuite(PerfClasspathShortenerTests.class));
+        addTest(new TestSuite(PerfExecutionEnvironmentBuildTests.class));
+        addTest(new TestSuite(PerfMethodBreakpointTests.class));
+        addTest(new TestSuite(PerfArrayPartitionTests.class));
+        addTest(new TestSuite(PerfDeadlockDetectorTests.class));
+        addTest(new TestSuite(PerfLogicalStructureTests.class));
     }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,8 +21,11 @@ import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaPrimitiveValue;
 import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
+import org.eclipse.jdt.debug.eval.IAstEvaluationEngine;
+import org.eclipse.jdt.debug.eval.ICompiledExpression;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
 import org.eclipse.jdt.debug.tests.TestUtil;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
 
 /**
  * Tests conditional breakpoints.
@@ -65,6 +68,34 @@ public class ConditionalBreakpointsTests extends AbstractDebugTest {
 		}
 	}
 
+	/**
+	 * Tests that an expression compiled in the context of a frame is reused
+	 * until the compiled expressions of the target are discarded
+	 * @throws Exception
+	 */
+	public void testCompiledExpressionCache() throws Exception {
+		String typeName = "HitCountLooper";
+		IJavaLineBreakpoint bp = createLineBreakpoint(19, typeName);
+
+		IJavaThread thread= null;
+		try {
+			thread= launchToLineBreakpoint(typeName, bp);
+
+			IJavaStackFrame frame = (IJavaStackFrame)thread.getTopStackFrame();
+			JDIDebugTarget target = (JDIDebugTarget) frame.getDebugTarget();
+			IAstEvaluationEngine engine = target.getEvaluationEngine(get14Project());
+			ICompiledExpression expression = engine.getCompiledExpression("i == 3", frame);
+			assertFalse("The expression should compile", expression.hasErrors());
+			assertSame("The expression should be reused", expression, engine.getCompiledExpression("i == 3", frame));
+
+			target.clearCompiledExpressionCaches();
+			assertNotSame("The expression should be compiled again", expression, engine.getCompiledExpression("i == 3", frame));
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
 	/**
 	 * Tests a static method call that has a conditional breakpoint on it
 	 * @throws Exception
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2012 IBM Corporation and others.
+ *  Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -16,6 +16,8 @@ package org.eclipse.jdt.debug.tests.breakpoints;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
 import org.eclipse.debug.core.model.IBreakpoint;
@@ -29,6 +31,7 @@ import org.eclipse.jdt.debug.core.IJavaPrimitiveValue;
 import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
 import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
 
 /**
@@ -78,6 +81,41 @@ public class MethodBreakpointTests extends AbstractDebugTest {
 		}
 	}
 
+	/**
+	 * Tests entry and exit breakpoints with method exits reported by
+	 * breakpoints at the exit instructions of the method
+	 * @throws Exception
+	 */
+	public void testEntryAndExitBreakpointLocations() throws Exception {
+		IEclipsePreferences node = InstanceScope.INSTANCE.getNode(JDIDebugPlugin.getUniqueIdentifier());
+		node.putBoolean(JDIDebugPlugin.PREF_METHOD_EXIT_BREAKPOINT_LOCATIONS, true);
+		String typeName = "DropTests";
+		// method 4 - entry
+		IJavaMethodBreakpoint entry = createMethodBreakpoint(typeName, "method4", "()V", true, false);
+		// method 1 - exit
+		IJavaMethodBreakpoint exit = createMethodBreakpoint(typeName, "method1", "()V", false, true);
+
+		IJavaThread thread= null;
+		try {
+			thread= launchToBreakpoint(typeName);
+			assertNotNull("Breakpoint not hit within timeout period", thread);
+			assertEquals("should hit entry breakpoint first", entry, getBreakpoint(thread));
+			assertTrue("should suspend on entry", entry.isEntrySuspend(thread.getDebugTarget()));
+
+			// onto the next breakpoint
+			thread = resume(thread);
+			assertEquals("should hit exit breakpoint second", exit, getBreakpoint(thread));
+			assertFalse("should suspend on exit", exit.isEntrySuspend(thread.getDebugTarget()));
+			IJavaStackFrame frame = (IJavaStackFrame) thread.getTopStackFrame();
+			assertEquals("should suspend in method1", "method1", frame.getMethodName());
+			assertEquals("should show the void result", "method1() is returning", frame.getVariables()[0].getName());
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+			node.remove(JDIDebugPlugin.PREF_METHOD_EXIT_BREAKPOINT_LOCATIONS);
+		}
+	}
+
 	/**
 	 * Tests the 'stop in main' launching preference
 	 * {@link IJavaLaunchConfigurationConstants#ATTR_STOP_IN_MAIN}
@@ -29,7 +29,9 @@ import org.eclipse.debug.core.model.IStackFrame;
 import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.debug.core.EventDispatcher;
 import org.eclipse.jdt.internal.debug.core.EventDispatcher.AbstractDispatchJob;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
 import org.eclipse.jdt.internal.debug.core.model.JDIThread;
 
 public class EventDispatcherTest extends AbstractDebugTest {
@@ -103,6 +105,34 @@ public class EventDispatcherTest extends AbstractDebugTest {
 		assertEquals("Unexpected number of event dispatching jobs: " + jobs.size() + " | " + jobs.keySet(), 0, jobs.size());
 	}
 
+	/**
+	 * Tests that the thread start and death events of many threads are all
+	 * dispatched and accounted for in the dispatch metrics.
+	 *
+	 * @throws Exception
+	 */
+	public void testDispatchMetrics() throws Exception {
+		IJavaThread suspendedThread = null;
+		try {
+			createLineBreakpoint(27, "BulkThreadCreationTest");
+			suspendedThread = launchToBreakpoint("BulkThreadCreationTest");
+			EventDispatcher dispatcher = ((JDIDebugTarget) suspendedThread.getDebugTarget()).getEventDispatcher();
+			// the event sets of other threads may still be dispatched
+			long timeout = System.currentTimeMillis() + DEFAULT_TIMEOUT;
+			while (dispatcher.getQueueDepth() > 0 && System.currentTimeMillis() < timeout) {
+				Thread.sleep(10);
+			}
+			assertEquals("Event sets left to dispatch", 0, dispatcher.getQueueDepth());
+			// a start and a death per thread, and the breakpoint
+			assertTrue("Unexpected number of dispatched event sets: " + dispatcher.getDispatchedEventSetCount(), dispatcher.getDispatchedEventSetCount() >= 2001);
+			assertTrue("Missing dispatch latency", dispatcher.getAverageDispatchLatency() > 0);
+		}
+		finally {
+			terminateAndRemove(suspendedThread);
+			removeAllBreakpoints();
+		}
+	}
+
 	/**
 	 * Tests that a conditional breakpoint with an expression that will hit a breakpoint will complete the conditional expression evaluation (bug
 	 * 269231) and that we dispatch events for conditional breakpoints in dedicated jobs.
@@ -224,6 +224,22 @@ public class ExecutionEnvironmentTests extends AbstractDebugTest {
 		}
 	}
 
+	/**
+	 * Tests that the access rules of an environment are computed once and shared between projects.
+	 *
+	 * @throws Exception
+	 */
+	public void testAccessRulesSharedBetweenProjects() throws Exception {
+		IExecutionEnvironmentsManager manager = JavaRuntime.getExecutionEnvironmentsManager();
+		IExecutionEnvironment environment = manager.getEnvironment("org.eclipse.jdt.debug.tests.systemPackages");
+		assertNotNull("Missing environment systemPackages", environment);
+		IVMInstall vm = JavaRuntime.getDefaultVMInstall();
+		LibraryLocation[] libraries = JavaRuntime.getLibraryLocations(vm);
+		IAccessRule[][] rules14 = environment.getAccessRules(vm, libraries, get14Project());
+		IAccessRule[][] rules15 = environment.getAccessRules(vm, libraries, get15Project());
+		assertSame("Rules should be shared between projects", rules14, rules15);
+	}
+
 	/**
 	 * Tests that a location can be resolved for ${ee_home:J2SE-1.4}
 	 *
@@ -247,6 +247,71 @@ public class HcrTests extends AbstractDebugTest {
 		}
 	}
 
+	/**
+	 * Tests that a class file rebuilt with the same contents is not replaced
+	 * again.
+	 *
+	 * @throws Exception
+	 */
+	public void testUnchangedClassFileNotReplaced() throws Exception {
+		String typeName = "org.eclipse.debug.tests.targets.HcrClass";
+		createLineBreakpoint(42, typeName);
+		HCRListener listener = new HCRListener();
+		HCRListener listener2 = new HCRListener();
+		JDIDebugModel.addHotCodeReplaceListener(listener);
+		IJavaThread thread= null;
+		ICompilationUnit cu = null;
+		String comment = "\n// comment";
+		try {
+			thread= launchToBreakpoint(typeName);
+			assertNotNull("Breakpoint not hit within timeout period", thread);
+
+			IJavaDebugTarget target = (IJavaDebugTarget)thread.getDebugTarget();
+			if (target.supportsHotCodeReplace()) {
+				removeAllBreakpoints();
+				// do the HCR
+				cu = getCompilationUnit(get14Project(), "src", "org.eclipse.debug.tests.targets", "HcrClass.java");
+				cu = cu.getPrimary();
+				if (!cu.isWorkingCopy()) {
+					cu = cu.getWorkingCopy(null);
+				}
+				assertTrue("HcrClass.java does not exist", cu.exists());
+				IBuffer buffer = cu.getBuffer();
+				String contents = buffer.getContents();
+				int index = contents.indexOf("\"One\"");
+				assertTrue("Could not find code to replace", index > 0);
+				buffer.setContents(contents.substring(0, index) + "\"Two\"" + contents.substring(index + 5));
+				cu.commitWorkingCopy(true, null);
+				waitForBuild();
+				assertTrue("Listener should have been notified", listener.waitNotification());
+				JDIDebugModel.removeHotCodeReplaceListener(listener);
+
+				// only add a comment, the class file does not change
+				JDIDebugModel.addHotCodeReplaceListener(listener2);
+				buffer.setContents(buffer.getContents() + comment);
+				cu.commitWorkingCopy(true, null);
+				waitForBuild();
+				assertFalse("Listener should not have been notified", listener2.waitNotification());
+			} else {
+				System.err.println("Warning: HCR test skipped since target VM does not support HCR.");
+			}
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+			JDIDebugModel.removeHotCodeReplaceListener(listener);
+			JDIDebugModel.removeHotCodeReplaceListener(listener2);
+			if (cu != null) {
+				IBuffer buffer = cu.getBuffer();
+				String contents = buffer.getContents();
+				if (contents.endsWith(comment)) {
+					buffer.setContents(contents.substring(0, contents.length() - comment.length()));
+					cu.commitWorkingCopy(true, null);
+					waitForBuild();
+				}
+			}
+		}
+	}
+
 	/**
 	 * Tests that a target specific listener overrides a generic listener.
 	 *
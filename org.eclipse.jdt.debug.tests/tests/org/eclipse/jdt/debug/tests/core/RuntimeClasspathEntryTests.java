@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,10 +13,18 @@
  *******************************************************************************/
 package org.eclipse.jdt.debug.tests.core;
 
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.debug.testplugin.JavaProjectHelper;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
 import org.eclipse.jdt.launching.IRuntimeClasspathEntry;
 import org.eclipse.jdt.launching.IVMInstall;
@@ -127,4 +135,48 @@ public class RuntimeClasspathEntryTests extends AbstractDebugTest {
 		IRuntimeClasspathEntry entry2 = JavaRuntime.newRuntimeContainerClasspathEntry(new Path("org.eclipse.jdt.debug.tests.TestClasspathContainer"), IRuntimeClasspathEntry.USER_CLASSES, get14Project());
 		assertEquals("Example containers should be equal for same project", entry1, entry2);
 	}
+
+	/**
+	 * Tests that the resolved default classpath of a project is not shared with
+	 * callers and reflects changes of the classpath of a required project.
+	 */
+	public void testDefaultProjectEntryResolutionAfterClasspathChange() throws Exception {
+		IJavaProject required = JavaProjectHelper.createJavaProject("RequiredCacheProject", "bin");
+		IJavaProject project = JavaProjectHelper.createJavaProject("CacheProject", "bin");
+		try {
+			JavaProjectHelper.addSourceContainer(required, "src");
+			JavaProjectHelper.addSourceContainer(project, "src");
+			JavaProjectHelper.addRequiredProject(project, required);
+			IRuntimeClasspathEntry entry = JavaRuntime.newDefaultProjectClasspathEntry(project);
+
+			IRuntimeClasspathEntry[] resolved = JavaRuntime.resolveRuntimeClasspathEntry(entry, project);
+			List<IPath> paths = getPaths(resolved);
+			assertTrue("Missing required project", paths.contains(required.getProject().getFullPath()));
+			for (IRuntimeClasspathEntry e : resolved) {
+				e.setClasspathProperty(IRuntimeClasspathEntry.BOOTSTRAP_CLASSES);
+			}
+			resolved = JavaRuntime.resolveRuntimeClasspathEntry(entry, project);
+			assertEquals("Resolution should not change", paths, getPaths(resolved));
+			for (IRuntimeClasspathEntry e : resolved) {
+				assertEquals("Resolved entries should not be shared", IRuntimeClasspathEntry.USER_CLASSES, e.getClasspathProperty());
+			}
+
+			IFile library = required.getProject().getFile("library.jar");
+			library.create(new ByteArrayInputStream(new byte[0]), true, null);
+			JavaProjectHelper.addLibrary(required, library.getFullPath());
+			paths = getPaths(JavaRuntime.resolveRuntimeClasspathEntry(entry, project));
+			assertTrue("Missing library added to required project", paths.contains(library.getFullPath()));
+		} finally {
+			JavaProjectHelper.delete(project);
+			JavaProjectHelper.delete(required);
+		}
+	}
+
+	private static List<IPath> getPaths(IRuntimeClasspathEntry[] entries) {
+		List<IPath> paths = new ArrayList<>();
+		for (IRuntimeClasspathEntry entry : entries) {
+			paths.add(entry.getPath());
+		}
+		return paths;
+	}
 }
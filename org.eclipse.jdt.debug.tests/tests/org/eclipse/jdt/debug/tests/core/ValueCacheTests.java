@@ -0,0 +1,84 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.core;
+
+import java.util.Collection;
+
+import org.eclipse.jdi.internal.ValueCache;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that the bounded {@link ValueCache} used for mirrors keeps the values
+ * it evicted while they are reachable.
+ */
+public class ValueCacheTests extends TestCase {
+
+	private static final int CAPACITY = 16;
+
+	private static final int KEYS = 1000;
+
+	/**
+	 * Tests that a value evicted from a full cache is still found under its key
+	 * while it is reachable, and is not replaced by a second value
+	 */
+	public void testEvictedValueKeepsIdentity() {
+		ValueCache cache = new ValueCache(CAPACITY);
+		Object[] values = new Object[KEYS];
+		for (int i = 0; i < KEYS; i++) {
+			values[i] = new Object();
+			cache.put(Integer.valueOf(i), values[i]);
+		}
+		assertTrue("Values should have been evicted", cache.evictionCount() > 0);
+		assertTrue("The cache exceeds its capacity", cache.size() <= CAPACITY);
+		for (int i = 0; i < KEYS; i++) {
+			assertSame("Wrong value for key " + i, values[i], cache.get(Integer.valueOf(i)));
+		}
+	}
+
+	/**
+	 * Tests that values evicted from a full cache are still listed while they
+	 * are reachable
+	 */
+	public void testEvictedValuesListed() {
+		ValueCache cache = new ValueCache(CAPACITY);
+		Object[] values = new Object[KEYS];
+		for (int i = 0; i < KEYS; i++) {
+			values[i] = new StringBuilder();
+			cache.put(Integer.valueOf(i), values[i]);
+		}
+		Collection<Object> withType = cache.valuesWithType(StringBuilder.class);
+		Collection<Object> all = cache.values();
+		assertEquals("Wrong number of values with type", KEYS, withType.size());
+		assertEquals("Wrong number of values", KEYS, all.size());
+		for (int i = 0; i < KEYS; i++) {
+			assertTrue("Missing value " + i, withType.contains(values[i]));
+		}
+	}
+
+	/**
+	 * Tests that a removed evicted value is no longer found
+	 */
+	public void testRemoveEvictedValue() {
+		ValueCache cache = new ValueCache(CAPACITY);
+		Object[] values = new Object[KEYS];
+		for (int i = 0; i < KEYS; i++) {
+			values[i] = new Object();
+			cache.put(Integer.valueOf(i), values[i]);
+		}
+		assertSame("Wrong removed value", values[0], cache.remove(Integer.valueOf(0)));
+		assertNull("Removed value should not be found", cache.get(Integer.valueOf(0)));
+		assertFalse("Removed value should not be listed", cache.values().contains(values[0]));
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 Cedric Chabanois and others.
+ * Copyright (c) 2018, 2019 Cedric Chabanois and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,8 +22,11 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -32,6 +35,7 @@ import java.util.jar.Attributes;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.Platform;
@@ -39,6 +43,7 @@ import org.eclipse.core.runtime.URIUtil;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
 import org.eclipse.jdt.debug.tests.connectors.MockLaunch;
 import org.eclipse.jdt.internal.launching.ClasspathShortener;
+import org.eclipse.jdt.internal.launching.ClasspathShortenerCache;
 
 public class ClasspathShortenerTests extends AbstractDebugTest {
 	private static final String MAIN_CLASS = "my.package.MainClass";
@@ -47,6 +52,7 @@ public class ClasspathShortenerTests extends AbstractDebugTest {
 	private static final String JAVA_8_PATH = "/usr/lib/jvm/java-8-openjdk-amd64/bin/java";
 	private ClasspathShortenerForTest classpathShortener;
 	private String userHome;
+	private File cacheDir;
 
 	public ClasspathShortenerTests(String name) {
 		super(name);
@@ -63,6 +69,11 @@ public class ClasspathShortenerTests extends AbstractDebugTest {
 		if (classpathShortener != null) {
 			classpathShortener.getProcessTempFiles().forEach(file -> file.delete());
 		}
+		if (cacheDir != null) {
+			try (Stream<java.nio.file.Path> paths = Files.walk(cacheDir.toPath())) {
+				paths.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+			}
+		}
 		super.tearDown();
 	}
 
@@ -264,6 +275,119 @@ public class ClasspathShortenerTests extends AbstractDebugTest {
 		assertArrayEquals(new String[] { JAVA_8_PATH, ENCODING_ARG, MAIN_CLASS, "-arg1", "arg2" }, classpathShortener.getCmdLine());
 	}
 
+	public void testArgFileReusedForSameClasspath() throws Exception {
+		// Given
+		String classpath = getClasspathOrModulePath(userHomePath("/workspace/myProject/bin"), userHomePath("/workspace/myProject/lib/lib 1.jar"));
+		ClasspathShortenerCache cache = createCache(10);
+		assertEquals("-classpath " + classpath, shortenWithArgFile(cache, classpath));
+		File[] cachedFiles = cacheDir.listFiles();
+		assertEquals(1, cachedFiles.length);
+		Files.write(cachedFiles[0].toPath(), "-classpath reused".getBytes(StandardCharsets.UTF_8));
+
+		// When
+		String contents = shortenWithArgFile(cache, classpath);
+
+		// Then
+		assertEquals("-classpath reused", contents);
+		assertEquals(1, cacheDir.listFiles().length);
+	}
+
+	public void testClasspathOnlyJarReusedForSameClasspath() throws Exception {
+		// Given
+		List<String> classpathElements = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			classpathElements.add(userHomePath("/workspace/myProject/lib/lib " + i + "-\u00e9\u4e2d.jar"));
+		}
+		String classpath = String.join(";", classpathElements);
+		String[] cmdLine = new String[] { JAVA_8_PATH, ENCODING_ARG, "-cp", classpath, MAIN_CLASS, "-arg1", "arg2" };
+		ClasspathShortenerCache cache = createCache(10);
+		List<File> expected = classpathElements.stream().map(File::new).collect(Collectors.toList());
+		for (int i = 0; i < 2; i++) {
+			classpathShortener = new ClasspathShortenerForTest(Platform.OS_LINUX, "1.8.0_171", cmdLine, 4, null);
+			classpathShortener.setCache(cache);
+			classpathShortener.setForceUseClasspathOnlyJar(true);
+
+			// When
+			boolean result = classpathShortener.shortenCommandLineIfNecessary();
+
+			// Then
+			assertTrue(result);
+			assertEquals(1, classpathShortener.getProcessTempFiles().size());
+			List<File> classpathJars = getClasspathJarsFromJarManifest(classpathShortener.getProcessTempFiles().get(0));
+			assertEquals(expected, classpathJars.stream().map(file -> {
+				try {
+					return file.getCanonicalFile();
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			}).collect(Collectors.toList()));
+			classpathShortener.getProcessTempFiles().forEach(file -> file.delete());
+			assertEquals(1, cacheDir.listFiles().length);
+		}
+	}
+
+	public void testLeastRecentlyUsedFilesDeleted() throws Exception {
+		// Given
+		String classpath1 = getClasspathOrModulePath(userHomePath("/workspace/myProject/bin"), userHomePath("/workspace/myProject/lib/lib 1.jar"));
+		String classpath2 = getClasspathOrModulePath(userHomePath("/workspace/myProject/bin"), userHomePath("/workspace/myProject/lib/lib 2.jar"));
+		String classpath3 = getClasspathOrModulePath(userHomePath("/workspace/myProject/bin"), userHomePath("/workspace/myProject/lib/lib 3.jar"));
+		ClasspathShortenerCache cache = createCache(2);
+		shortenWithArgFile(cache, classpath1);
+		shortenWithArgFile(cache, classpath2);
+		long now = System.currentTimeMillis();
+		for (File file : cacheDir.listFiles()) {
+			String contents = getFileContents(file);
+			file.setLastModified(contents.equals("-classpath " + classpath1) ? now - 30000 : now - 20000);
+		}
+
+		// When
+		shortenWithArgFile(cache, classpath1);
+		shortenWithArgFile(cache, classpath3);
+
+		// Then
+		List<String> cached = new ArrayList<>();
+		for (File file : cacheDir.listFiles()) {
+			cached.add(getFileContents(file));
+		}
+		cached.sort(null);
+		assertEquals(Arrays.asList("-classpath " + classpath1, "-classpath " + classpath3), cached);
+	}
+
+	public void testRecentlyUsedFilesKept() throws Exception {
+		// Given
+		String classpath1 = getClasspathOrModulePath(userHomePath("/workspace/myProject/bin"), userHomePath("/workspace/myProject/lib/lib 1.jar"));
+		String classpath2 = getClasspathOrModulePath(userHomePath("/workspace/myProject/bin"), userHomePath("/workspace/myProject/lib/lib 2.jar"));
+		ClasspathShortenerCache cache = createCache(1);
+		shortenWithArgFile(cache, classpath1);
+
+		// When
+		shortenWithArgFile(cache, classpath2);
+
+		// Then
+		// a concurrent launch may not have linked the first file yet
+		assertEquals(2, cacheDir.listFiles().length);
+	}
+
+	private ClasspathShortenerCache createCache(int maxFiles) throws IOException {
+		cacheDir = Files.createTempDirectory("classpathShortenerCache").toFile();
+		return new ClasspathShortenerCache(cacheDir, maxFiles);
+	}
+
+	private String shortenWithArgFile(ClasspathShortenerCache cache, String classpath) throws IOException {
+		String[] cmdLine = new String[] { JAVA_10_PATH, ENCODING_ARG, "-cp", classpath, MAIN_CLASS, "-arg1", "arg2" };
+		classpathShortener = new ClasspathShortenerForTest(Platform.OS_LINUX, "10.0.1", cmdLine, 4, null);
+		classpathShortener.setCache(cache);
+		classpathShortener.setMaxCommandLineLength(100);
+		assertTrue(classpathShortener.shortenCommandLineIfNecessary());
+		assertEquals(1, classpathShortener.getProcessTempFiles().size());
+		File file = classpathShortener.getProcessTempFiles().get(0);
+		try {
+			return getFileContents(file);
+		} finally {
+			file.delete();
+		}
+	}
+
 	private String getFileContents(File file) throws UnsupportedEncodingException, IOException {
 		return new String(Files.readAllBytes(file.toPath()), "UTF-8");
 	}
@@ -301,6 +425,7 @@ public class ClasspathShortenerTests extends AbstractDebugTest {
 		private int maxArgLength = Integer.MAX_VALUE;
 		private int maxCommandLineLength = Integer.MAX_VALUE;
 		private Map<String, String> nativeEnvironment = new HashMap<>();
+		private ClasspathShortenerCache cache;
 
 		public ClasspathShortenerForTest(String os, String javaVersion, String[] cmdLine, int classpathArgumentIndex, String[] envp) {
 			super(os, javaVersion, new MockLaunch(), cmdLine, classpathArgumentIndex, null, envp);
@@ -314,6 +439,15 @@ public class ClasspathShortenerTests extends AbstractDebugTest {
 			this.forceUseClasspathOnlyJar = forceUseClasspathOnlyJar;
 		}
 
+		public void setCache(ClasspathShortenerCache cache) {
+			this.cache = cache;
+		}
+
+		@Override
+		protected ClasspathShortenerCache getCache() {
+			return cache != null ? cache : super.getCache();
+		}
+
 		@Override
 		protected String getLaunchConfigurationName() {
 			return "launch";
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.launching;
+
+import java.io.ByteArrayInputStream;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.debug.testplugin.JavaProjectHelper;
+import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.launching.LaunchableTypeCache;
+
+/**
+ * Tests the cache of facts about types used by the contextual launch menu
+ */
+public class LaunchableTypeCacheTests extends AbstractDebugTest {
+
+	private LaunchableTypeCache fCache;
+
+	public LaunchableTypeCacheTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fCache = new LaunchableTypeCache(LaunchableTypeCache.DEFAULT_MAX_SIZE);
+		fCache.startListening();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fCache.stopListening();
+		super.tearDown();
+	}
+
+	/**
+	 * Tests that facts about a type are computed once
+	 *
+	 * @throws Exception
+	 */
+	public void testRepeatedQuestions() throws Exception {
+		IType type = get14Project().findType("Breakpoints");
+		assertNotNull("Missing type", type);
+		assertTrue("Expected a main method", fCache.hasMain(type));
+		assertTrue("Expected a main method", fCache.hasMain(type));
+		assertTrue("Expected superclass", fCache.hasSuperclass(type, "java.lang.Object"));
+		assertTrue("Expected superclass", fCache.hasSuperclass(type, "Object"));
+		assertTrue("Expected interface", fCache.implementsInterface(type, "IBreakpoints"));
+		assertFalse("Unexpected interface", fCache.implementsInterface(type, "java.lang.Runnable"));
+		assertEquals("Wrong number of misses", 2, fCache.getMissCount());
+		assertEquals("Wrong number of hits", 4, fCache.getHitCount());
+	}
+
+	/**
+	 * Tests that a main method added to a type is found
+	 *
+	 * @throws Exception
+	 */
+	public void testMainMethodAdded() throws Exception {
+		IFile file = createFile("CacheMain", "public class CacheMain {}");
+		try {
+			IType type = ((ICompilationUnit) JavaCore.create(file)).findPrimaryType();
+			assertFalse("Unexpected main method", fCache.hasMain(type));
+			type.createMethod("public static void main(String[] args) {}", null, true, null);
+			assertTrue("Expected a main method", fCache.hasMain(type));
+		} finally {
+			file.delete(true, null);
+		}
+	}
+
+	/**
+	 * Tests that a superclass set on a type is found
+	 *
+	 * @throws Exception
+	 */
+	public void testSuperclassChanged() throws Exception {
+		IFile file = createFile("CacheSuper", "public class CacheSuper {}");
+		try {
+			IType type = ((ICompilationUnit) JavaCore.create(file)).findPrimaryType();
+			assertFalse("Unexpected superclass", fCache.hasSuperclass(type, "java.lang.Thread"));
+			assertFalse("Unexpected interface", fCache.implementsInterface(type, "java.lang.Runnable"));
+			file.setContents(new ByteArrayInputStream("public class CacheSuper extends Thread {}".getBytes()), true, false, null);
+			assertTrue("Expected superclass", fCache.hasSuperclass(type, "java.lang.Thread"));
+			assertTrue("Expected interface", fCache.implementsInterface(type, "java.lang.Runnable"));
+		} finally {
+			file.delete(true, null);
+		}
+	}
+
+	private IFile createFile(String typeName, String contents) throws Exception {
+		IFile file = get14Project().getProject().getFolder(JavaProjectHelper.SRC_DIR).getFile(typeName + ".java");
+		file.create(new ByteArrayInputStream(contents.getBytes()), true, null);
+		return file;
+	}
+}
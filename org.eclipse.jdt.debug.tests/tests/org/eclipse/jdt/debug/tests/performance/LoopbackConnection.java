@@ -0,0 +1,85 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import java.io.IOException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdi.internal.jdwp.JdwpPacket;
+
+import com.sun.jdi.connect.spi.ClosedConnectionException;
+import com.sun.jdi.connect.spi.Connection;
+
+/**
+ * An in-memory {@link Connection} that answers every command packet written
+ * to it with an empty reply packet carrying the same id. Used to measure the
+ * packet managers without a target VM.
+ */
+public class LoopbackConnection extends Connection {
+
+	private final LinkedBlockingQueue<byte[]> fReplies = new LinkedBlockingQueue<>();
+	private volatile boolean fOpen = true;
+
+	/**
+	 * Returns the bytes of an empty reply packet with the given id.
+	 *
+	 * @param id the packet id
+	 * @return the reply packet bytes
+	 */
+	public static byte[] replyTo(int id) {
+		byte[] bytes = new byte[11];
+		bytes[3] = 11;
+		bytes[4] = (byte) (id >>> 24);
+		bytes[5] = (byte) (id >>> 16);
+		bytes[6] = (byte) (id >>> 8);
+		bytes[7] = (byte) id;
+		bytes[8] = JdwpPacket.FLAG_REPLY_PACKET;
+		return bytes;
+	}
+
+	@Override
+	public byte[] readPacket() throws IOException {
+		while (fOpen) {
+			try {
+				byte[] bytes = fReplies.poll(100, TimeUnit.MILLISECONDS);
+				if (bytes != null) {
+					return bytes;
+				}
+			} catch (InterruptedException e) {
+				break;
+			}
+		}
+		throw new ClosedConnectionException();
+	}
+
+	@Override
+	public void writePacket(byte[] pkt) throws IOException {
+		if (!fOpen) {
+			throw new ClosedConnectionException();
+		}
+		int id = ((pkt[4] & 0xff) << 24) | ((pkt[5] & 0xff) << 16) | ((pkt[6] & 0xff) << 8) | (pkt[7] & 0xff);
+		fReplies.add(replyTo(id));
+	}
+
+	@Override
+	public void close() throws IOException {
+		fOpen = false;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return fOpen;
+	}
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import org.eclipse.debug.core.model.IIndexedValue;
+import org.eclipse.debug.core.model.IVariable;
+import org.eclipse.jdt.debug.core.IJavaStackFrame;
+import org.eclipse.jdt.debug.core.IJavaThread;
+import org.eclipse.jdt.debug.core.IJavaVariable;
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * Tests the latency of expanding partitions of large primitive arrays, as the
+ * variables view does, after each step.
+ */
+public class PerfArrayPartitionTests extends AbstractDebugPerformanceTest {
+
+	private static final int PARTITION_SIZE = 100;
+
+	private static final int PARTITION_COUNT = 20;
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public PerfArrayPartitionTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Tests expanding 20 partitions of 100 entries of a <code>byte[]</code>
+	 * and of a <code>long[]</code>
+	 * @throws Exception
+	 */
+	public void testExpandPartitions() throws Exception {
+		tagAsSummary("Expand partitions of primitive arrays", Dimension.ELAPSED_PROCESS);
+		String typeName = "PerfArrays";
+		createLineBreakpoint(28, typeName);
+
+		IJavaThread thread = null;
+		try {
+			thread = launchToBreakpoint(typeName, false);
+			// step in the loop without hitting the breakpoint again
+			removeAllBreakpoints();
+
+			// warm up
+			for (int i = 0; i < 10; i++) {
+				thread = stepOver((IJavaStackFrame) thread.getTopStackFrame());
+				expandPartitions(thread);
+			}
+
+			// test
+			for (int i = 0; i < 20; i++) {
+				thread = stepOver((IJavaStackFrame) thread.getTopStackFrame());
+				startMeasuring();
+				expandPartitions(thread);
+				stopMeasuring();
+			}
+			commitMeasurements();
+			assertPerformance();
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
+	/**
+	 * Retrieves the values of the entries of the first partitions of the
+	 * arrays visible in the top frame.
+	 */
+	private void expandPartitions(IJavaThread thread) throws Exception {
+		IJavaStackFrame frame = (IJavaStackFrame) thread.getTopStackFrame();
+		String[] names = new String[] { "bytes", "longs" };
+		for (String name : names) {
+			IJavaVariable array = frame.findVariable(name);
+			assertNotNull("Missing array " + name, array);
+			IIndexedValue value = (IIndexedValue) array.getValue();
+			for (int p = 0; p < PARTITION_COUNT; p++) {
+				for (IVariable entry : value.getVariables(p * PARTITION_SIZE, PARTITION_SIZE)) {
+					entry.getValue().getValueString();
+				}
+			}
+		}
+	}
+}
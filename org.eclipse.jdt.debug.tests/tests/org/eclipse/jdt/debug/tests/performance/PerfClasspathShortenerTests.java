@@ -0,0 +1,144 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.jdt.debug.tests.connectors.MockLaunch;
+import org.eclipse.jdt.internal.launching.ClasspathShortener;
+import org.eclipse.jdt.internal.launching.ClasspathShortenerCache;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * Tests the performance of shortening the command line of launches with an
+ * 8000 entries classpath.
+ */
+public class PerfClasspathShortenerTests extends AbstractDebugPerformanceTest {
+
+	private static final int CLASSPATH_SIZE = 8000;
+
+	private static class Shortener extends ClasspathShortener {
+		private final ClasspathShortenerCache cache;
+		private final boolean classpathOnlyJar;
+
+		Shortener(String javaVersion, String[] cmdLine, File workingDir, ClasspathShortenerCache cache, boolean classpathOnlyJar) {
+			super(Platform.OS_LINUX, javaVersion, new MockLaunch(), cmdLine, 4, workingDir, null);
+			this.cache = cache;
+			this.classpathOnlyJar = classpathOnlyJar;
+		}
+
+		@Override
+		protected String getLaunchConfigurationName() {
+			return "perf";
+		}
+
+		@Override
+		protected boolean getLaunchConfigurationUseClasspathOnlyJarAttribute() {
+			return classpathOnlyJar;
+		}
+
+		@Override
+		protected ClasspathShortenerCache getCache() {
+			return cache;
+		}
+
+		@Override
+		protected char getPathSeparatorChar() {
+			return File.pathSeparatorChar;
+		}
+	}
+
+	private File fRoot;
+	private File fWorkingDir;
+	private ClasspathShortenerCache fCache;
+	private String fClasspath;
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public PerfClasspathShortenerTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fRoot = Files.createTempDirectory("perfClasspathShortener").toFile();
+		fWorkingDir = new File(fRoot, "work");
+		assertTrue(fWorkingDir.mkdirs());
+		fCache = new ClasspathShortenerCache(new File(fRoot, "cache"), ClasspathShortenerCache.DEFAULT_MAX_FILES);
+		List<String> entries = new ArrayList<>(CLASSPATH_SIZE);
+		for (int i = 0; i < CLASSPATH_SIZE; i++) {
+			entries.add(new File(fRoot, "repository/org/example/artifact" + i + "/1.0." + i + "/artifact" + i + "-1.0." + i + ".jar").getAbsolutePath());
+		}
+		fClasspath = String.join(File.pathSeparator, entries);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		try (Stream<java.nio.file.Path> paths = Files.walk(fRoot.toPath())) {
+			paths.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+		}
+		super.tearDown();
+	}
+
+	/**
+	 * Tests shortening an 8000 entries classpath with an argument file
+	 * @throws Exception
+	 */
+	public void testClasspathArgumentFile() throws Exception {
+		tagAsSummary("Shorten 8000 entries classpath with argument file", Dimension.ELAPSED_PROCESS);
+		runShortener("10", false);
+	}
+
+	/**
+	 * Tests shortening an 8000 entries classpath with a classpath-only jar
+	 * @throws Exception
+	 */
+	public void testClasspathOnlyJar() throws Exception {
+		tagAsSummary("Shorten 8000 entries classpath with classpath-only jar", Dimension.ELAPSED_PROCESS);
+		runShortener("1.8.0_171", true);
+	}
+
+	private void runShortener(String javaVersion, boolean classpathOnlyJar) {
+		String[] cmdLine = new String[] { "java", "-Dfile.encoding=UTF-8", "-classpath", fClasspath, "my.package.MainClass" };
+		// warm up
+		for (int i = 0; i < 3; i++) {
+			shorten(javaVersion, cmdLine, classpathOnlyJar);
+		}
+		// test
+		for (int i = 0; i < 20; i++) {
+			startMeasuring();
+			shorten(javaVersion, cmdLine, classpathOnlyJar);
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private void shorten(String javaVersion, String[] cmdLine, boolean classpathOnlyJar) {
+		Shortener shortener = new Shortener(javaVersion, cmdLine, fWorkingDir, fCache, classpathOnlyJar);
+		assertTrue("Command line not shortened", shortener.shortenCommandLineIfNecessary());
+		// as on process termination
+		shortener.getProcessTempFiles().forEach(File::delete);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2015 IBM Corporation and others.
+ *  Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -13,15 +13,26 @@
  *******************************************************************************/
 package org.eclipse.jdt.debug.tests.performance;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.debug.core.ILaunchManager;
 import org.eclipse.debug.internal.ui.DebugUIPlugin;
 import org.eclipse.debug.ui.actions.ContextualLaunchAction;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.debug.testplugin.JavaProjectHelper;
 import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.jdt.internal.launching.JavaLaunchableTester;
+import org.eclipse.jdt.internal.launching.LaunchableTypeCache;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.swt.widgets.Menu;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.test.performance.Dimension;
 
 /**
  * Tests the performance of the contextual launch menu population
@@ -81,6 +92,61 @@ public class PerfContextualLaunchMenu extends AbstractDebugPerformanceTest {
         assertPerformance();
     }
 
+    /**
+     * Tests the performance of the launchable property tests of all types of
+     * the 1.4 project, answered from the cache of facts about types
+     * @throws Exception
+     */
+    public void testLaunchableTesterCached() throws Exception {
+    	tagAsSummary("Launchable property tests of types, cached", Dimension.ELAPSED_PROCESS);
+    	runLaunchableTester(false);
+    }
+
+    /**
+     * Tests the performance of the launchable property tests of all types of
+     * the 1.4 project, computing the facts about types each time
+     * @throws Exception
+     */
+    public void testLaunchableTesterUncached() throws Exception {
+    	runLaunchableTester(true);
+    }
+
+    private void runLaunchableTester(boolean clear) throws Exception {
+    	List<IType> types = new ArrayList<>();
+    	IPackageFragmentRoot root = get14Project().getPackageFragmentRoot(get14Project().getProject().getFolder(JavaProjectHelper.SRC_DIR));
+    	for (IJavaElement element : root.getChildren()) {
+    		for (ICompilationUnit cu : ((IPackageFragment) element).getCompilationUnits()) {
+    			for (IType type : cu.getAllTypes()) {
+    				types.add(type);
+    			}
+    		}
+    	}
+    	assertFalse("No types", types.isEmpty());
+    	JavaLaunchableTester tester = new JavaLaunchableTester();
+    	// warm up
+    	testTypes(tester, types, clear);
+    	// test
+    	for (int i = 0; i < 10; i++) {
+    		startMeasuring();
+    		testTypes(tester, types, clear);
+    		stopMeasuring();
+    	}
+    	commitMeasurements();
+    	assertPerformance();
+    }
+
+    private void testTypes(JavaLaunchableTester tester, List<IType> types, boolean clear) {
+    	if (clear) {
+    		LaunchableTypeCache.getDefault().clear();
+    	}
+    	// as the properties tested by the Java application and JUnit launch shortcuts
+    	for (IType type : types) {
+    		tester.test(type, "hasMain", new Object[0], null);
+    		tester.test(type, "extendsClass", new Object[] {"junit.framework.TestCase"}, null);
+    		tester.test(type, "extendsInterface", new Object[] {"junit.framework.Test"}, null);
+    	}
+    }
+
     private class BogusAction extends Action {
     }
 
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.jdt.internal.debug.ui.monitors.DeadlockDetector;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * Tests the time to find deadlocks and wait chains in wait-for graphs of
+ * 10,000 threads with the {@link DeadlockDetector}.
+ */
+public class PerfDeadlockDetectorTests extends AbstractDebugPerformanceTest {
+
+	private static final int THREAD_COUNT = 10000;
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public PerfDeadlockDetectorTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Tests a graph where every thread waits for the next one, except the last
+	 * one, making a single wait chain through all threads
+	 * @throws Exception
+	 */
+	public void testOneLongChain() throws Exception {
+		tagAsSummary("Deadlock detection, one chain of 10000 threads", Dimension.ELAPSED_PROCESS);
+		int[] waitsFor = new int[THREAD_COUNT];
+		// the last thread does not wait, the first thread waits for all others
+		for (int i = 0; i < THREAD_COUNT; i++) {
+			waitsFor[i] = i + 1 < THREAD_COUNT ? i + 1 : -1;
+		}
+		DeadlockDetector detector = measure(waitsFor);
+		assertFalse("Unexpected deadlock", detector.isInDeadlock(0));
+		assertEquals("Wrong wait chain length", THREAD_COUNT - 1, detector.getWaitChainLength(0));
+		assertEquals("Wrong longest wait chain", THREAD_COUNT - 1, detector.getMaxWaitChainLength());
+	}
+
+	/**
+	 * Tests a graph where the threads make one large cycle, waited for by
+	 * chains of other threads
+	 * @throws Exception
+	 */
+	public void testCycleWithChains() throws Exception {
+		tagAsSummary("Deadlock detection, cycle of 1000 threads and chains", Dimension.ELAPSED_PROCESS);
+		int cycleLength = 1000;
+		int[] waitsFor = new int[THREAD_COUNT];
+		for (int i = 0; i < cycleLength; i++) {
+			waitsFor[i] = (i + 1) % cycleLength;
+		}
+		// the other threads wait for the previous one, which waits for the cycle
+		for (int i = cycleLength; i < THREAD_COUNT; i++) {
+			waitsFor[i] = i - 1;
+		}
+		DeadlockDetector detector = measure(waitsFor);
+		assertTrue("Expected a cycle", detector.isInCycle(0));
+		assertTrue("Expected a deadlock", detector.isInDeadlock(THREAD_COUNT - 1));
+		assertFalse("Unexpected cycle", detector.isInCycle(THREAD_COUNT - 1));
+	}
+
+	/**
+	 * Tests a graph of many small cycles and short chains, with threads that
+	 * do not wait in between
+	 * @throws Exception
+	 */
+	public void testManySmallGraphs() throws Exception {
+		tagAsSummary("Deadlock detection, many small cycles and chains", Dimension.ELAPSED_PROCESS);
+		int[] waitsFor = new int[THREAD_COUNT];
+		for (int i = 0; i < THREAD_COUNT; i += 10) {
+			// a cycle of two threads, a chain of three threads into it
+			waitsFor[i] = i + 1;
+			waitsFor[i + 1] = i;
+			waitsFor[i + 2] = i + 1;
+			waitsFor[i + 3] = i + 2;
+			waitsFor[i + 4] = i + 3;
+			// a chain of four threads, then a thread that does not wait
+			waitsFor[i + 5] = i + 6;
+			waitsFor[i + 6] = i + 7;
+			waitsFor[i + 7] = i + 8;
+			waitsFor[i + 8] = i + 9;
+			waitsFor[i + 9] = -1;
+		}
+		DeadlockDetector detector = measure(waitsFor);
+		assertTrue("Expected a deadlock", detector.isInDeadlock(4));
+		assertFalse("Unexpected deadlock", detector.isInDeadlock(5));
+		assertEquals("Wrong wait chain length", 4, detector.getWaitChainLength(5));
+	}
+
+	private DeadlockDetector measure(int[] waitsFor) {
+		DeadlockDetector detector = null;
+		// warm up
+		for (int i = 0; i < 100; i++) {
+			detector = new DeadlockDetector(waitsFor);
+		}
+		// test
+		for (int i = 0; i < 100; i++) {
+			startMeasuring();
+			for (int j = 0; j < 10; j++) {
+				detector = new DeadlockDetector(waitsFor);
+			}
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+		return detector;
+	}
+}
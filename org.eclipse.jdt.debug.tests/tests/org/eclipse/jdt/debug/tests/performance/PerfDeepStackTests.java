@@ -0,0 +1,94 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import org.eclipse.debug.core.model.IStackFrame;
+import org.eclipse.debug.core.model.IVariable;
+import org.eclipse.jdt.debug.core.IJavaStackFrame;
+import org.eclipse.jdt.debug.core.IJavaThread;
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * Tests the latency of stepping with a deep stack, retrieving what the debug
+ * view and the variables view show after each step: the label information of
+ * all frames and the variables of the top frame.
+ */
+public class PerfDeepStackTests extends AbstractDebugPerformanceTest {
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public PerfDeepStackTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Tests stepping over at the bottom of a stack of about 300 frames
+	 * @throws Exception
+	 */
+	public void testStepOverDeepStack() throws Exception {
+		tagAsSummary("Step over with a 300 frame stack", Dimension.ELAPSED_PROCESS);
+		String typeName = "PerfDeepStack";
+		createLineBreakpoint(30, typeName);
+
+		IJavaThread thread = null;
+		try {
+			thread = launchToBreakpoint(typeName, false);
+			// step in the loop without hitting the breakpoint again
+			removeAllBreakpoints();
+			assertTrue("The stack is not deep", thread.getStackFrames().length > 300); //$NON-NLS-1$
+
+			// warm up
+			for (int i = 0; i < 20; i++) {
+				thread = step(thread);
+			}
+
+			// test
+			for (int n = 0; n < 20; n++) {
+				startMeasuring();
+				for (int i = 0; i < 10; i++) {
+					thread = step(thread);
+				}
+				stopMeasuring();
+			}
+			commitMeasurements();
+			assertPerformance();
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
+	/**
+	 * Steps over in the top frame and retrieves what the views show after the
+	 * step.
+	 */
+	private IJavaThread step(IJavaThread thread) throws Exception {
+		IJavaStackFrame top = (IJavaStackFrame) thread.getTopStackFrame();
+		thread = stepOver(top);
+		for (IStackFrame frame : thread.getStackFrames()) {
+			IJavaStackFrame javaFrame = (IJavaStackFrame) frame;
+			javaFrame.getDeclaringTypeName();
+			javaFrame.getMethodName();
+			javaFrame.getLineNumber();
+		}
+		top = (IJavaStackFrame) thread.getTopStackFrame();
+		for (IVariable variable : top.getVariables()) {
+			variable.getValue().getValueString();
+		}
+		return thread;
+	}
+}
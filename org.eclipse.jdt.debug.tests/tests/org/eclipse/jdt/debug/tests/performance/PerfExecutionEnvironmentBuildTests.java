@@ -0,0 +1,128 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IClasspathContainer;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.debug.testplugin.JavaProjectHelper;
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.jdt.launching.JavaRuntime;
+import org.eclipse.jdt.launching.environments.IExecutionEnvironment;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * Tests the performance of building a workspace of 200 projects bound to
+ * different execution environments, where the JRE containers and their access
+ * rules are resolved again for each build.
+ */
+public class PerfExecutionEnvironmentBuildTests extends AbstractDebugPerformanceTest {
+
+	private static final int PROJECT_COUNT = 200;
+
+	/**
+	 * Projects by JRE container path
+	 */
+	private Map<IPath, List<IJavaProject>> fProjects;
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public PerfExecutionEnvironmentBuildTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		List<IExecutionEnvironment> environments = new ArrayList<>();
+		for (IExecutionEnvironment environment : JavaRuntime.getExecutionEnvironmentsManager().getExecutionEnvironments()) {
+			if (environment.getCompatibleVMs().length > 0) {
+				environments.add(environment);
+			}
+		}
+		assertFalse("No execution environment with a compatible VM", environments.isEmpty());
+		fProjects = new LinkedHashMap<>();
+		ResourcesPlugin.getWorkspace().run(monitor -> {
+			for (int i = 0; i < PROJECT_COUNT; i++) {
+				IPath container = JavaRuntime.newJREContainerPath(environments.get(i % environments.size()));
+				IJavaProject project = JavaProjectHelper.createJavaProject("EEBuild" + i, JavaProjectHelper.BIN_DIR);
+				JavaProjectHelper.addSourceContainer(project, JavaProjectHelper.SRC_DIR);
+				JavaProjectHelper.addContainerEntry(project, container);
+				IFile file = project.getProject().getFolder(JavaProjectHelper.SRC_DIR).getFile("Type" + i + ".java");
+				String source = "public class Type" + i + " { Object value = new Object(); }";
+				file.create(new ByteArrayInputStream(source.getBytes()), true, null);
+				fProjects.computeIfAbsent(container, path -> new ArrayList<>()).add(project);
+			}
+		}, null);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		ResourcesPlugin.getWorkspace().run(monitor -> {
+			for (List<IJavaProject> projects : fProjects.values()) {
+				for (IJavaProject project : projects) {
+					JavaProjectHelper.delete(project);
+				}
+			}
+		}, null);
+		super.tearDown();
+	}
+
+	/**
+	 * Tests a clean build of 200 projects after their JRE containers are
+	 * rebound
+	 * @throws Exception
+	 */
+	public void testBuildProjects() throws Exception {
+		tagAsSummary("Build 200 projects bound to execution environments", Dimension.ELAPSED_PROCESS);
+		// warm up
+		for (int i = 0; i < 2; i++) {
+			build();
+		}
+		// test
+		for (int i = 0; i < 10; i++) {
+			startMeasuring();
+			build();
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private void build() throws CoreException {
+		// as when the default VM of an execution environment changes
+		for (Entry<IPath, List<IJavaProject>> entry : fProjects.entrySet()) {
+			List<IJavaProject> projects = entry.getValue();
+			JavaCore.setClasspathContainer(entry.getKey(), projects.toArray(new IJavaProject[projects.size()]), new IClasspathContainer[projects.size()], null);
+		}
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		workspace.build(IncrementalProjectBuilder.CLEAN_BUILD, null);
+		workspace.build(IncrementalProjectBuilder.FULL_BUILD, null);
+	}
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import java.lang.reflect.Proxy;
+
+import org.eclipse.jdt.debug.core.IJavaDebugTarget;
+import org.eclipse.jdt.debug.core.IJavaPrimitiveValue;
+import org.eclipse.jdt.debug.core.IJavaValue;
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.jdt.internal.debug.eval.ast.engine.IRuntimeContext;
+import org.eclipse.jdt.internal.debug.eval.ast.engine.Interpreter;
+import org.eclipse.jdt.internal.debug.eval.ast.instructions.Instruction;
+import org.eclipse.jdt.internal.debug.eval.ast.instructions.InstructionSequence;
+import org.eclipse.jdt.internal.debug.eval.ast.instructions.PlusOperator;
+import org.eclipse.jdt.internal.debug.eval.ast.instructions.PushInt;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * Tests the speed of the AST evaluation interpreter itself, running a compiled
+ * expression against a runtime context that creates values without a VM.
+ */
+public class PerfInterpreterTests extends AbstractDebugPerformanceTest {
+
+	private static final int ADDITIONS = 100;
+	private static final int EVALUATIONS_PER_RUN = 20000;
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public PerfInterpreterTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Tests repeated evaluations of <code>1 + 1 + ... + 1</code>
+	 * @throws Exception
+	 */
+	public void testInterpreterThroughput() throws Exception {
+		tagAsSummary("AST interpreter throughput", Dimension.ELAPSED_PROCESS);
+		InstructionSequence expression = new InstructionSequence("1 + ... + 1"); //$NON-NLS-1$
+		expression.add(new PushInt(1));
+		for (int i = 0; i < ADDITIONS; i++) {
+			expression.add(new PushInt(1));
+			expression.add(new PlusOperator(Instruction.T_int, Instruction.T_int, Instruction.T_int, 0));
+		}
+		IRuntimeContext context = createContext();
+		// warm up
+		for (int i = 0; i < 3; i++) {
+			run(expression, context);
+		}
+		// test
+		for (int i = 0; i < 10; i++) {
+			startMeasuring();
+			run(expression, context);
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Evaluates the expression {@link #EVALUATIONS_PER_RUN} times, checking the
+	 * result of each evaluation.
+	 */
+	private void run(InstructionSequence expression, IRuntimeContext context) throws Exception {
+		for (int i = 0; i < EVALUATIONS_PER_RUN; i++) {
+			Interpreter interpreter = expression.getInterpreter(context);
+			interpreter.execute();
+			IJavaValue result = interpreter.getResult();
+			expression.releaseInterpreter(interpreter);
+			assertEquals(ADDITIONS + 1, ((IJavaPrimitiveValue) result).getIntValue());
+		}
+	}
+
+	/**
+	 * @return a runtime context whose VM only creates <code>int</code> values
+	 */
+	private static IRuntimeContext createContext() {
+		final IJavaDebugTarget target = (IJavaDebugTarget) Proxy.newProxyInstance(PerfInterpreterTests.class.getClassLoader(), new Class<?>[] {
+				IJavaDebugTarget.class }, (proxy, method, args) -> {
+					if ("newValue".equals(method.getName()) && method.getParameterTypes()[0] == int.class) { //$NON-NLS-1$
+						return newIntValue(((Integer) args[0]).intValue());
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+		return (IRuntimeContext) Proxy.newProxyInstance(PerfInterpreterTests.class.getClassLoader(), new Class<?>[] {
+				IRuntimeContext.class }, (proxy, method, args) -> {
+					if ("getVM".equals(method.getName())) { //$NON-NLS-1$
+						return target;
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	/**
+	 * @return a primitive value answering only its <code>int</code> value
+	 */
+	static IJavaPrimitiveValue newIntValue(final int value) {
+		return (IJavaPrimitiveValue) Proxy.newProxyInstance(PerfInterpreterTests.class.getClassLoader(), new Class<?>[] {
+				IJavaPrimitiveValue.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+						case "getIntValue": //$NON-NLS-1$
+							return Integer.valueOf(value);
+						case "isNull": //$NON-NLS-1$
+							return Boolean.FALSE;
+						default:
+							throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+}
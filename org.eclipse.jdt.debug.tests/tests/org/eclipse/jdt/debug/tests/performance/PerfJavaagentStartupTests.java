@@ -0,0 +1,236 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.jdt.internal.launching.StandardVMType;
+import org.eclipse.jdt.internal.launching.sourcelookup.advanced.AdvancedSourceLookupSupport;
+import org.eclipse.jdt.launching.IVMInstall;
+import org.eclipse.jdt.launching.JavaRuntime;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * Tests the startup time of an application loading 20000 classes with and
+ * without the advanced source lookup javaagent.
+ */
+public class PerfJavaagentStartupTests extends AbstractDebugPerformanceTest {
+
+	private static final int CLASS_COUNT = 20000;
+
+	private File fRoot;
+	private File fJar;
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public PerfJavaagentStartupTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fRoot = Files.createTempDirectory("perfJavaagent").toFile();
+		fJar = createSyntheticJar(new File(fRoot, "synthetic.jar"));
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		try (Stream<java.nio.file.Path> paths = Files.walk(fRoot.toPath())) {
+			paths.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+		}
+		super.tearDown();
+	}
+
+	/**
+	 * Tests the startup time without the javaagent, as a baseline
+	 * @throws Exception
+	 */
+	public void testStartupWithoutJavaagent() throws Exception {
+		measureStartup("Startup without javaagent", null);
+	}
+
+	/**
+	 * Tests the startup time with the javaagent instrumenting all classes
+	 * @throws Exception
+	 */
+	public void testStartupWithJavaagent() throws Exception {
+		measureStartup("Startup with javaagent", "");
+	}
+
+	/**
+	 * Tests the startup time with the javaagent excluding the synthetic jar
+	 * from instrumentation
+	 * @throws Exception
+	 */
+	public void testStartupWithJavaagentExcludes() throws Exception {
+		measureStartup("Startup with javaagent excluding jar", "exclude=*/synthetic.jar");
+	}
+
+	/**
+	 * Tests the startup time with the javaagent reusing instrumented classes
+	 * cached on disk by previous runs
+	 * @throws Exception
+	 */
+	public void testStartupWithJavaagentCache() throws Exception {
+		measureStartup("Startup with javaagent cache", "cache=" + new File(fRoot, "cache").getAbsolutePath());
+	}
+
+	/**
+	 * Runs the application a few times to warm up, then measures its runs.
+	 *
+	 * @param summary the summary to tag the test with
+	 * @param agentOptions the javaagent options or <code>null</code> to run
+	 *            without the javaagent
+	 */
+	private void measureStartup(String summary, String agentOptions) throws Exception {
+		tagAsSummary(summary, Dimension.ELAPSED_PROCESS);
+		if (agentOptions != null) {
+			assertJavaagentEnabled(agentOptions);
+		}
+		List<String> command = createCommand(agentOptions);
+		// warm up, also fills the cache
+		for (int i = 0; i < 2; i++) {
+			run(command);
+		}
+		// test
+		for (int i = 0; i < 10; i++) {
+			startMeasuring();
+			run(command);
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Makes sure the javaagent understands the given options and instruments
+	 * classes in the VM used for the test, so that the test does not silently
+	 * measure another mode.
+	 */
+	private void assertJavaagentEnabled(String agentOptions) throws Exception {
+		List<String> command = createCommand(agentOptions.isEmpty() ? "debuglog" : agentOptions + ",debuglog");
+		String output = execute(command);
+		assertTrue("Javaagent not enabled: " + output, output.contains("Advanced source lookup enabled."));
+		assertFalse("Javaagent option not supported: " + output, output.contains("Unknown advanced source lookup option"));
+	}
+
+	private List<String> createCommand(String agentOptions) {
+		IVMInstall vm = JavaRuntime.getDefaultVMInstall();
+		File java = StandardVMType.findJavaExecutable(vm.getInstallLocation());
+		assertNotNull("Missing java executable", java);
+		File bin = ResourcesPlugin.getWorkspace().getRoot().getFolder(get14Project().getOutputLocation()).getLocation().toFile();
+		List<String> command = new ArrayList<>();
+		command.add(java.getAbsolutePath());
+		if (agentOptions != null) {
+			String agent = "-javaagent:" + AdvancedSourceLookupSupport.getJavaagentLocation();
+			command.add(agentOptions.isEmpty() ? agent : agent + "=" + agentOptions);
+		}
+		command.add("-cp");
+		command.add(bin.getAbsolutePath() + File.pathSeparator + fJar.getAbsolutePath());
+		command.add("LoadAllClasses");
+		command.add(fJar.getAbsolutePath());
+		return command;
+	}
+
+	private static void run(List<String> command) throws Exception {
+		assertEquals(Integer.toString(CLASS_COUNT), execute(command).trim());
+	}
+
+	/**
+	 * Runs the given command and returns its standard and error output.
+	 */
+	private static String execute(List<String> command) throws Exception {
+		Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (InputStream in = process.getInputStream()) {
+			byte[] buf = new byte[4096];
+			for (int n; (n = in.read(buf)) > 0;) {
+				output.write(buf, 0, n);
+			}
+		}
+		String text = new String(output.toByteArray(), StandardCharsets.UTF_8);
+		assertEquals("Unexpected exit code: " + text, 0, process.waitFor());
+		return text;
+	}
+
+	/**
+	 * Creates a jar with {@link #CLASS_COUNT} empty classes
+	 */
+	private static File createSyntheticJar(File file) throws IOException {
+		try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(file))) {
+			for (int i = 0; i < CLASS_COUNT; i++) {
+				String name = "synthetic/p" + (i / 1000) + "/C" + i;
+				jar.putNextEntry(new ZipEntry(name + ".class"));
+				jar.write(createClass(name));
+				jar.closeEntry();
+			}
+		}
+		return file;
+	}
+
+	/**
+	 * Returns the bytes of a public class of the given name with a
+	 * <code>SourceFile</code> attribute and no members
+	 */
+	private static byte[] createClass(String name) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0xCAFEBABE);
+		out.writeShort(0); // minor version
+		out.writeShort(49); // major version, Java 5
+		out.writeShort(7); // constant pool count
+		out.writeByte(7); // #1 Class #2
+		out.writeShort(2);
+		out.writeByte(1); // #2 Utf8
+		out.writeUTF(name);
+		out.writeByte(7); // #3 Class #4
+		out.writeShort(4);
+		out.writeByte(1); // #4 Utf8
+		out.writeUTF("java/lang/Object");
+		out.writeByte(1); // #5 Utf8
+		out.writeUTF("SourceFile");
+		out.writeByte(1); // #6 Utf8
+		out.writeUTF(name.substring(name.lastIndexOf('/') + 1) + ".java");
+		out.writeShort(0x0021); // ACC_PUBLIC | ACC_SUPER
+		out.writeShort(1); // this class
+		out.writeShort(3); // super class
+		out.writeShort(0); // interfaces
+		out.writeShort(0); // fields
+		out.writeShort(0); // methods
+		out.writeShort(1); // attributes
+		out.writeShort(5); // SourceFile
+		out.writeInt(2);
+		out.writeShort(6);
+		out.flush();
+		return bytes.toByteArray();
+	}
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.jdt.internal.launching.LaunchingPlugin;
+import org.eclipse.jdt.internal.launching.LibraryInfo;
+import org.eclipse.jdt.internal.launching.StandardVMType;
+import org.eclipse.jdt.launching.JavaRuntime;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * Tests the performance of detecting the libraries of the JREs known to the
+ * workspace at startup.
+ */
+public class PerfLibraryInfoTests extends AbstractDebugPerformanceTest {
+
+	private static final int JRE_COUNT = 20;
+
+	private File fRoot;
+	private List<File> fHomes;
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public PerfLibraryInfoTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fRoot = Files.createTempDirectory("perfLibraryInfo").toFile();
+		fHomes = new ArrayList<>();
+		for (int i = 0; i < JRE_COUNT; i++) {
+			fHomes.add(createFakeJRE(new File(fRoot, "jre" + i)));
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (File home : fHomes) {
+			LaunchingPlugin.setLibraryInfo(home.getAbsolutePath(), null);
+		}
+		try (Stream<java.nio.file.Path> paths = Files.walk(fRoot.toPath())) {
+			paths.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+		}
+		super.tearDown();
+	}
+
+	/**
+	 * Tests detecting the libraries of 20 JREs that have no recorded library
+	 * information, as on the first startup of a workspace
+	 * @throws Exception
+	 */
+	public void testDetectLibraryInfos() throws Exception {
+		tagAsSummary("Detect library info of 20 JREs", Dimension.ELAPSED_PROCESS);
+		StandardVMType type = getStandardVMType();
+		// warm up
+		for (int i = 0; i < 3; i++) {
+			forget();
+			type.prepareLibraryInfos(fHomes);
+		}
+		// test
+		for (int i = 0; i < 20; i++) {
+			forget();
+			startMeasuring();
+			type.prepareLibraryInfos(fHomes);
+			stopMeasuring();
+			assertDetected();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Tests checking the recorded library information of 20 unchanged JREs, as
+	 * on each later startup of a workspace
+	 * @throws Exception
+	 */
+	public void testRestoreLibraryInfos() throws Exception {
+		tagAsSummary("Restore library info of 20 JREs", Dimension.ELAPSED_PROCESS);
+		StandardVMType type = getStandardVMType();
+		type.prepareLibraryInfos(fHomes);
+		// warm up
+		for (int i = 0; i < 3; i++) {
+			type.prepareLibraryInfos(fHomes);
+		}
+		// test
+		for (int i = 0; i < 20; i++) {
+			startMeasuring();
+			for (int j = 0; j < 100; j++) {
+				assertEquals(Collections.emptySet(), type.prepareLibraryInfos(fHomes));
+			}
+			stopMeasuring();
+		}
+		assertDetected();
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private static StandardVMType getStandardVMType() {
+		return (StandardVMType) JavaRuntime.getVMInstallType(StandardVMType.ID_STANDARD_VM_TYPE);
+	}
+
+	/**
+	 * Forgets the library information of the fake JREs
+	 */
+	private void forget() {
+		for (File home : fHomes) {
+			LaunchingPlugin.setLibraryInfo(home.getAbsolutePath(), null);
+		}
+	}
+
+	/**
+	 * Asserts the library information of each fake JRE has been recorded
+	 */
+	private void assertDetected() {
+		for (File home : fHomes) {
+			LibraryInfo info = LaunchingPlugin.getLibraryInfo(home.getAbsolutePath());
+			assertNotNull("Missing library info for " + home, info);
+			assertEquals("11", info.getVersion());
+		}
+	}
+
+	/**
+	 * Creates a JRE home with a Java executable and a <code>release</code> file
+	 * naming its version, so that its libraries are detected without running it
+	 */
+	private static File createFakeJRE(File home) throws IOException {
+		File bin = new File(home, "bin");
+		assertTrue(bin.mkdirs());
+		assertTrue(new File(bin, "java").createNewFile());
+		assertTrue(new File(bin, "java.exe").createNewFile());
+		Files.write(new File(home, "release").toPath(), "JAVA_VERSION=\"11\"\n".getBytes(StandardCharsets.UTF_8));
+		return home;
+	}
+}
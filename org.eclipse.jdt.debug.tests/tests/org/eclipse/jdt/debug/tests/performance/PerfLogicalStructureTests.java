@@ -0,0 +1,116 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILogicalStructureType;
+import org.eclipse.debug.core.model.IValue;
+import org.eclipse.debug.core.model.IVariable;
+import org.eclipse.jdt.debug.core.IJavaArray;
+import org.eclipse.jdt.debug.core.IJavaBreakpoint;
+import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
+import org.eclipse.jdt.debug.core.IJavaStackFrame;
+import org.eclipse.jdt.debug.core.IJavaThread;
+import org.eclipse.jdt.debug.core.IJavaVariable;
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * Tests the latency of expanding the logical structures of 200 hash maps and
+ * of their entries, as the variables view does, after each step.
+ */
+public class PerfLogicalStructureTests extends AbstractDebugPerformanceTest {
+
+	private static final int MAP_COUNT = 200;
+
+	private static final int ENTRY_COUNT = 20;
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public PerfLogicalStructureTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Tests expanding the logical structures of 200 hash maps of 20 entries,
+	 * twice per step as the variables view refreshes
+	 * @throws Exception
+	 */
+	public void testExpandHashMaps() throws Exception {
+		tagAsSummary("Expand logical structures of 200 hash maps", Dimension.ELAPSED_PROCESS);
+		String typeName = "PerfHashMaps";
+		IJavaLineBreakpoint bp = createLineBreakpoint(32, typeName);
+		// structures are only kept while all the threads are suspended
+		bp.setSuspendPolicy(IJavaBreakpoint.SUSPEND_VM);
+
+		IJavaThread thread = null;
+		try {
+			thread = launchToBreakpoint(typeName, false);
+			// step in the loop without hitting the breakpoint again
+			removeAllBreakpoints();
+
+			// warm up
+			for (int i = 0; i < 5; i++) {
+				thread = stepOver((IJavaStackFrame) thread.getTopStackFrame());
+				expandMaps(thread);
+				expandMaps(thread);
+			}
+
+			// test
+			for (int i = 0; i < 10; i++) {
+				thread = stepOver((IJavaStackFrame) thread.getTopStackFrame());
+				startMeasuring();
+				expandMaps(thread);
+				expandMaps(thread);
+				stopMeasuring();
+			}
+			commitMeasurements();
+			assertPerformance();
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
+	/**
+	 * Computes the logical structures of the maps visible in the top frame
+	 * and of their entries, and retrieves the values of the entries.
+	 */
+	private void expandMaps(IJavaThread thread) throws Exception {
+		IJavaStackFrame frame = (IJavaStackFrame) thread.getTopStackFrame();
+		IJavaVariable maps = frame.findVariable("maps");
+		assertNotNull("Missing variable 'maps'", maps);
+		IJavaArray array = (IJavaArray) maps.getValue();
+		assertEquals("Wrong number of maps", MAP_COUNT, array.getLength());
+		for (IValue map : array.getValues()) {
+			IValue entries = getLogicalStructure(map);
+			IVariable[] variables = entries.getVariables();
+			assertEquals("Wrong number of entries", ENTRY_COUNT, variables.length);
+			for (IVariable variable : variables) {
+				IValue entry = getLogicalStructure(variable.getValue());
+				for (IVariable keyOrValue : entry.getVariables()) {
+					keyOrValue.getValue().getValueString();
+				}
+			}
+		}
+	}
+
+	private IValue getLogicalStructure(IValue value) throws Exception {
+		ILogicalStructureType[] types = DebugPlugin.getLogicalStructureTypes(value);
+		assertEquals("Should be one logical structure type", 1, types.length);
+		return types[0].getLogicalStructure(value);
+	}
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.jdt.debug.core.IJavaMethodBreakpoint;
+import org.eclipse.jdt.debug.core.IJavaThread;
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * Tests the throughput of a program with one method entry and exit breakpoint
+ * installed, for each way method exit breakpoints are installed: method exit
+ * requests or breakpoints at the exit instructions of the method.
+ */
+public class PerfMethodBreakpointTests extends AbstractDebugPerformanceTest {
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public PerfMethodBreakpointTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Tests the throughput with a method breakpoint installed with method exit
+	 * requests
+	 * @throws Exception
+	 */
+	public void testMethodExitRequests() throws Exception {
+		runRounds(false);
+	}
+
+	/**
+	 * Tests the throughput with a method breakpoint installed with
+	 * breakpoints at the exit instructions of the method
+	 * @throws Exception
+	 */
+	public void testMethodExitBreakpointLocations() throws Exception {
+		tagAsSummary("Throughput with a method exit breakpoint at exit locations", Dimension.ELAPSED_PROCESS);
+		runRounds(true);
+	}
+
+	/**
+	 * Measures rounds of many method calls, each ending with a call to the
+	 * method of the breakpoint
+	 */
+	private void runRounds(boolean exitLocations) throws Exception {
+		IEclipsePreferences node = InstanceScope.INSTANCE.getNode(JDIDebugPlugin.getUniqueIdentifier());
+		node.putBoolean(JDIDebugPlugin.PREF_METHOD_EXIT_BREAKPOINT_LOCATIONS, exitLocations);
+		String typeName = "PerfMethodBreakpoint";
+		IJavaMethodBreakpoint bp = createMethodBreakpoint(typeName, "mark", "(I)I", true, true);
+		IJavaThread thread = null;
+		try {
+			thread = launchToBreakpoint(typeName, false);
+			assertTrue("Should suspend on entry", bp.isEntrySuspend(thread.getDebugTarget()));
+			thread = resume(thread);
+			assertFalse("Should suspend on exit", bp.isEntrySuspend(thread.getDebugTarget()));
+
+			// warm up
+			for (int i = 0; i < 2; i++) {
+				thread = resume(thread);
+				thread = resume(thread);
+			}
+
+			// test
+			for (int i = 0; i < 10; i++) {
+				startMeasuring();
+				// runs a round up to the method entry
+				thread = resume(thread);
+				stopMeasuring();
+				thread = resume(thread);
+			}
+			commitMeasurements();
+			assertPerformance();
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+			node.remove(JDIDebugPlugin.PREF_METHOD_EXIT_BREAKPOINT_LOCATIONS);
+		}
+	}
+}
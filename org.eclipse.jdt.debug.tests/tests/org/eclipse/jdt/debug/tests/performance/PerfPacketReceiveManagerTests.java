@@ -0,0 +1,136 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.jdi.internal.connect.PacketReceiveManager;
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * Tests the latency of correlating JDWP replies with their requests in the
+ * {@link PacketReceiveManager} for different numbers of in-flight requests.
+ */
+public class PerfPacketReceiveManagerTests extends AbstractDebugPerformanceTest {
+
+	private static final int REQUESTS_PER_RUN = 20000;
+
+	private LoopbackConnection fConnection;
+	private PacketReceiveManager fReceiveManager;
+	private AtomicInteger fIds;
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public PerfPacketReceiveManagerTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fConnection = new LoopbackConnection();
+		fReceiveManager = new PacketReceiveManager(fConnection, null);
+		fIds = new AtomicInteger();
+		Thread receiveThread = new Thread(fReceiveManager, "Loopback Packet Receiver"); //$NON-NLS-1$
+		receiveThread.setDaemon(true);
+		receiveThread.start();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fReceiveManager.disconnectVM();
+		super.tearDown();
+	}
+
+	/**
+	 * Tests reply latency with a single request in flight
+	 * @throws Exception
+	 */
+	public void testOneRequestInFlight() throws Exception {
+		tagAsSummary("Reply correlation, 1 request in flight", Dimension.ELAPSED_PROCESS);
+		measure(1);
+	}
+
+	/**
+	 * Tests reply latency with 16 requests in flight
+	 * @throws Exception
+	 */
+	public void testSixteenRequestsInFlight() throws Exception {
+		tagAsSummary("Reply correlation, 16 requests in flight", Dimension.ELAPSED_PROCESS);
+		measure(16);
+	}
+
+	/**
+	 * Tests reply latency with 256 requests in flight
+	 * @throws Exception
+	 */
+	public void testManyRequestsInFlight() throws Exception {
+		tagAsSummary("Reply correlation, 256 requests in flight", Dimension.ELAPSED_PROCESS);
+		measure(256);
+	}
+
+	private void measure(int inFlight) throws Exception {
+		// warm up
+		for (int i = 0; i < 5; i++) {
+			run(inFlight);
+		}
+		// test
+		for (int i = 0; i < 20; i++) {
+			startMeasuring();
+			run(inFlight);
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Issues {@link #REQUESTS_PER_RUN} requests from the given number of
+	 * threads, each waiting for its reply before sending the next request.
+	 */
+	private void run(int inFlight) throws Exception {
+		final int perThread = REQUESTS_PER_RUN / inFlight;
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(inFlight);
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		for (int i = 0; i < inFlight; i++) {
+			Thread requester = new Thread(() -> {
+				try {
+					start.await();
+					for (int j = 0; j < perThread; j++) {
+						int id = fIds.incrementAndGet();
+						fReceiveManager.expectReply(id);
+						fConnection.writePacket(LoopbackConnection.replyTo(id));
+						assertNotNull(fReceiveManager.getReply(id, 30000));
+					}
+				} catch (Throwable t) {
+					failure.compareAndSet(null, t);
+				} finally {
+					done.countDown();
+				}
+			});
+			requester.start();
+		}
+		start.countDown();
+		done.await();
+		if (failure.get() != null) {
+			throw new Exception(failure.get());
+		}
+	}
+}
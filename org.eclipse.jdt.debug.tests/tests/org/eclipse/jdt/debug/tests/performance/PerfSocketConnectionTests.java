@@ -0,0 +1,197 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.jdi.internal.connect.PacketReceiveManager;
+import org.eclipse.jdi.internal.connect.PacketSendManager;
+import org.eclipse.jdi.internal.connect.SocketChannelConnection;
+import org.eclipse.jdi.internal.connect.SocketTransportService;
+import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
+import org.eclipse.jdi.internal.jdwp.JdwpReplyPacket;
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.jdt.debug.tests.TestUtil;
+import org.eclipse.test.performance.Dimension;
+
+import com.sun.jdi.connect.spi.Connection;
+import com.sun.jdi.connect.spi.TransportService.ListenKey;
+
+/**
+ * Tests the throughput of the socket connections to a VM over the loopback
+ * interface, comparing the stream based connection with the
+ * {@link SocketChannelConnection}.
+ */
+public class PerfSocketConnectionTests extends AbstractDebugPerformanceTest {
+
+	private static final int PACKETS_PER_RUN = 50000;
+
+	private Connection fVMConnection;
+	private PacketSendManager fSendManager;
+	private PacketReceiveManager fReceiveManager;
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public PerfSocketConnectionTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fSendManager != null) {
+			fSendManager.disconnectVM();
+			fReceiveManager.disconnectVM();
+		}
+		if (fVMConnection != null) {
+			fVMConnection.close();
+		}
+		super.tearDown();
+	}
+
+	/**
+	 * Tests the throughput of the stream based socket connection
+	 * @throws Exception
+	 */
+	public void testStreamConnectionThroughput() throws Exception {
+		tagAsSummary("Stream socket connection throughput", Dimension.ELAPSED_PROCESS);
+		measure(false);
+	}
+
+	/**
+	 * Tests the throughput of the socket channel connection
+	 * @throws Exception
+	 */
+	public void testChannelConnectionThroughput() throws Exception {
+		tagAsSummary("Socket channel connection throughput", Dimension.ELAPSED_PROCESS);
+		measure(true);
+	}
+
+	private void measure(boolean useSocketChannel) throws Exception {
+		connect(useSocketChannel);
+		// warm up
+		for (int i = 0; i < 3; i++) {
+			run();
+		}
+		// test
+		long packets = 0;
+		long time = 0;
+		long allocated = 0;
+		for (int i = 0; i < 10; i++) {
+			long allocatedBefore = allocatedBytes();
+			long start = System.nanoTime();
+			startMeasuring();
+			run();
+			stopMeasuring();
+			time += System.nanoTime() - start;
+			allocated += allocatedBytes() - allocatedBefore;
+			packets += PACKETS_PER_RUN;
+		}
+		commitMeasurements();
+		TestUtil.log(IStatus.INFO, getName(), (packets * 1000000000L / time) + " packets/s, " //$NON-NLS-1$
+				+ (allocated / packets) + " bytes allocated/packet"); //$NON-NLS-1$
+		assertPerformance();
+	}
+
+	/**
+	 * Connects a send and receive manager to an echoing VM over the loopback
+	 * interface.
+	 */
+	private void connect(boolean useSocketChannel) throws Exception {
+		final SocketTransportService vmService = new SocketTransportService();
+		vmService.setUseSocketChannel(useSocketChannel);
+		final ListenKey key = vmService.startListening("0"); //$NON-NLS-1$
+		final Connection[] vmConnection = new Connection[1];
+		Thread acceptThread = new Thread(() -> {
+			try {
+				vmConnection[0] = vmService.accept(key, 30000, 30000);
+			} catch (Exception e) {
+				// reported below
+			}
+		});
+		acceptThread.start();
+		SocketTransportService service = new SocketTransportService();
+		service.setUseSocketChannel(useSocketChannel);
+		Connection connection = service.attach(key.address(), 30000, 30000);
+		acceptThread.join(30000);
+		vmService.stopListening(key);
+		fVMConnection = vmConnection[0];
+		assertNotNull("The VM side did not connect", fVMConnection); //$NON-NLS-1$
+		assertEquals(useSocketChannel, connection instanceof SocketChannelConnection);
+
+		Thread echoThread = new Thread(() -> {
+			try {
+				while (fVMConnection.isOpen()) {
+					byte[] packet = fVMConnection.readPacket();
+					packet[8] = JdwpReplyPacket.FLAG_REPLY_PACKET;
+					fVMConnection.writePacket(packet);
+				}
+			} catch (Exception e) {
+				// disconnected
+			}
+		});
+		echoThread.setDaemon(true);
+		echoThread.start();
+
+		fReceiveManager = new PacketReceiveManager(connection, null);
+		Thread receiveThread = new Thread(fReceiveManager);
+		receiveThread.setDaemon(true);
+		receiveThread.start();
+		fSendManager = new PacketSendManager(connection);
+		Thread sendThread = new Thread(fSendManager);
+		sendThread.setDaemon(true);
+		sendThread.start();
+	}
+
+	/**
+	 * Sends {@link #PACKETS_PER_RUN} packets without waiting for the replies,
+	 * then waits for all of them.
+	 */
+	private void run() {
+		List<CompletableFuture<JdwpReplyPacket>> replies = new ArrayList<>(PACKETS_PER_RUN);
+		for (int i = 0; i < PACKETS_PER_RUN; i++) {
+			JdwpCommandPacket packet = new JdwpCommandPacket(JdwpCommandPacket.VM_VERSION);
+			replies.add(fReceiveManager.getReplyAsync(packet.getId(), 30000));
+			fSendManager.sendPacket(packet);
+		}
+		for (CompletableFuture<JdwpReplyPacket> reply : replies) {
+			assertNotNull(reply.join());
+		}
+	}
+
+	/**
+	 * @return the number of bytes allocated by all threads, or 0 if the VM
+	 *         cannot tell
+	 */
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+			return 0;
+		}
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		long[] ids = threads.getAllThreadIds();
+		long total = 0;
+		for (long allocated : threads.getThreadAllocatedBytes(ids)) {
+			if (allocated > 0) {
+				total += allocated;
+			}
+		}
+		return total;
+	}
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.jdi.internal.ValueCache;
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.jdt.debug.tests.TestUtil;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * Tests the throughput of the {@link ValueCache} used for mirrors when it is
+ * accessed from several threads at once.
+ */
+public class PerfValueCacheTests extends AbstractDebugPerformanceTest {
+
+	private static final int OPERATIONS_PER_THREAD = 200000;
+	private static final int KEYS = 100000;
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public PerfValueCacheTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Tests lookups from a single thread
+	 * @throws Exception
+	 */
+	public void testSingleThreadedAccess() throws Exception {
+		tagAsSummary("Mirror cache, 1 thread", Dimension.ELAPSED_PROCESS);
+		measure(1);
+	}
+
+	/**
+	 * Tests lookups from eight threads
+	 * @throws Exception
+	 */
+	public void testMultiThreadedAccess() throws Exception {
+		tagAsSummary("Mirror cache, 8 threads", Dimension.ELAPSED_PROCESS);
+		measure(8);
+	}
+
+	private void measure(int threads) throws Exception {
+		ValueCache cache = new ValueCache(KEYS / 2);
+		// warm up
+		for (int i = 0; i < 3; i++) {
+			run(cache, threads);
+		}
+		// test
+		for (int i = 0; i < 10; i++) {
+			startMeasuring();
+			run(cache, threads);
+			stopMeasuring();
+		}
+		commitMeasurements();
+		TestUtil.log(IStatus.INFO, getName(), cache.hitCount() + " hits, " + cache.missCount() + " misses, " //$NON-NLS-1$ //$NON-NLS-2$
+				+ cache.evictionCount() + " evictions"); //$NON-NLS-1$
+		assertTrue("The cache exceeds its capacity", cache.size() <= KEYS / 2); //$NON-NLS-1$
+		assertPerformance();
+	}
+
+	/**
+	 * Looks up keys from the given number of threads, caching a new value for
+	 * every miss like the mirror factories do.
+	 */
+	private void run(final ValueCache cache, int threads) throws Exception {
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(threads);
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		for (int i = 0; i < threads; i++) {
+			final int seed = i;
+			Thread accessor = new Thread(() -> {
+				try {
+					start.await();
+					// skewed towards low keys, like browsing a few hot objects
+					long state = seed + 1;
+					for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+						state = state * 6364136223846793005L + 1442695040888963407L;
+						int bound = (state >>> 63) == 0 ? KEYS / 10 : KEYS;
+						Integer key = Integer.valueOf((int) ((state >>> 33) % bound));
+						if (cache.get(key) == null) {
+							cache.put(key, new Object());
+						}
+					}
+				} catch (Throwable t) {
+					failure.compareAndSet(null, t);
+				} finally {
+					done.countDown();
+				}
+			});
+			accessor.start();
+		}
+		start.countDown();
+		done.await();
+		if (failure.get() != null) {
+			throw new Exception(failure.get());
+		}
+	}
+}
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.debug.core.sourcelookup.containers.DirectorySourceContainer;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.jdt.internal.launching.sourcelookup.advanced.WorkspaceProjectSourceContainers;
+import org.eclipse.jdt.launching.sourcelookup.advanced.IWorkspaceProjectDescriber;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * Tests the performance of indexing workspace projects for advanced source
+ * lookup and of resolving class locations against the index.
+ */
+public class PerfWorkspaceProjectSourceContainersTests extends AbstractDebugPerformanceTest {
+
+	private static final int PROJECT_COUNT = 500;
+
+	private static final int LOOKUP_COUNT = 10000;
+
+	/**
+	 * Index of synthetic projects, each with an output folder or, for every
+	 * tenth project, a jar as classes location
+	 */
+	private static class SyntheticWorkspace extends WorkspaceProjectSourceContainers {
+		final Map<IJavaProject, File> classesLocations = new HashMap<>();
+
+		@Override
+		protected IJavaProject[] getJavaProjects() {
+			return classesLocations.keySet().toArray(new IJavaProject[0]);
+		}
+
+		@Override
+		protected List<IWorkspaceProjectDescriber> getJavaProjectDescribers() {
+			IWorkspaceProjectDescriber describer = (project, description) -> {
+				File location = classesLocations.get(project);
+				description.addLocation(location);
+				description.addSourceContainerFactory(() -> new DirectorySourceContainer(new Path(location.getParent()), false));
+			};
+			return Collections.singletonList(describer);
+		}
+
+		void index() throws CoreException {
+			initialize(new NullProgressMonitor());
+		}
+	}
+
+	private File fRoot;
+	private SyntheticWorkspace fWorkspace;
+	private List<File> fLookups;
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public PerfWorkspaceProjectSourceContainersTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fRoot = Files.createTempDirectory("perfWorkspaceProjects").toFile();
+		fWorkspace = new SyntheticWorkspace();
+		List<File> classesLocations = new ArrayList<>();
+		for (int i = 0; i < PROJECT_COUNT; i++) {
+			File projectDir = new File(fRoot, "p" + i);
+			File location;
+			if (i % 10 == 0) {
+				assertTrue(projectDir.mkdirs());
+				location = new File(projectDir, "p" + i + ".jar");
+				Files.write(location.toPath(), ("binary project " + i).getBytes());
+			} else {
+				location = new File(projectDir, "bin");
+				assertTrue(location.mkdirs());
+			}
+			IJavaProject project = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot().getProject("Synthetic" + i));
+			fWorkspace.classesLocations.put(project, location);
+			classesLocations.add(location);
+		}
+		File unknown = new File(fRoot, "unknown.jar");
+		Files.write(unknown.toPath(), "not a workspace project".getBytes());
+
+		// exact and nested locations of workspace projects, and a jar that is not in the workspace
+		Random random = new Random(0);
+		fLookups = new ArrayList<>(LOOKUP_COUNT);
+		for (int i = 0; i < LOOKUP_COUNT; i++) {
+			File location = classesLocations.get(random.nextInt(PROJECT_COUNT));
+			int kind = random.nextInt(10);
+			if (kind < 6 && location.isDirectory()) {
+				fLookups.add(new File(location, "pkg" + random.nextInt(50)));
+			} else if (kind < 9) {
+				fLookups.add(location);
+			} else {
+				fLookups.add(unknown);
+			}
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fWorkspace.close();
+		try (Stream<java.nio.file.Path> paths = Files.walk(fRoot.toPath())) {
+			paths.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+		}
+		super.tearDown();
+	}
+
+	/**
+	 * Tests indexing 500 projects
+	 * @throws Exception
+	 */
+	public void testIndexProjects() throws Exception {
+		tagAsSummary("Index 500 workspace projects", Dimension.ELAPSED_PROCESS);
+		// warm up
+		for (int i = 0; i < 3; i++) {
+			fWorkspace.index();
+		}
+		// test
+		for (int i = 0; i < 20; i++) {
+			startMeasuring();
+			fWorkspace.index();
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Tests resolving 10000 random class locations against 500 projects
+	 * @throws Exception
+	 */
+	public void testResolveLocations() throws Exception {
+		tagAsSummary("Resolve 10000 class locations", Dimension.ELAPSED_PROCESS);
+		fWorkspace.index();
+		Set<File> unresolved = new LinkedHashSet<>();
+		// warm up
+		for (int i = 0; i < 3; i++) {
+			resolve(unresolved);
+		}
+		assertEquals("Unexpected unresolved locations", Collections.singleton(new File(fRoot, "unknown.jar")), unresolved);
+		// test
+		for (int i = 0; i < 20; i++) {
+			startMeasuring();
+			resolve(unresolved);
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private void resolve(Set<File> unresolved) {
+		for (File location : fLookups) {
+			if (fWorkspace.createProjectContainer(location) == null) {
+				unresolved.add(location);
+			}
+		}
+	}
+}
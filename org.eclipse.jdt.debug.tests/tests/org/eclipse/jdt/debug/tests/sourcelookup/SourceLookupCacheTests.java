@@ -0,0 +1,113 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.sourcelookup;
+
+import java.io.ByteArrayInputStream;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.debug.core.sourcelookup.ISourceContainer;
+import org.eclipse.jdt.debug.testplugin.JavaProjectHelper;
+import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.launching.JavaSourceLookupDirector;
+import org.eclipse.jdt.internal.launching.SourceLookupCache;
+import org.eclipse.jdt.launching.sourcelookup.containers.JavaProjectSourceContainer;
+
+/**
+ * Tests the cache of source elements of Java source lookup directors
+ */
+public class SourceLookupCacheTests extends AbstractDebugTest {
+
+	public SourceLookupCacheTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Returns a director looking up sources in the 1.4 project
+	 *
+	 * @return
+	 */
+	protected JavaSourceLookupDirector getDirector() {
+		JavaSourceLookupDirector director = new JavaSourceLookupDirector();
+		director.initializeParticipants();
+		director.setSourceContainers(new ISourceContainer[] { new JavaProjectSourceContainer(get14Project()) });
+		return director;
+	}
+
+	/**
+	 * Tests that a source name found once is not looked up again
+	 *
+	 * @throws Exception
+	 */
+	public void testRepeatedLookup() throws Exception {
+		JavaSourceLookupDirector director = getDirector();
+		try {
+			SourceLookupCache cache = director.getSourceLookupCache();
+			Object[] first = director.findSourceElements("Breakpoints.java");
+			assertEquals("Expected 1 result", 1, first.length);
+			Object[] second = director.findSourceElements("Breakpoints.java");
+			assertEquals("Expected 1 result", 1, second.length);
+			assertEquals("Wrong file", first[0], second[0]);
+			assertEquals("Wrong number of misses", 1, cache.getMissCount());
+			assertEquals("Wrong number of hits", 1, cache.getHitCount());
+		} finally {
+			director.dispose();
+		}
+	}
+
+	/**
+	 * Tests that a source name not found is found once its source is added to
+	 * the project, and not found again once it is removed
+	 *
+	 * @throws Exception
+	 */
+	public void testLookupAfterSourceAdded() throws Exception {
+		JavaSourceLookupDirector director = getDirector();
+		try {
+			SourceLookupCache cache = director.getSourceLookupCache();
+			assertEquals("Expected no result", 0, director.findSourceElements("CacheAdded.java").length);
+			assertEquals("Expected no result", 0, director.findSourceElements("CacheAdded.java").length);
+			assertEquals("Wrong number of hits", 1, cache.getHitCount());
+
+			IFile file = get14Project().getProject().getFolder(JavaProjectHelper.SRC_DIR).getFile("CacheAdded.java");
+			file.create(new ByteArrayInputStream("public class CacheAdded {}".getBytes()), true, null);
+			try {
+				Object[] objects = director.findSourceElements("CacheAdded.java");
+				assertEquals("Expected 1 result", 1, objects.length);
+				assertEquals("Wrong file", file, objects[0]);
+			} finally {
+				file.delete(true, null);
+			}
+			assertEquals("Expected no result", 0, director.findSourceElements("CacheAdded.java").length);
+		} finally {
+			director.dispose();
+		}
+	}
+
+	/**
+	 * Tests that changing the source containers of the director drops the
+	 * cached source elements
+	 *
+	 * @throws Exception
+	 */
+	public void testLookupAfterContainersChanged() throws Exception {
+		JavaSourceLookupDirector director = getDirector();
+		try {
+			assertEquals("Expected 1 result", 1, director.findSourceElements("Breakpoints.java").length);
+			director.setSourceContainers(new ISourceContainer[0]);
+			assertEquals("Expected no result", 0, director.findSourceElements("Breakpoints.java").length);
+		} finally {
+			director.dispose();
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 IBM Corporation and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.ui;
+
+import org.eclipse.jdt.internal.debug.ui.monitors.DeadlockDetector;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the deadlocks and the wait chains found by the
+ * {@link DeadlockDetector} in wait-for graphs of threads.
+ */
+public class DeadlockDetectorTests extends TestCase {
+
+	/**
+	 * Tests a cycle of three threads, with a thread waiting for the cycle and
+	 * a thread that does not wait
+	 */
+	public void testCycle() {
+		DeadlockDetector detector = new DeadlockDetector(new int[] { 1, 2, 0, 0, -1 });
+		for (int i = 0; i < 3; i++) {
+			assertTrue("Thread " + i + " should be in a cycle", detector.isInCycle(i));
+			assertTrue("Thread " + i + " should be in a deadlock", detector.isInDeadlock(i));
+		}
+		assertFalse("Thread 3 should not be in a cycle", detector.isInCycle(3));
+		assertTrue("Thread 3 should be in a deadlock", detector.isInDeadlock(3));
+		assertFalse("Thread 4 should not be in a cycle", detector.isInCycle(4));
+		assertFalse("Thread 4 should not be in a deadlock", detector.isInDeadlock(4));
+		for (int i = 0; i < 4; i++) {
+			assertEquals("Thread " + i + " should have no wait chain", -1, detector.getWaitChainLength(i));
+		}
+		assertEquals("Wrong wait chain length of thread 4", 0, detector.getWaitChainLength(4));
+		assertEquals("Wrong longest wait chain", 0, detector.getMaxWaitChainLength());
+	}
+
+	/**
+	 * Tests a thread waiting for itself, walked from a thread waiting for it
+	 */
+	public void testSelfCycle() {
+		DeadlockDetector detector = new DeadlockDetector(new int[] { 1, 1 });
+		assertFalse("Thread 0 should not be in a cycle", detector.isInCycle(0));
+		assertTrue("Thread 0 should be in a deadlock", detector.isInDeadlock(0));
+		assertTrue("Thread 1 should be in a cycle", detector.isInCycle(1));
+		assertTrue("Thread 1 should be in a deadlock", detector.isInDeadlock(1));
+	}
+
+	/**
+	 * Tests threads waiting for each other without a cycle, the chains joining
+	 * before a thread that does not wait
+	 */
+	public void testNoCycle() {
+		DeadlockDetector detector = new DeadlockDetector(new int[] { 2, 2, 3, -1, -1 });
+		int[] chainLengths = new int[] { 2, 2, 1, 0, 0 };
+		for (int i = 0; i < 5; i++) {
+			assertFalse("Thread " + i + " should not be in a cycle", detector.isInCycle(i));
+			assertFalse("Thread " + i + " should not be in a deadlock", detector.isInDeadlock(i));
+			assertEquals("Wrong wait chain length of thread " + i, chainLengths[i], detector.getWaitChainLength(i));
+		}
+		assertEquals("Wrong longest wait chain", 2, detector.getMaxWaitChainLength());
+	}
+
+	/**
+	 * Tests a long chain waiting for a cycle of two threads, walked from
+	 * either end, next to a long chain without a cycle
+	 */
+	public void testLongChain() {
+		int length = 1000;
+		int[] waitsFor = new int[2 * length];
+		// threads 0 to 999 each wait for the next one, 998 and 999 wait for
+		// each other
+		for (int i = 0; i < length - 1; i++) {
+			waitsFor[i] = i + 1;
+		}
+		waitsFor[length - 1] = length - 2;
+		// threads 1999 to 1001 each wait for the previous one, 1000 does not
+		// wait
+		waitsFor[length] = -1;
+		for (int i = length + 1; i < 2 * length; i++) {
+			waitsFor[i] = i - 1;
+		}
+		// the same graph, numbered the other way round
+		int[] reversed = new int[2 * length];
+		for (int i = 0; i < reversed.length; i++) {
+			int waited = waitsFor[reversed.length - 1 - i];
+			reversed[i] = waited == -1 ? -1 : reversed.length - 1 - waited;
+		}
+		DeadlockDetector detector = new DeadlockDetector(waitsFor);
+		DeadlockDetector reversedDetector = new DeadlockDetector(reversed);
+		for (int i = 0; i < 2 * length; i++) {
+			boolean inDeadlock = i < length;
+			boolean inCycle = i == length - 2 || i == length - 1;
+			int chainLength = inDeadlock ? -1 : i - length;
+			assertEquals("Wrong deadlock for thread " + i, inDeadlock, detector.isInDeadlock(i));
+			assertEquals("Wrong cycle for thread " + i, inCycle, detector.isInCycle(i));
+			assertEquals("Wrong wait chain length for thread " + i, chainLength, detector.getWaitChainLength(i));
+			int thread = reversed.length - 1 - i;
+			assertEquals("Wrong deadlock for reversed thread " + thread, inDeadlock, reversedDetector.isInDeadlock(thread));
+			assertEquals("Wrong cycle for reversed thread " + thread, inCycle, reversedDetector.isInCycle(thread));
+			assertEquals("Wrong wait chain length for reversed thread " + thread, chainLength, reversedDetector.getWaitChainLength(thread));
+		}
+		assertEquals("Wrong longest wait chain", length - 1, detector.getMaxWaitChainLength());
+		assertEquals("Wrong longest reversed wait chain", length - 1, reversedDetector.getMaxWaitChainLength());
+	}
+}
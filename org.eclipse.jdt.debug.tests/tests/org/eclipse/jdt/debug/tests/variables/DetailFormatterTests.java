@@ -17,6 +17,9 @@ import org.eclipse.debug.core.model.IValue;
 import org.eclipse.debug.ui.IValueDetailListener;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.Signature;
+import org.eclipse.jdt.debug.core.IJavaBreakpoint;
+import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
+import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.core.IJavaValue;
 import org.eclipse.jdt.debug.core.IJavaVariable;
@@ -375,4 +378,87 @@ public class DetailFormatterTests extends AbstractDebugTest {
 			removeAllBreakpoints();
 		}
 	}
+
+	/**
+	 * Tests that the detail of an object is computed once until the program runs again
+	 *
+	 * @throws Exception
+	 */
+	public void testDetailsCachedUntilResume() throws Exception {
+		IJavaThread thread = null;
+		DetailFormatter formatter = null;
+		JavaDetailFormattersManager jdfm = JavaDetailFormattersManager.getDefault();
+		try {
+			String typename = "a.b.c.bug403028";
+			IJavaLineBreakpoint bp = createLineBreakpoint(10, typename);
+			// details are only kept while all threads are suspended
+			bp.setSuspendPolicy(IJavaBreakpoint.SUSPEND_VM);
+			thread = launchToBreakpoint(typename);
+			assertNotNull("The program did not suspend", thread);
+			formatter = new DetailFormatter("java.util.HashMap", "return toString();", true);
+			jdfm.setAssociatedDetailFormatter(formatter);
+			IJavaVariable var = thread.findVariable("map");
+			assertNotNull("the variable 'map' must exist in the frame", var);
+			String detail = computeDetail(jdfm, (IJavaValue) var.getValue(), thread);
+			assertNotNull("The computed value of the detail should not be null", detail);
+
+			long hits = jdfm.getCacheHitCount();
+			assertEquals("The detail should not change", detail, computeDetail(jdfm, (IJavaValue) var.getValue(), thread));
+			assertEquals("The detail should come from the cache", hits + 1, jdfm.getCacheHitCount());
+
+			thread = stepOver((IJavaStackFrame) thread.getTopStackFrame());
+			var = thread.findVariable("map");
+			assertNotNull("the variable 'map' must exist in the frame", var);
+			assertEquals("The detail should not change", detail, computeDetail(jdfm, (IJavaValue) var.getValue(), thread));
+			assertEquals("The detail should be computed again after a step", hits + 1, jdfm.getCacheHitCount());
+		}
+		finally {
+			jdfm.removeAssociatedDetailFormatter(formatter);
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
+	/**
+	 * Tests that the detail of an object is not kept while other threads are running
+	 *
+	 * @throws Exception
+	 */
+	public void testDetailsNotCachedWhileThreadsRun() throws Exception {
+		IJavaThread thread = null;
+		DetailFormatter formatter = null;
+		JavaDetailFormattersManager jdfm = JavaDetailFormattersManager.getDefault();
+		try {
+			String typename = "a.b.c.bug403028";
+			createLineBreakpoint(10, typename);
+			thread = launchToBreakpoint(typename);
+			assertNotNull("The program did not suspend", thread);
+			formatter = new DetailFormatter("java.util.HashMap", "return toString();", true);
+			jdfm.setAssociatedDetailFormatter(formatter);
+			IJavaVariable var = thread.findVariable("map");
+			assertNotNull("the variable 'map' must exist in the frame", var);
+			String detail = computeDetail(jdfm, (IJavaValue) var.getValue(), thread);
+			assertNotNull("The computed value of the detail should not be null", detail);
+
+			long hits = jdfm.getCacheHitCount();
+			assertEquals("The detail should not change", detail, computeDetail(jdfm, (IJavaValue) var.getValue(), thread));
+			assertEquals("The detail should be computed again while system threads run", hits, jdfm.getCacheHitCount());
+		}
+		finally {
+			jdfm.removeAssociatedDetailFormatter(formatter);
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
+	private String computeDetail(JavaDetailFormattersManager jdfm, IJavaValue value, IJavaThread thread) throws Exception {
+		fListener.reset();
+		jdfm.computeValueDetail(value, thread, fListener);
+		long timeout = System.currentTimeMillis() + 5000;
+		while (fListener.value == null && System.currentTimeMillis() < timeout) {
+			Thread.sleep(100);
+		}
+		assertNotNull("The IValue of the detailComputed callback cannot be null", fListener.value);
+		return fListener.result;
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008 IBM Corporation and others.
+ * Copyright (c) 2008, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,8 @@ import org.eclipse.debug.core.model.IBreakpoint;
 import org.eclipse.debug.core.model.IValue;
 import org.eclipse.debug.core.model.IVariable;
 import org.eclipse.jdt.debug.core.IJavaArray;
+import org.eclipse.jdt.debug.core.IJavaBreakpoint;
+import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaObject;
 import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
@@ -152,4 +154,69 @@ public class TestLogicalStructures extends AbstractDebugTest {
 			removeAllBreakpoints();
 		}
 	}
+
+	/**
+	 * Tests that the logical structure of a map is kept while all the threads
+	 * are suspended.
+	 *
+	 * @throws Exception
+	 */
+	public void testMapLogicalStructureKeptWhileSuspended() throws Exception {
+		String typeName = "LogicalStructureMapWriter";
+		IJavaLineBreakpoint bp = createLineBreakpoint(43, typeName);
+		bp.setSuspendPolicy(IJavaBreakpoint.SUSPEND_VM);
+		IJavaThread thread= null;
+		try {
+			thread= launchToBreakpoint(typeName);
+			assertNotNull("Breakpoint not hit within timeout period", thread);
+
+			IValue value = getMapValue(thread);
+			ILogicalStructureType[] types = DebugPlugin.getLogicalStructureTypes(value);
+			assertEquals("Should be one logical structure type", 1, types.length);
+
+			IValue logicalValue = types[0].getLogicalStructure(value);
+			assertSame("The logical structure should be kept", logicalValue, types[0].getLogicalStructure(value));
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
+	/**
+	 * Tests that the logical structure of a map modified by a running thread
+	 * is computed again.
+	 *
+	 * @throws Exception
+	 */
+	public void testMapLogicalStructureModifiedByRunningThread() throws Exception {
+		String typeName = "LogicalStructureMapWriter";
+		IJavaLineBreakpoint bp = createLineBreakpoint(43, typeName);
+		bp.setSuspendPolicy(IJavaBreakpoint.SUSPEND_THREAD);
+		IJavaThread thread= null;
+		try {
+			thread= launchToBreakpoint(typeName);
+			assertNotNull("Breakpoint not hit within timeout period", thread);
+
+			IValue value = getMapValue(thread);
+			ILogicalStructureType[] types = DebugPlugin.getLogicalStructureTypes(value);
+			assertEquals("Should be one logical structure type", 1, types.length);
+
+			IJavaArray before = (IJavaArray) types[0].getLogicalStructure(value);
+			// the writer thread keeps adding entries
+			Thread.sleep(500);
+			IJavaArray after = (IJavaArray) types[0].getLogicalStructure(value);
+			assertTrue("The logical structure should show the new entries", after.getLength() > before.getLength());
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
+	private IValue getMapValue(IJavaThread thread) throws Exception {
+		IJavaStackFrame frame = (IJavaStackFrame) thread.getTopStackFrame();
+		assertNotNull("missing top frame", frame);
+		IJavaVariable variable = frame.findVariable("map");
+		assertNotNull("Missing variable 'map'", variable);
+		return variable.getValue();
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,7 @@ import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILogicalStructureType;
@@ -70,7 +71,7 @@ import org.eclipse.jdt.debug.core.IJavaValue;
 import org.eclipse.jdt.debug.core.IJavaVariable;
 import org.eclipse.jdt.debug.core.IJavaWatchpoint;
 import org.eclipse.jdt.internal.debug.core.breakpoints.JavaExceptionBreakpoint;
-import org.eclipse.jdt.internal.debug.core.logicalstructures.JDIAllInstancesValue;
+import org.eclipse.jdt.internal.debug.core.logicalstructures.JDIPlaceholderArrayValue;
 import org.eclipse.jdt.internal.debug.core.logicalstructures.JDIReturnValueVariable;
 import org.eclipse.jdt.internal.debug.core.model.JDIDebugModelMessages;
 import org.eclipse.jdt.internal.debug.core.model.JDIReferenceListEntryVariable;
@@ -169,11 +170,21 @@ public class JDIModelPresentation extends LabelProvider implements IDebugModelPr
 	 */
 	@Override
 	public void computeDetail(IValue value, IValueDetailListener listener) {
+		computeDetail(value, listener, null);
+	}
+
+	/**
+	 * Computes the detail of the given value, unless the given monitor is canceled
+	 * first, in which case the listener is notified with a <code>null</code> detail.
+	 *
+	 * @see JavaDetailFormattersManager#computeValueDetail(IJavaValue, IJavaThread, IValueDetailListener, IProgressMonitor)
+	 */
+	private void computeDetail(IValue value, IValueDetailListener listener, IProgressMonitor monitor) {
 		IJavaThread thread = getEvaluationThread((IJavaDebugTarget)value.getDebugTarget());
 		if (thread == null) {
 			listener.detailComputed(value, DebugUIMessages.JDIModelPresentation_no_suspended_threads);
 		} else {
-			JavaDetailFormattersManager.getDefault().computeValueDetail((IJavaValue)value, thread, listener);
+			JavaDetailFormattersManager.getDefault().computeValueDetail((IJavaValue)value, thread, listener, monitor);
 		}
 	}
 
@@ -255,6 +266,11 @@ public class JDIModelPresentation extends LabelProvider implements IDebugModelPr
 				StringBuilder label= new StringBuilder();
 				if (item instanceof IJavaThread) {
 					label.append(getThreadText((IJavaThread) item, showQualified));
+					int waitChainLength= ThreadMonitorManager.getDefault().getWaitChainLength((IJavaThread) item);
+					if (waitChainLength > 1) {
+						// a thread waiting for a single thread shows its contended monitor
+						label.append(getFormattedString(DebugUIMessages.JDIModelPresentation_7, Integer.toString(waitChainLength)));
+					}
 					if (((IJavaThread)item).isOutOfSynch()) {
 						label.append(DebugUIMessages.JDIModelPresentation___out_of_synch__1);
 					} else if (((IJavaThread)item).mayBeOutOfSynch()) {
@@ -469,7 +485,7 @@ public class JDIModelPresentation extends LabelProvider implements IDebugModelPr
 			buffer.append(signature);
 		} else if (isObject && !isString && (refTypeName.length() > 0)) {
 			// Don't show type name for instances and references
-			if (!(value instanceof JDIReferenceListValue || value instanceof JDIAllInstancesValue)){
+			if (!(value instanceof JDIReferenceListValue || value instanceof JDIPlaceholderArrayValue)){
 				String qualTypeName= getQualifiedName(refTypeName).trim();
 				if (isArray) {
 					qualTypeName= adjustTypeNameForArrayIndex(qualTypeName, ((IJavaArray)value).getLength());
@@ -1324,10 +1340,23 @@ public class JDIModelPresentation extends LabelProvider implements IDebugModelPr
 	 * @return text
 	 */
 	public String getFormattedValueText(IJavaValue javaValue) {
+		return getFormattedValueText(javaValue, null);
+	}
+
+	/**
+	 * Returns text for the given value based on user preferences to display
+	 * toString() details, without computing the details if the given monitor
+	 * is canceled first.
+	 *
+	 * @param javaValue
+	 * @param monitor the monitor to check for cancellation, or <code>null</code>
+	 * @return text
+	 */
+	public String getFormattedValueText(IJavaValue javaValue, IProgressMonitor monitor) {
 		String valueString= DebugUIMessages.JDIModelPresentation_unknown_value__3;
 		if (javaValue != null) {
 			if (isShowLabelDetails(javaValue)) {
-	    		valueString = getVariableDetail(javaValue);
+	    		valueString = getVariableDetail(javaValue, monitor);
 	    		if (valueString == null) {
 	    			valueString = DebugUIMessages.JDIModelPresentation_unknown_value__3;
 	    		}
@@ -1371,9 +1400,10 @@ public class JDIModelPresentation extends LabelProvider implements IDebugModelPr
 	 * Returns the detail value for the given variable or <code>null</code>
 	 * if none can be computed.
 	 * @param variable the variable to compute the detail for
+	 * @param monitor the monitor to check for cancellation, or <code>null</code>
 	 * @return the detail value for the variable
 	 */
-	private String getVariableDetail(IJavaValue value) {
+	private String getVariableDetail(IJavaValue value, IProgressMonitor monitor) {
 		final String[] detail= new String[1];
 		final Object lock= new Object();
 		computeDetail(value, new IValueDetailListener() {
@@ -1387,7 +1417,7 @@ public class JDIModelPresentation extends LabelProvider implements IDebugModelPr
 		            lock.notifyAll();
 		        }
 		    }
-		});
+		}, monitor);
 		synchronized (lock) {
 		    if (detail[0] == null) {
 		        try {
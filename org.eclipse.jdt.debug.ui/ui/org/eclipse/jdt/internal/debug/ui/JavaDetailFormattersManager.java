@@ -13,9 +13,14 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.debug.ui;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IAdaptable;
@@ -26,7 +31,9 @@ import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.IDebugEventSetListener;
 import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchesListener;
+import org.eclipse.debug.core.model.IDebugElement;
 import org.eclipse.debug.core.model.IDebugTarget;
+import org.eclipse.debug.core.model.IThread;
 import org.eclipse.debug.core.model.IVariable;
 import org.eclipse.debug.ui.DebugUITools;
 import org.eclipse.debug.ui.IDebugUIConstants;
@@ -48,6 +55,7 @@ import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.core.IJavaType;
 import org.eclipse.jdt.debug.core.IJavaValue;
+import org.eclipse.jdt.debug.core.IJavaVariable;
 import org.eclipse.jdt.debug.eval.IAstEvaluationEngine;
 import org.eclipse.jdt.debug.eval.ICompiledExpression;
 import org.eclipse.jdt.debug.eval.IEvaluationListener;
@@ -55,6 +63,8 @@ import org.eclipse.jdt.debug.eval.IEvaluationResult;
 import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
 import org.eclipse.jdt.internal.debug.core.JavaDebugUtils;
 import org.eclipse.jdt.internal.debug.core.logicalstructures.JDIAllInstancesValue;
+import org.eclipse.jdt.internal.debug.core.logicalstructures.JDIPlaceholderArrayValue;
+import org.eclipse.jdt.internal.debug.core.logicalstructures.JavaStructureArrayValue;
 import org.eclipse.jdt.internal.debug.core.model.JDINullValue;
 import org.eclipse.jdt.internal.debug.core.model.JDIReferenceListValue;
 import org.eclipse.jface.util.IPropertyChangeListener;
@@ -84,6 +94,13 @@ public class JavaDetailFormattersManager implements IPropertyChangeListener, IDe
 		return fgDefault;
 	}
 
+	/**
+	 * Time in milliseconds after which the <code>toString()</code> of the values left in
+	 * a batch are evaluated one by one, so that a slow <code>toString()</code> does not
+	 * delay the details of all the values after it.
+	 */
+	private static final long BATCH_TIME_LIMIT= 200;
+
 	/**
 	 * Map of types to the associated formatter (code snippet).
 	 * (<code>String</code> -> <code>String</code>)
@@ -91,10 +108,25 @@ public class JavaDetailFormattersManager implements IPropertyChangeListener, IDe
 	private HashMap<String, DetailFormatter> fDetailFormattersMap;
 
 	/**
-	 * Cache of compiled expressions.
-	 * Associate a pair type name/debug target to a compiled expression.
+	 * Cache of compiled expressions and computed details, by debug target.
+	 */
+	private Map<IJavaDebugTarget, TargetCache> fCacheMap;
+
+	/**
+	 * Detail requests not started yet, by thread. A thread with pending requests
+	 * has a runnable queued which computes all of them.
+	 */
+	private HashMap<IJavaThread, List<DetailRequest>> fPendingRequests;
+
+	/**
+	 * Number of detail requests, of requests answered from the cache, of
+	 * requests cancelled before being computed, and total time in nanoseconds
+	 * from requests to their answers.
 	 */
-	private HashMap<Key, Expression> fCacheMap;
+	private final AtomicLong fRequestCount= new AtomicLong();
+	private final AtomicLong fCacheHitCount= new AtomicLong();
+	private final AtomicLong fCancelledCount= new AtomicLong();
+	private final AtomicLong fDetailTime= new AtomicLong();
 
 	/**
 	 * JavaDetailFormattersManager constructor.
@@ -105,7 +137,8 @@ public class JavaDetailFormattersManager implements IPropertyChangeListener, IDe
 		DebugPlugin.getDefault().getLaunchManager().addLaunchListener(this);
 		DebugPlugin.getDefault().addDebugEventListener(this);
 		DebugUITools.getPreferenceStore().addPropertyChangeListener(this);
-		fCacheMap= new HashMap<>();
+		fCacheMap= new ConcurrentHashMap<>();
+		fPendingRequests= new HashMap<>();
 	}
 
 	/**
@@ -132,27 +165,121 @@ public class JavaDetailFormattersManager implements IPropertyChangeListener, IDe
 	 * @param thread the thread to use to performed the evaluation
 	 * @param listener the listener
 	 */
-	public void computeValueDetail(final IJavaValue objectValue, final IJavaThread thread, final IValueDetailListener listener) {
+	public void computeValueDetail(IJavaValue objectValue, IJavaThread thread, IValueDetailListener listener) {
+		computeValueDetail(objectValue, thread, listener, null);
+	}
+
+	/**
+	 * Compute asynchronously the 'toString' of the given value, as
+	 * {@link #computeValueDetail(IJavaValue, IJavaThread, IValueDetailListener)} does.
+	 * <p>
+	 * The requests made for a thread before it gets to them are computed together: the details
+	 * of an object asked for several times are computed once, and the <code>toString()</code>
+	 * of the values without a formatter are evaluated in one evaluation, until it takes too
+	 * long. The details of objects are kept while all the threads of the target stay
+	 * suspended.
+	 * </p>
+	 * If the given monitor is canceled before the detail is computed, the detail is not computed
+	 * and the listener is notified with a <code>null</code> detail.
+	 *
+	 * @param objectValue the value to 'format'
+	 * @param thread the thread to use to performed the evaluation
+	 * @param listener the listener
+	 * @param monitor the monitor to check for cancellation, or <code>null</code>
+	 */
+	public void computeValueDetail(IJavaValue objectValue, final IJavaThread thread, IValueDetailListener listener, IProgressMonitor monitor) {
+		fRequestCount.incrementAndGet();
+		TargetCache cache= getTargetCache((IJavaDebugTarget) thread.getDebugTarget());
+		DetailRequest request= new DetailRequest(objectValue, listener, monitor, cache);
+		String detail= request.getCachedDetail();
+		if (detail != null) {
+			fCacheHitCount.incrementAndGet();
+			request.answer(detail);
+			return;
+		}
+		synchronized (fPendingRequests) {
+			List<DetailRequest> requests= fPendingRequests.get(thread);
+			if (requests != null) {
+				requests.add(request);
+				return;
+			}
+			requests= new ArrayList<>();
+			requests.add(request);
+			fPendingRequests.put(thread, requests);
+		}
 		thread.queueRunnable(new Runnable() {
 			@Override
 			public void run() {
-				resolveFormatter(objectValue, thread, listener);
+				List<DetailRequest> requests;
+				synchronized (fPendingRequests) {
+					requests= fPendingRequests.remove(thread);
+				}
+				resolveFormatters(requests, thread);
 			}
 		});
 	}
 
-	private void resolveFormatter(final IJavaValue value, final IJavaThread thread, final IValueDetailListener listener) {
-		EvaluationListener evaluationListener= new EvaluationListener(value, thread, listener);
-		if (value instanceof IJavaObject) {
+	/**
+	 * Computes the details of the given requests.
+	 *
+	 * @param requests the requests
+	 * @param thread the thread to use to perform the evaluations
+	 */
+	private void resolveFormatters(List<DetailRequest> requests, IJavaThread thread) {
+		List<EvaluationListener> toStrings= new ArrayList<>();
+		Map<Long, DetailRequest> requestsByObject= new HashMap<>();
+		for (DetailRequest request : requests) {
+			if (request.isCanceled()) {
+				continue;
+			}
+			String detail= request.getCachedDetail();
+			if (detail != null) {
+				fCacheHitCount.incrementAndGet();
+				request.answer(detail);
+				continue;
+			}
+			long id= request.getObjectId();
+			if (id >= 0) {
+				DetailRequest first= requestsByObject.get(Long.valueOf(id));
+				if (first != null) {
+					// the details of the same object are computed once
+					first.addFollower(request);
+					continue;
+				}
+				requestsByObject.put(Long.valueOf(id), request);
+			}
+			EvaluationListener evaluationListener= resolveFormatter(request, thread);
+			if (evaluationListener != null) {
+				toStrings.add(evaluationListener);
+			}
+		}
+		if (!toStrings.isEmpty()) {
+			valuesToString(toStrings, thread);
+		}
+	}
+
+	/**
+	 * Computes the detail of the given request, unless it is the <code>toString()</code> of
+	 * the value, which needs an evaluation.
+	 *
+	 * @return the listener to compute the <code>toString()</code> of the value with, or
+	 * <code>null</code> if the request was answered
+	 */
+	private EvaluationListener resolveFormatter(DetailRequest request, IJavaThread thread) {
+		IJavaValue value= request.getValue();
+		EvaluationListener evaluationListener= new EvaluationListener(value, thread, request);
+		// the array of a logical structure does not exist in the target, no formatter
+		// can be evaluated on it
+		if (value instanceof IJavaObject && !(value instanceof JavaStructureArrayValue)) {
 			IJavaObject objectValue= (IJavaObject) value;
 			try {
 				if(value instanceof JDIAllInstancesValue) {
-					listener.detailComputed(value, ((JDIAllInstancesValue)value).getDetailString());
-					return;
+					request.answer(((JDIAllInstancesValue)value).getDetailString());
+					return null;
 				}
 				if(value instanceof JDIReferenceListValue) {
-					listener.detailComputed(value, ((JDIReferenceListValue)value).getDetailString());
-					return;
+					request.answer(((JDIReferenceListValue)value).getDetailString());
+					return null;
 				}
 				IJavaDebugTarget debugTarget= (IJavaDebugTarget) thread.getDebugTarget();
 				// get the compiled expression to use
@@ -160,26 +287,135 @@ public class JavaDetailFormattersManager implements IPropertyChangeListener, IDe
 				if (expression != null) {
 					expression.getEngine().evaluateExpression(expression.getExpression(), objectValue, thread,
 							evaluationListener, DebugEvent.EVALUATION_IMPLICIT, false);
-					return;
+					return null;
 				}
 			} catch (CoreException e) {
-				listener.detailComputed(value, e.toString());
-				return;
+				request.answer(e.toString());
+				return null;
 			}
 		}
 		try {
-			evaluationListener.valueToString(value);
+			String detail= evaluationListener.getNonEvaluationDetail(value);
+			if (detail != null) {
+				evaluationListener.nonEvaluationDetailComputed(detail);
+				return null;
+			}
 		} catch (DebugException e) {
-			String detail = e.getStatus().getMessage();
-			if (e.getStatus().getException() instanceof UnsupportedOperationException) {
-				detail = DebugUIMessages.JavaDetailFormattersManager_7;
-			} else if (e.getStatus().getCode() == IJavaThread.ERR_INCOMPATIBLE_THREAD_STATE) {
-				detail = DebugUIMessages.JavaDetailFormattersManager_6;
+			request.answer(getErrorDetail(e));
+			return null;
+		}
+		return evaluationListener;
+	}
+
+	/**
+	 * Evaluates the <code>toString()</code> of the values of the given listeners in one
+	 * evaluation. Once the evaluation has taken more than {@link #BATCH_TIME_LIMIT}, the
+	 * values left are evaluated one by one.
+	 */
+	private void valuesToString(final List<EvaluationListener> listeners, IJavaThread thread) {
+		final int[] done= new int[1];
+		IEvaluationRunnable eval = new IEvaluationRunnable() {
+			@Override
+			public void run(IJavaThread evaluationThread, IProgressMonitor monitor) throws DebugException {
+				long start= System.currentTimeMillis();
+				for (EvaluationListener listener : listeners) {
+					if (done[0] > 0 && System.currentTimeMillis() - start > BATCH_TIME_LIMIT) {
+						return;
+					}
+					if (!listener.getRequest().isCanceled()) {
+						try {
+							listener.getRequest().computed(listener.computeDetail(listener.getValue()));
+						} catch (DebugException e) {
+							listener.getRequest().answer(getErrorDetail(e));
+						}
+					}
+					done[0]++;
+				}
 			}
-			listener.detailComputed(value, detail);
+		};
+		try {
+			thread.runEvaluation(eval, null, DebugEvent.EVALUATION_IMPLICIT, false);
+		} catch (DebugException e) {
+			String detail= getErrorDetail(e);
+			for (int i= done[0]; i < listeners.size(); i++) {
+				listeners.get(i).getRequest().answer(detail);
+			}
+			return;
+		}
+		for (int i= done[0]; i < listeners.size(); i++) {
+			final EvaluationListener listener= listeners.get(i);
+			thread.queueRunnable(new Runnable() {
+				@Override
+				public void run() {
+					if (listener.getRequest().isCanceled()) {
+						return;
+					}
+					try {
+						listener.valueToString(listener.getValue());
+					} catch (DebugException e) {
+						listener.getRequest().answer(getErrorDetail(e));
+					}
+				}
+			});
 		}
 	}
 
+	/**
+	 * Returns the detail to show for the given exception.
+	 */
+	private static String getErrorDetail(DebugException e) {
+		String detail = e.getStatus().getMessage();
+		if (e.getStatus().getException() instanceof UnsupportedOperationException) {
+			detail = DebugUIMessages.JavaDetailFormattersManager_7;
+		} else if (e.getStatus().getCode() == IJavaThread.ERR_INCOMPATIBLE_THREAD_STATE) {
+			detail = DebugUIMessages.JavaDetailFormattersManager_6;
+		}
+		return detail;
+	}
+
+	/**
+	 * Returns the cache of the given debug target.
+	 */
+	private TargetCache getTargetCache(IJavaDebugTarget debugTarget) {
+		return fCacheMap.computeIfAbsent(debugTarget, target -> new TargetCache(target));
+	}
+
+	/**
+	 * Returns the number of detail requests made so far.
+	 *
+	 * @return the number of requests
+	 */
+	public long getRequestCount() {
+		return fRequestCount.get();
+	}
+
+	/**
+	 * Returns the number of detail requests answered from the cache of details.
+	 *
+	 * @return the number of requests answered from the cache
+	 */
+	public long getCacheHitCount() {
+		return fCacheHitCount.get();
+	}
+
+	/**
+	 * Returns the number of detail requests canceled before their detail was computed.
+	 *
+	 * @return the number of canceled requests
+	 */
+	public long getCancelledCount() {
+		return fCancelledCount.get();
+	}
+
+	/**
+	 * Returns the total time, in milliseconds, from the detail requests to their answers.
+	 *
+	 * @return the total time to answer the requests
+	 */
+	public long getDetailTime() {
+		return fDetailTime.get() / 1000000;
+	}
+
 	private IJavaProject getJavaProject(IJavaObject javaValue, IJavaThread thread) throws CoreException {
 
 		IType type = null;
@@ -375,9 +611,10 @@ public class JavaDetailFormattersManager implements IPropertyChangeListener, IDe
 			return null;
 		}
 		String typeName = type.getName();
-		Key key = new Key(typeName, debugTarget);
-		if (fCacheMap.containsKey(key)) {
-			return fCacheMap.get(key);
+		Map<String, Expression> expressions = getTargetCache(debugTarget).fExpressions;
+		Expression cached = expressions.get(typeName);
+		if (cached != null) {
+			return cached == Expression.NONE ? null : cached;
 		}
 		String snippet = null;
 
@@ -390,7 +627,11 @@ public class JavaDetailFormattersManager implements IPropertyChangeListener, IDe
 			}
 		}
 
-		if (snippet != null) {
+		if (snippet == null) {
+			// no formatter for this type
+			expressions.put(typeName, Expression.NONE);
+			return null;
+		} else {
 			IJavaProject project = getJavaProject(javaObject, thread);
 			if (project != null) {
 				IAstEvaluationEngine evaluationEngine = JDIDebugPlugin
@@ -399,7 +640,7 @@ public class JavaDetailFormattersManager implements IPropertyChangeListener, IDe
 						.getCompiledExpression(snippet, javaObject);
 				if (res != null) {
 					Expression exp = new Expression(res, evaluationEngine);
-					fCacheMap.put(key, exp);
+					expressions.put(typeName, exp);
 					return exp;
 				}
 			}
@@ -471,8 +712,19 @@ public class JavaDetailFormattersManager implements IPropertyChangeListener, IDe
 	public void handleDebugEvents(DebugEvent[] events) {
 		for (int i = 0; i < events.length; i++) {
 			DebugEvent event = events[i];
-			if (event.getSource() instanceof IJavaDebugTarget && event.getKind() == DebugEvent.TERMINATE) {
-				deleteCacheForTarget((IJavaDebugTarget) event.getSource());
+			Object source = event.getSource();
+			if (source instanceof IJavaDebugTarget && event.getKind() == DebugEvent.TERMINATE) {
+				deleteCacheForTarget((IJavaDebugTarget) source);
+			} else if (source instanceof IDebugElement
+					&& (((event.getKind() == DebugEvent.RESUME || event.getKind() == DebugEvent.SUSPEND) && event.getDetail() != DebugEvent.EVALUATION_IMPLICIT)
+							|| (event.getKind() == DebugEvent.CREATE && source instanceof IThread)
+							|| (event.getKind() == DebugEvent.CHANGE && source instanceof IJavaVariable))) {
+				// a thread runs, ran until now or was changed, details of objects may change
+				IDebugTarget debugTarget = ((IDebugElement) source).getDebugTarget();
+				TargetCache cache = debugTarget == null ? null : fCacheMap.get(debugTarget);
+				if (cache != null) {
+					cache.stateChanged();
+				}
 			}
 		}
 	}
@@ -513,40 +765,197 @@ public class JavaDetailFormattersManager implements IPropertyChangeListener, IDe
 	 *
 	 * @param debugTarget the target
 	 */
-	private synchronized void deleteCacheForTarget(IJavaDebugTarget debugTarget) {
-		for (Iterator<Key> iter= fCacheMap.keySet().iterator(); iter.hasNext();) {
-			Key key= iter.next();
-			if ((key).fDebugTarget == debugTarget) {
-				iter.remove();
+	private void deleteCacheForTarget(IJavaDebugTarget debugTarget) {
+		fCacheMap.remove(debugTarget);
+	}
+
+	/**
+	 * Compiled expressions and computed details of a debug target. Details are only kept
+	 * while all the threads of the target are suspended, as running threads change objects
+	 * at any time.
+	 */
+	static private class TargetCache {
+		private final IJavaDebugTarget fTarget;
+		/**
+		 * Compiled expressions by type name, {@link Expression#NONE} for the
+		 * types without a formatter.
+		 */
+		final Map<String, Expression> fExpressions= new ConcurrentHashMap<>();
+		/**
+		 * Details of objects by unique id, computed since threads of the target last ran.
+		 */
+		private final Map<Long, String> fDetails= new ConcurrentHashMap<>();
+		/**
+		 * Number of times threads of the target were resumed, suspended or created, or a
+		 * variable was changed.
+		 */
+		private int fGeneration;
+
+		TargetCache(IJavaDebugTarget target) {
+			fTarget= target;
+		}
+
+		/**
+		 * Returns the current generation, or -1 if some threads are running.
+		 */
+		synchronized int getGeneration() {
+			return isSuspended() ? fGeneration : -1;
+		}
+
+		synchronized void stateChanged() {
+			fGeneration++;
+			fDetails.clear();
+		}
+
+		/**
+		 * Returns the detail of the given object, or <code>null</code> if it is not kept or
+		 * some threads are running.
+		 */
+		String getDetail(long id) {
+			if (fDetails.isEmpty()) {
+				return null;
+			}
+			if (!isSuspended()) {
+				stateChanged();
+				return null;
+			}
+			return fDetails.get(Long.valueOf(id));
+		}
+
+		/**
+		 * Keeps the detail of the given object, unless threads ran since the given
+		 * generation or some threads are running.
+		 */
+		synchronized void putDetail(long id, int generation, String detail) {
+			if (generation == fGeneration && isSuspended()) {
+				fDetails.put(Long.valueOf(id), detail);
+			}
+		}
+
+		/**
+		 * Returns whether all the threads of the target are suspended.
+		 */
+		private boolean isSuspended() {
+			try {
+				for (IThread thread : fTarget.getThreads()) {
+					if (!thread.isSuspended()) {
+						return false;
+					}
+				}
+				return true;
+			} catch (DebugException e) {
+				return false;
 			}
 		}
 	}
 
 	/**
-	 * Object used as the key in the cache map for associate a compiled
-	 * expression with a pair type name/debug target
+	 * A request for the detail of a value, answered through a listener.
 	 */
-	static private class Key {
-		private String fTypeName;
-		private IJavaDebugTarget fDebugTarget;
+	private class DetailRequest {
+		private IJavaValue fValue;
+		private IValueDetailListener fListener;
+		private IProgressMonitor fMonitor;
+		private TargetCache fCache;
+		private int fGeneration;
+		private long fObjectId= -1;
+		private long fStartTime;
+		/**
+		 * Requests for the detail of the same object, made while this one was pending.
+		 */
+		private List<DetailRequest> fFollowers;
+		private boolean fAnswered;
+		private String fDetail;
+
+		DetailRequest(IJavaValue value, IValueDetailListener listener, IProgressMonitor monitor, TargetCache cache) {
+			fValue= value;
+			fListener= listener;
+			fMonitor= monitor;
+			fCache= cache;
+			fGeneration= cache.getGeneration();
+			fStartTime= System.nanoTime();
+			if (value instanceof IJavaObject && !(value instanceof JDIPlaceholderArrayValue) && !(value instanceof JDIReferenceListValue)) {
+				try {
+					fObjectId= ((IJavaObject) value).getUniqueId();
+				} catch (DebugException e) {
+					// not kept in the cache
+				}
+			}
+		}
 
-		Key(String typeName, IJavaDebugTarget debugTarget) {
-			fTypeName= typeName;
-			fDebugTarget= debugTarget;
+		IJavaValue getValue() {
+			return fValue;
 		}
 
-		@Override
-		public boolean equals(Object obj) {
-			if (obj instanceof Key) {
-				Key key= (Key) obj;
-				return fTypeName != null && fDebugTarget != null && fTypeName.equals(key.fTypeName) && fDebugTarget.equals(key.fDebugTarget);
+		long getObjectId() {
+			return fObjectId;
+		}
+
+		String getCachedDetail() {
+			return fObjectId < 0 ? null : fCache.getDetail(fObjectId);
+		}
+
+		void addFollower(DetailRequest request) {
+			synchronized (this) {
+				if (!fAnswered) {
+					if (fFollowers == null) {
+						fFollowers= new ArrayList<>();
+					}
+					fFollowers.add(request);
+					return;
+				}
 			}
-			return false;
+			request.notifyListener(fDetail);
 		}
 
-		@Override
-		public int hashCode() {
-			return fTypeName.hashCode() / 2 + fDebugTarget.hashCode() / 2;
+		/**
+		 * Returns whether the request was canceled, in which case the listener
+		 * is notified with a <code>null</code> detail.
+		 */
+		boolean isCanceled() {
+			synchronized (this) {
+				if (fMonitor == null || !fMonitor.isCanceled() || fFollowers != null) {
+					return false;
+				}
+				fAnswered= true;
+			}
+			fCancelledCount.incrementAndGet();
+			notifyListener(null);
+			return true;
+		}
+
+		/**
+		 * Answers the request with the given detail of the value, which is kept while
+		 * all the threads of the target stay suspended.
+		 */
+		void computed(String detail) {
+			if (fObjectId >= 0) {
+				fCache.putDetail(fObjectId, fGeneration, detail);
+			}
+			answer(detail);
+		}
+
+		/**
+		 * Answers the request with the given detail, which is not kept.
+		 */
+		void answer(String detail) {
+			List<DetailRequest> followers;
+			synchronized (this) {
+				fAnswered= true;
+				fDetail= detail;
+				followers= fFollowers;
+			}
+			notifyListener(detail);
+			if (followers != null) {
+				for (DetailRequest follower : followers) {
+					follower.notifyListener(detail);
+				}
+			}
+		}
+
+		private void notifyListener(String detail) {
+			fDetailTime.addAndGet(System.nanoTime() - fStartTime);
+			fListener.detailComputed(fValue, detail);
 		}
 	}
 
@@ -554,6 +963,11 @@ public class JavaDetailFormattersManager implements IPropertyChangeListener, IDe
 	 * Stores a compiled expression and evaluation engine used to evaluate the expression.
 	 */
 	static private class Expression {
+		/**
+		 * Marks the types without a formatter in the cache.
+		 */
+		static final Expression NONE= new Expression(null, null);
+
 		private ICompiledExpression fExpression;
 		private IAstEvaluationEngine fEngine;
 
@@ -595,14 +1009,22 @@ public class JavaDetailFormattersManager implements IPropertyChangeListener, IDe
 
 		private IJavaValue fValue;
 
-		private IValueDetailListener fListener;
+		private DetailRequest fRequest;
 
 		private IJavaThread fThread;
 
-		public EvaluationListener(IJavaValue value, IJavaThread thread, IValueDetailListener listener) {
+		public EvaluationListener(IJavaValue value, IJavaThread thread, DetailRequest request) {
 			fValue= value;
 			fThread= thread;
-			fListener= listener;
+			fRequest= request;
+		}
+
+		public IJavaValue getValue() {
+			return fValue;
+		}
+
+		public DetailRequest getRequest() {
+			return fRequest;
 		}
 
 		@Override
@@ -627,17 +1049,37 @@ public class JavaDetailFormattersManager implements IPropertyChangeListener, IDe
 						error.append("\n\t\t").append(errors[i]); //$NON-NLS-1$
 					}
 				}
-				fListener.detailComputed(fValue, error.toString());
+				fRequest.answer(error.toString());
 			} else {
 				try {
 					valueToString(result.getValue());
 				} catch (DebugException e) {
-					fListener.detailComputed(fValue, e.getStatus().getMessage());
+					fRequest.answer(e.getStatus().getMessage());
 				}
 			}
 		}
 
 		public void valueToString(final IJavaValue objectValue) throws DebugException {
+			String nonEvalResult = getNonEvaluationDetail(objectValue);
+			if (nonEvalResult != null) {
+				nonEvaluationDetailComputed(nonEvalResult);
+				return;
+			}
+
+			IEvaluationRunnable eval = new IEvaluationRunnable() {
+				@Override
+				public void run(IJavaThread thread, IProgressMonitor monitor) throws DebugException {
+					fRequest.computed(computeDetail(objectValue));
+				}
+			};
+			fThread.runEvaluation(eval, null, DebugEvent.EVALUATION_IMPLICIT, false);
+		}
+
+		/**
+		 * Returns the 'toString' of the given value when it needs no evaluation,
+		 * <code>null</code> otherwise.
+		 */
+		public String getNonEvaluationDetail(IJavaValue objectValue) throws DebugException {
 			String nonEvalResult = null;
 			StringBuilder result= null;
 			if (objectValue.getSignature() == null) {
@@ -660,26 +1102,35 @@ public class JavaDetailFormattersManager implements IPropertyChangeListener, IDe
 			if (result != null) {
 				nonEvalResult = result.toString();
 			}
-			if (nonEvalResult != null) {
-				fListener.detailComputed(fValue, nonEvalResult);
-				return;
+			return nonEvalResult;
+		}
+
+		/**
+		 * Answers the request with a detail computed without an evaluation, which is
+		 * only kept if it does not tell that the thread is not suspended.
+		 */
+		public void nonEvaluationDetailComputed(String detail) {
+			if (fThread == null || !fThread.isSuspended()) {
+				fRequest.answer(detail);
+			} else {
+				fRequest.computed(detail);
 			}
+		}
 
-			IEvaluationRunnable eval = new IEvaluationRunnable() {
-				@Override
-				public void run(IJavaThread thread, IProgressMonitor monitor) throws DebugException {
-					StringBuilder buf= new StringBuilder();
-					if (objectValue instanceof IJavaArray) {
-						appendArrayDetail(buf, (IJavaArray) objectValue);
-					} else if (objectValue instanceof IJavaObject) {
-						appendObjectDetail(buf, (IJavaObject) objectValue);
-					} else {
-						appendJDIValueString(buf, objectValue);
-					}
-					fListener.detailComputed(fValue, buf.toString());
-				}
-			};
-			fThread.runEvaluation(eval, null, DebugEvent.EVALUATION_IMPLICIT, false);
+		/**
+		 * Returns the 'toString' of the given value, evaluated in the thread of this
+		 * listener, which must be performing an evaluation.
+		 */
+		public String computeDetail(IJavaValue objectValue) throws DebugException {
+			StringBuilder buf= new StringBuilder();
+			if (objectValue instanceof IJavaArray) {
+				appendArrayDetail(buf, (IJavaArray) objectValue);
+			} else if (objectValue instanceof IJavaObject) {
+				appendObjectDetail(buf, (IJavaObject) objectValue);
+			} else {
+				appendJDIValueString(buf, objectValue);
+			}
+			return buf.toString();
 		}
 
 		/*
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.ui.monitors;
+
+/**
+ * Finds the deadlocks and the wait chains in a wait-for graph of threads.
+ * <p>
+ * A thread waits for at most one other thread, the owner of the monitor it is
+ * contending for. The strongly connected components of such a graph that are
+ * not a single thread are its cycles, which are the deadlocks. They are found
+ * with one walk along the waits from each thread not visited yet, so every
+ * thread is visited once and the time is linear in the number of threads.
+ * </p>
+ * <p>
+ * A thread is in a deadlock if it is in a cycle, or if it waits, directly or
+ * not, for a thread in a cycle. The wait chain of any other thread is the
+ * threads it waits for, directly or not.
+ * </p>
+ */
+public class DeadlockDetector {
+
+	/**
+	 * States of a thread during the walks.
+	 */
+	private static final byte UNVISITED = 0;
+	private static final byte ON_PATH = 1;
+	private static final byte DONE = 2;
+
+	private final boolean[] fInDeadlock;
+	private final boolean[] fInCycle;
+	private final int[] fWaitChainLength;
+	private int fMaxWaitChainLength = 0;
+
+	/**
+	 * Finds the deadlocks and the wait chains of the given wait-for graph.
+	 *
+	 * @param waitsFor
+	 *            for each thread, the index of the thread owning the monitor
+	 *            it is contending for, or -1 if it does not wait for another
+	 *            thread
+	 */
+	public DeadlockDetector(int[] waitsFor) {
+		int count = waitsFor.length;
+		fInDeadlock = new boolean[count];
+		fInCycle = new boolean[count];
+		fWaitChainLength = new int[count];
+		byte[] state = new byte[count];
+		int[] path = new int[count];
+		int[] position = new int[count];
+		for (int start = 0; start < count; start++) {
+			if (state[start] != UNVISITED) {
+				continue;
+			}
+			// walk along the waits until a thread that does not wait, a thread
+			// visited by an earlier walk, or a thread on this walk
+			int length = 0;
+			int thread = start;
+			while (thread != -1 && state[thread] == UNVISITED) {
+				state[thread] = ON_PATH;
+				position[thread] = length;
+				path[length++] = thread;
+				thread = waitsFor[thread];
+			}
+			boolean inDeadlock;
+			int chainLength;
+			if (thread == -1) {
+				inDeadlock = false;
+				chainLength = -1;
+			} else if (state[thread] == ON_PATH) {
+				// the walk closed a cycle
+				for (int i = position[thread]; i < length; i++) {
+					int member = path[i];
+					state[member] = DONE;
+					fInCycle[member] = true;
+					fInDeadlock[member] = true;
+					fWaitChainLength[member] = -1;
+				}
+				length = position[thread];
+				inDeadlock = true;
+				chainLength = -1;
+			} else {
+				inDeadlock = fInDeadlock[thread];
+				chainLength = fWaitChainLength[thread];
+			}
+			// the threads before the end of the walk wait for it
+			for (int i = length - 1; i >= 0; i--) {
+				int waiter = path[i];
+				state[waiter] = DONE;
+				if (inDeadlock) {
+					fInDeadlock[waiter] = true;
+					fWaitChainLength[waiter] = -1;
+				} else {
+					chainLength++;
+					fWaitChainLength[waiter] = chainLength;
+				}
+			}
+			if (!inDeadlock && chainLength > fMaxWaitChainLength) {
+				fMaxWaitChainLength = chainLength;
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the given thread is in a cycle of waits, or waits,
+	 * directly or not, for a thread in a cycle.
+	 *
+	 * @param thread
+	 *            index of the thread
+	 * @return whether the thread is in a deadlock
+	 */
+	public boolean isInDeadlock(int thread) {
+		return fInDeadlock[thread];
+	}
+
+	/**
+	 * Returns whether the given thread is in a cycle of waits.
+	 *
+	 * @param thread
+	 *            index of the thread
+	 * @return whether the thread is in a cycle
+	 */
+	public boolean isInCycle(int thread) {
+		return fInCycle[thread];
+	}
+
+	/**
+	 * Returns the number of threads the given thread waits for, directly or
+	 * not, or -1 if it is in a deadlock.
+	 *
+	 * @param thread
+	 *            index of the thread
+	 * @return the length of the wait chain of the thread
+	 */
+	public int getWaitChainLength(int thread) {
+		return fWaitChainLength[thread];
+	}
+
+	/**
+	 * Returns the length of the longest wait chain of a thread not in a
+	 * deadlock.
+	 *
+	 * @return the length of the longest wait chain
+	 */
+	public int getMaxWaitChainLength() {
+		return fMaxWaitChainLength;
+	}
+}
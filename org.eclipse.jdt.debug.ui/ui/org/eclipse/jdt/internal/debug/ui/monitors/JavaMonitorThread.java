@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2012 IBM Corporation and others.
+ * Copyright (c) 2004, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -54,6 +54,11 @@ public class JavaMonitorThread extends PlatformObject {
 	 * Indicate if this thread is currently part of a deadlock.
 	 */
 	private boolean fIsInDeadlock;
+	/**
+	 * Number of threads this thread waits for, directly or not, or -1 if
+	 * it is in a deadlock.
+	 */
+	private int fWaitChainLength;
 	/**
 	 * Indicate that the information for this thread need to be update, it
 	 * may have changed.
@@ -311,4 +316,23 @@ public class JavaMonitorThread extends PlatformObject {
 			fireChangeEvent(DebugEvent.STATE);
 		}
 	}
+
+	/**
+	 * Returns the number of threads this thread waits for, directly or not,
+	 * or -1 if it is in a deadlock.
+	 */
+	public int getWaitChainLength() {
+		return fWaitChainLength;
+	}
+
+	/**
+	 * Set the number of threads this thread waits for.
+	 */
+	public void setWaitChainLength(int waitChainLength) {
+		int oldValue= fWaitChainLength;
+		fWaitChainLength= waitChainLength;
+		if (oldValue != waitChainLength) {
+			fireChangeEvent(DebugEvent.STATE);
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,10 +14,12 @@
 package org.eclipse.jdt.internal.debug.ui.monitors;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.debug.core.DebugEvent;
@@ -29,6 +31,7 @@ import org.eclipse.jdt.debug.core.IJavaDebugTarget;
 import org.eclipse.jdt.debug.core.IJavaObject;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.ui.IJavaDebugUIConstants;
+import org.eclipse.jdt.internal.debug.core.model.JDIThread;
 import org.eclipse.jdt.internal.debug.ui.JDIDebugUIPlugin;
 import org.eclipse.jdt.internal.debug.ui.JDIDebugUIPreferenceInitializer;
 import org.eclipse.jface.preference.IPreferenceStore;
@@ -229,6 +232,12 @@ public class ThreadMonitorManager implements IDebugEventSetListener, IPropertyCh
 		@Override
 		public void run() {
 			JavaMonitorThread[] threads= getJavaMonitorThreads();
+			// read the monitors of all the threads at once before refreshing them one by one
+			IJavaThread[] javaThreads= new IJavaThread[threads.length];
+			for (int i = 0; i < threads.length; i++) {
+				javaThreads[i]= threads[i].getThread();
+			}
+			JDIThread.readMonitors(javaThreads);
 			for (int i = 0; i < threads.length; i++) {
 				threads[i].refresh();
 			}
@@ -241,46 +250,60 @@ public class ThreadMonitorManager implements IDebugEventSetListener, IPropertyCh
 		public void run() {
 			JavaMonitorThread[] threads= getJavaMonitorThreads();
 			JavaMonitor[] monitors= getJavaMonitors();
-			List<Object> inDeadlock= new ArrayList<>();
+			// the owner of each monitor, as known by the threads
+			Map<JavaMonitor, JavaMonitorThread> owners= new HashMap<>();
 			for (int i = 0; i < threads.length; i++) {
-				JavaMonitorThread thread= threads[i];
-				List<JavaMonitorThread> threadStack= new ArrayList<>();
-				List<JavaMonitor> monitorStack= new ArrayList<>();
-				while (thread != null) {
-					boolean isInDeadlock= false;
-					if (inDeadlock.contains(thread) || threadStack.contains(thread)) {
-						isInDeadlock= true;
-					} else {
-						JavaMonitor monitor = thread.getContendedMonitor0();
-						if (monitor == null) {
-							thread= null;
-						} else if (inDeadlock.contains(monitor)) {
-							isInDeadlock= true;
-						} else {
-							threadStack.add(thread);
-							monitorStack.add(monitor);
-							thread= monitor.getOwningThread0();
-						}
+				JavaMonitor[] ownedMonitors= threads[i].getOwnedMonitors0();
+				for (int j = 0; j < ownedMonitors.length; j++) {
+					owners.put(ownedMonitors[j], threads[i]);
+				}
+			}
+			// build the wait-for graph, with the owners not known yet as new nodes
+			List<JavaMonitorThread> nodes= new ArrayList<>(Arrays.asList(threads));
+			Map<JavaMonitorThread, Integer> indexes= new HashMap<>();
+			for (int i = 0; i < threads.length; i++) {
+				indexes.put(threads[i], Integer.valueOf(i));
+			}
+			List<JavaMonitor> contendedMonitors= new ArrayList<>();
+			int[] waitsFor= new int[threads.length];
+			for (int i = 0; i < nodes.size(); i++) {
+				JavaMonitor monitor= nodes.get(i).getContendedMonitor0();
+				int owner= -1;
+				if (monitor != null) {
+					JavaMonitorThread owningThread= owners.get(monitor);
+					if (owningThread == null) {
+						owningThread= monitor.getOwningThread0();
 					}
-					if (isInDeadlock) {
-						// is in a deadlock, set the elements of the back trace as 'in a deadlock'
-						for (Iterator<JavaMonitorThread> iter = threadStack.iterator(); iter.hasNext();) {
-							inDeadlock.add(iter.next());
+					if (owningThread != null) {
+						Integer index= indexes.get(owningThread);
+						if (index == null) {
+							index= Integer.valueOf(nodes.size());
+							nodes.add(owningThread);
+							indexes.put(owningThread, index);
 						}
-						for (Iterator<JavaMonitor> iter = monitorStack.iterator(); iter.hasNext();) {
-							inDeadlock.add(iter.next());
-						}
-						thread= null;
+						owner= index.intValue();
 					}
 				}
+				if (i == waitsFor.length) {
+					waitsFor= Arrays.copyOf(waitsFor, nodes.size());
+				}
+				waitsFor[i]= owner;
+				contendedMonitors.add(monitor);
 			}
-			for (int i = 0; i < threads.length; i++) {
-				JavaMonitorThread thread= threads[i];
-				thread.setInDeadlock(inDeadlock.contains(thread));
+			DeadlockDetector detector= new DeadlockDetector(waitsFor);
+			Set<JavaMonitor> monitorsInDeadlock= new HashSet<>();
+			for (int i = 0; i < waitsFor.length; i++) {
+				JavaMonitorThread thread= nodes.get(i);
+				boolean isInDeadlock= detector.isInDeadlock(i);
+				if (isInDeadlock && contendedMonitors.get(i) != null) {
+					monitorsInDeadlock.add(contendedMonitors.get(i));
+				}
+				thread.setWaitChainLength(detector.getWaitChainLength(i));
+				thread.setInDeadlock(isInDeadlock);
 			}
 			for (int i = 0; i < monitors.length; i++) {
 				JavaMonitor monitor= monitors[i];
-				monitor.setInDeadlock(inDeadlock.contains(monitor));
+				monitor.setInDeadlock(monitorsInDeadlock.contains(monitor));
 			}
 		}
 	}
@@ -312,6 +335,18 @@ public class ThreadMonitorManager implements IDebugEventSetListener, IPropertyCh
 		return getJavaMonitorThread(javaThread, thread).isInDeadlock();
 	}
 
+	/**
+	 * Returns the number of threads the given thread waits for, directly or not,
+	 * -1 if it is in a deadlock, or 0 if SHOW_MONITOR_THREAD_INFO is off.
+	 */
+	public int getWaitChainLength(IThread thread) {
+		IJavaThread javaThread = thread.getAdapter(IJavaThread.class);
+		if (javaThread == null || !fIsEnabled || !((IJavaDebugTarget)javaThread.getDebugTarget()).supportsMonitorInformation()) {
+			return 0;
+		}
+		return getJavaMonitorThread(javaThread, thread).getWaitChainLength();
+	}
+
 	private JavaMonitor[] getJavaMonitors() {
 		synchronized(fJavaMonitors) {
 			JavaMonitor[] monitors = new JavaMonitor[fJavaMonitors.size()];
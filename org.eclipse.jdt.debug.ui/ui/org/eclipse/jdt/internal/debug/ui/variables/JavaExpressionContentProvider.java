@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2012 IBM Corporation and others.
+ * Copyright (c) 2007, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,7 +20,7 @@ import org.eclipse.debug.internal.ui.model.elements.ExpressionContentProvider;
 import org.eclipse.debug.internal.ui.viewers.model.provisional.IPresentationContext;
 import org.eclipse.debug.internal.ui.viewers.model.provisional.IViewerUpdate;
 import org.eclipse.jdt.debug.core.IJavaObject;
-import org.eclipse.jdt.internal.debug.core.logicalstructures.JDIAllInstancesValue;
+import org.eclipse.jdt.internal.debug.core.logicalstructures.JDIPlaceholderArrayValue;
 import org.eclipse.jdt.internal.debug.core.model.JDIDebugModelMessages;
 import org.eclipse.jdt.internal.debug.core.model.JDIReferenceListValue;
 import org.eclipse.jdt.internal.debug.core.model.JDIReferenceListVariable;
@@ -44,7 +44,7 @@ public class JavaExpressionContentProvider extends ExpressionContentProvider{
 		Object[] variables = getAllChildren(parent, context);
         if (JavaVariableContentProvider.displayReferencesAsChild(parent)){
         	IValue value = ((IExpression)parent).getValue();
-        	if (!(value instanceof JDIAllInstancesValue) && !(value instanceof JDIReferenceListValue)) {
+        	if (!(value instanceof JDIPlaceholderArrayValue) && !(value instanceof JDIReferenceListValue)) {
 	        	Object[] moreVariables = new Object[variables.length+1];
 	        	System.arraycopy(variables, 0, moreVariables, 1, variables.length);
 	        	moreVariables[0] = new JDIReferenceListVariable(NLS.bind(JDIDebugModelMessages.JDIReferenceListValue_6, new String[]{value.getReferenceTypeName() + " " + value.getValueString()}),(IJavaObject)value); //$NON-NLS-1$
@@ -62,7 +62,7 @@ public class JavaExpressionContentProvider extends ExpressionContentProvider{
 		int count = super.getChildCount(element, context, monitor);
 		if (JavaVariableContentProvider.displayReferencesAsChild(element)){
 			IValue value = ((IExpression)element).getValue();
-			if (!(value instanceof JDIAllInstancesValue) && !(value instanceof JDIReferenceListValue)) {
+			if (!(value instanceof JDIPlaceholderArrayValue) && !(value instanceof JDIReferenceListValue)) {
 				count++;
 			}
 		}
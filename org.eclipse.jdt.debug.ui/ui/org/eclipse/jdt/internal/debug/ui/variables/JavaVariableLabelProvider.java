@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2015 IBM Corporation and others.
+ * Copyright (c) 2008, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
@@ -69,6 +71,12 @@ public class JavaVariableLabelProvider extends VariableLabelProvider implements
 	private static final int SERIALIZE_NONE = 1; // all toString()'s in line, so don't serialize labels (evaluations will be serialized)
 	private static final int SERIALIZE_SOME = 2; // some - only serialize those that don't have formatters (ones with formatters will be serialized by evaluation)
 
+	/**
+	 * The label update retrieved by the current thread, so the details of rows
+	 * no longer visible are not computed.
+	 */
+	private static final ThreadLocal<ILabelUpdate> fgCurrentUpdate = new ThreadLocal<>();
+
 	public JavaVariableLabelProvider() {
 		IEclipsePreferences prefs = InstanceScope.INSTANCE.getNode(JDIDebugUIPlugin.getUniqueIdentifier());
 		if(prefs != null) {
@@ -83,7 +91,17 @@ public class JavaVariableLabelProvider extends VariableLabelProvider implements
 	@Override
 	protected String getValueText(IVariable variable, IValue value, IPresentationContext context) throws CoreException {
 		if (value instanceof IJavaValue) {
-			return fLabelProvider.getFormattedValueText((IJavaValue) value);
+			final ILabelUpdate update = fgCurrentUpdate.get();
+			IProgressMonitor monitor = null;
+			if (update != null) {
+				monitor = new NullProgressMonitor() {
+					@Override
+					public boolean isCanceled() {
+						return update.isCanceled();
+					}
+				};
+			}
+			return fLabelProvider.getFormattedValueText((IJavaValue) value, monitor);
 		}
 		return super.getValueText(variable, value, context);
 	}
@@ -183,7 +201,12 @@ public class JavaVariableLabelProvider extends VariableLabelProvider implements
 		Boolean showQ = isShowQualfiiedNames(update.getPresentationContext());
 		fQualifiedNames = showQ.booleanValue();
 		fLabelProvider.setAttribute(JDIModelPresentation.DISPLAY_QUALIFIED_NAMES, showQ);
-		super.retrieveLabel(update);
+		fgCurrentUpdate.set(update);
+		try {
+			super.retrieveLabel(update);
+		} finally {
+			fgCurrentUpdate.remove();
+		}
 	}
 
 	/**
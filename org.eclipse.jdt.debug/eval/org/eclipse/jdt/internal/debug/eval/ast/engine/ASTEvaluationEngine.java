@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,10 +19,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -38,6 +40,7 @@ import org.eclipse.debug.core.model.ITerminate;
 import org.eclipse.debug.core.model.IThread;
 import org.eclipse.debug.core.model.IVariable;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.Signature;
 import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.dom.AST;
@@ -79,6 +82,31 @@ public class ASTEvaluationEngine implements IAstEvaluationEngine {
 
 	private IJavaDebugTarget fDebugTarget;
 
+	/**
+	 * Maximum number of compiled expressions kept in the cache.
+	 */
+	private static final int COMPILED_EXPRESSION_CACHE_SIZE = 100;
+
+	/**
+	 * Expressions compiled in the context of a stack frame, least recently
+	 * used first, shared by all threads evaluating them. Keys are lists of the
+	 * snippet and everything its compilation depends on. Guarded by itself.
+	 *
+	 * @see #getCompiledExpression(String, IJavaStackFrame)
+	 */
+	private final Map<List<Object>, ICompiledExpression> fCompiledExpressions = new LinkedHashMap<List<Object>, ICompiledExpression>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<Object>, ICompiledExpression> eldest) {
+			return size() > COMPILED_EXPRESSION_CACHE_SIZE;
+		}
+	};
+
+	private final LongAdder fCacheHits = new LongAdder();
+	private final LongAdder fCacheMisses = new LongAdder();
+	private final LongAdder fCompileTime = new LongAdder();
+
 	/**
 	 * Regex to find occurrences of 'this' in a code snippet
 	 */
@@ -290,6 +318,8 @@ public class ASTEvaluationEngine implements IAstEvaluationEngine {
 
 		EvaluationSourceGenerator mapper = null;
 		CompilationUnit unit = null;
+		List<Object> key = null;
+		long start = 0;
 		try {
 			List<IJavaVariable> localsVar = new ArrayList<>();
 			localsVar.addAll(Arrays.asList(context.getLocals()));
@@ -377,6 +407,21 @@ public class ASTEvaluationEngine implements IAstEvaluationEngine {
 			// frame.getThis().getJavaType();
 			// }
 
+			key = Arrays.asList(snippet, receivingType.getName(),
+					frame.getMethodName(), frame.getSignature(),
+					Integer.valueOf(frame.getLineNumber()),
+					Boolean.valueOf(frame.isStatic()), javaProject,
+					javaProject == null ? null : javaProject.getOption(JavaCore.COMPILER_SOURCE, true),
+					Arrays.asList(localTypesNames), Arrays.asList(localVariables));
+			ICompiledExpression cached;
+			synchronized (fCompiledExpressions) {
+				cached = fCompiledExpressions.get(key);
+			}
+			if (cached != null) {
+				fCacheHits.increment();
+				return cached;
+			}
+			start = System.nanoTime();
 			unit = parseCompilationUnit(
 					mapper.getSource(receivingType, frame.getLineNumber(), javaProject,
 							frame.isStatic()).toCharArray(),
@@ -387,7 +432,63 @@ public class ASTEvaluationEngine implements IAstEvaluationEngine {
 			return expression;
 		}
 
-		return createExpressionFromAST(snippet, mapper, unit);
+		ICompiledExpression expression = createExpressionFromAST(snippet, mapper, unit);
+		long time = System.nanoTime() - start;
+		fCacheMisses.increment();
+		fCompileTime.add(time);
+		if (!expression.hasErrors()) {
+			synchronized (fCompiledExpressions) {
+				fCompiledExpressions.put(key, expression);
+			}
+		}
+		if (JDIDebugOptions.DEBUG_AST_EVAL_CACHE) {
+			long hits = fCacheHits.sum();
+			long misses = fCacheMisses.sum();
+			StringBuilder buf = new StringBuilder();
+			buf.append(JDIDebugOptions.FORMAT.format(new Date()));
+			buf.append(" : Compiled Expression Cache - Expression: "); //$NON-NLS-1$
+			buf.append(snippet);
+			buf.append("\n\tCompile time: "); //$NON-NLS-1$
+			buf.append(time / 1000000);
+			buf.append("ms, total: "); //$NON-NLS-1$
+			buf.append(fCompileTime.sum() / 1000000);
+			buf.append("ms\n\tHit rate: "); //$NON-NLS-1$
+			buf.append(hits * 100 / (hits + misses));
+			buf.append("% of "); //$NON-NLS-1$
+			buf.append(hits + misses);
+			JDIDebugOptions.trace(buf.toString());
+		}
+		return expression;
+	}
+
+	/**
+	 * Discards the expressions compiled in the context of stack frames, as
+	 * the code they were compiled against has changed.
+	 */
+	public void clearCompiledExpressionCache() {
+		synchronized (fCompiledExpressions) {
+			fCompiledExpressions.clear();
+		}
+	}
+
+	/**
+	 * Returns the number of expressions compiled in the context of a stack
+	 * frame that were found in the cache.
+	 *
+	 * @return the number of cache hits
+	 */
+	public long getCompiledExpressionCacheHits() {
+		return fCacheHits.sum();
+	}
+
+	/**
+	 * Returns the number of expressions compiled in the context of a stack
+	 * frame that were not found in the cache.
+	 *
+	 * @return the number of cache misses
+	 */
+	public long getCompiledExpressionCacheMisses() {
+		return fCacheMisses.sum();
 	}
 
 	private CompilationUnit parseCompilationUnit(char[] source,
@@ -716,8 +817,7 @@ public class ASTEvaluationEngine implements IAstEvaluationEngine {
 				}
 				return;
 			}
-			final Interpreter interpreter = new Interpreter(fExpression,
-					fContext);
+			final Interpreter interpreter = fExpression.getInterpreter(fContext);
 
 			class EvaluationRunnable implements IEvaluationRunnable, ITerminate {
 
@@ -790,6 +890,10 @@ public class ASTEvaluationEngine implements IAstEvaluationEngine {
 			long end = System.currentTimeMillis();
 
 			IJavaValue value = interpreter.getResult();
+			if (exception == null && !er.fTerminated) {
+				// the interpreter is done, reuse it for later evaluations
+				fExpression.releaseInterpreter(interpreter);
+			}
 
 			if (exception == null) {
 				exception = er.getException();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,11 +14,14 @@
 package org.eclipse.jdt.internal.debug.eval.ast.engine;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EmptyStackException;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
+import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
@@ -39,7 +42,14 @@ public class Interpreter {
 	private Instruction[] fInstructions;
 	private int fInstructionCounter;
 	private IRuntimeContext fContext;
-	private Stack<Object> fStack;
+
+	/**
+	 * The operand stack, from the bottom, and the number of operands on it.
+	 * The array is reused by the executions of this interpreter.
+	 */
+	private Object[] fStack = new Object[16];
+	private int fStackSize;
+
 	private IJavaValue fLastValue;
 
 	/**
@@ -52,7 +62,19 @@ public class Interpreter {
 	 */
 	private List<IJavaObject> fPermStorage = null;
 
-	private boolean fStopped = false;
+	/**
+	 * Objects of {@link #fPermStorage}, to disable their GC only once
+	 */
+	private Set<IJavaObject> fPermStorageSet = null;
+
+	/**
+	 * The receiver of an evaluation in a stack frame, which does not need GC
+	 * to be disabled as the frame holds on to it, and whether it is known
+	 */
+	private IJavaObject fThis;
+	private boolean fThisKnown = false;
+
+	private volatile boolean fStopped = false;
 
 	public Interpreter(InstructionSequence instructions, IRuntimeContext context) {
 		fInstructions = instructions.getInstructions();
@@ -61,13 +83,11 @@ public class Interpreter {
 	}
 
 	public void execute() throws CoreException {
+		Interpreter previous = Instruction.setCurrentInterpreter(this);
 		try {
 			reset();
 			while (fInstructionCounter < fInstructions.length && !fStopped) {
-				Instruction instruction = fInstructions[fInstructionCounter++];
-				instruction.setInterpreter(this);
-				instruction.execute();
-				instruction.setInterpreter(null);
+				fInstructions[fInstructionCounter++].execute();
 			}
 		} catch (CoreException e) {
 			throw e;
@@ -75,6 +95,7 @@ public class Interpreter {
 			throw new CoreException(new Status(IStatus.ERROR,
 					JDIDebugModel.getPluginIdentifier(), e.getMessage(), e));
 		} finally {
+			Instruction.setCurrentInterpreter(previous);
 			releaseObjects();
 		}
 	}
@@ -84,8 +105,28 @@ public class Interpreter {
 	}
 
 	private void reset() {
-		fStack = new Stack<>();
+		Arrays.fill(fStack, 0, fStackSize, null);
+		fStackSize = 0;
 		fInstructionCounter = 0;
+		fThis = null;
+		fThisKnown = false;
+	}
+
+	/**
+	 * Prepares this interpreter to execute its instructions again, in the
+	 * given context. Called when an interpreter is reused for another
+	 * evaluation of the same instructions.
+	 *
+	 * @param context
+	 *            the context of the next evaluation
+	 * @see InstructionSequence#getInterpreter(IRuntimeContext)
+	 */
+	public void reset(IRuntimeContext context) {
+		reset();
+		fContext = context;
+		fInternalVariables.clear();
+		fLastValue = null;
+		fStopped = false;
 	}
 
 	/**
@@ -101,25 +142,50 @@ public class Interpreter {
 	 * evaluation completes.
 	 */
 	public void push(Object object) {
-		fStack.push(object);
+		if (fStackSize == fStack.length) {
+			fStack = Arrays.copyOf(fStack, fStackSize * 2);
+		}
+		fStack[fStackSize++] = object;
 		if (object instanceof IJavaObject) {
 			disableCollection((IJavaObject) object);
 		}
 	}
 
 	/**
-	 * Avoid garbage collecting interim results.
+	 * Avoid garbage collecting interim results. Objects whose garbage
+	 * collection is already disabled by this interpreter, the receiver of an
+	 * evaluation in a stack frame and <code>null</code> are left alone.
 	 *
 	 * @param value
 	 *            object to disable garbage collection for
 	 */
 	private void disableCollection(IJavaObject value) {
+		if (value.isNull()) {
+			return;
+		}
 		if (fPermStorage == null) {
 			fPermStorage = new ArrayList<>(5);
+			fPermStorageSet = new HashSet<>(8);
+		} else if (fPermStorageSet.contains(value)) {
+			return;
+		}
+		if (!fThisKnown) {
+			fThisKnown = true;
+			if (fContext instanceof RuntimeContext) {
+				try {
+					fThis = fContext.getThis();
+				} catch (CoreException e) {
+					// no receiver to skip
+				}
+			}
+		}
+		if (value.equals(fThis)) {
+			return;
 		}
 		try {
 			value.disableCollection();
 			fPermStorage.add(value);
+			fPermStorageSet.add(value);
 		} catch (CoreException e) {
 			JDIDebugPlugin.log(e);
 		}
@@ -144,6 +210,7 @@ public class Interpreter {
 				}
 			}
 			fPermStorage = null;
+			fPermStorageSet = null;
 		}
 	}
 
@@ -151,14 +218,22 @@ public class Interpreter {
 	 * Peeks at the top object of the stack
 	 */
 	public Object peek() {
-		return fStack.peek();
+		if (fStackSize == 0) {
+			throw new EmptyStackException();
+		}
+		return fStack[fStackSize - 1];
 	}
 
 	/**
 	 * Pops an object off of the stack
 	 */
 	public Object pop() {
-		return fStack.pop();
+		if (fStackSize == 0) {
+			throw new EmptyStackException();
+		}
+		Object object = fStack[--fStackSize];
+		fStack[fStackSize] = null;
+		return object;
 	}
 
 	/**
@@ -169,13 +244,13 @@ public class Interpreter {
 	}
 
 	public IJavaValue getResult() {
-		if (fStack == null || fStack.isEmpty()) {
+		if (fStackSize == 0) {
 			if (fLastValue == null) {
 				return getContext().getVM().voidValue();
 			}
 			return fLastValue;
 		}
-		Object top = fStack.peek();
+		Object top = fStack[fStackSize - 1];
 		if (top instanceof IJavaVariable) {
 			try {
 				return (IJavaValue) ((IJavaVariable) top).getValue();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -36,20 +36,39 @@ import org.eclipse.osgi.util.NLS;
  */
 public abstract class Instruction {
 
-	private Interpreter fInterpreter;
+	/**
+	 * The interpreter executing instructions on the current thread. Compiled
+	 * expressions are shared by the threads evaluating them, so an instruction
+	 * does not hold on to the interpreter executing it.
+	 */
+	private static final ThreadLocal<Interpreter> fgInterpreter = new ThreadLocal<>();
 
 	public abstract int getSize();
 
-	public void setInterpreter(Interpreter interpreter) {
-		fInterpreter = interpreter;
+	/**
+	 * Sets the interpreter executing instructions on the current thread.
+	 *
+	 * @param interpreter
+	 *            the interpreter, or <code>null</code> if none
+	 * @return the interpreter that was executing instructions on the current
+	 *         thread, or <code>null</code> if none
+	 */
+	public static Interpreter setCurrentInterpreter(Interpreter interpreter) {
+		Interpreter previous = fgInterpreter.get();
+		if (interpreter == null) {
+			fgInterpreter.remove();
+		} else {
+			fgInterpreter.set(interpreter);
+		}
+		return previous;
 	}
 
 	public void setLastValue(IJavaValue value) {
-		fInterpreter.setLastValue(value);
+		fgInterpreter.get().setLastValue(value);
 	}
 
 	public void stop() {
-		fInterpreter.stop();
+		fgInterpreter.get().stop();
 	}
 
 	public static int getBinaryPromotionType(int left, int right) {
@@ -59,7 +78,7 @@ public abstract class Instruction {
 	public abstract void execute() throws CoreException;
 
 	protected IRuntimeContext getContext() {
-		return fInterpreter.getContext();
+		return fgInterpreter.get().getContext();
 	}
 
 	protected IJavaDebugTarget getVM() {
@@ -72,7 +91,7 @@ public abstract class Instruction {
 	 * @see Interpreter#getInternalVariable(String)
 	 */
 	protected IVariable getInternalVariable(String name) {
-		return fInterpreter.getInternalVariable(name);
+		return fgInterpreter.get().getInternalVariable(name);
 	}
 
 	/**
@@ -83,7 +102,7 @@ public abstract class Instruction {
 	 */
 	protected IVariable createInternalVariable(String name,
 			IJavaType referencType) {
-		return fInterpreter.createInternalVariable(name, referencType);
+		return fgInterpreter.get().createInternalVariable(name, referencType);
 	}
 
 	/**
@@ -97,19 +116,19 @@ public abstract class Instruction {
 	}
 
 	protected void jump(int offset) {
-		fInterpreter.jump(offset);
+		fgInterpreter.get().jump(offset);
 	}
 
 	protected void push(Object object) {
-		fInterpreter.push(object);
+		fgInterpreter.get().push(object);
 	}
 
 	protected Object pop() {
-		return fInterpreter.pop();
+		return fgInterpreter.get().pop();
 	}
 
 	protected IJavaValue popValue() throws CoreException {
-		Object element = fInterpreter.pop();
+		Object element = fgInterpreter.get().pop();
 		if (element instanceof IJavaVariable) {
 			return (IJavaValue) ((IJavaVariable) element).getValue();
 		}
@@ -117,7 +136,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNewValue(boolean value) {
-		fInterpreter.push(newValue(value));
+		fgInterpreter.get().push(newValue(value));
 	}
 
 	protected IJavaValue newValue(boolean value) {
@@ -125,7 +144,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNewValue(byte value) {
-		fInterpreter.push(newValue(value));
+		fgInterpreter.get().push(newValue(value));
 	}
 
 	protected IJavaValue newValue(byte value) {
@@ -133,7 +152,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNewValue(short value) {
-		fInterpreter.push(newValue(value));
+		fgInterpreter.get().push(newValue(value));
 	}
 
 	protected IJavaValue newValue(short value) {
@@ -141,7 +160,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNewValue(int value) {
-		fInterpreter.push(newValue(value));
+		fgInterpreter.get().push(newValue(value));
 	}
 
 	protected IJavaValue newValue(int value) {
@@ -149,7 +168,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNewValue(long value) {
-		fInterpreter.push(newValue(value));
+		fgInterpreter.get().push(newValue(value));
 	}
 
 	protected IJavaValue newValue(long value) {
@@ -157,7 +176,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNewValue(char value) {
-		fInterpreter.push(newValue(value));
+		fgInterpreter.get().push(newValue(value));
 	}
 
 	protected IJavaValue newValue(char value) {
@@ -165,7 +184,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNewValue(float value) {
-		fInterpreter.push(newValue(value));
+		fgInterpreter.get().push(newValue(value));
 	}
 
 	protected IJavaValue newValue(float value) {
@@ -173,7 +192,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNewValue(double value) {
-		fInterpreter.push(newValue(value));
+		fgInterpreter.get().push(newValue(value));
 	}
 
 	protected IJavaValue newValue(double value) {
@@ -181,7 +200,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNewValue(String value) {
-		fInterpreter.push(newValue(value));
+		fgInterpreter.get().push(newValue(value));
 	}
 
 	protected IJavaValue newValue(String value) {
@@ -189,7 +208,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNullValue() {
-		fInterpreter.push(nullValue());
+		fgInterpreter.get().push(nullValue());
 	}
 
 	protected IJavaValue nullValue() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.debug.eval.ast.instructions;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -20,6 +21,8 @@ import java.util.List;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.core.dom.Message;
 import org.eclipse.jdt.debug.eval.ICompiledExpression;
+import org.eclipse.jdt.internal.debug.eval.ast.engine.IRuntimeContext;
+import org.eclipse.jdt.internal.debug.eval.ast.engine.Interpreter;
 
 public class InstructionSequence implements ICompiledExpression {
 
@@ -32,6 +35,17 @@ public class InstructionSequence implements ICompiledExpression {
 	private String fSnippet;
 	private CoreException fException;
 
+	/**
+	 * Maximum number of idle interpreters kept for reuse.
+	 */
+	private static final int MAX_IDLE_INTERPRETERS = 4;
+
+	/**
+	 * Interpreters done executing this sequence, to be reused by later
+	 * evaluations. Guarded by itself.
+	 */
+	private final ArrayDeque<Interpreter> fIdleInterpreters = new ArrayDeque<>(1);
+
 	public InstructionSequence(String snippet) {
 		fInstructions = new ArrayList<>(10);
 		fErrors = new ArrayList<>();
@@ -105,6 +119,44 @@ public class InstructionSequence implements ICompiledExpression {
 		return instructions;
 	}
 
+	/**
+	 * Returns an interpreter executing this sequence in the given context,
+	 * reusing an idle one if possible. The interpreter should be given back
+	 * with {@link #releaseInterpreter(Interpreter)} once its result is no
+	 * longer needed.
+	 *
+	 * @param context
+	 *            the context of the evaluation
+	 * @return an interpreter for this sequence
+	 */
+	public Interpreter getInterpreter(IRuntimeContext context) {
+		Interpreter interpreter;
+		synchronized (fIdleInterpreters) {
+			interpreter = fIdleInterpreters.poll();
+		}
+		if (interpreter == null) {
+			return new Interpreter(this, context);
+		}
+		interpreter.reset(context);
+		return interpreter;
+	}
+
+	/**
+	 * Gives back an interpreter obtained from
+	 * {@link #getInterpreter(IRuntimeContext)} which is done executing.
+	 *
+	 * @param interpreter
+	 *            the interpreter to reuse
+	 */
+	public void releaseInterpreter(Interpreter interpreter) {
+		interpreter.reset(null);
+		synchronized (fIdleInterpreters) {
+			if (fIdleInterpreters.size() < MAX_IDLE_INTERPRETERS) {
+				fIdleInterpreters.add(interpreter);
+			}
+		}
+	}
+
 	/**
 	 * Answer the instruction at the given address
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -28,7 +28,6 @@ import org.eclipse.jdi.internal.jdwp.JdwpReplyPacket;
 
 import com.sun.jdi.ArrayReference;
 import com.sun.jdi.ClassNotLoadedException;
-import com.sun.jdi.InternalException;
 import com.sun.jdi.InvalidTypeException;
 import com.sun.jdi.Mirror;
 import com.sun.jdi.ObjectCollectedException;
@@ -45,8 +44,25 @@ public class ArrayReferenceImpl extends ObjectReferenceImpl implements
 	/** JDWP Tag. */
 	public static final byte tag = JdwpID.ARRAY_TAG;
 
+	/**
+	 * Maximum number of slices of the components kept by an array.
+	 */
+	private static final int MAX_CACHED_SLICES = 16;
+
 	private int fLength = -1;
 
+	/**
+	 * Slices of the components read while all threads of the VM were
+	 * suspended and its state did not change, the most recently read last, or
+	 * <code>null</code>. Guarded by this array.
+	 */
+	private List<ArraySlice> fSlices;
+
+	/**
+	 * The state generation of the VM the slices were read in.
+	 */
+	private int fSlicesGeneration;
+
 	/**
 	 * Creates new ArrayReferenceImpl.
 	 * @param vmImpl the VM
@@ -73,7 +89,7 @@ public class ArrayReferenceImpl extends ObjectReferenceImpl implements
 	 */
 	@Override
 	public Value getValue(int index) throws IndexOutOfBoundsException {
-		return getValues(index, 1).get(0);
+		return readValues(index, 1).get(0);
 	}
 
 	/**
@@ -96,6 +112,25 @@ public class ArrayReferenceImpl extends ObjectReferenceImpl implements
 	@Override
 	public List<Value> getValues(int firstIndex, int length)
 			throws IndexOutOfBoundsException {
+		return new ArrayList<>(readValues(firstIndex, length));
+	}
+
+	/**
+	 * Returns the values starting at firstIndex and ending at
+	 * firstIndex+length, as kept by this array while all threads of the VM are
+	 * suspended. The list must not be modified.
+	 *
+	 * @param firstIndex
+	 *            the start
+	 * @param length
+	 *            the number of values to return, or -1 for all values to the
+	 *            end of the array
+	 * @return the list of {@link Value}s
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is outside the bounds of the array
+	 */
+	private List<Value> readValues(int firstIndex, int length)
+			throws IndexOutOfBoundsException {
 
 		int arrayLength = length();
 
@@ -115,7 +150,15 @@ public class ArrayReferenceImpl extends ObjectReferenceImpl implements
 					JDIMessages.ArrayReferenceImpl_Attempted_to_get_more_values_from_array_than_length_of_array_2);
 		}
 
-		// Note that this information should not be cached.
+		// Note that this information should not be cached, unless all threads
+		// are suspended: a running thread changes components at any time.
+		int generation = virtualMachineImpl().suspendedStateGeneration();
+		if (generation >= 0) {
+			List<Value> cached = getCachedValues(firstIndex, length, generation);
+			if (cached != null) {
+				return cached;
+			}
+		}
 		initJdwpRequest();
 		try {
 			ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
@@ -143,37 +186,11 @@ public class ArrayReferenceImpl extends ObjectReferenceImpl implements
 
 			int type = readByte("type", JdwpID.tagMap(), replyData); //$NON-NLS-1$
 			int readLength = readInt("length", replyData); //$NON-NLS-1$
-			// See also ValueImpl.
-			switch (type) {
-			// Multidimensional array.
-			case ArrayReferenceImpl.tag:
-				// Object references.
-			case ClassLoaderReferenceImpl.tag:
-			case ClassObjectReferenceImpl.tag:
-			case StringReferenceImpl.tag:
-			case ObjectReferenceImpl.tag:
-			case ThreadGroupReferenceImpl.tag:
-			case ThreadReferenceImpl.tag:
-				return readObjectSequence(readLength, replyData);
-
-				// Primitive type.
-			case BooleanValueImpl.tag:
-			case ByteValueImpl.tag:
-			case CharValueImpl.tag:
-			case DoubleValueImpl.tag:
-			case FloatValueImpl.tag:
-			case IntegerValueImpl.tag:
-			case LongValueImpl.tag:
-			case ShortValueImpl.tag:
-				return readPrimitiveSequence(readLength, type, replyData);
-
-			case VoidValueImpl.tag:
-			case 0:
-			default:
-				throw new InternalException(
-						JDIMessages.ArrayReferenceImpl_Invalid_ArrayReference_Value_tag_encountered___2
-								+ type);
+			ArraySlice slice = ArraySlice.read(this, type, firstIndex, readLength, replyData);
+			if (generation >= 0) {
+				cacheSlice(slice, generation);
 			}
+			return slice;
 		} catch (IOException e) {
 			defaultIOExceptionHandler(e);
 			return null;
@@ -183,43 +200,58 @@ public class ArrayReferenceImpl extends ObjectReferenceImpl implements
 	}
 
 	/**
-	 * Reads the given length of objects from the given stream
-	 * @param length the number of objects to read
-	 * @param in the stream to read from
-	 * @return the {@link List} of {@link ValueImpl}s
-	 * @throws IOException if the reading fails
-	 * @returns Returns sequence of object reference values.
+	 * Returns the components from firstIndex up to firstIndex+length from a
+	 * slice read in the given state generation of the VM, while all its
+	 * threads were suspended.
+	 *
+	 * @param firstIndex
+	 *            the start
+	 * @param length
+	 *            the number of values to return
+	 * @param generation
+	 *            the current state generation of the VM, all its threads
+	 *            being suspended
+	 * @return the list of {@link Value}s or <code>null</code> if they are not
+	 *         cached
 	 */
-	private List<Value> readObjectSequence(int length, DataInputStream in)
-			throws IOException {
-		List<Value> elements = new ArrayList<>(length);
-		for (int i = 0; i < length; i++) {
-			ValueImpl value = ObjectReferenceImpl
-					.readObjectRefWithTag(this, in);
-			elements.add(value);
+	private synchronized List<Value> getCachedValues(int firstIndex, int length, int generation) {
+		if (fSlices == null) {
+			return null;
+		}
+		if (fSlicesGeneration != generation) {
+			fSlices = null;
+			return null;
+		}
+		for (int i = fSlices.size() - 1; i >= 0; i--) {
+			ArraySlice slice = fSlices.get(i);
+			if (slice.covers(firstIndex, length)) {
+				return slice.getValues(firstIndex, length);
+			}
 		}
-		return elements;
+		return null;
 	}
 
 	/**
-	 * @param length
-	 *            the number of primitives to read
-	 * @param type
-	 *            the type
-	 * @param in
-	 *            the input stream
-	 * @return Returns sequence of values of primitive type.
-	 * @throws IOException
-	 *             if reading from the stream encounters a problem
+	 * Keeps the given slice, unless the state of the VM changed or some of its
+	 * threads were resumed since the given generation in which it was read.
+	 *
+	 * @param slice
+	 *            the components read
+	 * @param generation
+	 *            the state generation of the VM when the components were
+	 *            requested, all its threads being suspended
 	 */
-	private List<Value> readPrimitiveSequence(int length, int type, DataInputStream in)
-			throws IOException {
-		List<Value> elements = new ArrayList<>(length);
-		for (int i = 0; i < length; i++) {
-			ValueImpl value = ValueImpl.readWithoutTag(this, type, in);
-			elements.add(value);
+	private synchronized void cacheSlice(ArraySlice slice, int generation) {
+		if (generation != virtualMachineImpl().suspendedStateGeneration()) {
+			return;
+		}
+		if (fSlices == null || fSlicesGeneration != generation) {
+			fSlices = new ArrayList<>(2);
+			fSlicesGeneration = generation;
+		} else if (fSlices.size() == MAX_CACHED_SLICES) {
+			fSlices.remove(0);
 		}
-		return elements;
+		fSlices.add(slice);
 	}
 
 	/**
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdi.internal;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import com.sun.jdi.InternalException;
+import com.sun.jdi.Value;
+
+/**
+ * A range of the components of an array, as read from an
+ * <code>AR_GET_VALUES</code> reply.
+ * <p>
+ * Components of a primitive type are decoded straight into an array of that
+ * type, and the {@link Value} of a component is only created when it is
+ * asked for. Components of a reference type are kept as their values.
+ * </p>
+ * The slice is a read-only list of the components it holds.
+ *
+ * @see ArrayReferenceImpl#getValues(int, int)
+ */
+class ArraySlice extends AbstractList<Value> implements RandomAccess {
+	/** The VM the components belong to. */
+	private final VirtualMachineImpl fVirtualMachine;
+
+	/** The JDWP tag of the components. */
+	private final int fTag;
+
+	/** Index in the array of the first component. */
+	private final int fFirstIndex;
+
+	/** Number of components. */
+	private final int fLength;
+
+	/**
+	 * The components, in a <code>boolean[]</code>, <code>byte[]</code>,
+	 * <code>char[]</code>, <code>short[]</code>, <code>int[]</code>,
+	 * <code>long[]</code>, <code>float[]</code>, <code>double[]</code> or
+	 * <code>Value[]</code>.
+	 */
+	private final Object fStorage;
+
+	private ArraySlice(VirtualMachineImpl vmImpl, int tag, int firstIndex, int length, Object storage) {
+		fVirtualMachine = vmImpl;
+		fTag = tag;
+		fFirstIndex = firstIndex;
+		fLength = length;
+		fStorage = storage;
+	}
+
+	/**
+	 * Reads the components of the given type from the given stream.
+	 *
+	 * @param target
+	 *            the array the components belong to
+	 * @param tag
+	 *            the JDWP tag of the components
+	 * @param firstIndex
+	 *            index in the array of the first component
+	 * @param length
+	 *            the number of components
+	 * @param in
+	 *            the stream to read from
+	 * @return Returns the slice holding the components.
+	 * @throws IOException
+	 *             if reading from the stream fails
+	 */
+	static ArraySlice read(ArrayReferenceImpl target, int tag, int firstIndex, int length, DataInputStream in)
+			throws IOException {
+		Object storage;
+		switch (tag) {
+		case BooleanValueImpl.tag:
+			boolean[] booleans = new boolean[length];
+			for (int i = 0; i < length; i++) {
+				booleans[i] = in.readBoolean();
+			}
+			storage = booleans;
+			break;
+		case ByteValueImpl.tag:
+			byte[] bytes = new byte[length];
+			in.readFully(bytes);
+			storage = bytes;
+			break;
+		case CharValueImpl.tag:
+			char[] chars = new char[length];
+			for (int i = 0; i < length; i++) {
+				chars[i] = in.readChar();
+			}
+			storage = chars;
+			break;
+		case ShortValueImpl.tag:
+			short[] shorts = new short[length];
+			for (int i = 0; i < length; i++) {
+				shorts[i] = in.readShort();
+			}
+			storage = shorts;
+			break;
+		case IntegerValueImpl.tag:
+			int[] ints = new int[length];
+			for (int i = 0; i < length; i++) {
+				ints[i] = in.readInt();
+			}
+			storage = ints;
+			break;
+		case LongValueImpl.tag:
+			long[] longs = new long[length];
+			for (int i = 0; i < length; i++) {
+				longs[i] = in.readLong();
+			}
+			storage = longs;
+			break;
+		case FloatValueImpl.tag:
+			float[] floats = new float[length];
+			for (int i = 0; i < length; i++) {
+				floats[i] = in.readFloat();
+			}
+			storage = floats;
+			break;
+		case DoubleValueImpl.tag:
+			double[] doubles = new double[length];
+			for (int i = 0; i < length; i++) {
+				doubles[i] = in.readDouble();
+			}
+			storage = doubles;
+			break;
+		case ArrayReferenceImpl.tag:
+		case ClassLoaderReferenceImpl.tag:
+		case ClassObjectReferenceImpl.tag:
+		case StringReferenceImpl.tag:
+		case ObjectReferenceImpl.tag:
+		case ThreadGroupReferenceImpl.tag:
+		case ThreadReferenceImpl.tag:
+			// Object references are tagged with their own type.
+			Value[] values = new Value[length];
+			for (int i = 0; i < length; i++) {
+				values[i] = ObjectReferenceImpl.readObjectRefWithTag(target, in);
+			}
+			storage = values;
+			break;
+		default:
+			throw new InternalException(
+					JDIMessages.ArrayReferenceImpl_Invalid_ArrayReference_Value_tag_encountered___2
+							+ tag);
+		}
+		return new ArraySlice(target.virtualMachineImpl(), tag, firstIndex, length, storage);
+	}
+
+	/**
+	 * @return Returns whether this slice holds all the components from
+	 *         firstIndex up to firstIndex+length.
+	 */
+	boolean covers(int firstIndex, int length) {
+		return firstIndex >= fFirstIndex && firstIndex + length <= fFirstIndex + fLength;
+	}
+
+	/**
+	 * @return Returns the components from firstIndex up to firstIndex+length,
+	 *         which this slice must cover, without copying them.
+	 */
+	List<Value> getValues(int firstIndex, int length) {
+		if (firstIndex == fFirstIndex && length == fLength) {
+			return this;
+		}
+		int from = firstIndex - fFirstIndex;
+		return subList(from, from + length);
+	}
+
+	/**
+	 * @return Returns the number of components held by this slice.
+	 */
+	@Override
+	public int size() {
+		return fLength;
+	}
+
+	/**
+	 * @return Returns the value of the component at the given position in
+	 *         this slice.
+	 */
+	@Override
+	public Value get(int index) {
+		if (index < 0 || index >= fLength) {
+			throw new IndexOutOfBoundsException(Integer.toString(index));
+		}
+		switch (fTag) {
+		case BooleanValueImpl.tag:
+			return new BooleanValueImpl(fVirtualMachine, Boolean.valueOf(((boolean[]) fStorage)[index]));
+		case ByteValueImpl.tag:
+			return new ByteValueImpl(fVirtualMachine, Byte.valueOf(((byte[]) fStorage)[index]));
+		case CharValueImpl.tag:
+			return new CharValueImpl(fVirtualMachine, Character.valueOf(((char[]) fStorage)[index]));
+		case ShortValueImpl.tag:
+			return new ShortValueImpl(fVirtualMachine, Short.valueOf(((short[]) fStorage)[index]));
+		case IntegerValueImpl.tag:
+			return new IntegerValueImpl(fVirtualMachine, Integer.valueOf(((int[]) fStorage)[index]));
+		case LongValueImpl.tag:
+			return new LongValueImpl(fVirtualMachine, Long.valueOf(((long[]) fStorage)[index]));
+		case FloatValueImpl.tag:
+			return new FloatValueImpl(fVirtualMachine, Float.valueOf(((float[]) fStorage)[index]));
+		case DoubleValueImpl.tag:
+			return new DoubleValueImpl(fVirtualMachine, Double.valueOf(((double[]) fStorage)[index]));
+		default:
+			return ((Value[]) fStorage)[index];
+		}
+	}
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdi.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.sun.jdi.ReferenceType;
+
+/**
+ * Index of the reference types loaded in a VM, ordered by signature. It is
+ * seeded once from the list of all loaded classes and then kept current from
+ * class prepare and unload events, so that lookups by signature or signature
+ * prefix do not go to the VM.
+ *
+ * Until it is seeded, or after it has been marked stale, the index is not
+ * complete and must not be used for lookups.
+ *
+ * @see VirtualMachineImpl#setUseClassIndex(boolean)
+ */
+class ClassIndex {
+	/** Loaded types by signature, there is one per defining class loader. */
+	private final TreeMap<String, List<ReferenceTypeImpl>> fTypes = new TreeMap<>();
+
+	/** Whether the index holds all loaded types. */
+	private boolean fSeeded = false;
+
+	/**
+	 * Number of times the index was marked stale or a type was unloaded, to
+	 * detect outdated seeds.
+	 */
+	private int fGeneration = 0;
+
+	/**
+	 * @return Returns whether the index holds all loaded types.
+	 */
+	synchronized boolean isSeeded() {
+		return fSeeded;
+	}
+
+	/**
+	 * @return Returns a number that changes every time the index is marked
+	 *         stale or a type is unloaded, to be passed to
+	 *         {@link #seed(List, int)}.
+	 */
+	synchronized int generation() {
+		return fGeneration;
+	}
+
+	/**
+	 * Adds all loaded types, as read from the VM. Types added from events in
+	 * the meantime are kept.
+	 *
+	 * @param types
+	 *            all loaded types, with their signatures known
+	 * @param generation
+	 *            the generation of the index at the time the types were
+	 *            requested, the types are ignored if the index was marked
+	 *            stale or a type was unloaded since, as they may include the
+	 *            unloaded type
+	 */
+	synchronized void seed(List<ReferenceType> types, int generation) {
+		if (generation != fGeneration) {
+			return;
+		}
+		for (ReferenceType type : types) {
+			add((ReferenceTypeImpl) type);
+		}
+		fSeeded = true;
+	}
+
+	/**
+	 * Adds a loaded type whose signature is known.
+	 */
+	synchronized void add(ReferenceTypeImpl type) {
+		List<ReferenceTypeImpl> types = fTypes.computeIfAbsent(type.signature(), signature -> new ArrayList<>(1));
+		if (!types.contains(type)) {
+			types.add(type);
+		}
+	}
+
+	/**
+	 * Notes that a type was unloaded, so that a seed requested before is
+	 * ignored. Called before the type is looked up to be removed.
+	 */
+	synchronized void unloaded() {
+		fGeneration++;
+	}
+
+	/**
+	 * Removes an unloaded type.
+	 */
+	synchronized void remove(String signature, ReferenceTypeImpl type) {
+		List<ReferenceTypeImpl> types = fTypes.get(signature);
+		if (types != null && types.remove(type) && types.isEmpty()) {
+			fTypes.remove(signature);
+		}
+	}
+
+	/**
+	 * Empties the index, which must be seeded again before it is used.
+	 */
+	synchronized void markStale() {
+		fTypes.clear();
+		fSeeded = false;
+		fGeneration++;
+	}
+
+	/**
+	 * @return Returns all loaded types.
+	 */
+	synchronized List<ReferenceType> all() {
+		List<ReferenceType> result = new ArrayList<>(fTypes.size());
+		for (List<ReferenceTypeImpl> types : fTypes.values()) {
+			result.addAll(types);
+		}
+		return result;
+	}
+
+	/**
+	 * @return Returns the loaded types with the given signature.
+	 */
+	synchronized List<ReferenceType> bySignature(String signature) {
+		List<ReferenceTypeImpl> types = fTypes.get(signature);
+		if (types == null) {
+			return new ArrayList<>(0);
+		}
+		return new ArrayList<>(types);
+	}
+
+	/**
+	 * @return Returns the loaded types whose signature starts with the given
+	 *         prefix.
+	 */
+	synchronized List<ReferenceType> bySignaturePrefix(String prefix) {
+		if (prefix.isEmpty()) {
+			return all();
+		}
+		String end = prefix.substring(0, prefix.length() - 1) + (char) (prefix.charAt(prefix.length() - 1) + 1);
+		Map<String, List<ReferenceTypeImpl>> range = fTypes.subMap(prefix, end);
+		List<ReferenceType> result = new ArrayList<>();
+		for (List<ReferenceTypeImpl> types : range.values()) {
+			result.addAll(types);
+		}
+		return result;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -95,14 +95,11 @@ public class ClassTypeImpl extends ReferenceTypeImpl implements ClassType {
 
 		// For all classes that have this class cached as superclass, this cache
 		// must be undone.
-		Iterator<Object> itr = virtualMachineImpl().allCachedRefTypes();
+		Iterator<Object> itr = virtualMachineImpl().allCachedRefTypes(ClassTypeImpl.class);
 		while (itr.hasNext()) {
-			ReferenceTypeImpl refType = (ReferenceTypeImpl) itr.next();
-			if (refType instanceof ClassTypeImpl) {
-				ClassTypeImpl classType = (ClassTypeImpl) refType;
-				if (classType.fSuperclass != null && classType.fSuperclass.equals(this)) {
-					classType.flushStoredJdwpResults();
-				}
+			ClassTypeImpl classType = (ClassTypeImpl) itr.next();
+			if (classType.fSuperclass != null && classType.fSuperclass.equals(this)) {
+				classType.flushStoredJdwpResults();
 			}
 		}
 
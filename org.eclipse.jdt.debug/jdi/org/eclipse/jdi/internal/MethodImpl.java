@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
 import org.eclipse.jdi.internal.jdwp.JdwpMethodID;
@@ -156,12 +157,50 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 
 		initJdwpRequest();
 		try {
-			ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
-			DataOutputStream outData = new DataOutputStream(outBytes);
+			JdwpReplyPacket replyPacket = requestVM(
+					JdwpCommandPacket.M_LINE_TABLE, writeWithReferenceType());
+			readLineTable(replyPacket);
+		} finally {
+			handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * @return Returns the JDWP representation of this method and its
+	 *         reference type, as sent by the method commands.
+	 */
+	private byte[] writeWithReferenceType() {
+		ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+		DataOutputStream outData = new DataOutputStream(outBytes);
+		try {
 			writeWithReferenceType(this, outData);
+		} catch (IOException e) {
+			defaultIOExceptionHandler(e);
+		}
+		return outBytes.toByteArray();
+	}
 
-			JdwpReplyPacket replyPacket = requestVM(
-					JdwpCommandPacket.M_LINE_TABLE, outBytes);
+	/**
+	 * Requests the line table of this method without waiting for the reply,
+	 * which is to be passed to {@link #readLineTable(JdwpReplyPacket)}.
+	 *
+	 * @return Returns the future reply, or <code>null</code> if the line table
+	 *         is known already or not available.
+	 */
+	CompletableFuture<JdwpReplyPacket> requestLineTableAsync() {
+		if (fCodeIndexToLine != null || isAbstract() || isNative() || isObsolete()) {
+			return null;
+		}
+		initJdwpRequest();
+		return requestVMAsync(JdwpCommandPacket.M_LINE_TABLE, writeWithReferenceType());
+	}
+
+	/**
+	 * Reads and stores the line table of this method from the reply to a line
+	 * table request.
+	 */
+	void readLineTable(JdwpReplyPacket replyPacket) throws AbsentInformationException {
+		try {
 			switch (replyPacket.errorCode()) {
 			case JdwpReplyPacket.ABSENT_INFORMATION:
 				throw new AbsentInformationException(
@@ -207,8 +246,6 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 			fCodeIndexToLine = null;
 			fLineToCodeIndexes = null;
 			defaultIOExceptionHandler(e);
-		} finally {
-			handledJdwpRequest();
 		}
 	}
 
@@ -524,15 +561,46 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 		}
 		initJdwpRequest();
 		try {
-			ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
-			DataOutputStream outData = new DataOutputStream(outBytes);
-			writeWithReferenceType(this, outData);
+			JdwpReplyPacket replyPacket = requestVM(variablesCommand(), writeWithReferenceType());
+			return readVariables(replyPacket);
+		} finally {
+			handledJdwpRequest();
+		}
+	}
 
-			boolean withGenericSignature = virtualMachineImpl()
-					.isJdwpVersionGreaterOrEqual(1, 5);
-			int jdwpCommand = withGenericSignature ? JdwpCommandPacket.M_VARIABLE_TABLE_WITH_GENERIC
-					: JdwpCommandPacket.M_VARIABLE_TABLE;
-			JdwpReplyPacket replyPacket = requestVM(jdwpCommand, outBytes);
+	/**
+	 * @return Returns the command retrieving the variables of a method.
+	 */
+	private int variablesCommand() {
+		boolean withGenericSignature = virtualMachineImpl()
+				.isJdwpVersionGreaterOrEqual(1, 5);
+		return withGenericSignature ? JdwpCommandPacket.M_VARIABLE_TABLE_WITH_GENERIC
+				: JdwpCommandPacket.M_VARIABLE_TABLE;
+	}
+
+	/**
+	 * Requests the variable table of this method without waiting for the
+	 * reply, which is to be passed to {@link #readVariables(JdwpReplyPacket)}.
+	 *
+	 * @return Returns the future reply, or <code>null</code> if the variables
+	 *         are known already or not available.
+	 */
+	CompletableFuture<JdwpReplyPacket> requestVariablesAsync() {
+		if (fVariables != null || isNative() || isAbstract()) {
+			return null;
+		}
+		initJdwpRequest();
+		return requestVMAsync(variablesCommand(), writeWithReferenceType());
+	}
+
+	/**
+	 * Reads and stores the variables of this method from the reply to a
+	 * variable table request.
+	 *
+	 * @return Returns the variables of this method.
+	 */
+	List<LocalVariable> readVariables(JdwpReplyPacket replyPacket) throws AbsentInformationException {
+		try {
 			switch (replyPacket.errorCode()) {
 			case JdwpReplyPacket.ABSENT_INFORMATION:
 				return inferArguments();
@@ -540,6 +608,8 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 
 			defaultReplyErrorHandler(replyPacket.errorCode());
 
+			boolean withGenericSignature = virtualMachineImpl()
+					.isJdwpVersionGreaterOrEqual(1, 5);
 			DataInputStream replyData = replyPacket.dataInStream();
 			fArgumentSlotsCount = readInt("arg count", replyData); //$NON-NLS-1$
 			int nrOfElements = readInt("elements", replyData); //$NON-NLS-1$
@@ -576,8 +646,6 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 			fVariables = null;
 			defaultIOExceptionHandler(e);
 			return null;
-		} finally {
-			handledJdwpRequest();
 		}
 	}
 
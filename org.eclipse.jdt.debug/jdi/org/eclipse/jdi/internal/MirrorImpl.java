@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,6 +20,8 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.eclipse.jdi.Bootstrap;
 import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
@@ -186,26 +188,52 @@ public class MirrorImpl implements Mirror {
 	public JdwpReplyPacket requestVM(int command, byte[] outData) {
 		JdwpCommandPacket commandPacket = new JdwpCommandPacket(command);
 		commandPacket.setData(outData);
+		boolean changesState = changesState(command);
+		boolean invokes = invokes(command);
+		if (command == JdwpCommandPacket.VM_RESUME || command == JdwpCommandPacket.TR_RESUME) {
+			fVirtualMachineImpl.setAllThreadsSuspended(false);
+		}
+		if (invokes) {
+			fVirtualMachineImpl.invocationStarted(true);
+		}
+		if (changesState) {
+			fVirtualMachineImpl.stateMayHaveChanged();
+		}
 		long sent = System.currentTimeMillis();
-		fVirtualMachineImpl.packetSendManager().sendPacket(commandPacket);
-		fPendingJdwpRequest = true;
-		writeVerboseCommandPacketHeader(commandPacket);
-
-		JdwpReplyPacket reply = fVirtualMachineImpl.packetReceiveManager()
-				.getReply(commandPacket);
-		long recieved = System.currentTimeMillis();
+		JdwpReplyPacket reply;
+		try {
+			// register for the reply before sending, the VM may answer at once
+			fVirtualMachineImpl.packetReceiveManager().expectReply(commandPacket.getId());
+			fVirtualMachineImpl.packetSendManager().sendPacket(commandPacket);
+			fPendingJdwpRequest = true;
+			writeVerboseCommandPacketHeader(commandPacket);
+
+			reply = fVirtualMachineImpl.packetReceiveManager()
+					.getReply(commandPacket);
+		} finally {
+			if (changesState) {
+				// values may have been read while a method was invoked
+				fVirtualMachineImpl.stateMayHaveChanged();
+			}
+			if (invokes) {
+				fVirtualMachineImpl.invocationStarted(false);
+			}
+		}
+		if (command == JdwpCommandPacket.VM_SUSPEND && reply.errorCode() == JdwpReplyPacket.NONE) {
+			fVirtualMachineImpl.setAllThreadsSuspended(true);
+		}
 		if (JDIDebugOptions.DEBUG_JDI_REQUEST_TIMES) {
-			StringBuilder buf = new StringBuilder();
-			buf.append(JDIDebugOptions.FORMAT.format(new Date(sent)));
-			buf.append(" JDI Request: "); //$NON-NLS-1$
-			buf.append(commandPacket.toString());
-			buf.append("\n\tResponse Time: "); //$NON-NLS-1$
-			buf.append(recieved - sent);
-			buf.append("ms"); //$NON-NLS-1$
-			buf.append(" length: "); //$NON-NLS-1$
-			buf.append(reply.getLength());
-			JDIDebugOptions.trace(buf.toString());
+			traceRequestTime(commandPacket, reply, sent);
 		}
+		writeVerboseReplyPacket(reply);
+
+		return reply;
+	}
+
+	/**
+	 * Writes reply packet header if verbose is on.
+	 */
+	private void writeVerboseReplyPacket(JdwpReplyPacket reply) {
 		if (fVerboseWriter != null) {
 			fVerboseWriter.println();
 			fVerboseWriter.println("Received reply"); //$NON-NLS-1$
@@ -217,10 +245,200 @@ public class MirrorImpl implements Mirror {
 					.println(
 							"error code", reply.errorCode(), JdwpReplyPacket.errorMap()); //$NON-NLS-1$
 		}
+	}
+
+	/**
+	 * @return Returns whether the given command lets the VM run code or
+	 *         changes array components, or suspends the VM, so that array
+	 *         values read before may be stale.
+	 * @see VirtualMachineImpl#stateMayHaveChanged()
+	 */
+	private static boolean changesState(int command) {
+		switch (command) {
+		case JdwpCommandPacket.VM_SUSPEND:
+		case JdwpCommandPacket.VM_RESUME:
+		case JdwpCommandPacket.TR_SUSPEND:
+		case JdwpCommandPacket.TR_RESUME:
+		case JdwpCommandPacket.CT_INVOKE_METHOD:
+		case JdwpCommandPacket.CT_NEW_INSTANCE:
+		case JdwpCommandPacket.IT_INVOKE_METHOD:
+		case JdwpCommandPacket.OR_INVOKE_METHOD:
+		case JdwpCommandPacket.AR_SET_VALUES:
+			return true;
+		default:
+			return false;
+		}
+	}
 
+	/**
+	 * @return Returns whether the given command invokes a method, which lets
+	 *         threads of the VM run until it replies.
+	 */
+	private static boolean invokes(int command) {
+		switch (command) {
+		case JdwpCommandPacket.CT_INVOKE_METHOD:
+		case JdwpCommandPacket.CT_NEW_INSTANCE:
+		case JdwpCommandPacket.IT_INVOKE_METHOD:
+		case JdwpCommandPacket.OR_INVOKE_METHOD:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Performs a VM request without waiting for its reply, so that further
+	 * requests can be sent while this one is in flight. As other requests may
+	 * be built before the reply is joined, the verbose output of the command
+	 * is written at once, with the arguments written since
+	 * {@link #initJdwpRequest()}, and the reply header is written by
+	 * {@link #joinReply(CompletableFuture)}. The state of the VM is noted as
+	 * {@link #requestVM(int, byte[])} does, once the reply is received.
+	 *
+	 * @return Returns a future of the reply data, completed exceptionally with
+	 *         a {@link org.eclipse.jdi.TimeoutException} or a
+	 *         {@link VMDisconnectedException} if no reply is received.
+	 * @see #joinReply(CompletableFuture)
+	 */
+	public CompletableFuture<JdwpReplyPacket> requestVMAsync(final int command, byte[] outData) {
+		final JdwpCommandPacket commandPacket = new JdwpCommandPacket(command);
+		commandPacket.setData(outData);
+		final boolean changesState = changesState(command);
+		final boolean invokes = invokes(command);
+		if (command == JdwpCommandPacket.VM_RESUME || command == JdwpCommandPacket.TR_RESUME) {
+			fVirtualMachineImpl.setAllThreadsSuspended(false);
+		}
+		if (invokes) {
+			fVirtualMachineImpl.invocationStarted(true);
+		}
+		if (changesState) {
+			fVirtualMachineImpl.stateMayHaveChanged();
+		}
+		final long sent = System.currentTimeMillis();
+		// register for the reply before sending, the VM may answer at once
+		final CompletableFuture<JdwpReplyPacket> pending = fVirtualMachineImpl.packetReceiveManager()
+				.getReplyAsync(commandPacket.getId(), fVirtualMachineImpl.getRequestTimeout());
+		CompletableFuture<JdwpReplyPacket> reply = pending;
+		if (changesState) {
+			// callers joining the reply see the state noted
+			reply = pending.whenComplete((packet, e) -> {
+				// values may have been read while a method was invoked
+				fVirtualMachineImpl.stateMayHaveChanged();
+				if (invokes) {
+					fVirtualMachineImpl.invocationStarted(false);
+				}
+				if (command == JdwpCommandPacket.VM_SUSPEND && packet != null && packet.errorCode() == JdwpReplyPacket.NONE) {
+					fVirtualMachineImpl.setAllThreadsSuspended(true);
+				}
+			});
+		}
+		try {
+			fVirtualMachineImpl.packetSendManager().sendPacket(commandPacket);
+		} catch (RuntimeException e) {
+			// the reply never comes, don't wait for it to expire
+			pending.completeExceptionally(e);
+			throw e;
+		}
+		if (fVerboseWriter != null) {
+			writeVerboseCommandPacketHeader(commandPacket);
+			fVerboseWriter.println();
+			fVerboseWriter.flush();
+		}
+		if (JDIDebugOptions.DEBUG_JDI_REQUEST_TIMES) {
+			reply.thenAccept(packet -> traceRequestTime(commandPacket, packet, sent));
+		}
 		return reply;
 	}
 
+	/**
+	 * Performs a VM request without waiting for its reply.
+	 *
+	 * @return Returns a future of the reply data.
+	 * @see #requestVMAsync(int, byte[])
+	 */
+	public CompletableFuture<JdwpReplyPacket> requestVMAsync(int command, ByteArrayOutputStream outData) {
+		return requestVMAsync(command, outData.toByteArray());
+	}
+
+	/**
+	 * Performs a VM request for a specified object without waiting for its
+	 * reply.
+	 *
+	 * @return Returns a future of the reply data.
+	 * @see #requestVMAsync(int, byte[])
+	 */
+	public CompletableFuture<JdwpReplyPacket> requestVMAsync(int command, ObjectReferenceImpl object) {
+		initJdwpRequest();
+		ByteArrayOutputStream byteOutStream = new ByteArrayOutputStream();
+		DataOutputStream dataOutStream = new DataOutputStream(byteOutStream);
+		try {
+			object.write(this, dataOutStream);
+		} catch (IOException e) {
+			defaultIOExceptionHandler(e);
+		}
+		return requestVMAsync(command, byteOutStream);
+	}
+
+	/**
+	 * Performs a VM request for a specified reference type without waiting for
+	 * its reply.
+	 *
+	 * @return Returns a future of the reply data.
+	 * @see #requestVMAsync(int, byte[])
+	 */
+	public CompletableFuture<JdwpReplyPacket> requestVMAsync(int command, ReferenceTypeImpl refType) {
+		initJdwpRequest();
+		ByteArrayOutputStream byteOutStream = new ByteArrayOutputStream();
+		DataOutputStream dataOutStream = new DataOutputStream(byteOutStream);
+		try {
+			refType.write(this, dataOutStream);
+		} catch (IOException e) {
+			defaultIOExceptionHandler(e);
+		}
+		return requestVMAsync(command, byteOutStream);
+	}
+
+	/**
+	 * Waits for the reply of a request performed by
+	 * {@link #requestVMAsync(int, byte[])}, rethrowing the exception it failed
+	 * with, if any. The verbose output of the reply, and of the data read
+	 * from it, is written by the next {@link #handledJdwpRequest()}.
+	 *
+	 * @return Returns reply data.
+	 */
+	public JdwpReplyPacket joinReply(CompletableFuture<JdwpReplyPacket> reply) {
+		try {
+			JdwpReplyPacket packet = reply.join();
+			if (fVerboseWriter != null) {
+				fPendingJdwpRequest = true;
+				writeVerboseReplyPacket(packet);
+			}
+			return packet;
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Traces the response time of a VM request.
+	 */
+	private void traceRequestTime(JdwpCommandPacket commandPacket, JdwpReplyPacket reply, long sent) {
+		long recieved = System.currentTimeMillis();
+		StringBuilder buf = new StringBuilder();
+		buf.append(JDIDebugOptions.FORMAT.format(new Date(sent)));
+		buf.append(" JDI Request: "); //$NON-NLS-1$
+		buf.append(commandPacket.toString());
+		buf.append("\n\tResponse Time: "); //$NON-NLS-1$
+		buf.append(recieved - sent);
+		buf.append("ms"); //$NON-NLS-1$
+		buf.append(" length: "); //$NON-NLS-1$
+		buf.append(reply.getLength());
+		JDIDebugOptions.trace(buf.toString());
+	}
+
 	/**
 	 * Performs a VM request.
 	 *
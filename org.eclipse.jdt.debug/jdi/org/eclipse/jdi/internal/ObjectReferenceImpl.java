@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
 import org.eclipse.jdi.internal.jdwp.JdwpID;
@@ -300,7 +301,22 @@ public class ObjectReferenceImpl extends ValueImpl implements ObjectReference {
 					nonStaticFields.add(field);
 			}
 
-			// First get values for the static fields.
+			// Request the values of the non-static fields first, so that
+			// the request is in flight while the static fields are
+			// retrieved.
+			CompletableFuture<JdwpReplyPacket> nonStaticReply = null;
+			int nonStaticFieldsSize = nonStaticFields.size();
+			if (nonStaticFieldsSize > 0) {
+				write(this, outData);
+				writeInt(nonStaticFieldsSize, "size", outData); //$NON-NLS-1$
+				for (int i = 0; i < nonStaticFieldsSize; i++) {
+					FieldImpl field = nonStaticFields.get(i);
+					field.write(this, outData);
+				}
+				nonStaticReply = requestVMAsync(JdwpCommandPacket.OR_GET_VALUES, outBytes);
+			}
+
+			// Then get values for the static fields.
 			Map<Field, Value> resultMap;
 			if (staticFields.isEmpty()) {
 				resultMap = new HashMap<>();
@@ -310,20 +326,10 @@ public class ObjectReferenceImpl extends ValueImpl implements ObjectReference {
 
 			// if no non-static fields are requested, return directly the
 			// result.
-			if (nonStaticFields.isEmpty()) {
+			if (nonStaticReply == null) {
 				return resultMap;
 			}
-			// Then get the values for the non-static fields.
-			int nonStaticFieldsSize = nonStaticFields.size();
-			write(this, outData);
-			writeInt(nonStaticFieldsSize, "size", outData); //$NON-NLS-1$
-			for (int i = 0; i < nonStaticFieldsSize; i++) {
-				FieldImpl field = nonStaticFields.get(i);
-				field.write(this, outData);
-			}
-
-			JdwpReplyPacket replyPacket = requestVM(
-					JdwpCommandPacket.OR_GET_VALUES, outBytes);
+			JdwpReplyPacket replyPacket = joinReply(nonStaticReply);
 			defaultReplyErrorHandler(replyPacket.errorCode());
 
 			DataInputStream replyData = replyPacket.dataInStream();
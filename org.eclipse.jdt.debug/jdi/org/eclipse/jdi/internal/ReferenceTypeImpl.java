@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -28,6 +28,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
 import org.eclipse.jdi.internal.jdwp.JdwpFieldID;
@@ -1139,24 +1140,8 @@ public abstract class ReferenceTypeImpl extends TypeImpl implements
 		// order in this list can be used for comparisons.
 		initJdwpRequest();
 		try {
-			boolean withGenericSignature = virtualMachineImpl()
-					.isJdwpVersionGreaterOrEqual(1, 5);
-			int jdwpCommand = withGenericSignature ? JdwpCommandPacket.RT_METHODS_WITH_GENERIC
-					: JdwpCommandPacket.RT_METHODS;
-			JdwpReplyPacket replyPacket = requestVM(jdwpCommand, this);
-			defaultReplyErrorHandler(replyPacket.errorCode());
-			DataInputStream replyData = replyPacket.dataInStream();
-			List<Method> elements = new ArrayList<>();
-			int nrOfElements = readInt("elements", replyData); //$NON-NLS-1$
-			for (int i = 0; i < nrOfElements; i++) {
-				MethodImpl elt = MethodImpl.readWithNameSignatureModifiers(
-						this, this, withGenericSignature, replyData);
-				if (elt == null) {
-					continue;
-				}
-				elements.add(elt);
-			}
-			fMethods = elements;
+			JdwpReplyPacket replyPacket = requestVM(methodsCommand(), this);
+			readMethods(replyPacket);
 			return fMethods;
 		} catch (IOException e) {
 			defaultIOExceptionHandler(e);
@@ -1166,6 +1151,52 @@ public abstract class ReferenceTypeImpl extends TypeImpl implements
 		}
 	}
 
+	/**
+	 * @return Returns the command retrieving the methods of a type.
+	 */
+	private int methodsCommand() {
+		boolean withGenericSignature = virtualMachineImpl()
+				.isJdwpVersionGreaterOrEqual(1, 5);
+		return withGenericSignature ? JdwpCommandPacket.RT_METHODS_WITH_GENERIC
+				: JdwpCommandPacket.RT_METHODS;
+	}
+
+	/**
+	 * Requests the methods of this type without waiting for the reply, which
+	 * is to be passed to {@link #readMethods(JdwpReplyPacket)}.
+	 *
+	 * @return Returns the future reply, or <code>null</code> if the methods
+	 *         are known already.
+	 */
+	CompletableFuture<JdwpReplyPacket> requestMethodsAsync() {
+		if (fMethods != null) {
+			return null;
+		}
+		return requestVMAsync(methodsCommand(), this);
+	}
+
+	/**
+	 * Reads and stores the methods of this type from the reply to a methods
+	 * request.
+	 */
+	void readMethods(JdwpReplyPacket replyPacket) throws IOException {
+		defaultReplyErrorHandler(replyPacket.errorCode());
+		boolean withGenericSignature = virtualMachineImpl()
+				.isJdwpVersionGreaterOrEqual(1, 5);
+		DataInputStream replyData = replyPacket.dataInStream();
+		List<Method> elements = new ArrayList<>();
+		int nrOfElements = readInt("elements", replyData); //$NON-NLS-1$
+		for (int i = 0; i < nrOfElements; i++) {
+			MethodImpl elt = MethodImpl.readWithNameSignatureModifiers(
+					this, this, withGenericSignature, replyData);
+			if (elt == null) {
+				continue;
+			}
+			elements.add(elt);
+		}
+		fMethods = elements;
+	}
+
 	/**
 	 * @return Returns a List containing each visible Method that has the given
 	 *         name.
@@ -1224,9 +1255,7 @@ public abstract class ReferenceTypeImpl extends TypeImpl implements
 		try {
 			JdwpReplyPacket replyPacket = requestVM(
 					JdwpCommandPacket.RT_SIGNATURE, this);
-			defaultReplyErrorHandler(replyPacket.errorCode());
-			DataInputStream replyData = replyPacket.dataInStream();
-			setSignature(readString("signature", replyData)); //$NON-NLS-1$
+			readSignature(replyPacket);
 			return fSignature;
 		} catch (IOException e) {
 			defaultIOExceptionHandler(e);
@@ -1236,6 +1265,30 @@ public abstract class ReferenceTypeImpl extends TypeImpl implements
 		}
 	}
 
+	/**
+	 * Requests the signature of this type without waiting for the reply, which
+	 * is to be passed to {@link #readSignature(JdwpReplyPacket)}.
+	 *
+	 * @return Returns the future reply, or <code>null</code> if the signature
+	 *         is known already.
+	 */
+	CompletableFuture<JdwpReplyPacket> requestSignatureAsync() {
+		if (fSignature != null) {
+			return null;
+		}
+		return requestVMAsync(JdwpCommandPacket.RT_SIGNATURE, this);
+	}
+
+	/**
+	 * Reads and stores the signature of this type from the reply to a
+	 * signature request.
+	 */
+	void readSignature(JdwpReplyPacket replyPacket) throws IOException {
+		defaultReplyErrorHandler(replyPacket.errorCode());
+		DataInputStream replyData = replyPacket.dataInStream();
+		setSignature(readString("signature", replyData)); //$NON-NLS-1$
+	}
+
 	/**
 	 * @return Returns a List containing each ReferenceType declared within this
 	 *         type.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
 import org.eclipse.jdi.internal.jdwp.JdwpFrameID;
@@ -39,6 +40,7 @@ import com.sun.jdi.Location;
 import com.sun.jdi.ObjectReference;
 import com.sun.jdi.StackFrame;
 import com.sun.jdi.ThreadReference;
+import com.sun.jdi.VMDisconnectedException;
 import com.sun.jdi.VMMismatchException;
 import com.sun.jdi.Value;
 
@@ -55,6 +57,15 @@ public class StackFrameImpl extends MirrorImpl implements StackFrame, Locatable
 	/** Location of the current instruction in the frame. */
 	private LocationImpl fLocation;
 
+	/**
+	 * Values of the visible variables and of 'this' fetched with a snapshot of
+	 * the thread, or <code>null</code>. They stay valid as long as the frame,
+	 * that is while the thread is suspended, unless they are set.
+	 */
+	private Map<LocalVariable, Value> fPrefetchedValues;
+	private ObjectReference fThisObject;
+	private boolean fThisObjectKnown;
+
 	/**
 	 * Creates new StackFrameImpl.
 	 */
@@ -84,81 +95,203 @@ public class StackFrameImpl extends MirrorImpl implements StackFrame, Locatable
 	@Override
 	public Map<LocalVariable, Value> getValues(List<? extends LocalVariable> variables) throws IllegalArgumentException,
 			InvalidStackFrameException, VMMismatchException {
-		// Note that this information should not be cached.
-		Map<LocalVariable, Value> map = new HashMap<>(variables.size());
+		// Note that this information should not be cached, other than for the
+		// lifetime of a snapshot.
+		Map<LocalVariable, Value> map = prefetchedValues(variables);
+		if (map != null) {
+			return map;
+		}
+		map = new HashMap<>(variables.size());
 		// if the variable list is empty, nothing to do
 		if (variables.isEmpty()) {
 			return map;
 		}
 		/*
 		 * If 'this' is requested, we have to use a special JDWP request.
-		 * Therefore, we remember the positions in the list of requests for
-		 * 'this'.
+		 * Therefore, we separate the requests for 'this' from the others.
 		 */
-		int sizeAll = variables.size();
-		int sizeThis = 0;
-		boolean[] isThisValue = new boolean[sizeAll];
-		for (int i = 0; i < sizeAll; i++) {
-			LocalVariableImpl var = (LocalVariableImpl) variables.get(i);
-			isThisValue[i] = var.isThis();
-			if (isThisValue[i]) {
-				sizeThis++;
+		List<LocalVariable> thisVariables = new ArrayList<>(1);
+		List<LocalVariable> notThisVariables = new ArrayList<>(variables.size());
+		for (LocalVariable variable : variables) {
+			if (((LocalVariableImpl) variable).isThis()) {
+				thisVariables.add(variable);
+			} else {
+				notThisVariables.add(variable);
 			}
 		}
-		int sizeNotThis = sizeAll - sizeThis;
 
-		if (sizeThis > 0) {
+		if (!thisVariables.isEmpty()) {
 			Value thisValue = thisObject();
-			for (int i = 0; i < sizeAll; i++) {
-				if (isThisValue[i]) {
-					map.put(variables.get(i), thisValue);
-				}
+			for (LocalVariable variable : thisVariables) {
+				map.put(variable, thisValue);
 			}
 		}
 
 		// If only 'this' was requested, we're finished.
-		if (sizeNotThis == 0) {
+		if (notThisVariables.isEmpty()) {
 			return map;
 		}
 
 		// Request values for local variables other than 'this'.
 		initJdwpRequest();
 		try {
+			JdwpReplyPacket replyPacket = requestVM(
+					JdwpCommandPacket.SF_GET_VALUES, writeGetValues(notThisVariables));
+			readValues(notThisVariables, replyPacket, map);
+			return map;
+		} catch (IOException e) {
+			defaultIOExceptionHandler(e);
+			return null;
+		} finally {
+			handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * @return Returns the JDWP representation of a request for the values of
+	 *         the given variables, none of which is 'this'.
+	 */
+	private byte[] writeGetValues(List<LocalVariable> variables) throws IOException {
+		ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+		DataOutputStream outData = new DataOutputStream(outBytes);
+		writeWithThread(this, outData);
+		writeInt(variables.size(), "size", outData); //$NON-NLS-1$
+		for (LocalVariable variable : variables) {
+			LocalVariableImpl var = (LocalVariableImpl) variable;
+			checkVM(var);
+			writeInt(var.slot(), "slot", outData); //$NON-NLS-1$
+			writeByte(var.tag(), "tag", JdwpID.tagMap(), outData); //$NON-NLS-1$
+		}
+		return outBytes.toByteArray();
+	}
+
+	/**
+	 * Reads the values of the given variables from the reply to a request for
+	 * them into the given map.
+	 */
+	private void readValues(List<LocalVariable> variables, JdwpReplyPacket replyPacket, Map<LocalVariable, Value> map)
+			throws IOException {
+		defaultReplyErrorHandler(replyPacket.errorCode());
+
+		DataInputStream replyData = replyPacket.dataInStream();
+		int nrOfElements = readInt("elements", replyData); //$NON-NLS-1$
+		if (nrOfElements != variables.size())
+			throw new InternalError(
+					JDIMessages.StackFrameImpl_Retrieved_a_different_number_of_values_from_the_VM_than_requested_1);
+
+		for (LocalVariable variable : variables) {
+			map.put(variable, ValueImpl.readWithTag(this, replyData));
+		}
+	}
+
+	/**
+	 * @return Returns the values of the given variables fetched with a
+	 *         snapshot, or <code>null</code> if some of them were not.
+	 */
+	private synchronized Map<LocalVariable, Value> prefetchedValues(List<? extends LocalVariable> variables) {
+		if (fPrefetchedValues == null) {
+			return null;
+		}
+		Map<LocalVariable, Value> map = new HashMap<>(variables.size());
+		for (LocalVariable variable : variables) {
+			if (((LocalVariableImpl) variable).isThis()) {
+				if (!fThisObjectKnown) {
+					return null;
+				}
+				map.put(variable, fThisObject);
+			} else if (fPrefetchedValues.containsKey(variable)) {
+				map.put(variable, fPrefetchedValues.get(variable));
+			} else {
+				return null;
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * Requests the values of the visible variables and 'this' of this frame
+	 * without waiting for the replies, for a snapshot of its thread.
+	 *
+	 * @return Returns the future replies, to be passed to
+	 *         {@link #readPrefetchedValues(List)}.
+	 * @see ThreadReferenceImpl#framesSnapshot(int)
+	 */
+	List<CompletableFuture<JdwpReplyPacket>> requestPrefetchedValuesAsync() throws IOException {
+		List<CompletableFuture<JdwpReplyPacket>> replies = new ArrayList<>(2);
+		MethodImpl method = (MethodImpl) fLocation.method();
+		if (!method.isStatic() && !method.isNative()) {
+			initJdwpRequest();
 			ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
 			DataOutputStream outData = new DataOutputStream(outBytes);
 			writeWithThread(this, outData);
-			writeInt(sizeNotThis, "size", outData); //$NON-NLS-1$
-			for (int i = 0; i < sizeAll; i++) {
-				if (!isThisValue[i]) {
-					LocalVariableImpl var = (LocalVariableImpl) variables
-							.get(i);
-					checkVM(var);
-					writeInt(var.slot(), "slot", outData); //$NON-NLS-1$
-					writeByte(var.tag(), "tag", JdwpID.tagMap(), outData); //$NON-NLS-1$
+			replies.add(requestVMAsync(JdwpCommandPacket.SF_THIS_OBJECT, outBytes));
+		} else {
+			replies.add(null);
+		}
+		List<LocalVariable> variables = prefetchableVariables();
+		if (variables != null && !variables.isEmpty()) {
+			initJdwpRequest();
+			replies.add(requestVMAsync(JdwpCommandPacket.SF_GET_VALUES, writeGetValues(variables)));
+		} else {
+			replies.add(null);
+		}
+		return replies;
+	}
+
+	/**
+	 * Reads and keeps the values of the visible variables and 'this' of this
+	 * frame from the replies to the requests of
+	 * {@link #requestPrefetchedValuesAsync()}. A request that failed, as for
+	 * a frame whose variables cannot be read, is ignored, and the values it
+	 * was for are read when asked for, reporting the failure then.
+	 */
+	void readPrefetchedValues(List<CompletableFuture<JdwpReplyPacket>> replies) {
+		ObjectReference thisObject = null;
+		boolean thisObjectKnown = true;
+		Map<LocalVariable, Value> values = new HashMap<>();
+		try {
+			CompletableFuture<JdwpReplyPacket> thisReply = replies.get(0);
+			if (thisReply != null) {
+				try {
+					JdwpReplyPacket replyPacket = joinReply(thisReply);
+					defaultReplyErrorHandler(replyPacket.errorCode());
+					thisObject = ObjectReferenceImpl.readObjectRefWithTag(this, replyPacket.dataInStream());
+				} catch (VMDisconnectedException e) {
+					throw e;
+				} catch (IOException | RuntimeException e) {
+					thisObjectKnown = false;
 				}
 			}
-			JdwpReplyPacket replyPacket = requestVM(
-					JdwpCommandPacket.SF_GET_VALUES, outBytes);
-			defaultReplyErrorHandler(replyPacket.errorCode());
-
-			DataInputStream replyData = replyPacket.dataInStream();
-			int nrOfElements = readInt("elements", replyData); //$NON-NLS-1$
-			if (nrOfElements != sizeNotThis)
-				throw new InternalError(
-						JDIMessages.StackFrameImpl_Retrieved_a_different_number_of_values_from_the_VM_than_requested_1);
-
-			for (int i = 0, j = 0; i < sizeAll; i++) {
-				if (!isThisValue[i])
-					map.put(variables.get(j++),
-							ValueImpl.readWithTag(this, replyData));
+			CompletableFuture<JdwpReplyPacket> valuesReply = replies.get(1);
+			if (valuesReply != null) {
+				try {
+					readValues(prefetchableVariables(), joinReply(valuesReply), values);
+				} catch (VMDisconnectedException e) {
+					throw e;
+				} catch (IOException | RuntimeException e) {
+					values.clear();
+				}
 			}
-			return map;
-		} catch (IOException e) {
-			defaultIOExceptionHandler(e);
-			return null;
 		} finally {
 			handledJdwpRequest();
 		}
+		synchronized (this) {
+			fThisObject = thisObject;
+			fThisObjectKnown = thisObjectKnown;
+			fPrefetchedValues = values;
+		}
+	}
+
+	/**
+	 * @return Returns the visible variables of this frame, or
+	 *         <code>null</code> if they are not known.
+	 */
+	private List<LocalVariable> prefetchableVariables() {
+		try {
+			return visibleVariables();
+		} catch (AbsentInformationException e) {
+			return null;
+		}
 	}
 
 	/* (non-Javadoc)
@@ -202,6 +335,11 @@ public class StackFrameImpl extends MirrorImpl implements StackFrame, Locatable
 	public void setValue(LocalVariable var, Value value)
 			throws InvalidTypeException, ClassNotLoadedException {
 		// Note that this information should not be cached.
+		synchronized (this) {
+			if (fPrefetchedValues != null) {
+				fPrefetchedValues.remove(var);
+			}
+		}
 		initJdwpRequest();
 		try {
 			ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
@@ -242,6 +380,11 @@ public class StackFrameImpl extends MirrorImpl implements StackFrame, Locatable
 	 */
 	@Override
 	public ObjectReference thisObject() throws InvalidStackFrameException {
+		synchronized (this) {
+			if (fThisObjectKnown) {
+				return fThisObject;
+			}
+		}
 		// Note that this information should not be cached.
 		initJdwpRequest();
 		try {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,15 +21,21 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
+import org.eclipse.jdi.internal.jdwp.JdwpFrameID;
 import org.eclipse.jdi.internal.jdwp.JdwpID;
+import org.eclipse.jdi.internal.jdwp.JdwpMethodID;
 import org.eclipse.jdi.internal.jdwp.JdwpReplyPacket;
 import org.eclipse.jdi.internal.jdwp.JdwpThreadID;
 import org.eclipse.osgi.util.NLS;
 
+import com.sun.jdi.AbsentInformationException;
 import com.sun.jdi.ClassNotLoadedException;
 import com.sun.jdi.IncompatibleThreadStateException;
 import com.sun.jdi.InternalException;
@@ -78,6 +84,15 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 	 */
 	private ThreadGroupReferenceImpl fThreadGroup = null;
 
+	/**
+	 * The owned monitors and the contended monitor read by
+	 * {@link #readMonitors(List)}, or <code>null</code>, and the state
+	 * generation of the VM they were read in. Guarded by this thread.
+	 */
+	private List<ObjectReference> fOwnedMonitors = null;
+	private ObjectReference fContendedMonitor = null;
+	private int fMonitorsGeneration;
+
 	/**
 	 * Creates new ThreadReferenceImpl.
 	 */
@@ -117,20 +132,35 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		if (!virtualMachine().canGetCurrentContendedMonitor()) {
 			throw new UnsupportedOperationException();
 		}
-		// Note that this information should not be cached.
+		synchronized (this) {
+			if (fOwnedMonitors != null && fMonitorsGeneration == virtualMachineImpl().stateGeneration()) {
+				return fContendedMonitor;
+			}
+		}
 		initJdwpRequest();
 		try {
-			JdwpReplyPacket replyPacket = requestVM(
-					JdwpCommandPacket.TR_CURRENT_CONTENDED_MONITOR, this);
-			switch (replyPacket.errorCode()) {
-			case JdwpReplyPacket.INVALID_THREAD:
-				throw new ObjectCollectedException();
-			case JdwpReplyPacket.THREAD_NOT_SUSPENDED:
-				throw new IncompatibleThreadStateException(
-						JDIMessages.ThreadReferenceImpl_Thread_was_not_suspended_1);
-			}
-			defaultReplyErrorHandler(replyPacket.errorCode());
+			return readContendedMonitor(requestVM(
+					JdwpCommandPacket.TR_CURRENT_CONTENDED_MONITOR, this));
+		} finally {
+			handledJdwpRequest();
+		}
+	}
 
+	/**
+	 * Reads the contended monitor of this thread from the reply to a current
+	 * contended monitor request.
+	 */
+	private ObjectReference readContendedMonitor(JdwpReplyPacket replyPacket)
+			throws IncompatibleThreadStateException {
+		switch (replyPacket.errorCode()) {
+		case JdwpReplyPacket.INVALID_THREAD:
+			throw new ObjectCollectedException();
+		case JdwpReplyPacket.THREAD_NOT_SUSPENDED:
+			throw new IncompatibleThreadStateException(
+					JDIMessages.ThreadReferenceImpl_Thread_was_not_suspended_1);
+		}
+		defaultReplyErrorHandler(replyPacket.errorCode());
+		try {
 			DataInputStream replyData = replyPacket.dataInStream();
 			ObjectReference result = ObjectReferenceImpl.readObjectRefWithTag(
 					this, replyData);
@@ -138,8 +168,55 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		} catch (IOException e) {
 			defaultIOExceptionHandler(e);
 			return null;
-		} finally {
-			handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * Reads the owned monitors and the contended monitor of the given threads
+	 * of one VM, sending all requests before waiting for the replies rather
+	 * than waiting for each reply in turn.
+	 * <p>
+	 * Until the VM may run code again, {@link #ownedMonitors()} and
+	 * {@link #currentContendedMonitor()} of the threads that were suspended
+	 * answer from what was read. The monitors of the other threads are not
+	 * kept.
+	 * </p>
+	 *
+	 * @param threads
+	 *            threads of one VM
+	 */
+	public static void readMonitors(List<ThreadReferenceImpl> threads) {
+		if (threads.isEmpty()) {
+			return;
+		}
+		VirtualMachineImpl vmImpl = threads.get(0).virtualMachineImpl();
+		if (!vmImpl.canGetOwnedMonitorInfo() || !vmImpl.canGetCurrentContendedMonitor()) {
+			return;
+		}
+		int generation = vmImpl.stateGeneration();
+		List<CompletableFuture<JdwpReplyPacket>> ownedReplies = new ArrayList<>(threads.size());
+		List<CompletableFuture<JdwpReplyPacket>> contendedReplies = new ArrayList<>(threads.size());
+		for (ThreadReferenceImpl thread : threads) {
+			ownedReplies.add(thread.requestVMAsync(JdwpCommandPacket.TR_OWNED_MONITORS, thread));
+			contendedReplies.add(thread.requestVMAsync(JdwpCommandPacket.TR_CURRENT_CONTENDED_MONITOR, thread));
+		}
+		for (int i = 0; i < threads.size(); i++) {
+			ThreadReferenceImpl thread = threads.get(i);
+			try {
+				List<ObjectReference> owned = thread.readOwnedMonitors(thread.joinReply(ownedReplies.get(i)));
+				ObjectReference contended = thread.readContendedMonitor(thread.joinReply(contendedReplies.get(i)));
+				synchronized (thread) {
+					thread.fOwnedMonitors = owned;
+					thread.fContendedMonitor = contended;
+					thread.fMonitorsGeneration = generation;
+				}
+			} catch (IncompatibleThreadStateException e) {
+				// not suspended, asked again when needed
+			} catch (ObjectCollectedException e) {
+				// the thread is gone
+			} finally {
+				thread.handledJdwpRequest();
+			}
 		}
 	}
 
@@ -254,6 +331,96 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 	@Override
 	public List<StackFrame> frames(int start, int length) throws IndexOutOfBoundsException,
 			IncompatibleThreadStateException {
+		return frames(start, length, false);
+	}
+
+	/**
+	 * Returns the stack frames of this thread like {@link #frames()}, with the
+	 * information needed to present them fetched up front: the signatures and
+	 * methods of their declaring types, the line and variable tables of their
+	 * methods, and the values of the visible variables and 'this' of the top
+	 * frames. Each of these steps sends all its requests at once before
+	 * waiting for the replies, rather than one request per frame and item.
+	 * <p>
+	 * The values are kept by the returned frames, which are only valid until
+	 * this thread is resumed.
+	 * </p>
+	 *
+	 * @param valueDepth
+	 *            the number of top frames whose values are fetched
+	 * @return Returns the stack frames of this thread.
+	 * @throws IncompatibleThreadStateException
+	 *             if this thread is not suspended
+	 */
+	public List<StackFrame> framesSnapshot(int valueDepth) throws IncompatibleThreadStateException {
+		List<StackFrame> frames = frames(0, -1, true);
+		try {
+			// Line and variable tables of the methods
+			Set<MethodImpl> methods = new LinkedHashSet<>();
+			for (StackFrame frame : frames) {
+				methods.add((MethodImpl) frame.location().method());
+			}
+			List<CompletableFuture<JdwpReplyPacket>> lineTableReplies = new ArrayList<>(methods.size());
+			List<CompletableFuture<JdwpReplyPacket>> variablesReplies = new ArrayList<>(methods.size());
+			for (MethodImpl method : methods) {
+				lineTableReplies.add(method.requestLineTableAsync());
+				variablesReplies.add(method.requestVariablesAsync());
+			}
+			int i = 0;
+			for (MethodImpl method : methods) {
+				CompletableFuture<JdwpReplyPacket> lineTableReply = lineTableReplies.get(i);
+				CompletableFuture<JdwpReplyPacket> variablesReply = variablesReplies.get(i);
+				i++;
+				try {
+					if (lineTableReply != null) {
+						method.readLineTable(joinReply(lineTableReply));
+					}
+				} catch (AbsentInformationException e) {
+					// reported when the line table is asked for
+				}
+				try {
+					if (variablesReply != null) {
+						method.readVariables(joinReply(variablesReply));
+					}
+				} catch (AbsentInformationException e) {
+					// reported when the variables are asked for
+				}
+			}
+
+			// Values of the top frames, a frame whose values cannot be
+			// requested reads them when asked for
+			int depth = Math.min(valueDepth, frames.size());
+			List<List<CompletableFuture<JdwpReplyPacket>>> valuesReplies = new ArrayList<>(depth);
+			for (i = 0; i < depth; i++) {
+				List<CompletableFuture<JdwpReplyPacket>> replies = null;
+				try {
+					replies = ((StackFrameImpl) frames.get(i)).requestPrefetchedValuesAsync();
+				} catch (VMDisconnectedException e) {
+					throw e;
+				} catch (IOException | RuntimeException e) {
+					// not prefetched
+				}
+				valuesReplies.add(replies);
+			}
+			for (i = 0; i < depth; i++) {
+				if (valuesReplies.get(i) != null) {
+					((StackFrameImpl) frames.get(i)).readPrefetchedValues(valuesReplies.get(i));
+				}
+			}
+		} finally {
+			// the replies were written by the joins
+			handledJdwpRequest();
+		}
+		return frames;
+	}
+
+	/**
+	 * Retrieves stack frames, fetching the methods of their declaring types,
+	 * and their signatures if asked for, with one request per type sent at
+	 * once.
+	 */
+	private List<StackFrame> frames(int start, int length, boolean withSignatures)
+			throws IndexOutOfBoundsException, IncompatibleThreadStateException {
 		// Note that this information should not be cached.
 		initJdwpRequest();
 		try {
@@ -277,16 +444,66 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 			}
 			defaultReplyErrorHandler(replyPacket.errorCode());
 
+			// Read the frame IDs and locations without resolving the methods
+			VirtualMachineImpl vmImpl = virtualMachineImpl();
 			DataInputStream replyData = replyPacket.dataInStream();
 			int nrOfElements = readInt("elements", replyData); //$NON-NLS-1$
+			JdwpFrameID[] frameIDs = new JdwpFrameID[nrOfElements];
+			ReferenceTypeImpl[] types = new ReferenceTypeImpl[nrOfElements];
+			JdwpMethodID[] methodIDs = new JdwpMethodID[nrOfElements];
+			long[] indexes = new long[nrOfElements];
+			Set<ReferenceTypeImpl> declaringTypes = new LinkedHashSet<>();
+			for (int i = 0; i < nrOfElements; i++) {
+				frameIDs[i] = new JdwpFrameID(vmImpl);
+				frameIDs[i].read(replyData);
+				if (fVerboseWriter != null) {
+					fVerboseWriter.println("stackFrame", frameIDs[i].value()); //$NON-NLS-1$
+				}
+				types[i] = ReferenceTypeImpl.readWithTypeTag(this, replyData);
+				methodIDs[i] = new JdwpMethodID(vmImpl);
+				methodIDs[i].read(replyData);
+				if (fVerboseWriter != null) {
+					fVerboseWriter.println("method", methodIDs[i].value()); //$NON-NLS-1$
+				}
+				indexes[i] = readLong("index", replyData); //$NON-NLS-1$
+				if (types[i] != null) {
+					declaringTypes.add(types[i]);
+				}
+			}
+
+			// Request what is missing of the declaring types at once
+			List<CompletableFuture<JdwpReplyPacket>> methodsReplies = new ArrayList<>(declaringTypes.size());
+			List<CompletableFuture<JdwpReplyPacket>> signatureReplies = new ArrayList<>(declaringTypes.size());
+			for (ReferenceTypeImpl type : declaringTypes) {
+				methodsReplies.add(type.requestMethodsAsync());
+				signatureReplies.add(withSignatures ? type.requestSignatureAsync() : null);
+			}
+			int typeIndex = 0;
+			for (ReferenceTypeImpl type : declaringTypes) {
+				CompletableFuture<JdwpReplyPacket> methodsReply = methodsReplies.get(typeIndex);
+				CompletableFuture<JdwpReplyPacket> signatureReply = signatureReplies.get(typeIndex);
+				typeIndex++;
+				if (methodsReply != null) {
+					type.readMethods(joinReply(methodsReply));
+				}
+				if (signatureReply != null) {
+					type.readSignature(joinReply(signatureReply));
+				}
+			}
+
 			List<StackFrame> frames = new ArrayList<>(nrOfElements);
 			for (int i = 0; i < nrOfElements; i++) {
-				StackFrameImpl frame = StackFrameImpl.readWithLocation(this,
-						this, replyData);
-				if (frame == null) {
+				if (frameIDs[i].isNull() || types[i] == null || methodIDs[i].isNull()) {
 					continue;
 				}
-				frames.add(frame);
+				// The method must be part of a known reference type.
+				MethodImpl method = (MethodImpl) types[i].findMethod(methodIDs[i]);
+				if (method == null) {
+					throw new InternalError(
+							JDIMessages.MethodImpl_Got_MethodID_of_ReferenceType_that_is_not_a_member_of_the_ReferenceType_10);
+				}
+				LocationImpl location = new LocationImpl(vmImpl, method, indexes[i]);
+				frames.add(new StackFrameImpl(vmImpl, frameIDs[i], this, location));
 			}
 			return frames;
 		} catch (IOException e) {
@@ -381,19 +598,35 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		if (!virtualMachine().canGetOwnedMonitorInfo()) {
 			throw new UnsupportedOperationException();
 		}
-		// Note that this information should not be cached.
+		synchronized (this) {
+			if (fOwnedMonitors != null && fMonitorsGeneration == virtualMachineImpl().stateGeneration()) {
+				return new ArrayList<>(fOwnedMonitors);
+			}
+		}
 		initJdwpRequest();
 		try {
-			JdwpReplyPacket replyPacket = requestVM(
-					JdwpCommandPacket.TR_OWNED_MONITORS, this);
-			switch (replyPacket.errorCode()) {
-			case JdwpReplyPacket.INVALID_THREAD:
-				throw new ObjectCollectedException();
-			case JdwpReplyPacket.THREAD_NOT_SUSPENDED:
-				throw new IncompatibleThreadStateException(
-						JDIMessages.ThreadReferenceImpl_Thread_was_not_suspended_5);
-			}
-			defaultReplyErrorHandler(replyPacket.errorCode());
+			return readOwnedMonitors(requestVM(
+					JdwpCommandPacket.TR_OWNED_MONITORS, this));
+		} finally {
+			handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * Reads the owned monitors of this thread from the reply to an owned
+	 * monitors request.
+	 */
+	private List<ObjectReference> readOwnedMonitors(JdwpReplyPacket replyPacket)
+			throws IncompatibleThreadStateException {
+		switch (replyPacket.errorCode()) {
+		case JdwpReplyPacket.INVALID_THREAD:
+			throw new ObjectCollectedException();
+		case JdwpReplyPacket.THREAD_NOT_SUSPENDED:
+			throw new IncompatibleThreadStateException(
+					JDIMessages.ThreadReferenceImpl_Thread_was_not_suspended_5);
+		}
+		defaultReplyErrorHandler(replyPacket.errorCode());
+		try {
 			DataInputStream replyData = replyPacket.dataInStream();
 
 			int nrOfMonitors = readInt("nr of monitors", replyData); //$NON-NLS-1$
@@ -406,8 +639,6 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		} catch (IOException e) {
 			defaultIOExceptionHandler(e);
 			return null;
-		} finally {
-			handledJdwpRequest();
 		}
 	}
 
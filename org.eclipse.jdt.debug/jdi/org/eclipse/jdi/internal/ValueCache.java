@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,12 +16,17 @@ package org.eclipse.jdi.internal;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Hashtable;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This class is used to cache values. It uses soft references to store cached
@@ -32,37 +37,213 @@ import java.util.Map;
  * soft references are only used for the keys, and values may not have 'strong'
  * references to keys otherwise they will never be garbage collected.
  *
+ * The cache softly holds at most a given number of entries, evicting the least
+ * recently used ones when it is full. An evicted value is still returned by the
+ * cache as long as it is reachable otherwise, through a weak reference, so that
+ * a key is never mapped to two values alive at once and live values are still
+ * found by {@link #values()} and {@link #valuesWithType(Class)}. Entries are
+ * spread over segments with their own locks so that concurrent readers do not
+ * contend on a single lock, and the entries are indexed by the runtime class
+ * of their values so that {@link #valuesWithType(Class)} does not scan the
+ * whole cache.
  */
 public class ValueCache {
+	/** Number of segments, a power of two. */
+	private static final int SEGMENTS = 16;
+
+	/**
+	 * Reference to a cached value, remembering its key and the runtime class of
+	 * the value so that the entry can be removed once the value is garbage
+	 * collected. Entries are compared by identity.
+	 */
+	private interface Entry {
+		Object getKey();
+
+		Class<?> getType();
+
+		Object get();
+	}
+
 	/**
-	 * Map to store <key, Reference> pairs, where Reference is a soft reference
-	 * to an Object.
+	 * Soft reference to a value held by the bounded part of the cache.
 	 */
-	private Map<Object, SoftReference<Object>> cacheTable = new Hashtable<>();
+	private static class CacheEntry extends SoftReference<Object> implements Entry {
+		final Object fKey;
+		final Class<?> fType;
+
+		CacheEntry(Object key, Object value, ReferenceQueue<Object> queue) {
+			super(value, queue);
+			fKey = key;
+			fType = value.getClass();
+		}
+
+		@Override
+		public Object getKey() {
+			return fKey;
+		}
+
+		@Override
+		public Class<?> getType() {
+			return fType;
+		}
+	}
+
 	/**
-	 * Map to store <Reference, key> pairs, to find the cacheTable-key of a
-	 * garbage collected Reference.
+	 * Weak reference to a value evicted from the bounded part of the cache,
+	 * which is kept until the value is garbage collected.
 	 */
-	private Map<SoftReference<Object>, Object> refTable = new Hashtable<>();
+	private static class EvictedEntry extends WeakReference<Object> implements Entry {
+		final Object fKey;
+		final Class<?> fType;
+
+		EvictedEntry(Object key, Object value, ReferenceQueue<Object> queue) {
+			super(value, queue);
+			fKey = key;
+			fType = value.getClass();
+		}
+
+		@Override
+		public Object getKey() {
+			return fKey;
+		}
+
+		@Override
+		public Class<?> getType() {
+			return fType;
+		}
+	}
 
 	/**
-	 * The reference-queue that is registered with the soft references. The
-	 * garbage collector will enqueue soft references that are garbage
+	 * Least recently used ordered map of a part of the cache, with the entries
+	 * evicted from it, guarded by itself.
+	 */
+	private class Segment extends LinkedHashMap<Object, CacheEntry> {
+		private static final long serialVersionUID = 1L;
+		private final int fCapacity;
+		final Map<Object, EvictedEntry> fEvicted = new HashMap<>();
+
+		Segment(int capacity) {
+			super(16, 0.75f, true);
+			fCapacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, CacheEntry> eldest) {
+			if (size() > fCapacity) {
+				CacheEntry entry = eldest.getValue();
+				unindex(entry);
+				Object value = entry.get();
+				if (value != null) {
+					// only release the soft hold, a live value keeps its entry
+					EvictedEntry evicted = new EvictedEntry(entry.fKey, value, refQueue);
+					fEvicted.put(entry.fKey, evicted);
+					index(evicted);
+				}
+				entry.clear();
+				fEvictions.increment();
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Removes the entry of the given key, evicted or not.
+		 */
+		void removeEntry(Object key) {
+			CacheEntry entry = remove(key);
+			if (entry != null) {
+				unindex(entry);
+			}
+			EvictedEntry evicted = fEvicted.remove(key);
+			if (evicted != null) {
+				unindex(evicted);
+			}
+		}
+	}
+
+	private final Segment[] fSegments;
+
+	/** Entries of the cache by runtime class of their values. */
+	private final Map<Class<?>, Set<Entry>> fEntriesByType = new ConcurrentHashMap<>();
+
+	/**
+	 * The reference-queue that is registered with the soft and weak references.
+	 * The garbage collector will enqueue references whose values are garbage
 	 * collected.
 	 */
-	private ReferenceQueue<Object> refQueue = new ReferenceQueue<>();
+	private final ReferenceQueue<Object> refQueue = new ReferenceQueue<>();
+
+	private final LongAdder fHits = new LongAdder();
+	private final LongAdder fMisses = new LongAdder();
+	private final LongAdder fEvictions = new LongAdder();
+
+	/**
+	 * Creates a cache without a bound on its number of entries.
+	 */
+	public ValueCache() {
+		this(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Creates a cache softly holding at most about the given number of
+	 * entries.
+	 */
+	public ValueCache(int capacity) {
+		int segmentCapacity = Math.max(1, capacity / SEGMENTS);
+		if (capacity == Integer.MAX_VALUE) {
+			segmentCapacity = Integer.MAX_VALUE;
+		}
+		fSegments = new Segment[SEGMENTS];
+		for (int i = 0; i < SEGMENTS; i++) {
+			fSegments[i] = new Segment(segmentCapacity);
+		}
+	}
+
+	/**
+	 * @return Returns the segment holding the given key.
+	 */
+	private Segment segmentFor(Object key) {
+		int hash = key.hashCode();
+		hash ^= hash >>> 16;
+		return fSegments[hash & (SEGMENTS - 1)];
+	}
+
+	/**
+	 * Adds the given entry to the index by type.
+	 */
+	private void index(Entry entry) {
+		fEntriesByType.computeIfAbsent(entry.getType(), type -> ConcurrentHashMap.newKeySet()).add(entry);
+	}
+
+	/**
+	 * Removes the given entry from the index by type.
+	 */
+	private void unindex(Entry entry) {
+		Set<Entry> entries = fEntriesByType.get(entry.getType());
+		if (entries != null) {
+			entries.remove(entry);
+		}
+	}
 
 	/**
 	 * Clean up all entries from the table for which the values were garbage
 	 * collected.
 	 */
 	private void cleanup() {
-		Reference<?> ref;
-		while ((ref = refQueue.poll()) != null) {
-			Object key = refTable.get(ref);
-			if (key != null)
-				cacheTable.remove(key);
-			refTable.remove(ref);
+		Reference<?> reference;
+		while ((reference = refQueue.poll()) != null) {
+			Entry entry = (Entry) reference;
+			Segment segment = segmentFor(entry.getKey());
+			synchronized (segment) {
+				// the key may have been cached again in the meantime
+				if (segment.get(entry.getKey()) == entry) {
+					segment.remove(entry.getKey());
+				}
+				if (segment.fEvicted.get(entry.getKey()) == entry) {
+					segment.fEvicted.remove(entry.getKey());
+				}
+				unindex(entry);
+			}
 		}
 	}
 
@@ -71,9 +252,13 @@ public class ValueCache {
 	 */
 	public void put(Object key, Object value) {
 		cleanup();
-		SoftReference<Object> ref = new SoftReference<>(value, refQueue);
-		cacheTable.put(key, ref);
-		refTable.put(ref, key);
+		CacheEntry entry = new CacheEntry(key, value, refQueue);
+		Segment segment = segmentFor(key);
+		synchronized (segment) {
+			segment.removeEntry(key);
+			segment.put(key, entry);
+			index(entry);
+		}
 	}
 
 	/**
@@ -86,9 +271,29 @@ public class ValueCache {
 	public Object get(Object key) {
 		cleanup();
 		Object value = null;
-		SoftReference<?> ref = cacheTable.get(key);
-		if (ref != null) {
-			value = ref.get();
+		Segment segment = segmentFor(key);
+		synchronized (segment) {
+			CacheEntry entry = segment.get(key);
+			if (entry != null) {
+				value = entry.get();
+			} else {
+				EvictedEntry evicted = segment.fEvicted.get(key);
+				if (evicted != null) {
+					value = evicted.get();
+					if (value != null) {
+						// used again, hold it softly as the most recent entry
+						segment.removeEntry(key);
+						CacheEntry promoted = new CacheEntry(key, value, refQueue);
+						segment.put(key, promoted);
+						index(promoted);
+					}
+				}
+			}
+		}
+		if (value == null) {
+			fMisses.increment();
+		} else {
+			fHits.increment();
 		}
 		return value;
 	}
@@ -99,13 +304,14 @@ public class ValueCache {
 	public Collection<Object> values() {
 		cleanup();
 		List<Object> returnValues = new ArrayList<>();
-		synchronized (cacheTable) {
-			Iterator<SoftReference<Object>> iter = cacheTable.values().iterator();
-			SoftReference<Object> ref;
-			Object value;
-			while (iter.hasNext()) {
-				ref = iter.next();
-				value = ref.get();
+		for (Segment segment : fSegments) {
+			List<Entry> entries;
+			synchronized (segment) {
+				entries = new ArrayList<>(segment.values());
+				entries.addAll(segment.fEvicted.values());
+			}
+			for (Entry entry : entries) {
+				Object value = entry.get();
 				if (value != null) {
 					returnValues.add(value);
 				}
@@ -120,17 +326,15 @@ public class ValueCache {
 	 */
 	public Collection<Object> valuesWithType(Class<?> type) {
 		cleanup();
+		Set<Entry> entries = fEntriesByType.get(type);
+		if (entries == null) {
+			return Collections.emptyList();
+		}
 		List<Object> returnValues = new ArrayList<>();
-		synchronized (cacheTable) {
-			Iterator<SoftReference<Object>> iter = cacheTable.values().iterator();
-			SoftReference<Object> ref;
-			Object value;
-			while (iter.hasNext()) {
-				ref = iter.next();
-				value = ref.get();
-				if (value != null && value.getClass().equals(type)) {
-					returnValues.add(value);
-				}
+		for (Entry entry : entries) {
+			Object value = entry.get();
+			if (value != null) {
+				returnValues.add(value);
 			}
 		}
 		return returnValues;
@@ -145,12 +349,56 @@ public class ValueCache {
 	public Object remove(Object key) {
 		cleanup();
 		Object value = null;
-		SoftReference<?> ref = cacheTable.get(key);
-		if (ref != null) {
-			value = ref.get();
-			refTable.remove(ref);
+		Segment segment = segmentFor(key);
+		Entry entry;
+		synchronized (segment) {
+			entry = segment.get(key);
+			if (entry == null) {
+				entry = segment.fEvicted.get(key);
+			}
+			segment.removeEntry(key);
+		}
+		if (entry != null) {
+			value = entry.get();
 		}
-		cacheTable.remove(key);
 		return value;
 	}
+
+	/**
+	 * @return Returns the number of entries softly held by this cache,
+	 *         including entries whose values have been garbage collected but
+	 *         not cleaned up yet. Evicted entries still reachable otherwise
+	 *         are not counted.
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : fSegments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return Returns the number of lookups that found a cached value.
+	 */
+	public long hitCount() {
+		return fHits.sum();
+	}
+
+	/**
+	 * @return Returns the number of lookups that did not find a cached value.
+	 */
+	public long missCount() {
+		return fMisses.sum();
+	}
+
+	/**
+	 * @return Returns the number of entries evicted because the cache was
+	 *         full.
+	 */
+	public long evictionCount() {
+		return fEvictions.sum();
+	}
 }
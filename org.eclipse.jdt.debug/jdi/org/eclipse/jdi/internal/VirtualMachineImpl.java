@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,11 +20,15 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.jdi.Bootstrap;
 import org.eclipse.jdi.internal.connect.PacketReceiveManager;
@@ -55,6 +59,7 @@ import com.sun.jdi.VirtualMachine;
 import com.sun.jdi.VoidValue;
 import com.sun.jdi.connect.spi.Connection;
 import com.sun.jdi.event.EventQueue;
+import com.sun.jdi.request.ClassPrepareRequest;
 import com.sun.jdi.request.EventRequestManager;
 
 /**
@@ -77,6 +82,20 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 
 	protected static final String JAVA_STRATUM_NAME = "Java"; //$NON-NLS-1$
 
+	/**
+	 * System properties overriding the maximum number of cached reference type
+	 * and object mirrors.
+	 */
+	public static final String REFERENCE_TYPE_CACHE_CAPACITY = "org.eclipse.jdt.debug.jdi.referenceTypeCacheCapacity"; //$NON-NLS-1$
+	public static final String OBJECT_CACHE_CAPACITY = "org.eclipse.jdt.debug.jdi.objectCacheCapacity"; //$NON-NLS-1$
+
+	/**
+	 * System property enabling the index of loaded classes.
+	 *
+	 * @see #setUseClassIndex(boolean)
+	 */
+	public static final String USE_CLASS_INDEX = "org.eclipse.jdt.debug.jdi.useClassIndex"; //$NON-NLS-1$
+
 	/** Timeout value for requests to VM if not overridden for a particular VM. */
 	private int fRequestTimeout;
 	/** Mapping of command codes to strings. */
@@ -96,8 +115,36 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 	 * optional: their only purpose is to speed up the debugger by being able to
 	 * use the stored results of JDWP calls.
 	 */
-	private ValueCache fCachedReftypes = new ValueCache();
-	private ValueCache fCachedObjects = new ValueCache();
+	private ValueCache fCachedReftypes = new ValueCache(Integer.getInteger(REFERENCE_TYPE_CACHE_CAPACITY, 200000).intValue());
+	private ValueCache fCachedObjects = new ValueCache(Integer.getInteger(OBJECT_CACHE_CAPACITY, 100000).intValue());
+
+	/**
+	 * Index of the loaded classes, used instead of asking the VM when enabled.
+	 * Seeding it and enabling the class prepare request that keeps it current
+	 * is guarded by fClassIndexLock.
+	 */
+	private final ClassIndex fClassIndex = new ClassIndex();
+	private final Object fClassIndexLock = new Object();
+	private volatile boolean fUseClassIndex = Boolean.getBoolean(USE_CLASS_INDEX);
+	private ClassPrepareRequest fClassIndexRequest;
+
+	/**
+	 * Number of times the VM may have run code or changed array components
+	 * since it was connected. Array values read while it did not change and
+	 * all threads were suspended are kept by {@link ArrayReferenceImpl}.
+	 */
+	private final AtomicInteger fStateGeneration = new AtomicInteger();
+
+	/**
+	 * Whether all threads of the VM were suspended by a VM suspend or an event
+	 * set, and none was resumed since.
+	 */
+	private volatile boolean fAllThreadsSuspended;
+
+	/**
+	 * Number of methods being invoked, which let threads of the VM run.
+	 */
+	private final AtomicInteger fInvocations = new AtomicInteger();
 
 	/** The following are the stored results of JDWP calls. */
 	private String fVersionDescription = null; // Text information on the VM
@@ -253,6 +300,22 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 		fCachedObjects.put(mirror.getObjectID(), mirror);
 	}
 
+	/**
+	 * @return Returns the cache of reference type mirrors, whose hit, miss and
+	 *         eviction counts tell how effective it is.
+	 */
+	public ValueCache referenceTypeCache() {
+		return fCachedReftypes;
+	}
+
+	/**
+	 * @return Returns the cache of object mirrors, whose hit, miss and
+	 *         eviction counts tell how effective it is.
+	 */
+	public ValueCache objectCache() {
+		return fCachedObjects;
+	}
+
 	/**
 	 * Flushes all stored Jdwp results.
 	 */
@@ -269,13 +332,76 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 		fHcrCapabilities = null;
 	}
 
+	/**
+	 * Notes that the VM may have run code or changed array components, so
+	 * that array values read before are read again.
+	 */
+	public final void stateMayHaveChanged() {
+		fStateGeneration.incrementAndGet();
+	}
+
+	/**
+	 * @return Returns a number that changes every time the VM may have run
+	 *         code or changed array components.
+	 */
+	public final int stateGeneration() {
+		return fStateGeneration.get();
+	}
+
+	/**
+	 * Notes whether all threads of the VM are suspended, after the VM was
+	 * suspended, threads were resumed or an event set was received.
+	 */
+	public final void setAllThreadsSuspended(boolean suspended) {
+		fAllThreadsSuspended = suspended;
+	}
+
+	/**
+	 * Notes that a method starts or stops being invoked.
+	 */
+	public final void invocationStarted(boolean started) {
+		if (started) {
+			fInvocations.incrementAndGet();
+		} else {
+			fInvocations.decrementAndGet();
+		}
+	}
+
+	/**
+	 * @return Returns the state generation of the VM if all its threads are
+	 *         suspended and no method is being invoked, or -1 if threads may
+	 *         be running. Threads that run may change array components
+	 *         without the state generation changing.
+	 */
+	public final int suspendedStateGeneration() {
+		int generation = fStateGeneration.get();
+		if (!fAllThreadsSuspended || fInvocations.get() > 0) {
+			return -1;
+		}
+		return generation;
+	}
+
+	/*
+	 * Adds a class that has been prepared to the index of loaded classes, if it
+	 * is used.
+	 */
+	public final void addKnownRefType(ReferenceTypeImpl refType) {
+		if (fUseClassIndex) {
+			fClassIndex.add(refType);
+		}
+	}
+
 	/*
 	 * Removes a known class. A class/interface is known if we have ever
 	 * received its ReferenceTypeID and we have not received an unload event for
 	 * it.
 	 */
 	public final void removeKnownRefType(String signature) {
-		List<ReferenceType> refTypeList = classesBySignature(signature);
+		// A list of all classes requested before the unload may still hold
+		// the class, it must not be used to seed the index
+		fClassIndex.unloaded();
+		// Do not seed the index of loaded classes only to remove a class
+		List<ReferenceType> refTypeList = fClassIndex.isSeeded() ? fClassIndex.bySignature(signature) : classesBySignature(signature);
 		if (refTypeList.isEmpty())
 			return;
 
@@ -286,6 +412,7 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 			ReferenceTypeImpl refType = (ReferenceTypeImpl) refTypeList.get(0);
 			refType.flushStoredJdwpResults();
 			fCachedReftypes.remove(refType.getRefTypeID());
+			fClassIndex.remove(signature, refType);
 			return;
 		}
 
@@ -304,6 +431,7 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 				refType.flushStoredJdwpResults();
 				iter.remove();
 				fCachedReftypes.remove(refType.getRefTypeID());
+				fClassIndex.remove(signature, refType);
 			}
 		}
 	}
@@ -366,6 +494,17 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 	 */
 	@Override
 	public List<ReferenceType> allClasses() {
+		ClassIndex classIndex = classIndex();
+		if (classIndex != null) {
+			return classIndex.all();
+		}
+		return requestAllClasses();
+	}
+
+	/**
+	 * @return Returns all loaded types, as read from the VM.
+	 */
+	private List<ReferenceType> requestAllClasses() {
 		// Note that this information should not be cached.
 		initJdwpRequest();
 		try {
@@ -412,6 +551,14 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 		return fCachedReftypes.values().iterator();
 	}
 
+	/**
+	 * @return Returns an iterator over all cached classes of the given mirror
+	 *         class.
+	 */
+	protected final Iterator<Object> allCachedRefTypes(Class<? extends ReferenceTypeImpl> type) {
+		return fCachedReftypes.valuesWithType(type).iterator();
+	}
+
 	/**
 	 * Returns a list of the currently running threads. For each running thread
 	 * in the target VM, a ThreadReference that mirrors it is placed in the
@@ -645,6 +792,14 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 	 * @return Returns the loaded reference types that match a given signature.
 	 */
 	public List<ReferenceType> classesBySignature(String signature) {
+		// Array types are not reported by class prepare events, so they are
+		// always looked up in the VM.
+		if (!signature.startsWith("[")) { //$NON-NLS-1$
+			ClassIndex classIndex = classIndex();
+			if (classIndex != null) {
+				return classIndex.bySignature(signature);
+			}
+		}
 		// Note that this information should not be cached.
 		initJdwpRequest();
 		try {
@@ -654,20 +809,69 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 
 			JdwpReplyPacket replyPacket = requestVM(
 					JdwpCommandPacket.VM_CLASSES_BY_SIGNATURE, outBytes);
-			defaultReplyErrorHandler(replyPacket.errorCode());
-			DataInputStream replyData = replyPacket.dataInStream();
-			int nrOfElements = readInt("elements", replyData); //$NON-NLS-1$
-			List<ReferenceType> elements = new ArrayList<>(nrOfElements);
-			for (int i = 0; i < nrOfElements; i++) {
-				ReferenceTypeImpl elt = ReferenceTypeImpl.readWithTypeTag(this,
-						replyData);
-				readInt("status", ReferenceTypeImpl.classStatusStrings(), replyData); //$NON-NLS-1$
-				if (elt == null) {
+			return readClassesBySignature(replyPacket);
+		} catch (IOException e) {
+			defaultIOExceptionHandler(e);
+			return null;
+		} finally {
+			handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * Reads the reply to a classes by signature request.
+	 */
+	private List<ReferenceType> readClassesBySignature(JdwpReplyPacket replyPacket) throws IOException {
+		defaultReplyErrorHandler(replyPacket.errorCode());
+		DataInputStream replyData = replyPacket.dataInStream();
+		int nrOfElements = readInt("elements", replyData); //$NON-NLS-1$
+		List<ReferenceType> elements = new ArrayList<>(nrOfElements);
+		for (int i = 0; i < nrOfElements; i++) {
+			ReferenceTypeImpl elt = ReferenceTypeImpl.readWithTypeTag(this,
+					replyData);
+			readInt("status", ReferenceTypeImpl.classStatusStrings(), replyData); //$NON-NLS-1$
+			if (elt == null) {
+				continue;
+			}
+			elements.add(elt);
+		}
+		return elements;
+	}
+
+	/**
+	 * Looks up the loaded reference types of several classes. The requests for
+	 * all names are sent before waiting for the first reply, so that looking
+	 * up many classes costs about one round trip to the VM.
+	 *
+	 * @return Returns the loaded reference types by class name, with an empty
+	 *         list for classes that are not loaded.
+	 */
+	public Map<String, List<ReferenceType>> classesByNames(Collection<String> names) {
+		Map<String, List<ReferenceType>> result = new LinkedHashMap<>(names.size() * 4 / 3 + 1);
+		ClassIndex classIndex = classIndex();
+		if (classIndex != null) {
+			for (String name : names) {
+				result.put(name, classIndex.bySignature(TypeImpl.classNameToSignature(name)));
+			}
+			return result;
+		}
+		initJdwpRequest();
+		try {
+			Map<String, CompletableFuture<JdwpReplyPacket>> replies = new LinkedHashMap<>(names.size() * 4 / 3 + 1);
+			for (String name : names) {
+				if (replies.containsKey(name)) {
 					continue;
 				}
-				elements.add(elt);
+				initJdwpRequest();
+				ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+				DataOutputStream outData = new DataOutputStream(outBytes);
+				writeString(TypeImpl.classNameToSignature(name), "signature", outData); //$NON-NLS-1$
+				replies.put(name, requestVMAsync(JdwpCommandPacket.VM_CLASSES_BY_SIGNATURE, outBytes));
 			}
-			return elements;
+			for (Map.Entry<String, CompletableFuture<JdwpReplyPacket>> reply : replies.entrySet()) {
+				result.put(reply.getKey(), readClassesBySignature(joinReply(reply.getValue())));
+			}
+			return result;
 		} catch (IOException e) {
 			defaultIOExceptionHandler(e);
 			return null;
@@ -685,6 +889,97 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 		return classesBySignature(signature);
 	}
 
+	/**
+	 * @return Returns the loaded classes and interfaces whose names start with
+	 *         the given prefix.
+	 */
+	public List<ReferenceType> classesByNamePrefix(String prefix) {
+		ClassIndex classIndex = classIndex();
+		if (classIndex != null) {
+			return classIndex.bySignaturePrefix('L' + prefix.replace('.', '/'));
+		}
+		List<ReferenceType> classes = requestAllClasses();
+		Iterator<ReferenceType> iter = classes.iterator();
+		while (iter.hasNext()) {
+			ReferenceType refType = iter.next();
+			if (refType instanceof ArrayTypeImpl || !refType.name().startsWith(prefix)) {
+				iter.remove();
+			}
+		}
+		return classes;
+	}
+
+	/**
+	 * Sets whether the loaded classes are looked up in an index instead of
+	 * asking the VM every time. The index is seeded from the list of all
+	 * loaded classes on first use, and then kept current from class prepare
+	 * and unload events. The default is given by the system property
+	 * {@link #USE_CLASS_INDEX}.
+	 * <p>
+	 * A class that has just been prepared may only be found once its class
+	 * prepare event has been read from the event queue. Array types that are
+	 * created after the index has been seeded are not listed by
+	 * {@link #allClasses()}.
+	 * </p>
+	 *
+	 * @param useClassIndex
+	 *            whether to use the index of loaded classes
+	 */
+	public void setUseClassIndex(boolean useClassIndex) {
+		synchronized (fClassIndexLock) {
+			fUseClassIndex = useClassIndex;
+			if (!useClassIndex) {
+				fClassIndex.markStale();
+				if (fClassIndexRequest != null) {
+					try {
+						fClassIndexRequest.disable();
+					} catch (VMDisconnectedException e) {
+						// nothing to clean up in the VM
+					}
+					fClassIndexRequest = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return Returns whether the loaded classes are looked up in an index
+	 *         instead of asking the VM every time.
+	 */
+	public boolean isUseClassIndex() {
+		return fUseClassIndex;
+	}
+
+	/**
+	 * @return Returns the index of loaded classes, seeding it if needed, or
+	 *         <code>null</code> if it is not used or cannot be seeded.
+	 */
+	private ClassIndex classIndex() {
+		if (!fUseClassIndex) {
+			return null;
+		}
+		if (!fClassIndex.isSeeded()) {
+			synchronized (fClassIndexLock) {
+				if (!fUseClassIndex) {
+					return null;
+				}
+				if (!fClassIndex.isSeeded()) {
+					// Listen to class prepare events before reading the loaded
+					// classes, so that no class is missed in between.
+					if (fClassIndexRequest == null) {
+						fClassIndexRequest = eventRequestManagerImpl().enableInternalClassPrepareEvent();
+					}
+					int generation = fClassIndex.generation();
+					List<ReferenceType> classes = requestAllClasses();
+					if (classes != null) {
+						fClassIndex.seed(classes, generation);
+					}
+				}
+			}
+		}
+		return fClassIndex.isSeeded() ? fClassIndex : null;
+	}
+
 	/**
 	 * Invalidates this virtual machine mirror.
 	 */
@@ -1163,6 +1458,8 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 			return 0;
 		} finally {
 			handledJdwpRequest();
+			// The VM may have replaced the classes by new versions
+			fClassIndex.markStale();
 		}
 	}
 
@@ -77,6 +77,7 @@ public class ConnectMessages extends NLS {
 	public static String PacketReceiveManager_Got__0__from_Virtual_Machine_1;
 	public static String PacketReceiveManager_Got__0__from_Virtual_Machine___1__1;
 	public static String PacketReceiveManager_0;
+	public static String PacketReceiveManager_1;
 	public static String SocketTransportService_0;
 	public static String SocketTransportService_1;
 	public static String SocketConnectionLabelSeparator;
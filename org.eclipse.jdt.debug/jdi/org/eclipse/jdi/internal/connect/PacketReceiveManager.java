@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,9 +15,14 @@ package org.eclipse.jdi.internal.connect;
 
 import java.io.IOException;
 import java.io.InterruptedIOException;
-import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.ListIterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdi.TimeoutException;
 import org.eclipse.jdi.internal.VirtualMachineImpl;
@@ -46,17 +51,23 @@ public class PacketReceiveManager extends PacketManager {
 	/** List of Command packets received from Virtual Machine. */
 	private LinkedList<JdwpCommandPacket> fCommandPackets;
 
-	/** List of Reply packets received from Virtual Machine. */
-	private LinkedList<JdwpReplyPacket> fReplyPackets;
-
 	/**
-	 * List of Packets that have timed out already. Maintained so that responses
-	 * can be discarded if/when they are received.
+	 * Map of packet id to the completion slot of its reply. A slot is created
+	 * by the requesting thread before the command is sent, and removed by it
+	 * once it stops waiting, so each requester is woken individually when its
+	 * reply arrives. Replies without a slot, which arrive after their request
+	 * timed out, are discarded.
 	 */
-	private ArrayList<Integer> fTimedOutPackets;
+	private ConcurrentHashMap<Integer, CompletableFuture<JdwpReplyPacket>> fReplyPackets;
 
 	private VirtualMachineImpl fVM;
 
+	/**
+	 * Expires replies requested through
+	 * {@link #getReplyAsync(int, long)}, created on first use.
+	 */
+	private ScheduledThreadPoolExecutor fTimeoutExecutor;
+
 	/**
 	 * Create a new thread that receives packets from the Virtual Machine.
 	 */
@@ -64,8 +75,7 @@ public class PacketReceiveManager extends PacketManager {
 		super(connection);
 		fVM = vmImpl;
 		fCommandPackets = new LinkedList<>();
-		fReplyPackets = new LinkedList<>();
-		fTimedOutPackets = new ArrayList<>();
+		fReplyPackets = new ConcurrentHashMap<>();
 	}
 
 	@Override
@@ -74,8 +84,15 @@ public class PacketReceiveManager extends PacketManager {
 		synchronized (fCommandPackets) {
 			fCommandPackets.notifyAll();
 		}
-		synchronized (fReplyPackets) {
-			fReplyPackets.notifyAll();
+		// wake up all threads waiting for a reply, they will observe the
+		// disconnect
+		for (CompletableFuture<JdwpReplyPacket> slot : fReplyPackets.values()) {
+			slot.complete(null);
+		}
+		synchronized (this) {
+			if (fTimeoutExecutor != null) {
+				fTimeoutExecutor.shutdownNow();
+			}
 		}
 	}
 
@@ -148,58 +165,156 @@ public class PacketReceiveManager extends PacketManager {
 	}
 
 	/**
+	 * Waits for the reply to the command packet with the given id, which must
+	 * have been registered for with {@link #expectReply(int)} before the
+	 * command was sent.
+	 *
 	 * @return Returns a specified Reply Packet from the Virtual Machine.
 	 */
 	public JdwpReplyPacket getReply(int id, long timeToWait) {
 		JdwpReplyPacket packet = null;
 		long remainingTime = timeToWait;
-		synchronized (fReplyPackets) {
-			final long timeBeforeWait = System.currentTimeMillis();
-			// Wait until reply is available.
-			while (!VMIsDisconnected() && remainingTime > 0) {
-				packet = removeReplyPacket(id);
-				if (packet != null) {
-					break;
-				}
-				try {
-					waitForPacketAvailable(remainingTime, fReplyPackets);
-				}
-				// if the remote VM is interrupted DO NOT drop the connection -
-				// see bug 171075
-				// just stop waiting for the reply and treat it as a timeout
-				catch (InterruptedException e) {
-					if (JDIDebugOptions.DEBUG) {
-						JDIDebugOptions.trace(null, "Interrupt observed while waiting for packet: " + id, e); //$NON-NLS-1$
-					}
-					// Do not stop waiting on interrupt, this causes
-					// sporadic TimeoutException's without timeout
-					// break;
+		// Register the slot before checking for a disconnect, so that either
+		// the disconnect is observed here or the slot is woken by it.
+		CompletableFuture<JdwpReplyPacket> slot = getReplySlot(id);
+		final long timeBeforeWait = System.currentTimeMillis();
+		// Wait until reply is available.
+		while (!VMIsDisconnected() && remainingTime > 0) {
+			try {
+				packet = slot.get(remainingTime, TimeUnit.MILLISECONDS);
+				break;
+			} catch (java.util.concurrent.TimeoutException e) {
+				break;
+			}
+			// if the remote VM is interrupted DO NOT drop the connection -
+			// see bug 171075
+			// just stop waiting for the reply and treat it as a timeout
+			catch (InterruptedException e) {
+				if (JDIDebugOptions.DEBUG) {
+					JDIDebugOptions.trace(null, "Interrupt observed while waiting for packet: " + id, e); //$NON-NLS-1$
 				}
-				long waitedTime = System.currentTimeMillis() - timeBeforeWait;
-				remainingTime = timeToWait - waitedTime;
+				// Do not stop waiting on interrupt, this causes
+				// sporadic TimeoutException's without timeout
+				// break;
+			} catch (ExecutionException e) {
+				// slots are never completed exceptionally
+				break;
 			}
+			long waitedTime = System.currentTimeMillis() - timeBeforeWait;
+			remainingTime = timeToWait - waitedTime;
 		}
 		if (packet == null) {
-			synchronized (fReplyPackets) {
-				packet = removeReplyPacket(id);
-			}
+			packet = slot.getNow(null);
 		}
 		// Check for an IO Exception.
-		if (VMIsDisconnected())
+		if (VMIsDisconnected()) {
+			fReplyPackets.remove(Integer.valueOf(id));
 			throw new VMDisconnectedException(
 					ConnectMessages.PacketReceiveManager_Got_IOException_from_Virtual_Machine_2);
+		}
 		// Check for a timeout.
 		if (packet == null) {
-			synchronized (fTimedOutPackets) {
-				fTimedOutPackets.add(new Integer(id));
+			fReplyPackets.remove(Integer.valueOf(id));
+			// the reply may have arrived in between, don't lose it
+			packet = slot.getNow(null);
+			if (packet == null) {
+				throw new TimeoutException(NLS.bind(
+						ConnectMessages.PacketReceiveManager_0, new String[] { id
+								+ "" })); //$NON-NLS-1$
 			}
-			throw new TimeoutException(NLS.bind(
-					ConnectMessages.PacketReceiveManager_0, new String[] { id
-							+ "" })); //$NON-NLS-1$
+			return packet;
 		}
+		fReplyPackets.remove(Integer.valueOf(id));
 		return packet;
 	}
 
+	/**
+	 * Returns a future that is completed with the specified Reply Packet from
+	 * the Virtual Machine, without blocking the calling thread. The future is
+	 * completed exceptionally with a {@link TimeoutException} if the reply
+	 * does not arrive within the given time, or with a
+	 * {@link VMDisconnectedException} if the VM disconnects first.
+	 * <p>
+	 * The future may be completed on the thread receiving packets, so
+	 * dependent stages must not block on further requests to the VM; use the
+	 * asynchronous variants of the {@link CompletableFuture} methods or join
+	 * the future from the requesting thread instead.
+	 * </p>
+	 *
+	 * @return Returns a future of a specified Reply Packet from the Virtual
+	 *         Machine.
+	 */
+	public CompletableFuture<JdwpReplyPacket> getReplyAsync(final int id, long timeToWait) {
+		final CompletableFuture<JdwpReplyPacket> reply = new CompletableFuture<>();
+		getReplySlot(id).whenComplete((packet, e) -> {
+			fReplyPackets.remove(Integer.valueOf(id));
+			if (packet != null) {
+				reply.complete(packet);
+			} else {
+				reply.completeExceptionally(new VMDisconnectedException(
+						ConnectMessages.PacketReceiveManager_Got_IOException_from_Virtual_Machine_2));
+			}
+		});
+		if (reply.isDone()) {
+			return reply;
+		}
+		if (VMIsDisconnected()) {
+			fReplyPackets.remove(Integer.valueOf(id));
+			reply.completeExceptionally(new VMDisconnectedException(
+					ConnectMessages.PacketReceiveManager_Got_IOException_from_Virtual_Machine_2));
+			return reply;
+		}
+		if (timeToWait > 0) {
+			try {
+				final ScheduledFuture<?> expiry = getTimeoutExecutor().schedule(() -> expireReply(id, reply), timeToWait, TimeUnit.MILLISECONDS);
+				// don't keep the reply in the executor until it would expire,
+				// nor its slot if it was completed by the requester
+				reply.whenComplete((packet, e) -> {
+					expiry.cancel(false);
+					fReplyPackets.remove(Integer.valueOf(id));
+				});
+			} catch (java.util.concurrent.RejectedExecutionException e) {
+				// disconnected in the meantime, the slot has been woken
+			}
+		} else {
+			expireReply(id, reply);
+		}
+		return reply;
+	}
+
+	/**
+	 * Completes the given pending reply with a {@link TimeoutException} if it
+	 * has not arrived yet.
+	 */
+	private void expireReply(int id, CompletableFuture<JdwpReplyPacket> reply) {
+		if (reply.isDone()) {
+			return;
+		}
+		CompletableFuture<JdwpReplyPacket> slot = fReplyPackets.remove(Integer.valueOf(id));
+		if (slot != null && slot.isDone()) {
+			// the reply arrived in between, don't lose it
+			return;
+		}
+		reply.completeExceptionally(new TimeoutException(NLS.bind(
+				ConnectMessages.PacketReceiveManager_0, new String[] { id
+						+ "" }))); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return Returns the executor expiring asynchronously requested replies.
+	 */
+	private synchronized ScheduledThreadPoolExecutor getTimeoutExecutor() {
+		if (fTimeoutExecutor == null) {
+			fTimeoutExecutor = new ScheduledThreadPoolExecutor(1, r -> {
+				Thread thread = new Thread(r, ConnectMessages.PacketReceiveManager_1);
+				thread.setDaemon(true);
+				return thread;
+			});
+			fTimeoutExecutor.setRemoveOnCancelPolicy(true);
+		}
+		return fTimeoutExecutor;
+	}
+
 	/**
 	 * @return Returns a specified Reply Packet from the Virtual Machine.
 	 */
@@ -237,27 +352,29 @@ public class PacketReceiveManager extends PacketManager {
 	}
 
 	/**
-	 * @return Returns a specified reply packet from the reply packet list.
+	 * Registers for the reply to the command packet with the given id. Must
+	 * be called before the command is sent, replies arriving for a packet
+	 * nobody has registered for are discarded.
+	 *
+	 * @param id
+	 *            id of the command packet
 	 */
-	private JdwpReplyPacket removeReplyPacket(int id) {
-		ListIterator<JdwpReplyPacket> iter = fReplyPackets.listIterator();
-		while (iter.hasNext()) {
-			JdwpReplyPacket packet = iter.next();
-			if (packet.getId() == id) {
-				iter.remove();
-				return packet;
-			}
-		}
-		return null;
+	public void expectReply(int id) {
+		getReplySlot(id);
+	}
+
+	/**
+	 * @return Returns the completion slot of the reply with the given id,
+	 *         creating it if necessary.
+	 */
+	private CompletableFuture<JdwpReplyPacket> getReplySlot(int id) {
+		return fReplyPackets.computeIfAbsent(Integer.valueOf(id), key -> new CompletableFuture<>());
 	}
 
 	/**
 	 * Add a command packet to the command packet list.
 	 */
 	private void addCommandPacket(JdwpCommandPacket packet) {
-		if (isTimedOut(packet)) {
-			return; // already timed out. No need to keep this one
-		}
 		synchronized (fCommandPackets) {
 			fCommandPackets.add(packet);
 			fCommandPackets.notifyAll();
@@ -265,33 +382,16 @@ public class PacketReceiveManager extends PacketManager {
 	}
 
 	/**
-	 * Returns whether the request for the given packet has already timed out.
-	 *
-	 * @param packet
-	 *            response packet
-	 * @return whether the request for the given packet has already timed out
-	 */
-	private boolean isTimedOut(JdwpPacket packet) {
-		synchronized (fTimedOutPackets) {
-			if (fTimedOutPackets.isEmpty()) {
-				return false;
-			}
-			Integer id = new Integer(packet.getId());
-			return fTimedOutPackets.remove(id);
-		}
-	}
-
-	/**
-	 * Add a reply packet to the reply packet list.
+	 * Complete the reply slot of the given packet, waking up the thread
+	 * waiting for it. The slot is left for the requester to remove, so it
+	 * finds the reply even if it arrives before the requester waits for it.
 	 */
 	private void addReplyPacket(JdwpReplyPacket packet) {
-		if (isTimedOut(packet)) {
+		CompletableFuture<JdwpReplyPacket> slot = fReplyPackets.get(Integer.valueOf(packet.getId()));
+		if (slot == null) {
 			return; // already timed out. No need to keep this one
 		}
-		synchronized (fReplyPackets) {
-			fReplyPackets.add(packet);
-			fReplyPackets.notifyAll();
-		}
+		slot.complete(packet);
 	}
 
 	/**
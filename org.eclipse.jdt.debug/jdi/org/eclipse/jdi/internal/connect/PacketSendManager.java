@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,7 +15,7 @@ package org.eclipse.jdi.internal.connect;
 
 import java.io.IOException;
 import java.io.InterruptedIOException;
-import java.util.LinkedList;
+import java.util.ArrayList;
 
 import org.eclipse.jdi.internal.jdwp.JdwpPacket;
 import org.eclipse.osgi.util.NLS;
@@ -29,22 +29,36 @@ import com.sun.jdi.connect.spi.Connection;
  *
  */
 public class PacketSendManager extends PacketManager {
+	/** Lock guarding the list of outgoing packets. */
+	private final Object fOutgoingLock = new Object();
+
 	/** List of packets to be sent to Virtual Machine */
-	private LinkedList<JdwpPacket> fOutgoingPackets;
+	private ArrayList<JdwpPacket> fOutgoingPackets;
+
+	/**
+	 * List the outgoing packets are swapped into while being sent, only
+	 * accessed by the sending thread.
+	 */
+	private ArrayList<JdwpPacket> fPacketsToSend;
+
+	/** Bytes of the packets being sent, only accessed by the sending thread. */
+	private ArrayList<byte[]> fBytesToSend;
 
 	/**
 	 * Create a new thread that send packets to the Virtual Machine.
 	 */
 	public PacketSendManager(Connection connection) {
 		super(connection);
-		fOutgoingPackets = new LinkedList<>();
+		fOutgoingPackets = new ArrayList<>();
+		fPacketsToSend = new ArrayList<>();
+		fBytesToSend = new ArrayList<>();
 	}
 
 	@Override
 	public void disconnectVM() {
 		super.disconnectVM();
-		synchronized (fOutgoingPackets) {
-			fOutgoingPackets.notifyAll();
+		synchronized (fOutgoingLock) {
+			fOutgoingLock.notifyAll();
 		}
 	}
 
@@ -93,11 +107,11 @@ public class PacketSendManager extends PacketManager {
 			throw new VMDisconnectedException(message);
 		}
 
-		synchronized (fOutgoingPackets) {
+		synchronized (fOutgoingLock) {
 			// Add packet to list of packets to send.
 			fOutgoingPackets.add(packet);
 			// Notify PacketSendThread that data is available.
-			fOutgoingPackets.notifyAll();
+			fOutgoingLock.notifyAll();
 		}
 	}
 
@@ -106,22 +120,33 @@ public class PacketSendManager extends PacketManager {
 	 */
 	private void sendAvailablePackets() throws InterruptedException,
 			IOException {
-		LinkedList<JdwpPacket> packetsToSend = new LinkedList<>();
-		synchronized (fOutgoingPackets) {
+		ArrayList<JdwpPacket> packetsToSend = fPacketsToSend;
+		synchronized (fOutgoingLock) {
 			while (fOutgoingPackets.size() == 0) {
-				fOutgoingPackets.wait();
+				fOutgoingLock.wait();
 			}
-			packetsToSend.addAll(fOutgoingPackets);
-			fOutgoingPackets.clear();
+			// swap the lists rather than copying the packets
+			fPacketsToSend = fOutgoingPackets;
+			fOutgoingPackets = packetsToSend;
 		}
+		packetsToSend = fPacketsToSend;
 
 		// Put available packets on Output Stream.
-		while (packetsToSend.size() > 0) {
-			// Note that only JdwpPackets are added to the list, so a
-			// ClassCastException can't occur.
-			JdwpPacket packet = packetsToSend.removeFirst();
-			byte[] bytes = packet.getPacketAsBytes();
-			getConnection().writePacket(bytes);
+		try {
+			Connection connection = getConnection();
+			if (connection instanceof SocketChannelConnection) {
+				for (JdwpPacket packet : packetsToSend) {
+					fBytesToSend.add(packet.getPacketAsBytes());
+				}
+				((SocketChannelConnection) connection).writePackets(fBytesToSend);
+			} else {
+				for (JdwpPacket packet : packetsToSend) {
+					connection.writePacket(packet.getPacketAsBytes());
+				}
+			}
+		} finally {
+			packetsToSend.clear();
+			fBytesToSend.clear();
 		}
 	}
 }
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdi.internal.connect;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+
+import com.sun.jdi.connect.spi.ClosedConnectionException;
+import com.sun.jdi.connect.spi.Connection;
+
+/**
+ * A connection over a blocking {@link SocketChannel}. Incoming packets are
+ * decoded from a reusable direct buffer using their length prefix, and queued
+ * outgoing packets can be flushed with a single gathering write.
+ *
+ * @see SocketTransportService#setUseSocketChannel(boolean)
+ */
+public class SocketChannelConnection extends Connection {
+
+	/** Size of the reusable read buffer. */
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+	private SocketChannel fChannel;
+
+	/**
+	 * Buffer holding bytes read from the channel but not consumed yet. It is
+	 * kept ready for reading (flipped) between calls.
+	 */
+	private final ByteBuffer fReadBuffer;
+
+	private final Object fReadLock = new Object();
+
+	private final Object fWriteLock = new Object();
+
+	SocketChannelConnection(SocketChannel channel) {
+		fChannel = channel;
+		fReadBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+		fReadBuffer.flip();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.sun.jdi.connect.spi.Connection#close()
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (fChannel == null)
+			return;
+
+		fChannel.close();
+		fChannel = null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.sun.jdi.connect.spi.Connection#isOpen()
+	 */
+	@Override
+	public synchronized boolean isOpen() {
+		return fChannel != null;
+	}
+
+	/**
+	 * @return Returns the channel of this connection.
+	 * @throws ClosedConnectionException
+	 *             if the connection is closed
+	 */
+	private synchronized SocketChannel getChannel() throws ClosedConnectionException {
+		if (fChannel == null) {
+			throw new ClosedConnectionException();
+		}
+		return fChannel;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.sun.jdi.connect.spi.Connection#readPacket()
+	 */
+	@Override
+	public byte[] readPacket() throws IOException {
+		SocketChannel channel = getChannel();
+		synchronized (fReadLock) {
+			int packetLength = 0;
+			try {
+				fill(channel, 4);
+				packetLength = fReadBuffer.getInt();
+			} catch (IOException e) {
+				throw new ClosedConnectionException();
+			}
+
+			if (packetLength < 11) {
+				throw new IOException("JDWP Packet under 11 bytes"); //$NON-NLS-1$
+			}
+
+			byte[] packet = new byte[packetLength];
+			packet[0] = (byte) ((packetLength >>> 24) & 0xFF);
+			packet[1] = (byte) ((packetLength >>> 16) & 0xFF);
+			packet[2] = (byte) ((packetLength >>> 8) & 0xFF);
+			packet[3] = (byte) ((packetLength >>> 0) & 0xFF);
+
+			// first drain what is already buffered
+			int offset = 4;
+			int buffered = Math.min(fReadBuffer.remaining(), packetLength - offset);
+			fReadBuffer.get(packet, offset, buffered);
+			offset += buffered;
+			if (offset < packetLength) {
+				if (packetLength - offset >= READ_BUFFER_SIZE) {
+					// large packet, read the rest directly into it
+					ByteBuffer rest = ByteBuffer.wrap(packet, offset, packetLength - offset);
+					while (rest.hasRemaining()) {
+						if (channel.read(rest) < 0) {
+							throw new ClosedConnectionException();
+						}
+					}
+				} else {
+					fill(channel, packetLength - offset);
+					fReadBuffer.get(packet, offset, packetLength - offset);
+				}
+			}
+			return packet;
+		}
+	}
+
+	/**
+	 * Reads from the channel until at least the given number of bytes are
+	 * available in the read buffer.
+	 */
+	private void fill(SocketChannel channel, int length) throws IOException {
+		if (fReadBuffer.remaining() >= length) {
+			return;
+		}
+		fReadBuffer.compact();
+		try {
+			while (fReadBuffer.position() < length) {
+				if (channel.read(fReadBuffer) < 0) {
+					throw new ClosedConnectionException();
+				}
+			}
+		} finally {
+			fReadBuffer.flip();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.sun.jdi.connect.spi.Connection#writePacket(byte[])
+	 */
+	@Override
+	public void writePacket(byte[] packet) throws IOException {
+		int packetSize = SocketConnection.checkPacket(packet);
+		SocketChannel channel = getChannel();
+		ByteBuffer buffer = ByteBuffer.wrap(packet, 0, packetSize);
+		synchronized (fWriteLock) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Writes the given packets with as few gathering writes as the channel
+	 * allows, usually a single one.
+	 *
+	 * @param packets
+	 *            the packets to write, in order
+	 * @throws IOException
+	 *             if the packets cannot be written
+	 */
+	public void writePackets(List<byte[]> packets) throws IOException {
+		int size = packets.size();
+		ByteBuffer[] buffers = new ByteBuffer[size];
+		for (int i = 0; i < size; i++) {
+			byte[] packet = packets.get(i);
+			buffers[i] = ByteBuffer.wrap(packet, 0, SocketConnection.checkPacket(packet));
+		}
+		SocketChannel channel = getChannel();
+		synchronized (fWriteLock) {
+			int index = 0;
+			while (index < size) {
+				channel.write(buffers, index, size - index);
+				while (index < size && !buffers[index].hasRemaining()) {
+					index++;
+				}
+			}
+		}
+	}
+}
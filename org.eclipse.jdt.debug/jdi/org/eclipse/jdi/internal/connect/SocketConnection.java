@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -28,13 +28,13 @@ public class SocketConnection extends Connection {
 	// for attaching connector
 	private Socket fSocket;
 
-	private InputStream fInput;
+	private DataInputStream fInput;
 
 	private OutputStream fOutput;
 
 	SocketConnection(Socket socket, InputStream in, OutputStream out) {
 		fSocket = socket;
-		fInput = in;
+		fInput = new DataInputStream(in);
 		fOutput = out;
 	}
 
@@ -74,7 +74,7 @@ public class SocketConnection extends Connection {
 			if (!isOpen()) {
 				throw new ClosedConnectionException();
 			}
-			stream = new DataInputStream(fInput);
+			stream = fInput;
 		}
 		synchronized (stream) {
 			int packetLength = 0;
@@ -109,6 +109,29 @@ public class SocketConnection extends Connection {
 		if (!isOpen()) {
 			throw new ClosedConnectionException();
 		}
+		int packetSize = checkPacket(packet);
+
+		OutputStream stream = null;
+		synchronized (this) {
+			if (!isOpen()) {
+				throw new ClosedConnectionException();
+			}
+			stream = fOutput;
+		}
+
+		synchronized (stream) {
+			// packet.length can be > packetSize. Sending too much will cause
+			// errors on the other side
+			stream.write(packet, 0, packetSize);
+		}
+	}
+
+	/**
+	 * Checks that the given bytes form a valid JDWP packet.
+	 *
+	 * @return Returns the length of the packet as specified in its header.
+	 */
+	static int checkPacket(byte[] packet) {
 		if (packet == null) {
 			throw new IllegalArgumentException(
 					"Invalid JDWP Packet, packet cannot be null"); //$NON-NLS-1$
@@ -128,23 +151,10 @@ public class SocketConnection extends Connection {
 			throw new IllegalArgumentException(
 					"Invalid JDWP packet: Specified length is greater than actual length"); //$NON-NLS-1$
 		}
-
-		OutputStream stream = null;
-		synchronized (this) {
-			if (!isOpen()) {
-				throw new ClosedConnectionException();
-			}
-			stream = fOutput;
-		}
-
-		synchronized (stream) {
-			// packet.length can be > packetSize. Sending too much will cause
-			// errors on the other side
-			stream.write(packet, 0, packetSize);
-		}
+		return packetSize;
 	}
 
-	private int getPacketLength(byte[] packet) {
+	private static int getPacketLength(byte[] packet) {
 		int len = 0;
 		if (packet.length >= 4) {
 			len = (((packet[0] & 0xFF) << 24) + ((packet[1] & 0xFF) << 16)
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,9 +21,12 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.Arrays;
 
 import org.eclipse.jdi.TimeoutException;
@@ -37,6 +40,15 @@ public class SocketTransportService extends TransportService {
 	/** Handshake bytes used just after connecting VM. */
 	private static final byte[] handshakeBytes = "JDWP-Handshake".getBytes(); //$NON-NLS-1$
 
+	/**
+	 * System property that, when set to <code>true</code>, makes new services
+	 * create {@link SocketChannelConnection}s.
+	 */
+	public static final String USE_SOCKET_CHANNEL = "org.eclipse.jdt.debug.jdi.useSocketChannel"; //$NON-NLS-1$
+
+	/** Whether connections are made over socket channels. */
+	private boolean fUseSocketChannel = Boolean.getBoolean(USE_SOCKET_CHANNEL);
+
 	private Capabilities fCapabilities = new Capabilities() {
 		@Override
 		public boolean supportsAcceptTimeout() {
@@ -105,7 +117,7 @@ public class SocketTransportService extends TransportService {
 		InputStream input = socket.getInputStream();
 		OutputStream output = socket.getOutputStream();
 		performHandshake(input, output, handshakeTimeout);
-		return new SocketConnection(socket, input, output);
+		return createConnection(socket, input, output);
 	}
 
 	/*
@@ -139,16 +151,21 @@ public class SocketTransportService extends TransportService {
 		}
 
 		final IOException[] ex = new IOException[1];
-		final SocketConnection[] result = new SocketConnection[1];
+		final Connection[] result = new Connection[1];
 		Thread attachThread = new Thread(new Runnable() {
 			@Override
 			public void run() {
 				try {
-					Socket socket = new Socket(host, port);
+					Socket socket;
+					if (fUseSocketChannel) {
+						socket = SocketChannel.open(new InetSocketAddress(host, port)).socket();
+					} else {
+						socket = new Socket(host, port);
+					}
 					InputStream input = socket.getInputStream();
 					OutputStream output = socket.getOutputStream();
 					performHandshake(input, output, handshakeTimeout);
-					result[0] = new SocketConnection(socket, input, output);
+					result[0] = createConnection(socket, input, output);
 				} catch (IOException e) {
 					ex[0] = e;
 				}
@@ -172,6 +189,39 @@ public class SocketTransportService extends TransportService {
 		return result[0];
 	}
 
+	/**
+	 * Creates the connection for the given socket, over its channel if socket
+	 * channels are used.
+	 */
+	private Connection createConnection(Socket socket, InputStream input, OutputStream output) {
+		SocketChannel channel = socket.getChannel();
+		if (fUseSocketChannel && channel != null) {
+			return new SocketChannelConnection(channel);
+		}
+		return new SocketConnection(socket, input, output);
+	}
+
+	/**
+	 * Sets whether connections created by this service are made over a
+	 * {@link SocketChannel}, decoding packets from pooled buffers and sending
+	 * queued packets with gathering writes. Defaults to the value of the
+	 * {@link #USE_SOCKET_CHANNEL} system property.
+	 *
+	 * @param useSocketChannel
+	 *            whether to use socket channels
+	 */
+	public void setUseSocketChannel(boolean useSocketChannel) {
+		fUseSocketChannel = useSocketChannel;
+	}
+
+	/**
+	 * @return Returns whether connections created by this service are made
+	 *         over a {@link SocketChannel}.
+	 */
+	public boolean isUseSocketChannel() {
+		return fUseSocketChannel;
+	}
+
 	void performHandshake(final InputStream in, final OutputStream out,
 			final long timeout) throws IOException {
 		final IOException[] ex = new IOException[1];
@@ -300,7 +350,12 @@ public class SocketTransportService extends TransportService {
 			host = "localhost"; //$NON-NLS-1$
 		}
 
-		fServerSocket = new ServerSocket(port);
+		if (fUseSocketChannel) {
+			fServerSocket = ServerSocketChannel.open().socket();
+			fServerSocket.bind(new InetSocketAddress(port));
+		} else {
+			fServerSocket = new ServerSocket(port);
+		}
 		port = fServerSocket.getLocalPort();
 		ListenKey listenKey = new SocketListenKey(host + ":" + port); //$NON-NLS-1$
 		return listenKey;
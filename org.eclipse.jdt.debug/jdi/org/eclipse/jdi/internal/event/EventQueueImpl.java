@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -25,6 +25,7 @@ import org.eclipse.jdi.internal.request.RequestID;
 import com.sun.jdi.VMDisconnectedException;
 import com.sun.jdi.event.EventQueue;
 import com.sun.jdi.event.EventSet;
+import com.sun.jdi.request.EventRequest;
 
 /**
  * this class implements the corresponding interfaces declared by the JDI
@@ -71,7 +72,12 @@ public class EventQueueImpl extends MirrorImpl implements EventQueue {
 				JdwpCommandPacket packet = getCommandVM(
 						JdwpCommandPacket.E_COMPOSITE, timeout);
 				initJdwpEventSet(packet);
+				// the VM ran to report the events
+				virtualMachineImpl().stateMayHaveChanged();
 				set = EventSetImpl.read(this, packet.dataInStream());
+				if (set.suspendPolicy() == EventRequest.SUSPEND_ALL) {
+					virtualMachineImpl().setAllThreadsSuspended(true);
+				}
 				handledJdwpEventSet();
 			} while (set.isEmpty());
 			return set;
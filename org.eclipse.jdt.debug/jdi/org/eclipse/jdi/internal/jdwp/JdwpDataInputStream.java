@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdi.internal.jdwp;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A data input stream reading the data of a JDWP packet in place, through a
+ * cursor over the received bytes. Besides the primitives of
+ * {@link DataInputStream}, it decodes JDWP IDs and strings directly from the
+ * packet bytes.
+ *
+ * @see JdwpPacket#dataInStream()
+ */
+public class JdwpDataInputStream extends DataInputStream {
+
+	/**
+	 * Unsynchronized cursor over a range of bytes.
+	 */
+	private static class Cursor extends InputStream {
+		private final byte[] fBytes;
+		private int fPosition;
+		private final int fEnd;
+
+		Cursor(byte[] bytes, int offset, int length) {
+			fBytes = bytes;
+			fPosition = offset;
+			fEnd = offset + length;
+		}
+
+		@Override
+		public int read() {
+			return fPosition < fEnd ? fBytes[fPosition++] & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (fPosition >= fEnd) {
+				return -1;
+			}
+			int count = Math.min(len, fEnd - fPosition);
+			System.arraycopy(fBytes, fPosition, b, off, count);
+			fPosition += count;
+			return count;
+		}
+
+		@Override
+		public long skip(long n) {
+			int count = (int) Math.max(0, Math.min(n, fEnd - fPosition));
+			fPosition += count;
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return fEnd - fPosition;
+		}
+
+		/**
+		 * Advances the cursor over the given number of bytes.
+		 *
+		 * @return Returns the position of the first byte advanced over.
+		 */
+		int advance(int count) throws EOFException {
+			if (count < 0 || fEnd - fPosition < count) {
+				throw new EOFException();
+			}
+			int position = fPosition;
+			fPosition += count;
+			return position;
+		}
+	}
+
+	private final Cursor fCursor;
+
+	/**
+	 * Creates a stream reading the given range of bytes, which are not copied.
+	 */
+	JdwpDataInputStream(byte[] bytes, int offset, int length) {
+		this(new Cursor(bytes, offset, length));
+	}
+
+	private JdwpDataInputStream(Cursor cursor) {
+		super(cursor);
+		fCursor = cursor;
+	}
+
+	/**
+	 * Reads an ID of the given size.
+	 *
+	 * @return Returns the unsigned value of the ID.
+	 */
+	public long readID(int size) throws IOException {
+		int position = fCursor.advance(size);
+		byte[] bytes = fCursor.fBytes;
+		long value = 0;
+		for (int i = 0; i < size; i++) {
+			value = value << 8 | (bytes[position + i] & 0xFF);
+		}
+		return value;
+	}
+
+	/**
+	 * Reads a JDWP string, that is a UTF-8 string prefixed with a four byte
+	 * length, decoding it in place.
+	 *
+	 * @return Returns the string read.
+	 */
+	public String readJdwpString() throws IOException {
+		int utfSize = readInt();
+		int position = fCursor.advance(utfSize);
+		return JdwpString.decode(fCursor.fBytes, position, utfSize);
+	}
+}
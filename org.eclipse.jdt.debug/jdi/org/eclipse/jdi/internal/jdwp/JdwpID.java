@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -134,8 +134,12 @@ public abstract class JdwpID {
 	 * Reads ID.
 	 */
 	public void read(DataInputStream inStream) throws IOException {
-		fValue = 0;
 		int size = getSize();
+		if (inStream instanceof JdwpDataInputStream) {
+			fValue = ((JdwpDataInputStream) inStream).readID(size);
+			return;
+		}
+		fValue = 0;
 		for (int i = 0; i < size; i++) {
 			int b = inStream.readUnsignedByte(); // Note that the byte must be
 													// treated as unsigned.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,11 +13,12 @@
  *******************************************************************************/
 package org.eclipse.jdi.internal.jdwp;
 
-import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * This class implements the corresponding Java Debug Wire Protocol (JDWP)
@@ -36,6 +37,20 @@ public abstract class JdwpPacket {
 	protected int fId = 0;
 	protected byte fFlags = 0;
 	protected byte[] fDataBuf = null;
+	/**
+	 * Offset and length of the data in <code>fDataBuf</code>. Packets
+	 * received from the VM share the bytes of the received frame rather than
+	 * copying their data out of it.
+	 */
+	protected int fDataOffset = 0;
+	protected int fDataLength = 0;
+	/**
+	 * Data of the packet as returned by {@link #data()}, copied out of
+	 * <code>fDataBuf</code> on first use. <code>fDataBuf</code> and the
+	 * offset and length are not changed once the packet is built, as other
+	 * threads may read the data at the same time.
+	 */
+	private volatile byte[] fData = null;
 
 	/**
 	 * Set Id.
@@ -76,26 +91,47 @@ public abstract class JdwpPacket {
 	 * @return Returns length of data in packet.
 	 */
 	public int getDataLength() {
-		return fDataBuf == null ? 0 : fDataBuf.length;
+		return fDataBuf == null ? 0 : fDataLength;
 	}
 
 	/**
 	 * @return Returns data of packet.
 	 */
 	public byte[] data() {
-		return fDataBuf;
+		byte[] data = fData;
+		if (data == null && fDataBuf != null) {
+			// threads racing here copy the same bytes
+			if (fDataOffset == 0 && fDataLength == fDataBuf.length) {
+				data = fDataBuf;
+			} else {
+				data = Arrays.copyOfRange(fDataBuf, fDataOffset, fDataOffset + fDataLength);
+			}
+			fData = data;
+		}
+		return data;
+	}
+
+	/**
+	 * @return Returns a read-only view of the data of packet, or an empty
+	 *         buffer if there is none.
+	 */
+	public ByteBuffer dataBuffer() {
+		if (fDataBuf != null) {
+			return ByteBuffer.wrap(fDataBuf, fDataOffset, fDataLength).slice().asReadOnlyBuffer();
+		}
+		return ByteBuffer.allocate(0).asReadOnlyBuffer();
 	}
 
 	/**
 	 * @return Returns DataInputStream with reply data, or an empty stream if
-	 *         there is none.
+	 *         there is none. The stream reads the data in place.
 	 */
 	public DataInputStream dataInStream() {
 		if (fDataBuf != null) {
-			return new DataInputStream(new ByteArrayInputStream(fDataBuf));
+			return new JdwpDataInputStream(fDataBuf, fDataOffset, fDataLength);
 		}
 
-		return new DataInputStream(new ByteArrayInputStream(new byte[0]));
+		return new JdwpDataInputStream(new byte[0], 0, 0);
 	}
 
 	/**
@@ -103,6 +139,9 @@ public abstract class JdwpPacket {
 	 */
 	public void setData(byte[] data) {
 		fDataBuf = data;
+		fDataOffset = 0;
+		fDataLength = data == null ? 0 : data.length;
+		fData = data;
 	}
 
 	/**
@@ -153,9 +192,10 @@ public abstract class JdwpPacket {
 		int index = 9;
 		index += packet.readSpecificHeaderFields(bytes, 9);
 		if (packetLength - MIN_PACKET_LENGTH > 0) {
-			packet.fDataBuf = new byte[packetLength - MIN_PACKET_LENGTH];
-			System.arraycopy(bytes, index, packet.fDataBuf, 0,
-					packet.fDataBuf.length);
+			// share the received bytes instead of copying the data
+			packet.fDataBuf = bytes;
+			packet.fDataOffset = index;
+			packet.fDataLength = packetLength - MIN_PACKET_LENGTH;
 		}
 
 		return packet;
@@ -187,7 +227,7 @@ public abstract class JdwpPacket {
 
 		if (index < len && fDataBuf != null) {
 			// copy data
-			System.arraycopy(fDataBuf, 0, bytes, index, fDataBuf.length);
+			System.arraycopy(fDataBuf, fDataOffset, bytes, index, fDataLength);
 		}
 		return bytes;
 	}
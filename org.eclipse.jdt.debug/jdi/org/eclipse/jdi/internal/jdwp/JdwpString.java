@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -29,17 +29,33 @@ public class JdwpString {
 	 * not just 2. This code was based on the OTI Retysin source for readUTF.
 	 */
 	public static String read(DataInputStream in) throws IOException {
+		if (in instanceof JdwpDataInputStream) {
+			return ((JdwpDataInputStream) in).readJdwpString();
+		}
 		int utfSize = in.readInt();
 		byte utfBytes[] = new byte[utfSize];
 		in.readFully(utfBytes);
+		return decode(utfBytes, 0, utfSize);
+	}
+
+	/**
+	 * Decodes a UTF-8 string from the given range of bytes.
+	 */
+	static String decode(byte[] utfBytes, int offset, int utfSize) throws UTFDataFormatException {
+		int end = offset + utfSize;
 		/* Guess at buffer size */
 		StringBuilder strBuffer = new StringBuilder(utfSize / 3 * 2);
-		for (int i = 0; i < utfSize;) {
+		for (int i = offset; i < end;) {
 			int a = utfBytes[i] & 0xFF;
 			if ((a >> 4) < 12) {
 				strBuffer.append((char) a);
 				i++;
 			} else {
+				// a truncated sequence is malformed, as for readUTF
+				if (i + 1 >= end) {
+					throw new UTFDataFormatException(
+							JDWPMessages.JdwpString_Input_does_not_match_UTF_Specification_3);
+				}
 				int b = utfBytes[i + 1] & 0xFF;
 				if ((a >> 4) < 14) {
 					if ((b & 0xBF) == 0) {
@@ -49,6 +65,10 @@ public class JdwpString {
 					strBuffer.append((char) (((a & 0x1F) << 6) | (b & 0x3F)));
 					i += 2;
 				} else {
+					if (i + 2 >= end) {
+						throw new UTFDataFormatException(
+								JDWPMessages.JdwpString_Input_does_not_match_UTF_Specification_3);
+					}
 					int c = utfBytes[i + 2] & 0xFF;
 					if ((a & 0xEF) > 0) {
 						if (((b & 0xBF) == 0) || ((c & 0xBF) == 0)) {
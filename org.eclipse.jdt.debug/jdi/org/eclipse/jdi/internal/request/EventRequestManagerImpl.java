@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -313,10 +313,12 @@ public class EventRequestManagerImpl extends MirrorImpl implements EventRequestM
 	/**
 	 * Enables class prepare requests for all loaded classes.  This is
 	 * necessary for current versions of the KVM to function correctly.
-	 * This method is only called when the remote VM is determined to be
-	 * the KVM.
+	 * This method is called when the remote VM is determined to be
+	 * the KVM, and to maintain the index of loaded classes.
+	 *
+	 * @return the enabled request
 	 */
-	public void enableInternalClassPrepareEvent() {
+	public ClassPrepareRequest enableInternalClassPrepareEvent() {
 		// Note that these requests are not stored in the set of outstanding requests because
 		// they must be invisible from outside.
 		ClassPrepareRequestImpl requestPrepare =
@@ -325,6 +327,7 @@ public class EventRequestManagerImpl extends MirrorImpl implements EventRequestM
 		requestPrepare.setSuspendPolicy(EventRequest.SUSPEND_NONE);
 
 		requestPrepare.enable();
+		return requestPrepare;
 	}
 
 	/**
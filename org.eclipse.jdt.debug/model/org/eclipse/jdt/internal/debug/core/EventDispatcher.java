@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,30 +13,44 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.debug.core;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.debug.core.DebugEvent;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
+import org.eclipse.jdt.debug.core.JDIDebugModel;
 import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
 
+import com.sun.jdi.ThreadReference;
 import com.sun.jdi.VMDisconnectedException;
 import com.sun.jdi.VirtualMachine;
+import com.sun.jdi.event.ClassPrepareEvent;
 import com.sun.jdi.event.Event;
 import com.sun.jdi.event.EventIterator;
 import com.sun.jdi.event.EventQueue;
 import com.sun.jdi.event.EventSet;
+import com.sun.jdi.event.LocatableEvent;
 import com.sun.jdi.event.ThreadDeathEvent;
+import com.sun.jdi.event.ThreadStartEvent;
 import com.sun.jdi.event.VMDeathEvent;
 import com.sun.jdi.event.VMDisconnectEvent;
 import com.sun.jdi.event.VMStartEvent;
@@ -59,6 +73,14 @@ import com.sun.jdi.request.EventRequest;
  * only resumed in if all event handlers agree that the thread should be
  * resumed.
  * </p>
+ * <p>
+ * Event sets of different threads are dispatched in parallel by a bounded
+ * number of worker threads, see
+ * {@link JDIDebugPlugin#PREF_EVENT_DISPATCH_THREADS}. The event sets of one
+ * thread are dispatched in the order they are received, and event sets not
+ * bound to a single thread, like VM start and death, are dispatched once all
+ * event sets received before them are.
+ * </p>
  */
 
 public class EventDispatcher implements Runnable {
@@ -74,7 +96,36 @@ public class EventDispatcher implements Runnable {
 	 * Table of event listeners. Table is a mapping of <code>EventRequest</code>
 	 * to <code>IJDIEventListener</code>.
 	 */
-	private HashMap<EventRequest, IJDIEventListener> fEventHandlers;
+	private final Map<EventRequest, IJDIEventListener> fEventHandlers;
+
+	/**
+	 * Maximum number of threads dispatching event sets in parallel, 1 to
+	 * dispatch them on the thread reading the event queue.
+	 */
+	private final int fDispatchThreads;
+
+	/**
+	 * Workers dispatching event sets, created when the first set is queued.
+	 */
+	private ThreadPoolExecutor fExecutor;
+
+	/**
+	 * Lanes of event sets being dispatched, by thread. Guarded by itself,
+	 * which is notified when a lane is done.
+	 */
+	private final Map<ThreadReference, DispatchLane> fLanes = new HashMap<>();
+
+	/**
+	 * Number of event sets received and not dispatched yet.
+	 */
+	private final AtomicInteger fQueueDepth = new AtomicInteger();
+
+	/**
+	 * Number of event sets dispatched and the total time between their receipt
+	 * and the end of their dispatch, in nanoseconds.
+	 */
+	private final LongAdder fDispatchedSets = new LongAdder();
+	private final LongAdder fDispatchLatency = new LongAdder();
 
 	/**
 	 * Queue of debug model events to fire, created when processing events on
@@ -90,9 +141,149 @@ public class EventDispatcher implements Runnable {
 	 *            the target this event dispatcher belongs to
 	 */
 	public EventDispatcher(JDIDebugTarget target) {
-		fEventHandlers = new HashMap<>(10);
+		fEventHandlers = new ConcurrentHashMap<>(10);
 		fTarget = target;
 		fShutdown = false;
+		fDispatchThreads = Platform.getPreferencesService().getInt(
+				JDIDebugPlugin.getUniqueIdentifier(),
+				JDIDebugPlugin.PREF_EVENT_DISPATCH_THREADS,
+				JDIDebugPlugin.DEF_EVENT_DISPATCH_THREADS,
+				null);
+	}
+
+	/**
+	 * Event sets of one thread waiting to be dispatched. A lane is run by one
+	 * worker at a time, until it is empty.
+	 */
+	private class DispatchLane implements Runnable {
+		private final ThreadReference fThread;
+		private final ArrayDeque<Runnable> fSets = new ArrayDeque<>();
+
+		DispatchLane(ThreadReference thread) {
+			fThread = thread;
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				Runnable next;
+				synchronized (fLanes) {
+					next = fSets.poll();
+					if (next == null) {
+						fLanes.remove(fThread);
+						fLanes.notifyAll();
+						return;
+					}
+				}
+				next.run();
+			}
+		}
+	}
+
+	/**
+	 * Dispatch the given event set, recording its latency.
+	 *
+	 * @param eventSet
+	 *            events to dispatch
+	 * @param received
+	 *            the time the event set was received, from
+	 *            {@link System#nanoTime()}
+	 */
+	private void dispatch(EventSet eventSet, long received) {
+		try {
+			dispatch(eventSet);
+		} finally {
+			fQueueDepth.decrementAndGet();
+			fDispatchedSets.increment();
+			fDispatchLatency.add(System.nanoTime() - received);
+		}
+	}
+
+	/**
+	 * Dispatches the given event set on the lane of its thread, or on this
+	 * thread once all lanes are done if it is not bound to a single thread.
+	 *
+	 * @param eventSet
+	 *            events to dispatch
+	 * @param received
+	 *            the time the event set was received
+	 */
+	private void queue(EventSet eventSet, long received) throws InterruptedException {
+		ThreadReference thread = threadOf(eventSet);
+		synchronized (fLanes) {
+			if (thread == null) {
+				while (!fLanes.isEmpty()) {
+					fLanes.wait();
+				}
+			} else {
+				DispatchLane lane = fLanes.get(thread);
+				if (lane == null) {
+					lane = new DispatchLane(thread);
+					fLanes.put(thread, lane);
+					lane.fSets.add(() -> dispatch(eventSet, received));
+					try {
+						getExecutor().execute(lane);
+					} catch (RejectedExecutionException e) {
+						// shutdown
+						fLanes.remove(thread);
+						fQueueDepth.decrementAndGet();
+					}
+				} else {
+					lane.fSets.add(() -> dispatch(eventSet, received));
+				}
+				return;
+			}
+		}
+		dispatch(eventSet, received);
+	}
+
+	/**
+	 * @return Returns the workers dispatching event sets.
+	 */
+	private synchronized ThreadPoolExecutor getExecutor() {
+		if (fExecutor == null) {
+			String name = JDIDebugModel.getPluginIdentifier() + JDIDebugMessages.EventDispatcher_1;
+			fExecutor = new ThreadPoolExecutor(fDispatchThreads, fDispatchThreads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+				Thread thread = new Thread(r, name);
+				thread.setDaemon(true);
+				return thread;
+			});
+			fExecutor.allowCoreThreadTimeOut(true);
+		}
+		return fExecutor;
+	}
+
+	/**
+	 * Returns the thread all events of the given set occurred in.
+	 *
+	 * @param eventSet
+	 *            event set
+	 * @return the thread of the events, or <code>null</code> if they are not
+	 *         bound to a single thread
+	 */
+	private static ThreadReference threadOf(EventSet eventSet) {
+		ThreadReference thread = null;
+		EventIterator iter = eventSet.eventIterator();
+		while (iter.hasNext()) {
+			Event event = iter.nextEvent();
+			ThreadReference eventThread;
+			if (event instanceof LocatableEvent) {
+				eventThread = ((LocatableEvent) event).thread();
+			} else if (event instanceof ThreadStartEvent) {
+				eventThread = ((ThreadStartEvent) event).thread();
+			} else if (event instanceof ThreadDeathEvent) {
+				eventThread = ((ThreadDeathEvent) event).thread();
+			} else if (event instanceof ClassPrepareEvent) {
+				eventThread = ((ClassPrepareEvent) event).thread();
+			} else {
+				return null;
+			}
+			if (eventThread == null || (thread != null && !thread.equals(eventThread))) {
+				return null;
+			}
+			thread = eventThread;
+		}
+		return thread;
 	}
 
 	/**
@@ -133,7 +324,7 @@ public class EventDispatcher implements Runnable {
 				continue;
 			}
 			// Dispatch events to registered listeners, if any
-			IJDIEventListener listener = fEventHandlers.get(event.request());
+			IJDIEventListener listener = getListener(event);
 			listeners[index] = listener;
 			if (listener != null) {
 				if (listener instanceof IJavaLineBreakpoint) {
@@ -183,8 +374,7 @@ public class EventDispatcher implements Runnable {
 					continue;
 				}
 				// Dispatch events to registered listeners, if any
-				IJDIEventListener listener = fEventHandlers
-						.get(event.request());
+				IJDIEventListener listener = getListener(event);
 				if (listener != null) {
 					vote = true;
 					resume = listener.handleEvent(event, fTarget, !resume, eventSet) && resume;
@@ -234,6 +424,18 @@ public class EventDispatcher implements Runnable {
 		}
 	}
 
+	/**
+	 * Returns the listener registered for the request of the given event.
+	 *
+	 * @param event
+	 *            event
+	 * @return the listener, or <code>null</code> if none
+	 */
+	private IJDIEventListener getListener(Event event) {
+		EventRequest request = event.request();
+		return request == null ? null : fEventHandlers.get(request);
+	}
+
 	private boolean requiresExpressionEvaluation(EventSet eventSet) {
 		EventIterator iter = eventSet.eventIterator();
 		while (iter.hasNext()) {
@@ -241,7 +443,7 @@ public class EventDispatcher implements Runnable {
 			if (event == null) {
 				continue;
 			}
-			IJDIEventListener listener = fEventHandlers.get(event.request());
+			IJDIEventListener listener = getListener(event);
 			if (listener instanceof IJavaLineBreakpoint) {
 				try {
 					if (((IJavaLineBreakpoint) listener).isConditionEnabled()) {
@@ -301,14 +503,20 @@ public class EventDispatcher implements Runnable {
 					}
 
 					if (eventSet != null) {
+						long received = System.nanoTime();
+						fQueueDepth.incrementAndGet();
 						if (!requiresExpressionEvaluation(eventSet)) {
-							dispatch(eventSet);
+							if (fDispatchThreads > 1) {
+								queue(eventSet, received);
+							} else {
+								dispatch(eventSet, received);
+							}
 						} else {
 							// 269231 always evaluate expressions in a separate job to avoid deadlocks
 							Job job = new AbstractDispatchJob("JDI Expression Evaluation Event Dispatch") { //$NON-NLS-1$
 								@Override
 								protected IStatus run(IProgressMonitor monitor) {
-									dispatch(eventSet);
+									dispatch(eventSet, received);
 									return Status.OK_STATUS;
 								}
 							};
@@ -331,6 +539,11 @@ public class EventDispatcher implements Runnable {
 	public void shutdown() {
 		fShutdown = true;
 		Job.getJobManager().cancel(this);
+		synchronized (this) {
+			if (fExecutor != null) {
+				fExecutor.shutdown();
+			}
+		}
 	}
 
 	/**
@@ -355,7 +568,9 @@ public class EventDispatcher implements Runnable {
 	 */
 	public void addJDIEventListener(IJDIEventListener listener,
 			EventRequest request) {
-		fEventHandlers.put(request, listener);
+		if (request != null && listener != null) {
+			fEventHandlers.put(request, listener);
+		}
 	}
 
 	/**
@@ -369,7 +584,40 @@ public class EventDispatcher implements Runnable {
 	 *            the event request to de-register
 	 */
 	public void removeJDIEventListener(IJDIEventListener listener, EventRequest request) {
-		fEventHandlers.remove(request);
+		if (request != null) {
+			fEventHandlers.remove(request);
+		}
+	}
+
+	/**
+	 * Returns the number of event sets received from the underlying VM and not
+	 * dispatched yet.
+	 *
+	 * @return the number of event sets waiting or being dispatched
+	 */
+	public int getQueueDepth() {
+		return fQueueDepth.get();
+	}
+
+	/**
+	 * Returns the number of event sets dispatched so far.
+	 *
+	 * @return the number of dispatched event sets
+	 */
+	public long getDispatchedEventSetCount() {
+		return fDispatchedSets.sum();
+	}
+
+	/**
+	 * Returns the average time between the receipt of an event set and the
+	 * end of its dispatch.
+	 *
+	 * @return the average dispatch latency in nanoseconds, or 0 if no event
+	 *         set was dispatched
+	 */
+	public long getAverageDispatchLatency() {
+		long count = fDispatchedSets.sum();
+		return count == 0 ? 0 : fDispatchLatency.sum() / count;
 	}
 
 	/**
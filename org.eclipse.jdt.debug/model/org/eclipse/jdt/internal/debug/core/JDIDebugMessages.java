@@ -1,5 +1,5 @@
 /**********************************************************************
- * Copyright (c) 2004, 2005 IBM Corporation and others.
+ * Copyright (c) 2004, 2019 IBM Corporation and others.
  *
  * This program and the accompanying
  * materials are made available under the terms of
@@ -19,6 +19,7 @@ public class JDIDebugMessages extends NLS {
 	private static final String BUNDLE_NAME = "org.eclipse.jdt.internal.debug.core.JDIDebugMessages";//$NON-NLS-1$
 
 	public static String EventDispatcher_0;
+	public static String EventDispatcher_1;
 
 	static {
 		// load message values from bundle file
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -31,9 +31,11 @@ import com.ibm.icu.text.SimpleDateFormat;
 public class JDIDebugOptions implements DebugOptionsListener {
 
 	public static final String DEBUG_AST_EVALUATIONS_CALLING_THREADS_FLAG = "org.eclipse.jdt.debug/debug/astEvaluations/callingThreads"; //$NON-NLS-1$
+	public static final String DEBUG_AST_EVALUATIONS_COMPILED_EXPRESSION_CACHE_FLAG = "org.eclipse.jdt.debug/debug/astEvaluations/compiledExpressionCache"; //$NON-NLS-1$
 	public static final String DEBUG_AST_EVALUATIONS_FLAG = "org.eclipse.jdt.debug/debug/astEvaluations"; //$NON-NLS-1$
 	public static final String DEBUG_JDI_REQUEST_TIMES_FLAG = "org.eclipse.jdt.debug/debug/jdiRequestTimes"; //$NON-NLS-1$
 	public static final String DEBUG_JDI_EVENTS_FLAG = "org.eclipse.jdt.debug/debug/jdiEvents"; //$NON-NLS-1$
+	public static final String DEBUG_HCR_FLAG = "org.eclipse.jdt.debug/debug/hcr"; //$NON-NLS-1$
 	public static final String DEBUG_FLAG = "org.eclipse.jdt.debug/debug"; //$NON-NLS-1$
 
 	public static boolean DEBUG = false;
@@ -41,6 +43,8 @@ public class JDIDebugOptions implements DebugOptionsListener {
 	public static boolean DEBUG_JDI_REQUEST_TIMES = false;
 	public static boolean DEBUG_AST_EVAL = false;
 	public static boolean DEBUG_AST_EVAL_THREAD_TRACE = false;
+	public static boolean DEBUG_AST_EVAL_CACHE = false;
+	public static boolean DEBUG_HCR = false;
 
 	/**
 	 * The {@link DebugTrace} object to print to OSGi tracing
@@ -71,6 +75,8 @@ public class JDIDebugOptions implements DebugOptionsListener {
 		DEBUG_JDI_REQUEST_TIMES = DEBUG && options.getBooleanOption(DEBUG_JDI_REQUEST_TIMES_FLAG, false);
 		DEBUG_AST_EVAL = DEBUG && options.getBooleanOption(DEBUG_AST_EVALUATIONS_FLAG, false);
 		DEBUG_AST_EVAL_THREAD_TRACE = DEBUG && options.getBooleanOption(DEBUG_AST_EVALUATIONS_CALLING_THREADS_FLAG, false);
+		DEBUG_AST_EVAL_CACHE = DEBUG && options.getBooleanOption(DEBUG_AST_EVALUATIONS_COMPILED_EXPRESSION_CACHE_FLAG, false);
+		DEBUG_HCR = DEBUG && options.getBooleanOption(DEBUG_HCR_FLAG, false);
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -118,6 +118,40 @@ public class JDIDebugPlugin extends Plugin implements IEclipsePreferences.IPrefe
 	public static final String PREF_ENABLE_ADVANCED_SOURCELOOKUP = JDIDebugPlugin
 			.getUniqueIdentifier() + ".enable_advanced_sourcelookup"; //$NON-NLS-1$
 
+	/**
+	 * Integer preference determining the maximum number of threads
+	 * dispatching the JDI events of a debug target in parallel, one thread per
+	 * target thread at a time. With 1 the events are dispatched on the thread
+	 * reading them.
+	 *
+	 * @since 3.12
+	 */
+	public static final String PREF_EVENT_DISPATCH_THREADS = JDIDebugPlugin
+			.getUniqueIdentifier() + ".event_dispatch_threads"; //$NON-NLS-1$
+
+	/**
+	 * Default value of {@link #PREF_EVENT_DISPATCH_THREADS}. Parallel dispatch
+	 * is opt-in.
+	 *
+	 * @since 3.12
+	 */
+	public static final int DEF_EVENT_DISPATCH_THREADS = 1;
+
+	/**
+	 * Boolean preference controlling if method breakpoints in a specific type
+	 * suspend on method exit with breakpoints at the return instructions of
+	 * the method, rather than with method exit requests which slow down all
+	 * method calls of the target. In this mode the value returned by methods
+	 * that are not void is not shown, and exits by exceptions thrown by the
+	 * methods they call are not reported. Methods containing 'athrow'
+	 * instructions, native methods, type name patterns and hit counts still
+	 * use method exit requests. Applies to breakpoints installed after the change.
+	 *
+	 * @since 3.12
+	 */
+	public static final String PREF_METHOD_EXIT_BREAKPOINT_LOCATIONS = JDIDebugPlugin
+			.getUniqueIdentifier() + ".method_exit_breakpoint_locations"; //$NON-NLS-1$
+
 	/**
 	 * Extension point for java logical structures.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,12 +15,14 @@ package org.eclipse.jdt.internal.debug.core.breakpoints;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.CoreException;
@@ -119,7 +121,8 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	/**
 	 * Stores the collection of requests that this breakpoint has installed in
 	 * debug targets. key: a debug target value: the requests this breakpoint
-	 * has installed in that target
+	 * has installed in that target. Access is synchronized on the map, as
+	 * events of different threads may be dispatched at once.
 	 */
 	protected HashMap<JDIDebugTarget, List<EventRequest>> fRequestsByTarget;
 
@@ -139,20 +142,26 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 * installed in, in case we need to re-install the breakpoint for HCR (i.e.
 	 * in case an inner type is HCR'd).
 	 */
-	protected String fInstalledTypeName = null;
+	protected volatile String fInstalledTypeName = null;
 
 	/**
 	 * List of targets in which this breakpoint is installed. Used to prevent
 	 * firing of more than one install notification when a breakpoint's requests
 	 * are re-created.
 	 */
-	protected Set<IJavaDebugTarget> fInstalledTargets = null;
+	protected Set<IJavaDebugTarget> fInstalledTargets = Collections.synchronizedSet(new HashSet<IJavaDebugTarget>());
 
 	/**
 	 * List of active instance filters for this breakpoint (list of
 	 * <code>IJavaObject</code>).
 	 */
-	protected List<IJavaObject> fInstanceFilters = null;
+	protected List<IJavaObject> fInstanceFilters = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Lock guarding the read and update of the install count, which requests
+	 * installed or removed by different threads change at once.
+	 */
+	private final Object fInstallCountLock = new Object();
 
 	/**
 	 * List of breakpoint listener identifiers corresponding to breakpoint
@@ -179,7 +188,7 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 
 	public JavaBreakpoint() {
 		fRequestsByTarget = new HashMap<>(1);
-		fFilteredThreadsByTarget = new HashMap<>(1);
+		fFilteredThreadsByTarget = Collections.synchronizedMap(new HashMap<JDIDebugTarget, IJavaThread>(1));
 	}
 
 	/*
@@ -228,11 +237,14 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 		if (request == null) {
 			return;
 		}
-		List<EventRequest> reqs = getRequests(target);
-		if (reqs.isEmpty()) {
-			fRequestsByTarget.put(target, reqs);
+		synchronized (fRequestsByTarget) {
+			List<EventRequest> reqs = fRequestsByTarget.get(target);
+			if (reqs == null) {
+				reqs = new ArrayList<>(2);
+				fRequestsByTarget.put(target, reqs);
+			}
+			reqs.add(request);
 		}
-		reqs.add(request);
 		target.addJDIEventListener(this, request);
 		// update the install attribute on the breakpoint
 		if (!(request instanceof ClassPrepareRequest)) {
@@ -260,15 +272,17 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	}
 
 	/**
-	 * Returns the requests that this breakpoint has installed in the given
-	 * target.
+	 * Returns a copy of the requests that this breakpoint has installed in the
+	 * given target.
 	 */
 	protected ArrayList<EventRequest> getRequests(JDIDebugTarget target) {
-		ArrayList<EventRequest> list = (ArrayList<EventRequest>) fRequestsByTarget.get(target);
-		if (list == null) {
-			list = new ArrayList<>(2);
+		synchronized (fRequestsByTarget) {
+			List<EventRequest> list = fRequestsByTarget.get(target);
+			if (list == null) {
+				return new ArrayList<>(2);
+			}
+			return new ArrayList<>(list);
 		}
-		return list;
 	}
 
 	/**
@@ -459,7 +473,13 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 		}
 		if (requestCount != null) {
 			if (request != null) {
-				request.putProperty(EXPIRED, Boolean.TRUE);
+				// only the first hit expires the request
+				synchronized (request) {
+					if (isExpired(request)) {
+						return;
+					}
+					request.putProperty(EXPIRED, Boolean.TRUE);
+				}
 			}
 			try {
 				setAttributes(fgExpiredEnabledAttributes, new Object[] {
@@ -583,14 +603,10 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 
 	protected void configureInstanceFilters(EventRequest request,
 			JDIDebugTarget target) {
-		if (fInstanceFilters != null && !fInstanceFilters.isEmpty()) {
-			Iterator<IJavaObject> iter = fInstanceFilters.iterator();
-			while (iter.hasNext()) {
-				IJavaObject object = iter.next();
-				if (object.getDebugTarget().equals(target)) {
-					addInstanceFilter(request,
-							((JDIObjectValue) object).getUnderlyingObject());
-				}
+		for (IJavaObject object : fInstanceFilters) {
+			if (object.getDebugTarget().equals(target)) {
+				addInstanceFilter(request,
+						((JDIObjectValue) object).getUnderlyingObject());
 			}
 		}
 	}
@@ -753,14 +769,8 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 		}
 
 		// remove instance filters
-		if (fInstanceFilters != null && !fInstanceFilters.isEmpty()) {
-			for (int i = 0; i < fInstanceFilters.size(); i++) {
-				IJavaObject object = fInstanceFilters.get(i);
-				if (object.getDebugTarget().equals(target)) {
-					fInstanceFilters.remove(i);
-					changed = true;
-				}
-			}
+		if (fInstanceFilters.removeIf(object -> object.getDebugTarget().equals(target))) {
+			changed = true;
 		}
 
 		// fire change notification if required
@@ -780,10 +790,16 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 		// removing was previously done is a workspace runnable, but that is
 		// not possible since it can be a resource callback (marker deletion)
 		// that causes a breakpoint to be removed
-		ArrayList<EventRequest> requests = new ArrayList<>(getRequests(target));
-		// Iterate over a copy of the requests since this list of requests
-		// can be changed in other threads which would cause an
-		// ConcurrentModificationException
+		// Take the requests out of the map first, since this list of
+		// requests can be changed in other threads. Requests registered
+		// meanwhile go to a new list and are not lost.
+		List<EventRequest> requests;
+		synchronized (fRequestsByTarget) {
+			requests = fRequestsByTarget.remove(target);
+		}
+		if (requests == null) {
+			return;
+		}
 		Iterator<EventRequest> iter = requests.iterator();
 		EventRequest req;
 		while (iter.hasNext()) {
@@ -806,7 +822,6 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 				deregisterRequest(req, target);
 			}
 		}
-		fRequestsByTarget.remove(target);
 	}
 
 	/**
@@ -872,8 +887,10 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 * Increments the install count of this breakpoint
 	 */
 	protected void incrementInstallCount() throws CoreException {
-		int count = getInstallCount();
-		setAttribute(INSTALL_COUNT, count + 1);
+		synchronized (fInstallCountLock) {
+			int count = getInstallCount();
+			setAttribute(INSTALL_COUNT, count + 1);
+		}
 	}
 
 	/**
@@ -895,9 +912,12 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 * Decrements the install count of this breakpoint.
 	 */
 	protected void decrementInstallCount() throws CoreException {
-		int count = getInstallCount();
-		if (count > 0) {
-			setAttribute(INSTALL_COUNT, count - 1);
+		int count;
+		synchronized (fInstallCountLock) {
+			count = getInstallCount();
+			if (count > 0) {
+				setAttribute(INSTALL_COUNT, count - 1);
+			}
 		}
 		if (count == 1) {
 			if (isExpired()) {
@@ -1083,10 +1103,17 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 */
 	protected void fireInstalled(IJavaDebugTarget target) {
 		JDIDebugPlugin plugin = JDIDebugPlugin.getDefault();
-		if (plugin != null && !isInstalledIn(target)) {
-			plugin.fireBreakpointInstalled(target, this);
+		if (plugin == null) {
+			return;
+		}
+		// requests installed by different threads notify only once
+		synchronized (fInstalledTargets) {
+			if (isInstalledIn(target)) {
+				return;
+			}
 			setInstalledIn(target, true);
 		}
+		plugin.fireBreakpointInstalled(target, this);
 	}
 
 	/**
@@ -1096,7 +1123,7 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 * @return whether this breakpoint is installed in the given target
 	 */
 	protected boolean isInstalledIn(IJavaDebugTarget target) {
-		return fInstalledTargets != null && fInstalledTargets.contains(target);
+		return fInstalledTargets.contains(target);
 	}
 
 	/**
@@ -1108,14 +1135,9 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 */
 	protected void setInstalledIn(IJavaDebugTarget target, boolean installed) {
 		if (installed) {
-			if (fInstalledTargets == null) {
-				fInstalledTargets = new HashSet<>();
-			}
 			fInstalledTargets.add(target);
 		} else {
-			if (fInstalledTargets != null) {
-				fInstalledTargets.remove(target);
-			}
+			fInstalledTargets.remove(target);
 		}
 	}
 
@@ -1221,11 +1243,8 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 */
 	@Override
 	public IJavaThread[] getThreadFilters() {
-		IJavaThread[] threads = null;
 		Collection<IJavaThread> values = fFilteredThreadsByTarget.values();
-		threads = new IJavaThread[values.size()];
-		values.toArray(threads);
-		return threads;
+		return values.toArray(new IJavaThread[0]);
 	}
 
 	/*
@@ -1281,11 +1300,11 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 */
 	@Override
 	public void addInstanceFilter(IJavaObject object) throws CoreException {
-		if (fInstanceFilters == null) {
-			fInstanceFilters = new ArrayList<>();
+		boolean added;
+		synchronized (fInstanceFilters) {
+			added = !fInstanceFilters.contains(object) && fInstanceFilters.add(object);
 		}
-		if (!fInstanceFilters.contains(object)) {
-			fInstanceFilters.add(object);
+		if (added) {
 			recreate((JDIDebugTarget) object.getDebugTarget());
 			fireChanged();
 		}
@@ -1310,11 +1329,7 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 */
 	@Override
 	public IJavaObject[] getInstanceFilters() {
-		if (fInstanceFilters == null || fInstanceFilters.isEmpty()) {
-			return fgEmptyInstanceFilters;
-		}
-		return fInstanceFilters
-				.toArray(new IJavaObject[fInstanceFilters.size()]);
+		return fInstanceFilters.toArray(fgEmptyInstanceFilters);
 	}
 
 	/*
@@ -1326,9 +1341,6 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 */
 	@Override
 	public void removeInstanceFilter(IJavaObject object) throws CoreException {
-		if (fInstanceFilters == null) {
-			return;
-		}
 		if (fInstanceFilters.remove(object)) {
 			recreate((JDIDebugTarget) object.getDebugTarget());
 			fireChanged();
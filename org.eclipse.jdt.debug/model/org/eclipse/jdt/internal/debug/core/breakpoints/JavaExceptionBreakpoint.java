@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -362,8 +362,7 @@ public class JavaExceptionBreakpoint extends JavaBreakpoint implements
 	private boolean handleBreakpointEventInternal(Event event, JDIThread thread, boolean suspendVote) {
 		if (event instanceof ExceptionEvent) {
 			ObjectReference ex = ((ExceptionEvent) event).exception();
-			fLastTarget = thread.getJavaDebugTarget();
-			fLastException = ex;
+			setLastException(thread.getJavaDebugTarget(), ex);
 			String name = null;
 			try {
 				name = ex.type().name();
@@ -460,8 +459,7 @@ public class JavaExceptionBreakpoint extends JavaBreakpoint implements
 	 */
 	@Override
 	protected void setInstalledIn(IJavaDebugTarget target, boolean installed) {
-		fLastException = null;
-		fLastTarget = null;
+		setLastException(null, null);
 		super.setInstalledIn(target, installed);
 	}
 
@@ -765,6 +763,15 @@ public class JavaExceptionBreakpoint extends JavaBreakpoint implements
 		}
 	}
 
+	/**
+	 * Sets the last exception encountered by this breakpoint and its target,
+	 * together as exceptions of different threads may be handled at once.
+	 */
+	private synchronized void setLastException(JDIDebugTarget target, ObjectReference exception) {
+		fLastTarget = target;
+		fLastException = exception;
+	}
+
 	/**
 	 * Returns the last exception object that was encountered by this exception
 	 *
@@ -772,7 +779,7 @@ public class JavaExceptionBreakpoint extends JavaBreakpoint implements
 	 *
 	 * @return
 	 */
-	public IJavaObject getLastException() {
+	public synchronized IJavaObject getLastException() {
 		if (fLastException != null) {
 			return (IJavaObject) JDIValue.createValue(fLastTarget,
 					fLastException);
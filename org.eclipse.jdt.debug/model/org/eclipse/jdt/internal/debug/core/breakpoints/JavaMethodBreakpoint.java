@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,7 +13,10 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.debug.core.breakpoints;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -24,12 +27,14 @@ import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.debug.core.model.IDebugTarget;
 import org.eclipse.jdt.debug.core.IJavaMethodBreakpoint;
 import org.eclipse.jdt.debug.core.JDIDebugModel;
 import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
 import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.core.model.JDIMethod;
 import org.eclipse.jdt.internal.debug.core.model.JDIThread;
 import org.eclipse.jdt.internal.debug.core.model.MethodResult;
 import org.eclipse.jdt.internal.debug.core.model.MethodResult.ResultType;
@@ -93,6 +98,14 @@ public class JavaMethodBreakpoint extends JavaLineBreakpoint implements
 	 */
 	protected static final String NATIVE = "org.eclipse.jdt.debug.core.native"; //$NON-NLS-1$
 
+	/**
+	 * Property of the breakpoint requests installed at the exit instructions
+	 * of a method, see {@link JDIDebugPlugin#PREF_METHOD_EXIT_BREAKPOINT_LOCATIONS}.
+	 * The value is a <code>Boolean</code> telling whether the instruction is
+	 * the 'return' of a void method.
+	 */
+	private static final String EXIT_LOCATION = "org.eclipse.jdt.debug.core.exitLocation"; //$NON-NLS-1$
+
 	/**
 	 * Cache of method name attribute
 	 */
@@ -123,7 +136,7 @@ public class JavaMethodBreakpoint extends JavaLineBreakpoint implements
 	 * <li>Method exit (value <code>EXIT_EVENT</code>)</li>
 	 * </ol>
 	 */
-	private Map<IDebugTarget, Integer> fLastEventTypes = new HashMap<>(10);
+	private Map<IDebugTarget, Integer> fLastEventTypes = Collections.synchronizedMap(new HashMap<IDebugTarget, Integer>(10));
 
 	/**
 	 * Used to match type names
@@ -386,7 +399,9 @@ public class JavaMethodBreakpoint extends JavaLineBreakpoint implements
 	protected void updateEnabledState(EventRequest request,
 			JDIDebugTarget target) throws CoreException {
 		boolean enabled = isEnabled();
-		if (request instanceof MethodEntryRequest
+		if (request.getProperty(EXIT_LOCATION) != null) {
+			enabled = enabled && isExit();
+		} else if (request instanceof MethodEntryRequest
 				|| request instanceof BreakpointRequest) {
 			enabled = enabled && isEntry();
 		} else if (request instanceof MethodExitRequest) {
@@ -451,8 +466,19 @@ public class JavaMethodBreakpoint extends JavaLineBreakpoint implements
 			}
 			return result;
 		} else if (event instanceof BreakpointEvent) {
-			fLastEventTypes.put(thread.getDebugTarget(), ENTRY_EVENT);
-			return super.handleBreakpointEvent(event, thread, suspendVote);
+			Boolean voidReturn = (Boolean) event.request().getProperty(EXIT_LOCATION);
+			if (voidReturn == null) {
+				fLastEventTypes.put(thread.getDebugTarget(), ENTRY_EVENT);
+				return super.handleBreakpointEvent(event, thread, suspendVote);
+			}
+			fLastEventTypes.put(thread.getDebugTarget(), EXIT_EVENT);
+			boolean result = super.handleBreakpointEvent(event, thread, suspendVote);
+			if (!result && voidReturn.booleanValue()) {
+				// about to suspend, store result. The value of other returns is on the operand stack, out of reach.
+				Method method = ((BreakpointEvent) event).location().method();
+				thread.setMethodResult(new MethodResult(method, -1, method.virtualMachine().mirrorOfVoid(), ResultType.returning));
+			}
+			return result;
 		}
 		return true;
 	}
@@ -766,13 +792,94 @@ public class JavaMethodBreakpoint extends JavaLineBreakpoint implements
 			return false;
 		}
 		EventRequest entryRequest = createMethodEntryRequest(target, type);
-		EventRequest exitRequest = createMethodExitRequest(target, type);
-
 		registerRequest(entryRequest, target);
-		registerRequest(exitRequest, target);
+		List<BreakpointRequest> exitRequests = createMethodExitLocationRequests(target, type);
+		if (exitRequests == null) {
+			EventRequest exitRequest = createMethodExitRequest(target, type);
+			registerRequest(exitRequest, target);
+		} else {
+			for (BreakpointRequest exitRequest : exitRequests) {
+				registerRequest(exitRequest, target);
+			}
+		}
 		return true;
 	}
 
+	/**
+	 * Returns breakpoint requests at the return instructions of the method of
+	 * this breakpoint in the given type, or <code>null</code> if method exits
+	 * must be reported by a method exit request: when
+	 * {@link JDIDebugPlugin#PREF_METHOD_EXIT_BREAKPOINT_LOCATIONS} is off, for
+	 * native methods, when a hit count is set since each request would count
+	 * its own hits, when the byte code of the method is not available, or when
+	 * the method throws exceptions itself. Reaching an 'athrow' instruction
+	 * does not tell whether the exception leaves the method, so the exits of
+	 * such methods are left to the method exit request.
+	 *
+	 * @param target
+	 *            the target in which to create the requests
+	 * @param type
+	 *            the type declaring the method
+	 * @return breakpoint requests or <code>null</code>
+	 * @exception CoreException
+	 *                if an exception occurs accessing this breakpoint's
+	 *                underlying marker
+	 */
+	protected List<BreakpointRequest> createMethodExitLocationRequests(JDIDebugTarget target, ReferenceType type) throws CoreException {
+		if (!Platform.getPreferencesService().getBoolean(JDIDebugPlugin.getUniqueIdentifier(), JDIDebugPlugin.PREF_METHOD_EXIT_BREAKPOINT_LOCATIONS, false, null)) {
+			return null;
+		}
+		if (!(type instanceof ClassType) || getMethodName() == null || getMethodSignature() == null || isNativeOnly() || getHitCount() > 0) {
+			return null;
+		}
+		EventRequestManager manager = target.getEventRequestManager();
+		if (manager == null) {
+			return null;
+		}
+		List<BreakpointRequest> requests = new ArrayList<>();
+		try {
+			if (!type.virtualMachine().canGetBytecodes()) {
+				return null;
+			}
+			Method method = ((ClassType) type).concreteMethodByName(getMethodName(), getMethodSignature());
+			if (method == null || method.isNative() || method.isAbstract()) {
+				return null;
+			}
+			byte[] bytecodes = method.bytecodes();
+			if (bytecodes == null || JDIMethod.containsThrow(bytecodes)) {
+				return null;
+			}
+			long[] codeIndexes = JDIMethod.getReturnCodeIndexes(bytecodes);
+			if (codeIndexes == null || codeIndexes.length == 0) {
+				return null;
+			}
+			List<Location> locations = new ArrayList<>(codeIndexes.length);
+			for (long codeIndex : codeIndexes) {
+				Location location = method.locationOfCodeIndex(codeIndex);
+				if (location == null) {
+					return null;
+				}
+				locations.add(location);
+			}
+			for (int i = 0; i < codeIndexes.length; i++) {
+				BreakpointRequest request = manager.createBreakpointRequest(locations.get(i));
+				request.putProperty(EXIT_LOCATION, Boolean.valueOf(JDIMethod.isReturn(bytecodes[(int) codeIndexes[i]])));
+				configureRequest(request, target);
+				requests.add(request);
+			}
+			return requests;
+		} catch (VMDisconnectedException e) {
+			if (!target.isAvailable()) {
+				return null;
+			}
+			JDIDebugPlugin.log(e);
+		} catch (RuntimeException e) {
+			manager.deleteEventRequests(requests);
+			target.internalError(e);
+		}
+		return null;
+	}
+
 	/**
 	 * @see org.eclipse.jdt.internal.debug.core.breakpoints.JavaBreakpoint#setTypeName(String)
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,7 @@ import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.debug.core.DebugException;
+import org.eclipse.jdi.internal.VirtualMachineImpl;
 import org.eclipse.jdt.debug.core.IJavaDebugTarget;
 import org.eclipse.jdt.debug.core.IJavaTargetPatternBreakpoint;
 import org.eclipse.jdt.debug.core.JDIDebugModel;
@@ -115,7 +116,12 @@ public class JavaTargetPatternBreakpoint extends JavaLineBreakpoint implements
 		// create breakpoint requests for each class currently loaded
 		VirtualMachine vm = target.getVM();
 		if (vm != null) {
-			List<ReferenceType> classes = vm.allClasses();
+			List<ReferenceType> classes;
+			if (vm instanceof VirtualMachineImpl) {
+				classes = ((VirtualMachineImpl) vm).classesByNamePrefix(referenceTypeName);
+			} else {
+				classes = vm.allClasses();
+			}
 			if (classes != null) {
 				String typeName = null;
 				for(ReferenceType type : classes) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2007 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -31,6 +31,7 @@ public class JDIDebugHCRMessages extends NLS {
 	public static String JavaHotCodeReplaceManager_hcr_class_circularity_error;
 	public static String JavaHotCodeReplaceManager_Hot_code_replace_failed___VM_disconnected__1;
 	public static String JavaHotCodeReplaceManager_Hot_code_replace_failed___VM_disconnected__2;
+	public static String JavaHotCodeReplaceManager_worker;
 
 	static {
 		// load message values from bundle file
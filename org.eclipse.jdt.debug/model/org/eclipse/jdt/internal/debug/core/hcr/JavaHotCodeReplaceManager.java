@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,8 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.debug.core.hcr;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -22,6 +24,13 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
@@ -61,7 +70,7 @@ import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.Signature;
-import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.util.ClassFormatException;
 import org.eclipse.jdt.core.util.IClassFileReader;
 import org.eclipse.jdt.core.util.ISourceAttribute;
 import org.eclipse.jdt.debug.core.IJavaDebugTarget;
@@ -69,7 +78,9 @@ import org.eclipse.jdt.debug.core.IJavaHotCodeReplaceListener;
 import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.core.JDIDebugModel;
+import org.eclipse.jdt.internal.core.util.ClassFileReader;
 import org.eclipse.jdt.internal.core.util.Util;
+import org.eclipse.jdt.internal.debug.core.JDIDebugOptions;
 import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
 import org.eclipse.jdt.internal.debug.core.JavaDebugUtils;
 import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
@@ -98,6 +109,11 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 	 * The class file extension
 	 */
 	private static final String CLASS_FILE_EXTENSION = "class"; //$NON-NLS-1$
+	/**
+	 * The maximum number of targets into which classes are redefined at the
+	 * same time
+	 */
+	private static final int MAX_PARALLEL_TARGETS = 8;
 
 	/**
 	 * The list of <code>IJavaHotCodeReplaceListeners</code> which this hot code
@@ -124,7 +140,21 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 	/**
 	 * Cache of compilation unit deltas renewed on each HCR attempt.
 	 */
-	private Map<ICompilationUnit, CompilationUnitDelta> fDeltaCache = new HashMap<>();
+	private Map<ICompilationUnit, CompilationUnitDelta> fDeltaCache = new ConcurrentHashMap<>();
+
+	/**
+	 * Digests of the contents of the class files last redefined in each
+	 * target, by target then by workspace path of the class file. A rebuilt
+	 * class file with the same digest is not replaced again in that target.
+	 * Digests are only recorded once the classes were redefined successfully.
+	 */
+	private Map<JDIDebugTarget, Map<IPath, byte[]>> fClassFileDigests = new ConcurrentHashMap<>();
+
+	/**
+	 * Executor redefining classes in several targets at once, created on
+	 * demand.
+	 */
+	private ThreadPoolExecutor fExecutor;
 
 	/**
 	 * Utility object used for tracking build times of projects. The HCR manager
@@ -203,7 +233,12 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 		synchronized (this) {
 			fHotSwapTargets.clear();
 			fNoHotSwapTargets.clear();
+			if (fExecutor != null) {
+				fExecutor.shutdown();
+				fExecutor = null;
+			}
 		}
+		fClassFileDigests.clear();
 	}
 
 	/**
@@ -236,12 +271,15 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 				return;
 			}
 		}
+		if (!projects.isEmpty()) {
+			clearCompiledExpressionCaches();
+		}
 		ChangedClassFilesVisitor visitor = getChangedClassFiles(event);
 		if (visitor != null) {
 			List<IResource> resources = visitor.getChangedClassFiles();
 			List<String> names = visitor.getQualifiedNamesList();
 			if (!resources.isEmpty()) {
-				notifyTargets(resources, names);
+				notifyTargets(resources, names, visitor.getClassFileBytes(), visitor.getClassFileDigests());
 			}
 		}
 	}
@@ -307,17 +345,31 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 		return time.getLastBuildDate().getTime();
 	}
 
+	/**
+	 * Discards the expressions compiled for evaluations in all targets, as the
+	 * code they were compiled against may have changed.
+	 */
+	private void clearCompiledExpressionCaches() {
+		for (JDIDebugTarget target : getHotSwapTargets()) {
+			target.clearCompiledExpressionCaches();
+		}
+		for (JDIDebugTarget target : getNoHotSwapTargets()) {
+			target.clearCompiledExpressionCaches();
+		}
+	}
+
 	/**
 	 * Notifies the targets of the changed types
 	 */
-	private void notifyTargets(final List<IResource> resources, final List<String> qualifiedNames) {
+	private void notifyTargets(final List<IResource> resources, final List<String> qualifiedNames, final Map<IResource, byte[]> classFileBytes,
+			final Map<IResource, byte[]> classFileDigests) {
 		final List<JDIDebugTarget> hotSwapTargets = getHotSwapTargets();
 		final List<JDIDebugTarget> noHotSwapTargets = getNoHotSwapTargets();
 		if (!hotSwapTargets.isEmpty()) {
 			Runnable runnable = new Runnable() {
 				@Override
 				public void run() {
-					doHotCodeReplace(hotSwapTargets, resources, qualifiedNames);
+					doHotCodeReplace(hotSwapTargets, resources, qualifiedNames, classFileBytes, classFileDigests);
 				}
 			};
 			DebugPlugin.getDefault().asyncExec(runnable);
@@ -407,13 +459,22 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 	 * on all threads which were affected by the class redefinition.</li>
 	 * </ol>
 	 *
+	 * The targets are updated in parallel.
+	 *
 	 * @param targets
 	 *            the targets in which to perform HCR
 	 * @param resources
 	 *            the resources which correspond to the changed classes
+	 * @param qualifiedNames
+	 *            the fully qualified names of the changed classes
+	 * @param classFileBytes
+	 *            the contents of the changed class files, as read when the
+	 *            change was noticed
+	 * @param classFileDigests
+	 *            the digests of the contents of the changed class files
 	 */
-	private void doHotCodeReplace(List<JDIDebugTarget> targets, List<IResource> resources,
-			List<String> qualifiedNames) {
+	private void doHotCodeReplace(List<JDIDebugTarget> targets, final List<IResource> resources,
+			final List<String> qualifiedNames, final Map<IResource, byte[]> classFileBytes, final Map<IResource, byte[]> classFileDigests) {
 
 		// Check whether hot code replace is enabled
 		if (!Platform.getPreferencesService().getBoolean(
@@ -424,98 +485,229 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 			return; // disabled
 		}
 
-		MultiStatus ms = new MultiStatus(
+		final MultiStatus ms = new MultiStatus(
 				JDIDebugPlugin.getUniqueIdentifier(),
 				DebugException.TARGET_REQUEST_FAILED,
 				"At least one target failed to drop to frame after successful hot code replace.", null); //$NON-NLS-1$
-		Iterator<JDIDebugTarget> iter = targets.iterator();
-		while (iter.hasNext()) {
-			JDIDebugTarget target = iter.next();
-			if (!target.isAvailable()) {
+		List<JDIDebugTarget> availableTargets = new ArrayList<>(targets.size());
+		for (JDIDebugTarget target : targets) {
+			if (target.isAvailable()) {
+				availableTargets.add(target);
+			} else {
 				deregisterTarget(target);
-				continue;
 			}
-			// Make a local copy of the resources/names to swap so we can filter
-			// unloaded types on a per-target basis.
-			List<IResource> resourcesToReplace = new ArrayList<>(resources);
-			List<String> qualifiedNamesToReplace = new ArrayList<>(qualifiedNames);
-
-			// Make sure we only try to replace types from related projects
-			target.filterUnrelatedResources(resourcesToReplace, qualifiedNamesToReplace);
-			if (qualifiedNamesToReplace.isEmpty()) {
-				// If none of the changed types are related to our target, do nothing.
-				continue;
+		}
+		if (availableTargets.size() == 1) {
+			doHotCodeReplace(availableTargets.get(0), resources, qualifiedNames, classFileBytes, classFileDigests, ms);
+		} else if (!availableTargets.isEmpty()) {
+			List<Future<?>> replacements = new ArrayList<>(availableTargets.size());
+			for (final JDIDebugTarget target : availableTargets) {
+				try {
+					replacements.add(getExecutor().submit(() -> doHotCodeReplace(target, resources, qualifiedNames, classFileBytes, classFileDigests, ms)));
+				} catch (RejectedExecutionException e) {
+					// shut down
+					doHotCodeReplace(target, resources, qualifiedNames, classFileBytes, classFileDigests, ms);
+				}
 			}
-
-			target.filterNotLoadedTypes(resourcesToReplace, qualifiedNamesToReplace);
-			if (qualifiedNamesToReplace.isEmpty()) {
-				// If none of the changed types are loaded, do nothing.
-				continue;
+			for (Future<?> replacement : replacements) {
+				try {
+					replacement.get();
+				} catch (ExecutionException e) {
+					JDIDebugPlugin.log(e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
 			}
+		}
+		if (!ms.isOK()) {
+			JDIDebugPlugin.log(ms);
+		}
+		fDeltaCache.clear();
+	}
 
-			List<IThread> poppedThreads = new ArrayList<>();
-			target.setIsPerformingHotCodeReplace(true);
-			try {
-				boolean framesPopped = false;
-				if (target.canPopFrames()) {
-					// JDK 1.4 drop to frame support:
-					// JDK 1.4 spec is faulty around methods that have
-					// been rendered obsolete after class redefinition.
-					// Thus, pop the frames that contain affected methods
-					// *before* the class redefinition to avoid problems.
-					try {
-						attemptPopFrames(target, resourcesToReplace,
-								qualifiedNamesToReplace, poppedThreads);
-						framesPopped = true; // No exception occurred
-					} catch (DebugException de) {
-						if (shouldLogHCRException(de)) {
+	/**
+	 * Returns the executor redefining classes in several targets at once.
+	 */
+	private synchronized ThreadPoolExecutor getExecutor() {
+		if (fExecutor == null) {
+			String name = JDIDebugModel.getPluginIdentifier() + JDIDebugHCRMessages.JavaHotCodeReplaceManager_worker;
+			fExecutor = new ThreadPoolExecutor(MAX_PARALLEL_TARGETS, MAX_PARALLEL_TARGETS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+				Thread thread = new Thread(r, name);
+				thread.setDaemon(true);
+				return thread;
+			});
+			fExecutor.allowCoreThreadTimeOut(true);
+		}
+		return fExecutor;
+	}
+
+	/**
+	 * Performs a hot code replace with the given resources in one target.
+	 *
+	 * @param target
+	 *            the target in which to perform HCR
+	 * @param resources
+	 *            the resources which correspond to the changed classes
+	 * @param qualifiedNames
+	 *            the fully qualified names of the changed classes
+	 * @param classFileBytes
+	 *            the contents of the changed class files
+	 * @param classFileDigests
+	 *            the digests of the contents of the changed class files
+	 * @param ms
+	 *            status to add drop to frame failures to
+	 */
+	private void doHotCodeReplace(JDIDebugTarget target, List<IResource> resources,
+			List<String> qualifiedNames, Map<IResource, byte[]> classFileBytes, Map<IResource, byte[]> classFileDigests, MultiStatus ms) {
+		long start = System.currentTimeMillis();
+		// Make a local copy of the resources/names to swap so we can filter
+		// unloaded types on a per-target basis.
+		List<IResource> resourcesToReplace = new ArrayList<>(resources);
+		List<String> qualifiedNamesToReplace = new ArrayList<>(qualifiedNames);
+
+		// Skip the class files rebuilt without changes since they were last
+		// redefined in this target
+		filterUnchangedClassFiles(target, resourcesToReplace, qualifiedNamesToReplace, classFileDigests);
+		if (qualifiedNamesToReplace.isEmpty()) {
+			return;
+		}
+
+		// Make sure we only try to replace types from related projects
+		target.filterUnrelatedResources(resourcesToReplace, qualifiedNamesToReplace);
+		if (qualifiedNamesToReplace.isEmpty()) {
+			// If none of the changed types are related to our target, do nothing.
+			return;
+		}
+
+		Map<String, List<ReferenceType>> loadedTypes = target.filterNotLoadedTypes(resourcesToReplace, qualifiedNamesToReplace);
+		if (qualifiedNamesToReplace.isEmpty()) {
+			// If none of the changed types are loaded, do nothing.
+			return;
+		}
+
+		List<IThread> poppedThreads = new ArrayList<>();
+		target.setIsPerformingHotCodeReplace(true);
+		boolean succeeded = false;
+		try {
+			boolean framesPopped = false;
+			if (target.canPopFrames()) {
+				// JDK 1.4 drop to frame support:
+				// JDK 1.4 spec is faulty around methods that have
+				// been rendered obsolete after class redefinition.
+				// Thus, pop the frames that contain affected methods
+				// *before* the class redefinition to avoid problems.
+				try {
+					attemptPopFrames(target, resourcesToReplace,
+							qualifiedNamesToReplace, poppedThreads);
+					framesPopped = true; // No exception occurred
+				} catch (DebugException de) {
+					if (shouldLogHCRException(de)) {
+						synchronized (ms) {
 							ms.merge(de.getStatus());
 						}
 					}
 				}
-				target.removeOutOfSynchTypes(qualifiedNamesToReplace);
-				if (target.supportsJDKHotCodeReplace()) {
-					redefineTypesJDK(target, resourcesToReplace,
+			}
+			target.removeOutOfSynchTypes(qualifiedNamesToReplace);
+			if (target.supportsJDKHotCodeReplace()) {
+				redefineTypesJDK(target, resourcesToReplace,
+						qualifiedNamesToReplace, loadedTypes, classFileBytes);
+				// the classes are redefined, remember what the target runs
+				recordClassFileDigests(target, resourcesToReplace, classFileDigests);
+			} else if (target.supportsJ9HotCodeReplace()) {
+				redefineTypesJ9(target, qualifiedNamesToReplace);
+			}
+			if (containsObsoleteMethods(target)) {
+				fireObsoleteMethods(target);
+			}
+			try {
+				if (target.canPopFrames() && framesPopped) {
+					// Second half of JDK 1.4 drop to frame support:
+					// All affected frames have been popped and the classes
+					// have been reloaded. Step into the first changed
+					// frame of each affected thread.
+					// must re-set 'is doing HCR' to be able to step
+					target.setIsPerformingHotCodeReplace(false);
+					attemptStepIn(poppedThreads);
+				} else {
+					// J9 drop to frame support:
+					// After redefining classes, drop to frame
+					attemptDropToFrame(target, resourcesToReplace,
 							qualifiedNamesToReplace);
-				} else if (target.supportsJ9HotCodeReplace()) {
-					redefineTypesJ9(target, qualifiedNamesToReplace);
 				}
-				if (containsObsoleteMethods(target)) {
-					fireObsoleteMethods(target);
-				}
-				try {
-					if (target.canPopFrames() && framesPopped) {
-						// Second half of JDK 1.4 drop to frame support:
-						// All affected frames have been popped and the classes
-						// have been reloaded. Step into the first changed
-						// frame of each affected thread.
-						// must re-set 'is doing HCR' to be able to step
-						target.setIsPerformingHotCodeReplace(false);
-						attemptStepIn(poppedThreads);
-					} else {
-						// J9 drop to frame support:
-						// After redefining classes, drop to frame
-						attemptDropToFrame(target, resourcesToReplace,
-								qualifiedNamesToReplace);
-					}
-				} catch (DebugException de) {
-					if (shouldLogHCRException(de)) {
+			} catch (DebugException de) {
+				if (shouldLogHCRException(de)) {
+					synchronized (ms) {
 						ms.merge(de.getStatus());
 					}
 				}
-				fireHCRSucceeded(target);
-			} catch (DebugException de) {
-				// target update failed
-				fireHCRFailed(target, de);
 			}
-			// also re-set 'is doing HCR' here in case HCR failed
-			target.setIsPerformingHotCodeReplace(false);
-			target.fireChangeEvent(DebugEvent.CONTENT);
+			target.clearCompiledExpressionCaches();
+			fireHCRSucceeded(target);
+			succeeded = true;
+		} catch (DebugException de) {
+			// target update failed
+			fireHCRFailed(target, de);
 		}
-		if (!ms.isOK()) {
-			JDIDebugPlugin.log(ms);
+		// also re-set 'is doing HCR' here in case HCR failed
+		target.setIsPerformingHotCodeReplace(false);
+		target.fireChangeEvent(DebugEvent.CONTENT);
+		if (JDIDebugOptions.DEBUG_HCR) {
+			StringBuilder buf = new StringBuilder();
+			buf.append(JDIDebugOptions.FORMAT.format(new Date(start)));
+			buf.append(" HCR: "); //$NON-NLS-1$
+			buf.append(succeeded ? "replaced " : "failed to replace "); //$NON-NLS-1$ //$NON-NLS-2$
+			buf.append(qualifiedNamesToReplace.size());
+			buf.append(" types in "); //$NON-NLS-1$
+			try {
+				buf.append(target.getName());
+			} catch (DebugException e) {
+				buf.append(target);
+			}
+			buf.append("\n\tTime: "); //$NON-NLS-1$
+			buf.append(System.currentTimeMillis() - start);
+			buf.append("ms"); //$NON-NLS-1$
+			JDIDebugOptions.trace(JDIDebugOptions.DEBUG_HCR_FLAG, buf.toString(), null);
+		}
+	}
+
+	/**
+	 * Removes from the given lists the class files whose digest is the one of
+	 * the class file last redefined in the given target.
+	 */
+	private void filterUnchangedClassFiles(JDIDebugTarget target, List<IResource> resources,
+			List<String> qualifiedNames, Map<IResource, byte[]> classFileDigests) {
+		Map<IPath, byte[]> digests = fClassFileDigests.get(target);
+		if (digests == null) {
+			return;
+		}
+		for (int i = resources.size() - 1; i >= 0; i--) {
+			IResource resource = resources.get(i);
+			byte[] digest = classFileDigests.get(resource);
+			if (digest != null && Arrays.equals(digest, digests.get(resource.getFullPath()))) {
+				resources.remove(i);
+				qualifiedNames.remove(i);
+			}
+		}
+	}
+
+	/**
+	 * Records the digests of the given class files, which were redefined
+	 * successfully in the given target.
+	 */
+	private void recordClassFileDigests(JDIDebugTarget target, List<IResource> resources,
+			Map<IResource, byte[]> classFileDigests) {
+		if (!target.isAvailable()) {
+			return;
+		}
+		Map<IPath, byte[]> digests = fClassFileDigests.computeIfAbsent(target, t -> new ConcurrentHashMap<>());
+		for (IResource resource : resources) {
+			byte[] digest = classFileDigests.get(resource);
+			if (digest != null) {
+				digests.put(resource.getFullPath(), digest);
+			}
 		}
-		fDeltaCache.clear();
 	}
 
 	/**
@@ -594,11 +786,12 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 	 * This method is to be used for JDK hot code replace.
 	 */
 	private void redefineTypesJDK(JDIDebugTarget target, List<IResource> resources,
-			List<String> qualifiedNames) throws DebugException {
+			List<String> qualifiedNames, Map<String, List<ReferenceType>> loadedTypes,
+			Map<IResource, byte[]> classFileBytes) throws DebugException {
 		if (target.supportsJDKHotCodeReplace()) {
 			target.setHCROccurred(true);
-			Map<ReferenceType, byte[]> typesToBytes = getTypesToBytes(target, resources,
-					qualifiedNames);
+			Map<ReferenceType, byte[]> typesToBytes = getTypesToBytes(resources,
+					qualifiedNames, loadedTypes, classFileBytes);
 			try {
 				VirtualMachine vm = target.getVM();
 				if (vm == null) {
@@ -684,19 +877,22 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 	 * Returns a mapping of class files to the bytes that make up those class
 	 * files.
 	 *
-	 * @param target
-	 *            the debug target to query
 	 * @param resources
 	 *            the classfiles
 	 * @param qualifiedNames
 	 *            the fully qualified type names corresponding to the
 	 *            classfiles. The typeNames correspond to the resources on a
 	 *            one-to-one basis.
+	 * @param loadedTypes
+	 *            the types loaded in the target by qualified name
+	 * @param classFileBytes
+	 *            the contents of the classfiles, classfiles missing from this
+	 *            map are read again
 	 * @return a mapping of class files to bytes key: class file value: the
 	 *         bytes which make up that classfile
 	 */
-	private Map<ReferenceType, byte[]> getTypesToBytes(JDIDebugTarget target, List<IResource> resources,
-			List<String> qualifiedNames) {
+	private Map<ReferenceType, byte[]> getTypesToBytes(List<IResource> resources, List<String> qualifiedNames,
+			Map<String, List<ReferenceType>> loadedTypes, Map<IResource, byte[]> classFileBytes) {
 		Map<ReferenceType, byte[]> typesToBytes = new HashMap<>(resources.size());
 		Iterator<IResource> resourceIter = resources.iterator();
 		Iterator<String> nameIter = qualifiedNames.iterator();
@@ -705,13 +901,18 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 		while (resourceIter.hasNext()) {
 			resource = resourceIter.next();
 			name = nameIter.next();
-			List<ReferenceType> classes = target.jdiClassesByName(name);
-			byte[] bytes = null;
-			try {
-				bytes = Util.getResourceContentsAsByteArray((IFile) resource);
-			} catch (JavaModelException jme) {
+			List<ReferenceType> classes = loadedTypes.get(name);
+			if (classes == null) {
 				continue;
 			}
+			byte[] bytes = classFileBytes.get(resource);
+			if (bytes == null) {
+				try {
+					bytes = Util.getResourceContentsAsByteArray((IFile) resource);
+				} catch (JavaModelException jme) {
+					continue;
+				}
+			}
 			for(ReferenceType type : classes) {
 				typesToBytes.put(type, bytes);
 			}
@@ -1139,6 +1340,16 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 		 */
 		protected List<String> fNames = null;
 
+		/**
+		 * The contents of the changed class files.
+		 */
+		protected Map<IResource, byte[]> fBytes = null;
+
+		/**
+		 * The digests of the contents of the changed class files.
+		 */
+		protected Map<IResource, byte[]> fDigests = null;
+
 		/**
 		 * Answers whether children should be visited.
 		 * <p>
@@ -1147,8 +1358,21 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 		 */
 		@Override
 		public boolean visit(IResourceDelta delta) {
-			if (delta == null
-					|| 0 == (delta.getKind() & IResourceDelta.CHANGED)) {
+			if (delta == null) {
+				return false;
+			}
+			if (delta.getKind() == IResourceDelta.ADDED && !fClassFileDigests.isEmpty()) {
+				// forget the digests of class files that are created again,
+				// the targets may have loaded the class files in between
+				if (delta.getResource().getType() == IResource.FILE) {
+					for (Map<IPath, byte[]> digests : fClassFileDigests.values()) {
+						digests.remove(delta.getFullPath());
+					}
+					return false;
+				}
+				return true;
+			}
+			if (0 == (delta.getKind() & IResourceDelta.CHANGED)) {
 				return false;
 			}
 			IResource resource = delta.getResource();
@@ -1160,65 +1384,74 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 					}
 					if (CLASS_FILE_EXTENSION.equals(resource.getFullPath()
 							.getFileExtension())) {
-						IPath localLocation = resource.getLocation();
-						if (localLocation != null) {
-							String path = localLocation.toOSString();
-							IClassFileReader reader = ToolFactory
-									.createDefaultClassFileReader(
-											path,
-											IClassFileReader.CLASSFILE_ATTRIBUTES);
-							if (reader != null) {
-								// this name is slash-delimited
-								String qualifiedName = new String(
-										reader.getClassName());
-								boolean hasBlockingErrors = false;
-								try {
-									if (!Platform.getPreferencesService().getBoolean(
-											JDIDebugPlugin.getUniqueIdentifier(),
-											JDIDebugModel.PREF_HCR_WITH_COMPILATION_ERRORS,
-											true,
-											null)) {
-										// If the user doesn't want to replace
-										// classfiles containing
-										// compilation errors, get the source
-										// file associated with
-										// the class file and query it for
-										// compilation errors
-										IJavaProject pro = JavaCore
-												.create(resource.getProject());
-										ISourceAttribute sourceAttribute = reader
-												.getSourceFileAttribute();
-										String sourceName = null;
-										if (sourceAttribute != null) {
-											sourceName = new String(
-													sourceAttribute
-															.getSourceFileName());
-										}
-										IResource sourceFile = getSourceFile(
-												pro, qualifiedName, sourceName);
-										if (sourceFile != null) {
-											IMarker[] problemMarkers = null;
-											problemMarkers = sourceFile
-													.findMarkers(
-															IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER,
-															true,
-															IResource.DEPTH_INFINITE);
-											for (IMarker problemMarker : problemMarkers) {
-												if (problemMarker.getAttribute(
-														IMarker.SEVERITY, -1) == IMarker.SEVERITY_ERROR) {
-													hasBlockingErrors = true;
-													break;
-												}
+						byte[] bytes;
+						try {
+							bytes = Util.getResourceContentsAsByteArray((IFile) resource);
+						} catch (JavaModelException e) {
+							return false;
+						}
+						byte[] digest = digest(bytes);
+						IClassFileReader reader = null;
+						try {
+							reader = new ClassFileReader(bytes, IClassFileReader.CLASSFILE_ATTRIBUTES);
+						} catch (ClassFormatException e) {
+							// not a class file
+						}
+						if (reader != null) {
+							// this name is slash-delimited
+							String qualifiedName = new String(
+									reader.getClassName());
+							boolean hasBlockingErrors = false;
+							try {
+								if (!Platform.getPreferencesService().getBoolean(
+										JDIDebugPlugin.getUniqueIdentifier(),
+										JDIDebugModel.PREF_HCR_WITH_COMPILATION_ERRORS,
+										true,
+										null)) {
+									// If the user doesn't want to replace
+									// classfiles containing
+									// compilation errors, get the source
+									// file associated with
+									// the class file and query it for
+									// compilation errors
+									IJavaProject pro = JavaCore
+											.create(resource.getProject());
+									ISourceAttribute sourceAttribute = reader
+											.getSourceFileAttribute();
+									String sourceName = null;
+									if (sourceAttribute != null) {
+										sourceName = new String(
+												sourceAttribute
+														.getSourceFileName());
+									}
+									IResource sourceFile = getSourceFile(
+											pro, qualifiedName, sourceName);
+									if (sourceFile != null) {
+										IMarker[] problemMarkers = null;
+										problemMarkers = sourceFile
+												.findMarkers(
+														IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER,
+														true,
+														IResource.DEPTH_INFINITE);
+										for (IMarker problemMarker : problemMarkers) {
+											if (problemMarker.getAttribute(
+													IMarker.SEVERITY, -1) == IMarker.SEVERITY_ERROR) {
+												hasBlockingErrors = true;
+												break;
 											}
 										}
 									}
-								} catch (CoreException e) {
-									JDIDebugPlugin.log(e);
 								}
-								if (!hasBlockingErrors) {
-									fFiles.add(resource);
-									// dot-delimit the name
-									fNames.add(qualifiedName.replace('/', '.'));
+							} catch (CoreException e) {
+								JDIDebugPlugin.log(e);
+							}
+							if (!hasBlockingErrors) {
+								fFiles.add(resource);
+								// dot-delimit the name
+								fNames.add(qualifiedName.replace('/', '.'));
+								fBytes.put(resource, bytes);
+								if (digest != null) {
+									fDigests.put(resource, digest);
 								}
 							}
 						}
@@ -1238,6 +1471,8 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 		public void reset() {
 			fFiles = new ArrayList<>();
 			fNames = new ArrayList<>();
+			fBytes = new HashMap<>();
+			fDigests = new HashMap<>();
 		}
 
 		/**
@@ -1257,6 +1492,37 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 			return fNames;
 		}
 
+		/**
+		 * Returns the contents of the changed class files, as read when
+		 * visiting the resource change.
+		 *
+		 * @return Map
+		 */
+		public Map<IResource, byte[]> getClassFileBytes() {
+			return fBytes;
+		}
+
+		/**
+		 * Returns the digests of the contents of the changed class files.
+		 *
+		 * @return Map
+		 */
+		public Map<IResource, byte[]> getClassFileDigests() {
+			return fDigests;
+		}
+
+		/**
+		 * Returns the digest of the given class file contents, or
+		 * <code>null</code> if no digest can be computed.
+		 */
+		private byte[] digest(byte[] bytes) {
+			try {
+				return MessageDigest.getInstance("SHA-1").digest(bytes); //$NON-NLS-1$
+			} catch (NoSuchAlgorithmException e) {
+				return null;
+			}
+		}
+
 		/**
 		 * Returns the source file associated with the given type, or
 		 * <code>null</code> if no source file could be found.
@@ -1398,6 +1664,7 @@ public class JavaHotCodeReplaceManager implements IResourceChangeListener,
 		if (!fHotSwapTargets.remove(target)) {
 			fNoHotSwapTargets.remove(target);
 		}
+		fClassFileDigests.remove(target);
 		ILaunch[] launches = DebugPlugin.getDefault().getLaunchManager()
 				.getLaunches();
 		// If there are no more active JDIDebugTargets, stop
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 IBM Corporation and others.
+ * Copyright (c) 2007, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,13 +16,10 @@ package org.eclipse.jdt.internal.debug.core.logicalstructures;
 
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.model.IVariable;
-import org.eclipse.jdt.debug.core.IJavaArrayType;
 import org.eclipse.jdt.debug.core.IJavaObject;
-import org.eclipse.jdt.debug.core.IJavaType;
 import org.eclipse.jdt.debug.core.IJavaValue;
 import org.eclipse.jdt.internal.debug.core.HeapWalkingManager;
 import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
-import org.eclipse.jdt.internal.debug.core.model.JDIArrayValue;
 import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
 import org.eclipse.jdt.internal.debug.core.model.JDIPlaceholderValue;
 import org.eclipse.jdt.internal.debug.core.model.JDIReferenceType;
@@ -36,11 +33,10 @@ import com.ibm.icu.text.MessageFormat;
  * @since 3.3
  * @see org.eclipse.jdt.internal.debug.ui.heapwalking.AllInstancesActionDelegate
  */
-public class JDIAllInstancesValue extends JDIArrayValue {
+public class JDIAllInstancesValue extends JDIPlaceholderArrayValue {
 
 	private IJavaObject[] fInstances;
 	private JDIReferenceType fRoot;
-	private IJavaArrayType fType;
 	private boolean fIsMoreThanPreference;
 
 	/**
@@ -53,15 +49,8 @@ public class JDIAllInstancesValue extends JDIArrayValue {
 	 *            the root object to get instances for
 	 */
 	public JDIAllInstancesValue(JDIDebugTarget target, JDIReferenceType root) {
-		super(target, null);
+		super(target);
 		fRoot = root;
-		try {
-			IJavaType[] javaTypes = target.getJavaTypes("java.lang.Object[]"); //$NON-NLS-1$
-			if (javaTypes != null && javaTypes.length > 0) {
-				fType = (IJavaArrayType) javaTypes[0];
-			}
-		} catch (DebugException e) {
-		}
 	}
 
 	/**
@@ -99,176 +88,31 @@ public class JDIAllInstancesValue extends JDIArrayValue {
 	/*
 	 * (non-Javadoc)
 	 *
-	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getLength()
-	 */
-	@Override
-	public synchronized int getLength() throws DebugException {
-		return getInstances().length;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 *
-	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getSize()
-	 */
-	@Override
-	public int getSize() throws DebugException {
-		return getInstances().length;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 *
-	 * @see
-	 * org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getValue(int)
-	 */
-	@Override
-	public IJavaValue getValue(int index) throws DebugException {
-		if (index > getInstances().length - 1 || index < 0) {
-			internalError(LogicalStructuresMessages.JDIAllInstancesValue_0);
-		}
-		return getInstances()[index];
-	}
-
-	/*
-	 * (non-Javadoc)
-	 *
-	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getValues()
+	 * @see org.eclipse.jdt.internal.debug.core.logicalstructures.
+	 * JDIPlaceholderArrayValue#getElements()
 	 */
 	@Override
-	public IJavaValue[] getValues() throws DebugException {
+	protected IJavaValue[] getElements() {
 		return getInstances();
 	}
 
 	/*
 	 * (non-Javadoc)
 	 *
-	 * @see
-	 * org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getVariable(int)
+	 * @see org.eclipse.jdt.internal.debug.core.logicalstructures.
+	 * JDIPlaceholderArrayValue#createVariable(int,
+	 * org.eclipse.jdt.debug.core.IJavaValue)
 	 */
 	@Override
-	public IVariable getVariable(int offset) throws DebugException {
-		if (offset > getInstances().length - 1 || offset < 0) {
-			internalError(LogicalStructuresMessages.JDIAllInstancesValue_1);
-		}
+	protected IVariable createVariable(int offset, IJavaValue element) {
 		if (isMoreThanPreference() && offset == getInstances().length - 1) {
 			return new JDIPlaceholderVariable(
 					LogicalStructuresMessages.JDIAllInstancesValue_4,
-					getInstances()[offset]);
+					element);
 		}
 		return new JDIPlaceholderVariable(MessageFormat.format(LogicalStructuresMessages.JDIAllInstancesValue_5,
 				Integer.toString(offset)),
-				getInstances()[offset]);
-	}
-
-	/*
-	 * (non-Javadoc)
-	 *
-	 * @see
-	 * org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getVariables(int,
-	 * int)
-	 */
-	@Override
-	public IVariable[] getVariables(int offset, int length)
-			throws DebugException {
-		if (length == 0) {
-			return new IVariable[0];
-		}
-		if (offset > getInstances().length - 1 || offset < 0) {
-			internalError(LogicalStructuresMessages.JDIAllInstancesValue_1);
-		}
-		IVariable[] vars = new JDIPlaceholderVariable[length];
-		for (int i = 0; i < length; i++) {
-			vars[i] = getVariable(i + offset);
-		}
-		return vars;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 *
-	 * @see org.eclipse.jdt.internal.debug.core.model.JDIValue#getVariables()
-	 */
-	@Override
-	public IVariable[] getVariables() throws DebugException {
-		return getVariables(0, getInstances().length);
-	}
-
-	/*
-	 * (non-Javadoc)
-	 *
-	 * @see
-	 * org.eclipse.jdt.internal.debug.core.model.JDIObjectValue#getReferringObjects
-	 * (long)
-	 */
-	@Override
-	public IJavaObject[] getReferringObjects(long max) throws DebugException {
-		return new IJavaObject[0];
-	}
-
-	/*
-	 * (non-Javadoc)
-	 *
-	 * @see org.eclipse.jdt.internal.debug.core.model.JDIValue#isAllocated()
-	 */
-	@Override
-	public boolean isAllocated() throws DebugException {
-		return getJavaDebugTarget().isAvailable();
-	}
-
-	/*
-	 * (non-Javadoc)
-	 *
-	 * @see
-	 * org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getInitialOffset
-	 * ()
-	 */
-	@Override
-	public int getInitialOffset() {
-		return 0;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 *
-	 * @see
-	 * org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#hasVariables()
-	 */
-	@Override
-	public boolean hasVariables() throws DebugException {
-		return getInstances().length > 0;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 *
-	 * @see org.eclipse.jdt.internal.debug.core.model.JDIValue#getJavaType()
-	 */
-	@Override
-	public IJavaType getJavaType() throws DebugException {
-		return fType;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 *
-	 * @see org.eclipse.jdt.internal.debug.core.model.JDIValue#getSignature()
-	 */
-	@Override
-	public String getSignature() throws DebugException {
-		return fType.getSignature();
-	}
-
-	/*
-	 * (non-Javadoc)
-	 *
-	 * @see
-	 * org.eclipse.jdt.internal.debug.core.model.JDIObjectValue#getReferenceTypeName
-	 * ()
-	 */
-	@Override
-	public String getReferenceTypeName() throws DebugException {
-		return fType.getName();
+				element);
 	}
 
 	/*
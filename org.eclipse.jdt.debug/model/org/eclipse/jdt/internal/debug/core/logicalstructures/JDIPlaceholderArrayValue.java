@@ -0,0 +1,332 @@
+/*******************************************************************************
+ * Copyright (c) 2007, 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.logicalstructures;
+
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.model.IVariable;
+import org.eclipse.jdt.debug.core.IJavaArrayType;
+import org.eclipse.jdt.debug.core.IJavaObject;
+import org.eclipse.jdt.debug.core.IJavaThread;
+import org.eclipse.jdt.debug.core.IJavaType;
+import org.eclipse.jdt.debug.core.IJavaValue;
+import org.eclipse.jdt.internal.debug.core.model.JDIArrayValue;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+
+/**
+ * Java value containing an array of java values which does not exist in the
+ * target. Its elements are provided by subclasses. As there is no array in the
+ * target, it cannot be modified and no method can be invoked on it.
+ *
+ * @since 3.12
+ * @see JDIAllInstancesValue
+ * @see JavaStructureArrayValue
+ */
+public abstract class JDIPlaceholderArrayValue extends JDIArrayValue {
+
+	private IJavaArrayType fType;
+
+	/**
+	 * Constructor
+	 *
+	 * @param target
+	 *            the target VM
+	 */
+	public JDIPlaceholderArrayValue(JDIDebugTarget target) {
+		super(target, null);
+		try {
+			IJavaType[] javaTypes = target.getJavaTypes("java.lang.Object[]"); //$NON-NLS-1$
+			if (javaTypes != null && javaTypes.length > 0) {
+				fType = (IJavaArrayType) javaTypes[0];
+			}
+		} catch (DebugException e) {
+		}
+	}
+
+	/**
+	 * @return the elements of this array
+	 */
+	protected abstract IJavaValue[] getElements();
+
+	/**
+	 * Returns the variable to show the element at the given offset with.
+	 *
+	 * @param offset
+	 *            the offset of the element
+	 * @param element
+	 *            the element
+	 * @return the variable of the element
+	 */
+	protected IVariable createVariable(int offset, IJavaValue element) {
+		return new JDIPlaceholderVariable("[" + offset + "]", element, getLogicalParent()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getLength()
+	 */
+	@Override
+	public synchronized int getLength() throws DebugException {
+		return getElements().length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getSize()
+	 */
+	@Override
+	public int getSize() throws DebugException {
+		return getElements().length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getValue(int)
+	 */
+	@Override
+	public IJavaValue getValue(int index) throws DebugException {
+		if (index > getElements().length - 1 || index < 0) {
+			internalError(LogicalStructuresMessages.JDIPlaceholderArrayValue_0);
+		}
+		return getElements()[index];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getValues()
+	 */
+	@Override
+	public IJavaValue[] getValues() throws DebugException {
+		return getElements();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getVariable(int)
+	 */
+	@Override
+	public IVariable getVariable(int offset) throws DebugException {
+		if (offset > getElements().length - 1 || offset < 0) {
+			internalError(LogicalStructuresMessages.JDIPlaceholderArrayValue_1);
+		}
+		return createVariable(offset, getElements()[offset]);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getVariables(int,
+	 * int)
+	 */
+	@Override
+	public IVariable[] getVariables(int offset, int length)
+			throws DebugException {
+		if (length == 0) {
+			return new IVariable[0];
+		}
+		if (offset > getElements().length - 1 || offset < 0) {
+			internalError(LogicalStructuresMessages.JDIPlaceholderArrayValue_1);
+		}
+		IVariable[] vars = new JDIPlaceholderVariable[length];
+		for (int i = 0; i < length; i++) {
+			vars[i] = getVariable(i + offset);
+		}
+		return vars;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIValue#getVariables()
+	 */
+	@Override
+	public IVariable[] getVariables() throws DebugException {
+		return getVariables(0, getElements().length);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#setValue(int,
+	 * org.eclipse.jdt.debug.core.IJavaValue)
+	 */
+	@Override
+	public void setValue(int index, IJavaValue value) throws DebugException {
+		notSupported(LogicalStructuresMessages.JDIPlaceholderArrayValue_2);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#setValues(int,
+	 * int, org.eclipse.jdt.debug.core.IJavaValue[], int)
+	 */
+	@Override
+	public void setValues(int offset, int length, IJavaValue[] values,
+			int startOffset) throws DebugException {
+		notSupported(LogicalStructuresMessages.JDIPlaceholderArrayValue_2);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#setValues(org.
+	 * eclipse.jdt.debug.core.IJavaValue[])
+	 */
+	@Override
+	public void setValues(IJavaValue[] values) throws DebugException {
+		notSupported(LogicalStructuresMessages.JDIPlaceholderArrayValue_2);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.jdt.internal.debug.core.model.JDIObjectValue#sendMessage(java
+	 * .lang.String, java.lang.String, org.eclipse.jdt.debug.core.IJavaValue[],
+	 * org.eclipse.jdt.debug.core.IJavaThread, boolean)
+	 */
+	@Override
+	public IJavaValue sendMessage(String selector, String signature,
+			IJavaValue[] args, IJavaThread thread, boolean superSend)
+			throws DebugException {
+		notSupported(LogicalStructuresMessages.JDIPlaceholderArrayValue_3);
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.jdt.internal.debug.core.model.JDIObjectValue#sendMessage(java
+	 * .lang.String, java.lang.String, org.eclipse.jdt.debug.core.IJavaValue[],
+	 * org.eclipse.jdt.debug.core.IJavaThread, java.lang.String)
+	 */
+	@Override
+	public IJavaValue sendMessage(String selector, String signature,
+			IJavaValue[] args, IJavaThread thread, String typeSignature)
+			throws DebugException {
+		notSupported(LogicalStructuresMessages.JDIPlaceholderArrayValue_3);
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.jdt.internal.debug.core.model.JDIObjectValue#disableCollection
+	 * ()
+	 */
+	@Override
+	public void disableCollection() throws DebugException {
+		// there is no object in the target to keep
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.jdt.internal.debug.core.model.JDIObjectValue#enableCollection
+	 * ()
+	 */
+	@Override
+	public void enableCollection() throws DebugException {
+		// there is no object in the target to release
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.jdt.internal.debug.core.model.JDIObjectValue#getReferringObjects
+	 * (long)
+	 */
+	@Override
+	public IJavaObject[] getReferringObjects(long max) throws DebugException {
+		return new IJavaObject[0];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIValue#isAllocated()
+	 */
+	@Override
+	public boolean isAllocated() throws DebugException {
+		return getJavaDebugTarget().isAvailable();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#getInitialOffset
+	 * ()
+	 */
+	@Override
+	public int getInitialOffset() {
+		return 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.jdt.internal.debug.core.model.JDIArrayValue#hasVariables()
+	 */
+	@Override
+	public boolean hasVariables() throws DebugException {
+		return getElements().length > 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIValue#getJavaType()
+	 */
+	@Override
+	public IJavaType getJavaType() throws DebugException {
+		return fType;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIValue#getSignature()
+	 */
+	@Override
+	public String getSignature() throws DebugException {
+		return fType.getSignature();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.jdt.internal.debug.core.model.JDIObjectValue#getReferenceTypeName
+	 * ()
+	 */
+	@Override
+	public String getReferenceTypeName() throws DebugException {
+		return fType.getName();
+	}
+}
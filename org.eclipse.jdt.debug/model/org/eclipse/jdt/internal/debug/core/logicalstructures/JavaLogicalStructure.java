@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -43,6 +43,8 @@ import org.eclipse.jdt.debug.eval.IEvaluationListener;
 import org.eclipse.jdt.debug.eval.IEvaluationResult;
 import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
 import org.eclipse.jdt.internal.debug.core.JavaDebugUtils;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.core.model.JDIObjectValue;
 import org.eclipse.jdt.internal.debug.core.model.JDIValue;
 
 import com.ibm.icu.text.MessageFormat;
@@ -280,6 +282,30 @@ public class JavaLogicalStructure implements ILogicalStructureType {
 			return value;
 		}
 		IJavaObject javaValue = (IJavaObject) value;
+		LogicalStructureCache cache = null;
+		int generation = -1;
+		long uniqueId = -1;
+		if (javaValue instanceof JDIObjectValue && javaValue.getDebugTarget() instanceof JDIDebugTarget) {
+			JDIDebugTarget target = (JDIDebugTarget) javaValue.getDebugTarget();
+			uniqueId = javaValue.getUniqueId();
+			if (uniqueId != -1) {
+				cache = target.getLogicalStructureCache();
+				// read the generation first, a structure computed while the
+				// structures are dropped is not kept
+				generation = cache.getGeneration();
+				IValue structure = cache.get(getCacheKey(), uniqueId);
+				if (structure != null) {
+					return structure;
+				}
+				if (isContributed() && JDIDebugPlugin.getUniqueIdentifier().equals(fContributingPluginId)) {
+					structure = NativeLogicalStructures.getLogicalStructure(fValue, fVariables, (JDIObjectValue) javaValue);
+					if (structure != null) {
+						cache.put(getCacheKey(), uniqueId, generation, structure, false);
+						return structure;
+					}
+				}
+			}
+		}
 		try {
 			IJavaReferenceType type = getType(javaValue);
 			if (type == null) {
@@ -309,13 +335,20 @@ public class JavaLogicalStructure implements ILogicalStructureType {
 							evaluationBlock.evaluate(fVariables[i][1]),
 							javaValue);
 				}
-				return new LogicalObjectStructureValue(javaValue, variables);
+				LogicalObjectStructureValue structure = new LogicalObjectStructureValue(javaValue, variables);
+				if (cache != null && !hasErrors(variables)) {
+					cache.put(getCacheKey(), uniqueId, generation, structure, true);
+				}
+				return structure;
 			}
 			// evaluate the logical value
 			IJavaValue logicalValue = evaluationBlock.evaluate(fValue);
 			if (logicalValue instanceof JDIValue) {
 				((JDIValue) logicalValue).setLogicalParent(javaValue);
 			}
+			if (cache != null && !(logicalValue instanceof JavaStructureErrorValue)) {
+				cache.put(getCacheKey(), uniqueId, generation, logicalValue, true);
+			}
 			return logicalValue;
 
 		} catch (CoreException e) {
@@ -327,6 +360,35 @@ public class JavaLogicalStructure implements ILogicalStructureType {
 		return value;
 	}
 
+	/**
+	 * Returns whether the evaluation of one of the given variables failed.
+	 */
+	private boolean hasErrors(IJavaVariable[] variables) throws DebugException {
+		for (IJavaVariable variable : variables) {
+			if (variable.getValue() instanceof JavaStructureErrorValue) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the key of the structures computed by this logical structure in
+	 * the cache of a target. The snippets are part of it, as they can be
+	 * edited without changing the id.
+	 */
+	private String getCacheKey() {
+		StringBuilder key = new StringBuilder(getId());
+		if (fValue != null) {
+			key.append('\n').append(fValue);
+		} else {
+			for (String[] variable : fVariables) {
+				key.append('\n').append(variable[0]).append('\n').append(variable[1]);
+			}
+		}
+		return key.toString();
+	}
+
 	/**
 	 * Returns the <code>IJavaReferenceType</code> from the specified
 	 * <code>IJavaObject</code>
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.logicalstructures;
+
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.jdt.debug.core.IJavaValue;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+
+import com.ibm.icu.text.MessageFormat;
+
+/**
+ * Java value containing an array of java values which does not exist in the
+ * target. This value holds the elements of a collection read from its fields,
+ * in place of the array an evaluation of <code>toArray()</code> would return.
+ *
+ * @since 3.12
+ * @see NativeLogicalStructures
+ */
+public class JavaStructureArrayValue extends JDIPlaceholderArrayValue {
+
+	private IJavaValue[] fValues;
+
+	/**
+	 * Constructor
+	 *
+	 * @param target
+	 *            the target VM
+	 * @param values
+	 *            the elements of the array
+	 * @param logicalParent
+	 *            the value this array is the logical structure of
+	 */
+	public JavaStructureArrayValue(JDIDebugTarget target, IJavaValue[] values, IJavaValue logicalParent) {
+		super(target);
+		fValues = values;
+		setLogicalParent(logicalParent);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.logicalstructures.
+	 * JDIPlaceholderArrayValue#getElements()
+	 */
+	@Override
+	protected IJavaValue[] getElements() {
+		return fValues;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdt.internal.debug.core.model.JDIValue#getValueString()
+	 */
+	@Override
+	public String getValueString() throws DebugException {
+		if (fValues.length == 1) {
+			return MessageFormat.format(LogicalStructuresMessages.JavaStructureArrayValue_0, Integer.toString(fValues.length));
+		}
+		return MessageFormat.format(LogicalStructuresMessages.JavaStructureArrayValue_1, Integer.toString(fValues.length));
+	}
+}
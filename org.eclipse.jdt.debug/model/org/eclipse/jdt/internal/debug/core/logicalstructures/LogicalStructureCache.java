@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.logicalstructures;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.model.IThread;
+import org.eclipse.debug.core.model.IValue;
+import org.eclipse.debug.core.model.IVariable;
+import org.eclipse.jdt.debug.core.IJavaObject;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.core.model.JDIThread;
+
+/**
+ * Logical structures computed for the objects of a debug target, by logical
+ * structure id and unique id of object.
+ * <p>
+ * Structures are only kept while all the threads of the target are
+ * suspended, as running threads change objects at any time. They are dropped
+ * when the target suspends again, as told by its suspend count, which
+ * implicit evaluations do not change, and when the target tells the cache
+ * that objects may have changed, e.g. when a variable is changed or a thread
+ * is created. The objects of the structures that were created by evaluations
+ * are kept from being garbage collected while they are in the cache, as
+ * other evaluations let the target run.
+ * </p>
+ *
+ * @since 3.12
+ * @see org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget#getLogicalStructureCache()
+ */
+public class LogicalStructureCache {
+
+	/**
+	 * The target the structures are computed for.
+	 */
+	private final JDIDebugTarget fTarget;
+
+	/**
+	 * The suspend count of the target the structures were computed for.
+	 */
+	private int fSuspendCount = -1;
+
+	/**
+	 * Number of times the structures were dropped.
+	 */
+	private int fGeneration;
+
+	/**
+	 * Structures by logical structure id, then by unique id of object.
+	 */
+	private Map<String, Map<Long, IValue>> fStructures = new HashMap<>();
+
+	/**
+	 * Objects kept from being garbage collected.
+	 */
+	private List<IJavaObject> fCollectionDisabled = new ArrayList<>();
+
+	/**
+	 * Creates a cache for the structures of the given target.
+	 *
+	 * @param target
+	 *            the target the structures are computed for
+	 */
+	public LogicalStructureCache(JDIDebugTarget target) {
+		fTarget = target;
+	}
+
+	/**
+	 * Returns the current generation of the cache, to be passed to
+	 * {@link #put(String, long, int, IValue, boolean)} for structures computed
+	 * from now on, or -1 if some threads of the target are running.
+	 *
+	 * @return the current generation or -1
+	 */
+	public int getGeneration() {
+		boolean suspended = isSuspended();
+		List<IJavaObject> released;
+		int generation;
+		synchronized (this) {
+			released = update(suspended);
+			generation = suspended ? fGeneration : -1;
+		}
+		enableCollection(released);
+		return generation;
+	}
+
+	/**
+	 * Returns the logical structure of the object with the given unique id,
+	 * or <code>null</code> if none is kept.
+	 *
+	 * @param structureId
+	 *            id of the logical structure
+	 * @param objectId
+	 *            unique id of the object
+	 * @return the logical structure or <code>null</code>
+	 */
+	public IValue get(String structureId, long objectId) {
+		boolean suspended = isSuspended();
+		List<IJavaObject> released;
+		IValue structure = null;
+		synchronized (this) {
+			released = update(suspended);
+			Map<Long, IValue> structures = fStructures.get(structureId);
+			if (structures != null) {
+				structure = structures.get(Long.valueOf(objectId));
+			}
+		}
+		enableCollection(released);
+		return structure;
+	}
+
+	/**
+	 * Keeps the logical structure of the object with the given unique id,
+	 * computed in the given generation, unless the structures were dropped
+	 * since or some threads of the target are running.
+	 *
+	 * @param structureId
+	 *            id of the logical structure
+	 * @param objectId
+	 *            unique id of the object
+	 * @param generation
+	 *            generation of the cache when the computation started
+	 * @param structure
+	 *            the logical structure
+	 * @param created
+	 *            whether the structure holds objects created by evaluations,
+	 *            which must be kept from being garbage collected
+	 */
+	public void put(String structureId, long objectId, int generation, IValue structure, boolean created) {
+		if (generation == -1) {
+			return;
+		}
+		if (created) {
+			// the target may only run again once the objects are disabled
+			disableCollection(structure);
+		}
+		boolean suspended = isSuspended();
+		List<IJavaObject> released;
+		synchronized (this) {
+			released = update(suspended);
+			if (suspended && generation == fGeneration) {
+				Map<Long, IValue> structures = fStructures.get(structureId);
+				if (structures == null) {
+					structures = new HashMap<>();
+					fStructures.put(structureId, structures);
+				}
+				structures.put(Long.valueOf(objectId), structure);
+				if (created) {
+					collectObjects(structure, fCollectionDisabled);
+				}
+			} else if (created) {
+				if (released == null) {
+					released = new ArrayList<>();
+				}
+				collectObjects(structure, released);
+			}
+		}
+		enableCollection(released);
+	}
+
+	/**
+	 * Drops the structures, as objects of the target may have changed.
+	 */
+	public void clear() {
+		List<IJavaObject> released;
+		synchronized (this) {
+			released = drop();
+		}
+		enableCollection(released);
+	}
+
+	/**
+	 * Drops the structures if the target suspended since they were computed
+	 * or some of its threads are running.
+	 *
+	 * @param suspended
+	 *            whether all the threads of the target are suspended
+	 * @return the objects to let be garbage collected again, or
+	 *         <code>null</code> if none
+	 */
+	private List<IJavaObject> update(boolean suspended) {
+		int suspendCount = fTarget.getSuspendCount();
+		if (suspended && suspendCount == fSuspendCount) {
+			return null;
+		}
+		fSuspendCount = suspendCount;
+		return drop();
+	}
+
+	/**
+	 * Drops the structures and starts a new generation.
+	 *
+	 * @return the objects to let be garbage collected again, or
+	 *         <code>null</code> if none
+	 */
+	private List<IJavaObject> drop() {
+		fGeneration++;
+		fStructures.clear();
+		if (fCollectionDisabled.isEmpty()) {
+			return null;
+		}
+		List<IJavaObject> released = fCollectionDisabled;
+		fCollectionDisabled = new ArrayList<>();
+		return released;
+	}
+
+	/**
+	 * Returns whether all the threads of the target are suspended. Threads
+	 * invoking methods for evaluations count as suspended, as the
+	 * evaluations that compute structures do not change objects.
+	 */
+	private boolean isSuspended() {
+		for (IThread thread : fTarget.getThreads()) {
+			if (!thread.isSuspended() && !(thread instanceof JDIThread && ((JDIThread) thread).isInvokingMethod())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the objects of the given structure to the given list.
+	 */
+	private static void collectObjects(IValue structure, List<IJavaObject> objects) {
+		if (structure instanceof LogicalObjectStructureValue) {
+			try {
+				for (IVariable variable : structure.getVariables()) {
+					IValue value = variable.getValue();
+					if (value instanceof IJavaObject && !((IJavaObject) value).isNull()) {
+						objects.add((IJavaObject) value);
+					}
+				}
+			} catch (DebugException e) {
+				// the variables of the structure are already known
+			}
+		} else if (structure instanceof IJavaObject && !((IJavaObject) structure).isNull()) {
+			objects.add((IJavaObject) structure);
+		}
+	}
+
+	private static void disableCollection(IValue structure) {
+		List<IJavaObject> objects = new ArrayList<>();
+		collectObjects(structure, objects);
+		for (IJavaObject object : objects) {
+			try {
+				object.disableCollection();
+			} catch (DebugException e) {
+				// the object is collected or the target is gone
+			}
+		}
+	}
+
+	private static void enableCollection(List<IJavaObject> objects) {
+		if (objects == null) {
+			return;
+		}
+		for (IJavaObject object : objects) {
+			try {
+				object.enableCollection();
+			} catch (DebugException e) {
+				// the object is collected or the target is gone
+			}
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2009 IBM Corporation and others.
+ *  Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -20,8 +20,6 @@ public class LogicalStructuresMessages extends NLS {
 
 	public static String JavaLogicalStructure_0;
 
-	public static String JDIAllInstancesValue_0;
-	public static String JDIAllInstancesValue_1;
 	public static String JDIAllInstancesValue_2;
 	public static String JDIAllInstancesValue_4;
 	public static String JDIAllInstancesValue_5;
@@ -33,6 +31,14 @@ public class LogicalStructuresMessages extends NLS {
 	public static String JDIAllInstancesValue_12;
 	public static String JDIAllInstancesValue_13;
 
+	public static String JDIPlaceholderArrayValue_0;
+	public static String JDIPlaceholderArrayValue_1;
+	public static String JDIPlaceholderArrayValue_2;
+	public static String JDIPlaceholderArrayValue_3;
+
+	public static String JavaStructureArrayValue_0;
+	public static String JavaStructureArrayValue_1;
+
 	public static String JavaLogicalStructures_0;
 	public static String JavaLogicalStructures_1;
 	public static String JavaLogicalStructures_2;
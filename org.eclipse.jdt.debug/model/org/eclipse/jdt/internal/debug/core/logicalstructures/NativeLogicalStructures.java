@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.logicalstructures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.jdt.debug.core.IJavaValue;
+import org.eclipse.jdt.debug.core.IJavaVariable;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.core.model.JDIObjectValue;
+import org.eclipse.jdt.internal.debug.core.model.JDIValue;
+
+import com.sun.jdi.ArrayReference;
+import com.sun.jdi.Field;
+import com.sun.jdi.IntegerValue;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.Value;
+
+/**
+ * Computes the default logical structures of the common JDK collections by
+ * reading their fields, in place of evaluating the snippets of the structures
+ * in the target. Reading fields does not let the target run, which makes it
+ * far cheaper than an evaluation.
+ * <p>
+ * Only the exact JDK classes whose fields are known are handled, and only
+ * for the snippets of the default structures. When a class does not have the
+ * expected fields, or the collection is too large or changes while it is
+ * read, <code>null</code> is returned and the snippet is evaluated instead.
+ * </p>
+ */
+class NativeLogicalStructures {
+
+	/**
+	 * Snippets of the default structures that can be computed from fields.
+	 */
+	private static final String MAP_VALUE = "return entrySet().toArray();"; //$NON-NLS-1$
+	private static final String COLLECTION_VALUE = "return toArray();"; //$NON-NLS-1$
+	private static final String KEY_VALUE = "return getKey();"; //$NON-NLS-1$
+	private static final String VALUE_VALUE = "return getValue();"; //$NON-NLS-1$
+
+	private static final String HASH_MAP = "java.util.HashMap"; //$NON-NLS-1$
+	private static final String LINKED_HASH_MAP = "java.util.LinkedHashMap"; //$NON-NLS-1$
+	private static final String ARRAY_LIST = "java.util.ArrayList"; //$NON-NLS-1$
+	private static final String HASH_MAP_NODE = "java.util.HashMap$Node"; //$NON-NLS-1$
+	private static final String HASH_MAP_TREE_NODE = "java.util.HashMap$TreeNode"; //$NON-NLS-1$
+	private static final String LINKED_HASH_MAP_ENTRY = "java.util.LinkedHashMap$Entry"; //$NON-NLS-1$
+
+	/**
+	 * Collections with more elements are left to the evaluation of their
+	 * snippet, as reading their fields takes one request per element.
+	 */
+	private static final int MAX_SIZE = 500;
+
+	/**
+	 * Returns the logical structure of the given object read from its fields,
+	 * or <code>null</code> if it has to be evaluated.
+	 *
+	 * @param value
+	 *            snippet of the logical value of the structure, or
+	 *            <code>null</code> if the structure has variables
+	 * @param variables
+	 *            names and snippets of the variables of the structure
+	 * @param object
+	 *            the object to compute the logical structure of
+	 * @return the logical structure or <code>null</code>
+	 */
+	static IJavaValue getLogicalStructure(String value, String[][] variables, JDIObjectValue object) {
+		ObjectReference reference = object.getUnderlyingObject();
+		if (reference == null) {
+			return null;
+		}
+		JDIDebugTarget target = (JDIDebugTarget) object.getDebugTarget();
+		try {
+			ReferenceType type = reference.referenceType();
+			String name = type.name();
+			List<Value> elements = null;
+			if (MAP_VALUE.equals(value)) {
+				if (HASH_MAP.equals(name)) {
+					elements = readHashMap(reference, type);
+				} else if (LINKED_HASH_MAP.equals(name)) {
+					elements = readLinkedHashMap(reference, type);
+				}
+			} else if (COLLECTION_VALUE.equals(value)) {
+				if (ARRAY_LIST.equals(name)) {
+					elements = readArrayList(reference, type);
+				}
+			} else if (value == null && isEntryVariables(variables)) {
+				if (HASH_MAP_NODE.equals(name) || HASH_MAP_TREE_NODE.equals(name) || LINKED_HASH_MAP_ENTRY.equals(name)) {
+					return readEntry(target, reference, type, variables, object);
+				}
+			}
+			if (elements == null) {
+				return null;
+			}
+			IJavaValue[] values = new IJavaValue[elements.size()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = JDIValue.createValue(target, elements.get(i));
+			}
+			JavaStructureArrayValue array = new JavaStructureArrayValue(target, values, object);
+			// the array type is only known once the target has loaded it
+			return array.getJavaType() != null ? array : null;
+		} catch (DebugException e) {
+			return null;
+		} catch (RuntimeException e) {
+			// the object is collected, the target is gone or the JDK class
+			// is not the one expected, evaluate the snippet
+			return null;
+		}
+	}
+
+	/**
+	 * Returns whether the given variables are the ones of the default
+	 * structure of <code>java.util.Map$Entry</code>.
+	 */
+	private static boolean isEntryVariables(String[][] variables) {
+		return variables != null && variables.length == 2 && KEY_VALUE.equals(variables[0][1])
+				&& VALUE_VALUE.equals(variables[1][1]);
+	}
+
+	/**
+	 * Returns the nodes of a <code>java.util.HashMap</code> in the order of
+	 * its entry set, walking the chains of the buckets of its table. The
+	 * nodes of the buckets that are trees are chained too.
+	 */
+	private static List<Value> readHashMap(ObjectReference map, ReferenceType type) {
+		int size = readSize(map, type);
+		if (size < 0) {
+			return null;
+		}
+		Field tableField = type.fieldByName("table"); //$NON-NLS-1$
+		if (tableField == null) {
+			return null;
+		}
+		List<Value> nodes = new ArrayList<>(size);
+		Value table = map.getValue(tableField);
+		if (table == null) {
+			return size == 0 ? nodes : null;
+		}
+		if (!(table instanceof ArrayReference)) {
+			return null;
+		}
+		Field nextField = null;
+		for (Value bucket : ((ArrayReference) table).getValues()) {
+			ObjectReference node = (ObjectReference) bucket;
+			while (node != null) {
+				if (nodes.size() == size) {
+					// the map changed since its size was read
+					return null;
+				}
+				nodes.add(node);
+				if (nextField == null) {
+					nextField = node.referenceType().fieldByName("next"); //$NON-NLS-1$
+					if (nextField == null) {
+						return null;
+					}
+				}
+				node = (ObjectReference) node.getValue(nextField);
+			}
+		}
+		return nodes.size() == size ? nodes : null;
+	}
+
+	/**
+	 * Returns the entries of a <code>java.util.LinkedHashMap</code> in the
+	 * order of its entry set, walking its list of entries.
+	 */
+	private static List<Value> readLinkedHashMap(ObjectReference map, ReferenceType type) {
+		int size = readSize(map, type);
+		if (size < 0) {
+			return null;
+		}
+		Field headField = type.fieldByName("head"); //$NON-NLS-1$
+		if (headField == null) {
+			return null;
+		}
+		List<Value> entries = new ArrayList<>(size);
+		ObjectReference entry = (ObjectReference) map.getValue(headField);
+		Field afterField = null;
+		while (entry != null) {
+			if (entries.size() == size) {
+				return null;
+			}
+			entries.add(entry);
+			if (afterField == null) {
+				afterField = entry.referenceType().fieldByName("after"); //$NON-NLS-1$
+				if (afterField == null) {
+					return null;
+				}
+			}
+			entry = (ObjectReference) entry.getValue(afterField);
+		}
+		return entries.size() == size ? entries : null;
+	}
+
+	/**
+	 * Returns the elements of a <code>java.util.ArrayList</code>, in one
+	 * request for the used part of its array.
+	 */
+	private static List<Value> readArrayList(ObjectReference list, ReferenceType type) {
+		int size = readSize(list, type);
+		if (size < 0) {
+			return null;
+		}
+		Field elementDataField = type.fieldByName("elementData"); //$NON-NLS-1$
+		if (elementDataField == null) {
+			return null;
+		}
+		Value elementData = list.getValue(elementDataField);
+		if (!(elementData instanceof ArrayReference)) {
+			return null;
+		}
+		ArrayReference array = (ArrayReference) elementData;
+		if (size > array.length()) {
+			return null;
+		}
+		if (size == 0) {
+			return new ArrayList<>(0);
+		}
+		return new ArrayList<>(array.getValues(0, size));
+	}
+
+	/**
+	 * Returns the <code>size</code> field of the given collection, or -1 if
+	 * it is missing or too large.
+	 */
+	private static int readSize(ObjectReference collection, ReferenceType type) {
+		Field sizeField = type.fieldByName("size"); //$NON-NLS-1$
+		if (sizeField == null) {
+			return -1;
+		}
+		Value size = collection.getValue(sizeField);
+		if (!(size instanceof IntegerValue)) {
+			return -1;
+		}
+		int value = ((IntegerValue) size).value();
+		return value <= MAX_SIZE ? value : -1;
+	}
+
+	/**
+	 * Returns the key and value of a map entry, read in one request.
+	 */
+	private static IJavaValue readEntry(JDIDebugTarget target, ObjectReference entry, ReferenceType type, String[][] variables, JDIObjectValue object) {
+		Field keyField = type.fieldByName("key"); //$NON-NLS-1$
+		Field valueField = type.fieldByName("value"); //$NON-NLS-1$
+		if (keyField == null || valueField == null) {
+			return null;
+		}
+		List<Field> fields = new ArrayList<>(2);
+		fields.add(keyField);
+		fields.add(valueField);
+		Map<Field, Value> values = entry.getValues(fields);
+		IJavaVariable[] entryVariables = new IJavaVariable[] {
+				new JDIPlaceholderVariable(variables[0][0], JDIValue.createValue(target, values.get(keyField)), object),
+				new JDIPlaceholderVariable(variables[1][0], JDIValue.createValue(target, values.get(valueField)), object) };
+		return new LogicalObjectStructureValue(object, entryVariables);
+	}
+}
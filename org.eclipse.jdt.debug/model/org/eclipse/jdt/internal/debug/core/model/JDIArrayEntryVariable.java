@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -59,6 +59,13 @@ public class JDIArrayEntryVariable extends JDIModificationVariable {
 	 */
 	private IJavaValue fLogicalParent;
 
+	/**
+	 * Value of the entry read together with the values of other entries, used
+	 * the first time the value of this variable is retrieved.
+	 */
+	private Value fPrefetchedValue;
+	private boolean fPrefetched = false;
+
 	/**
 	 * Constructs an array entry at the given index in an array.
 	 *
@@ -80,11 +87,43 @@ public class JDIArrayEntryVariable extends JDIModificationVariable {
 		fLogicalParent = logicalParent;
 	}
 
+	/**
+	 * Constructs an array entry at the given index in an array, whose value
+	 * has already been read.
+	 *
+	 * @param target
+	 *            debug target containing the array entry
+	 * @param array
+	 *            array containing the entry
+	 * @param index
+	 *            index into the array
+	 * @param value
+	 *            the current value of the entry
+	 * @param logicalParent
+	 *            original logical parent value, or <code>null</code> if not a
+	 *            child of a logical structure
+	 */
+	public JDIArrayEntryVariable(JDIDebugTarget target, ArrayReference array,
+			int index, Value value, IJavaValue logicalParent) {
+		this(target, array, index, logicalParent);
+		fPrefetchedValue = value;
+		fPrefetched = true;
+	}
+
 	/**
 	 * Returns this variable's current underlying value.
 	 */
 	@Override
 	protected Value retrieveValue() {
+		synchronized (this) {
+			if (fPrefetched) {
+				// only current until the target runs, read it again next time
+				fPrefetched = false;
+				Value value = fPrefetchedValue;
+				fPrefetchedValue = null;
+				return value;
+			}
+		}
 		ArrayReference ar = getArrayReference();
 		if (ar != null) {
 			return ar.getValue(getIndex());
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -226,10 +226,24 @@ public class JDIArrayValue extends JDIObjectValue implements IJavaArray,
 			requestFailed(JDIDebugModelMessages.JDIArrayValue_8, new IndexOutOfBoundsException(Integer.toString(offset + length - 1)));
 		}
 		IVariable[] variables = new IVariable[length];
+		List<Value> values = null;
+		if (length > 1) {
+			// read the values of all entries at once rather than one by one
+			try {
+				values = getArrayReference().getValues(offset, length);
+			} catch (RuntimeException e) {
+				// each entry reports its own failure
+			}
+		}
 		int index = offset;
 		for (int i = 0; i < length; i++) {
-			variables[i] = new JDIArrayEntryVariable(getJavaDebugTarget(),
-					getArrayReference(), index, fLogicalParent);
+			if (values != null) {
+				variables[i] = new JDIArrayEntryVariable(getJavaDebugTarget(),
+						getArrayReference(), index, values.get(i), fLogicalParent);
+			} else {
+				variables[i] = new JDIArrayEntryVariable(getJavaDebugTarget(),
+						getArrayReference(), index, fLogicalParent);
+			}
 			index++;
 		}
 		return variables;
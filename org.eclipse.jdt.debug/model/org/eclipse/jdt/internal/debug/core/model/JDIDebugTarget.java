@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -56,6 +56,7 @@ import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchListener;
 import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.core.model.IDebugElement;
 import org.eclipse.debug.core.model.IDebugTarget;
 import org.eclipse.debug.core.model.IMemoryBlock;
 import org.eclipse.debug.core.model.IMemoryBlockRetrieval;
@@ -94,6 +95,8 @@ import org.eclipse.jdt.internal.debug.core.IJDIEventListener;
 import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
 import org.eclipse.jdt.internal.debug.core.breakpoints.JavaBreakpoint;
 import org.eclipse.jdt.internal.debug.core.breakpoints.JavaLineBreakpoint;
+import org.eclipse.jdt.internal.debug.core.logicalstructures.LogicalStructureCache;
+import org.eclipse.jdt.internal.debug.eval.ast.engine.ASTEvaluationEngine;
 
 import com.ibm.icu.text.MessageFormat;
 import com.sun.jdi.ClassType;
@@ -236,13 +239,19 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	/**
 	 * Count of the number of suspend events in this target
 	 */
-	private int fSuspendCount;
+	private volatile int fSuspendCount;
+
+	/**
+	 * Logical structures computed while all the threads of this target are
+	 * suspended
+	 */
+	private final LogicalStructureCache fLogicalStructureCache = new LogicalStructureCache(this);
 
 	/**
 	 * Evaluation engine cache by Java project. Engines are disposed when this
-	 * target terminates.
+	 * target terminates. Access is synchronized on the map.
 	 */
-	private Map<IJavaProject, IAstEvaluationEngine> fEngines;
+	private final Map<IJavaProject, IAstEvaluationEngine> fEngines = new HashMap<>(2);
 
 	/**
 	 * List of step filters - each string is a pattern/fully qualified name of a
@@ -1839,15 +1848,14 @@ public class JDIDebugTarget extends JDIDebugElement implements
 		removeAllBreakpoints();
 		DebugPlugin.getDefault().getBreakpointManager().enableTriggerPoints(null, true);
 		fOutOfSynchTypes.clear();
-		if (fEngines != null) {
-			Iterator<IAstEvaluationEngine> engines = fEngines.values().iterator();
-			while (engines.hasNext()) {
-				IAstEvaluationEngine engine = engines
-						.next();
-				engine.dispose();
-			}
+		List<IAstEvaluationEngine> engines;
+		synchronized (fEngines) {
+			engines = new ArrayList<>(fEngines.values());
 			fEngines.clear();
 		}
+		for (IAstEvaluationEngine engine : engines) {
+			engine.dispose();
+		}
 		fVirtualMachine = null;
 		setThreadStartHandler(null);
 		setEventDispatcher(null);
@@ -1929,6 +1937,38 @@ public class JDIDebugTarget extends JDIDebugElement implements
 		return Collections.EMPTY_LIST;
 	}
 
+	/**
+	 * Returns the loaded types of each of the given class names, logging any
+	 * JDI exceptions. Classes that are not loaded are mapped to an empty list.
+	 * The lookups are pipelined when the VM supports it.
+	 *
+	 * @param classNames
+	 *            fully qualified, dot-delimited class names
+	 * @return the loaded types by class name
+	 * @see #jdiClassesByName(String)
+	 */
+	public Map<String, List<ReferenceType>> jdiClassesByNames(List<String> classNames) {
+		VirtualMachine vm = getVM();
+		if (vm instanceof VirtualMachineImpl) {
+			try {
+				return ((VirtualMachineImpl) vm).classesByNames(classNames);
+			} catch (VMDisconnectedException e) {
+				if (!isAvailable()) {
+					return Collections.emptyMap();
+				}
+				logError(e);
+			} catch (RuntimeException e) {
+				internalError(e);
+			}
+			return Collections.emptyMap();
+		}
+		Map<String, List<ReferenceType>> classes = new HashMap<>();
+		for (String className : classNames) {
+			classes.put(className, jdiClassesByName(className));
+		}
+		return classes;
+	}
+
 	@Override
 	public IJavaVariable findVariable(String varName) throws DebugException {
 		IThread[] threads = getThreads();
@@ -2735,10 +2775,20 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	 *
 	 * @return the number of suspend events that have occurred in this target
 	 */
-	protected int getSuspendCount() {
+	public int getSuspendCount() {
 		return fSuspendCount;
 	}
 
+	/**
+	 * Returns the cache of the logical structures computed for the objects of
+	 * this target while all its threads are suspended.
+	 *
+	 * @return the cache of logical structures of this target
+	 */
+	public LogicalStructureCache getLogicalStructureCache() {
+		return fLogicalStructureCache;
+	}
+
 	/**
 	 * Increments the suspend counter for this target based on the reason for
 	 * the suspend event. The suspend count is not updated for implicit
@@ -2762,16 +2812,30 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	 * @return evaluation engine
 	 */
 	public IAstEvaluationEngine getEvaluationEngine(IJavaProject project) {
-		if (fEngines == null) {
-			fEngines = new HashMap<>(2);
+		synchronized (fEngines) {
+			IAstEvaluationEngine engine = fEngines.get(project);
+			if (engine == null) {
+				engine = EvaluationManager.newAstEvaluationEngine(project, this);
+				fEngines.put(project, engine);
+			}
+			return engine;
 		}
-		IAstEvaluationEngine engine = fEngines
-				.get(project);
-		if (engine == null) {
-			engine = EvaluationManager.newAstEvaluationEngine(project, this);
-			fEngines.put(project, engine);
+	}
+
+	/**
+	 * Discards the expressions compiled by the evaluation engines of this
+	 * target, as the code they were compiled against has changed.
+	 */
+	public void clearCompiledExpressionCaches() {
+		List<IAstEvaluationEngine> engines;
+		synchronized (fEngines) {
+			engines = new ArrayList<>(fEngines.values());
+		}
+		for (IAstEvaluationEngine engine : engines) {
+			if (engine instanceof ASTEvaluationEngine) {
+				((ASTEvaluationEngine) engine).clearCompiledExpressionCache();
+			}
 		}
-		return engine;
 	}
 
 	@Override
@@ -2866,6 +2930,16 @@ public class JDIDebugTarget extends JDIDebugElement implements
 
 	@Override
 	public void handleDebugEvents(DebugEvent[] events) {
+		for (DebugEvent event : events) {
+			Object source = event.getSource();
+			if ((event.getKind() == DebugEvent.CHANGE && source instanceof IJavaVariable)
+					|| (event.getKind() == DebugEvent.CREATE && source instanceof IThread)) {
+				if (((IDebugElement) source).getDebugTarget() == this) {
+					// a variable was changed or a thread may change objects
+					fLogicalStructureCache.clear();
+				}
+			}
+		}
 		if (events.length == 1) {
 			DebugEvent event = events[0];
 			if (event.getSource().equals(getProcess())
@@ -3216,21 +3290,22 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	 *            the list of resources to filter
 	 * @param qualifiedNames
 	 *            the list of qualified names to filter, which corresponds to the list of resources on a one-to-one-basis
-	 */
-	public void filterNotLoadedTypes(List<IResource> resources, List<String> qualifiedNames) {
-		for (int i = 0, numElements = qualifiedNames.size(); i < numElements; i++) {
-			String name = qualifiedNames.get(i);
-			List<ReferenceType> list = jdiClassesByName(name);
-			if (list.isEmpty()) {
+	 * @return the loaded types of the qualified names that were kept
+	 */
+	public Map<String, List<ReferenceType>> filterNotLoadedTypes(List<IResource> resources, List<String> qualifiedNames) {
+		Map<String, List<ReferenceType>> loadedTypes = jdiClassesByNames(qualifiedNames);
+		Iterator<IResource> resourceIter = resources.iterator();
+		Iterator<String> nameIter = qualifiedNames.iterator();
+		while (nameIter.hasNext()) {
+			resourceIter.next();
+			List<ReferenceType> list = loadedTypes.get(nameIter.next());
+			if (list == null || list.isEmpty()) {
 				// If no classes with the given name are loaded in the VM, don't
 				// waste cycles trying to replace.
-				qualifiedNames.remove(i);
-				resources.remove(i);
-				// Decrement the index and number of elements to compensate for
-				// item removal
-				i--;
-				numElements--;
+				nameIter.remove();
+				resourceIter.remove();
 			}
 		}
+		return loadedTypes;
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2014 Jesper Steen Moller and others.
+ * Copyright (c) 2010, 2019 Jesper Steen Moller and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,9 @@
 
 package org.eclipse.jdt.internal.debug.core.model;
 
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
 import com.sun.jdi.Method;
 
 /**
@@ -45,6 +48,48 @@ public class JDIMethod {
 
 	private static final int RETURN = 0xb1;
 
+	private static final int TABLESWITCH = 0xaa;
+	private static final int LOOKUPSWITCH = 0xab;
+	private static final int ATHROW = 0xbf;
+	private static final int WIDE = 0xc4;
+	private static final int IINC = 0x84;
+
+	/**
+	 * Lengths of the instructions by opcode, 0 for instructions of variable
+	 * length and unknown opcodes
+	 */
+	private static final byte[] INSTRUCTION_LENGTHS = new byte[256];
+
+	static {
+		Arrays.fill(INSTRUCTION_LENGTHS, 0x00, 0xca, (byte) 1);
+		INSTRUCTION_LENGTHS[0x10] = 2; // bipush
+		INSTRUCTION_LENGTHS[0x11] = 3; // sipush
+		INSTRUCTION_LENGTHS[0x12] = 2; // ldc
+		INSTRUCTION_LENGTHS[0x13] = 3; // ldc_w
+		INSTRUCTION_LENGTHS[0x14] = 3; // ldc2_w
+		Arrays.fill(INSTRUCTION_LENGTHS, 0x15, 0x1a, (byte) 2); // xload
+		Arrays.fill(INSTRUCTION_LENGTHS, 0x36, 0x3b, (byte) 2); // xstore
+		INSTRUCTION_LENGTHS[IINC] = 3;
+		Arrays.fill(INSTRUCTION_LENGTHS, 0x99, 0xa9, (byte) 3); // if<cond>, goto, jsr
+		INSTRUCTION_LENGTHS[0xa9] = 2; // ret
+		INSTRUCTION_LENGTHS[TABLESWITCH] = 0;
+		INSTRUCTION_LENGTHS[LOOKUPSWITCH] = 0;
+		Arrays.fill(INSTRUCTION_LENGTHS, 0xb2, 0xb9, (byte) 3); // field access, invoke
+		INSTRUCTION_LENGTHS[0xb9] = 5; // invokeinterface
+		INSTRUCTION_LENGTHS[0xba] = 5; // invokedynamic
+		INSTRUCTION_LENGTHS[0xbb] = 3; // new
+		INSTRUCTION_LENGTHS[0xbc] = 2; // newarray
+		INSTRUCTION_LENGTHS[0xbd] = 3; // anewarray
+		INSTRUCTION_LENGTHS[0xc0] = 3; // checkcast
+		INSTRUCTION_LENGTHS[0xc1] = 3; // instanceof
+		INSTRUCTION_LENGTHS[WIDE] = 0;
+		INSTRUCTION_LENGTHS[0xc5] = 4; // multianewarray
+		INSTRUCTION_LENGTHS[0xc6] = 3; // ifnull
+		INSTRUCTION_LENGTHS[0xc7] = 3; // ifnonnull
+		INSTRUCTION_LENGTHS[0xc8] = 5; // goto_w
+		INSTRUCTION_LENGTHS[0xc9] = 5; // jsr_w
+	}
+
 	/**
 	 * Determines if the opcode passes in is one of the value return
 	 * instructions.
@@ -59,6 +104,95 @@ public class JDIMethod {
 				|| (opCode & 0xFF) == ARETURN;
 	}
 
+	/**
+	 * Determines if the opcode passes in is the 'return' instruction of void
+	 * methods.
+	 *
+	 * @param opCode
+	 *            opCode to check
+	 * @return If <code>opCode</code> is 'return'
+	 */
+	public static final boolean isReturn(byte opCode) {
+		return (opCode & 0xFF) == RETURN;
+	}
+
+	/**
+	 * Returns the code indexes of the return instructions of the given byte
+	 * code. An 'athrow' instruction is not one of them, as the exception may
+	 * be caught in the method.
+	 *
+	 * @param bytecodes
+	 *            byte code of a method
+	 * @return code indexes of the return instructions in ascending order, or
+	 *         <code>null</code> if the byte code contains unknown opcodes
+	 */
+	public static long[] getReturnCodeIndexes(byte[] bytecodes) {
+		return getCodeIndexes(bytecodes, opCode -> isXReturn((byte) opCode) || opCode == RETURN);
+	}
+
+	/**
+	 * Returns whether the given byte code contains an 'athrow' instruction.
+	 *
+	 * @param bytecodes
+	 *            byte code of a method
+	 * @return whether the byte code throws exceptions itself, or
+	 *         <code>true</code> if it contains unknown opcodes
+	 */
+	public static boolean containsThrow(byte[] bytecodes) {
+		long[] indexes = getCodeIndexes(bytecodes, opCode -> opCode == ATHROW);
+		return indexes == null || indexes.length > 0;
+	}
+
+	/**
+	 * Returns the code indexes of the instructions of the given byte code
+	 * whose opcode matches the given predicate, in ascending order, or
+	 * <code>null</code> if the byte code contains unknown opcodes.
+	 */
+	private static long[] getCodeIndexes(byte[] bytecodes, IntPredicate opCodes) {
+		long[] indexes = new long[8];
+		int count = 0;
+		int pc = 0;
+		while (pc < bytecodes.length) {
+			int opCode = bytecodes[pc] & 0xFF;
+			int length = INSTRUCTION_LENGTHS[opCode];
+			if (opCode == TABLESWITCH || opCode == LOOKUPSWITCH) {
+				// operands are aligned on 4 bytes from the start of the code
+				int operands = (pc + 4) & ~3;
+				if (operands + 12 > bytecodes.length) {
+					return null;
+				}
+				if (opCode == TABLESWITCH) {
+					int low = readInt(bytecodes, operands + 4);
+					int high = readInt(bytecodes, operands + 8);
+					length = operands - pc + 12 + (high - low + 1) * 4;
+				} else {
+					int pairs = readInt(bytecodes, operands + 4);
+					length = operands - pc + 8 + pairs * 8;
+				}
+			} else if (opCode == WIDE) {
+				if (pc + 1 >= bytecodes.length) {
+					return null;
+				}
+				length = (bytecodes[pc + 1] & 0xFF) == IINC ? 6 : 4;
+			} else if (opCodes.test(opCode)) {
+				if (count == indexes.length) {
+					indexes = Arrays.copyOf(indexes, count * 2);
+				}
+				indexes[count++] = pc;
+			}
+			if (length <= 0) {
+				return null;
+			}
+			pc += length;
+		}
+		return Arrays.copyOf(indexes, count);
+	}
+
+	private static int readInt(byte[] bytes, int offset) {
+		return (bytes[offset] << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+				| ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+	}
+
 	/**
 	 * Determines if the opcode passes in is one of the 'loado_1' instruxtions.
 	 *
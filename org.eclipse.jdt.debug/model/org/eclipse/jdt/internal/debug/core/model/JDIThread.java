@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,8 +18,10 @@ package org.eclipse.jdt.internal.debug.core.model;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -37,12 +39,14 @@ import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.IStatusHandler;
 import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.core.model.IDebugTarget;
 import org.eclipse.debug.core.model.IStackFrame;
 import org.eclipse.debug.core.model.IStep;
 import org.eclipse.debug.core.model.IStepFilter;
 import org.eclipse.debug.core.model.ISuspendResume;
 import org.eclipse.debug.core.model.ITerminate;
 import org.eclipse.debug.core.model.IThread;
+import org.eclipse.jdi.internal.ThreadReferenceImpl;
 import org.eclipse.jdt.core.Signature;
 import org.eclipse.jdt.debug.core.IEvaluationRunnable;
 import org.eclipse.jdt.debug.core.IJavaBreakpoint;
@@ -735,6 +739,11 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 					null, IJavaThread.ERR_THREAD_NOT_SUSPENDED);
 		}
 		try {
+			if (fThread instanceof ThreadReferenceImpl) {
+				// fetch what is shown of the frames and the values of the top
+				// frame at once, the frames are cached until resume
+				return ((ThreadReferenceImpl) fThread).framesSnapshot(1);
+			}
 			return fThread.frames();
 		} catch (IncompatibleThreadStateException e) {
 			requestFailed(
@@ -3534,6 +3543,34 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 		return null;
 	}
 
+	/**
+	 * Reads the owned monitors and the contended monitor of the given threads,
+	 * sending the requests to each target at once. Until the target runs
+	 * again, {@link #getOwnedMonitors()} and {@link #getContendedMonitor()} of
+	 * the suspended threads answer without a round trip.
+	 *
+	 * @param threads
+	 *            the threads
+	 */
+	public static void readMonitors(IJavaThread[] threads) {
+		Map<IDebugTarget, List<ThreadReferenceImpl>> threadsByTarget = new HashMap<>();
+		for (IJavaThread thread : threads) {
+			if (thread instanceof JDIThread && thread.isSuspended()) {
+				ThreadReference reference = ((JDIThread) thread).getUnderlyingThread();
+				if (reference instanceof ThreadReferenceImpl) {
+					threadsByTarget.computeIfAbsent(thread.getDebugTarget(), target -> new ArrayList<>()).add((ThreadReferenceImpl) reference);
+				}
+			}
+		}
+		for (List<ThreadReferenceImpl> targetThreads : threadsByTarget.values()) {
+			try {
+				ThreadReferenceImpl.readMonitors(targetThreads);
+			} catch (RuntimeException e) {
+				// each thread reports the failure when its monitors are asked for
+			}
+		}
+	}
+
 	/**
 	 * @see org.eclipse.debug.core.model.IFilteredStep#canStepWithFilters()
 	 */
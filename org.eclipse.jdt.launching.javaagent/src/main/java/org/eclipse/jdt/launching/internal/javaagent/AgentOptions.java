@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Igor Fedorenko
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Igor Fedorenko - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.launching.internal.javaagent;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Javaagent options, a comma-separated list of
+ * <ul>
+ * <li>{@code debuglog} to print diagnostics to stderr
+ * <li>{@code include=<pattern>} to only instrument classes loaded from matching code source locations, may be repeated
+ * <li>{@code exclude=<pattern>} to not instrument classes loaded from matching code source locations, may be repeated
+ * <li>{@code cache=<directory>} to keep instrumented classfiles on disk and reuse them on later runs
+ * </ul>
+ * Patterns are matched against code source location URLs like {@code file:/home/user/project/target/classes/}. {@code *} matches any sequence
+ * of characters and {@code ?} matches any single character.
+ */
+class AgentOptions {
+
+	/** system property read if the javaagent has no arguments, allows setting options from the VM arguments of a launch */
+	static final String OPTIONS_PROPERTY = "org.eclipse.jdt.launching.javaagent.options"; //$NON-NLS-1$
+
+	final boolean debuglog;
+
+	final File cacheDirectory;
+
+	private final Pattern[] includes;
+
+	private final Pattern[] excludes;
+
+	// code source location -> whether to instrument, there are few locations and many classes
+	private final Map<String, Boolean> decisions = new ConcurrentHashMap<String, Boolean>();
+
+	private AgentOptions(boolean debuglog, File cacheDirectory, Pattern[] includes, Pattern[] excludes) {
+		this.debuglog = debuglog;
+		this.cacheDirectory = cacheDirectory;
+		this.includes = includes;
+		this.excludes = excludes;
+	}
+
+	static AgentOptions parse(String agentArgs) {
+		if (agentArgs == null) {
+			agentArgs = System.getProperty(OPTIONS_PROPERTY);
+		}
+		boolean debuglog = false;
+		File cacheDirectory = null;
+		List<Pattern> includes = new ArrayList<Pattern>();
+		List<Pattern> excludes = new ArrayList<Pattern>();
+		if (agentArgs != null) {
+			for (String option : agentArgs.split(",")) { //$NON-NLS-1$
+				option = option.trim();
+				if ("debuglog".equals(option)) { //$NON-NLS-1$
+					debuglog = true;
+				} else if (option.startsWith("include=")) { //$NON-NLS-1$
+					includes.add(toPattern(option.substring("include=".length()))); //$NON-NLS-1$
+				} else if (option.startsWith("exclude=")) { //$NON-NLS-1$
+					excludes.add(toPattern(option.substring("exclude=".length()))); //$NON-NLS-1$
+				} else if (option.startsWith("cache=")) { //$NON-NLS-1$
+					cacheDirectory = new File(option.substring("cache=".length())); //$NON-NLS-1$
+				} else if (option.length() > 0) {
+					System.err.printf("Unknown advanced source lookup option %s.\n", option); //$NON-NLS-1$
+				}
+			}
+		}
+		return new AgentOptions(debuglog, cacheDirectory, includes.toArray(new Pattern[includes.size()]), excludes.toArray(new Pattern[excludes.size()]));
+	}
+
+	/**
+	 * Returns {@code true} if classes loaded from the given code source location should be instrumented.
+	 */
+	boolean isIncluded(String location) {
+		if (includes.length == 0 && excludes.length == 0) {
+			return true;
+		}
+		Boolean included = decisions.get(location);
+		if (included == null) {
+			included = Boolean.valueOf(matches(includes, location, true) && !matches(excludes, location, false));
+			decisions.put(location, included);
+		}
+		return included.booleanValue();
+	}
+
+	private static boolean matches(Pattern[] patterns, String location, boolean matchIfEmpty) {
+		if (patterns.length == 0) {
+			return matchIfEmpty;
+		}
+		for (Pattern pattern : patterns) {
+			if (pattern.matcher(location).matches()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Pattern toPattern(String glob) {
+		StringBuilder regex = new StringBuilder();
+		int start = 0;
+		for (int i = 0; i < glob.length(); i++) {
+			char c = glob.charAt(i);
+			if (c == '*' || c == '?') {
+				if (i > start) {
+					regex.append(Pattern.quote(glob.substring(start, i)));
+				}
+				regex.append(c == '*' ? ".*" : "."); //$NON-NLS-1$ //$NON-NLS-2$
+				start = i + 1;
+			}
+		}
+		if (start < glob.length()) {
+			regex.append(Pattern.quote(glob.substring(start)));
+		}
+		return Pattern.compile(regex.toString());
+	}
+}
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Igor Fedorenko
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Igor Fedorenko - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.launching.internal.javaagent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * On-disk cache of instrumented classfiles.
+ * <p>
+ * There is one cache file per code source location, so a VM reads the instrumented classes of a location with a single read rather than opening
+ * a file per class. A cache file is a sequence of records, each made of the SHA-1 of the original classfile, the length of the instrumented
+ * classfile and the instrumented classfile. Changed classes get new records and stale records are never returned. Classes instrumented by a VM
+ * are appended to the cache files when the VM exits, one write per location, so VMs running concurrently at most store the same class twice.
+ * Cache files that grew too large are discarded and rebuilt.
+ */
+class ClassfileCache {
+
+	// bump whenever ClassfileTransformer output or the cache file format changes
+	private static final String FORMAT = "1"; //$NON-NLS-1$
+
+	private static final int HASH_LENGTH = 20;
+
+	private static final long MAX_FILE_LENGTH = 64 * 1024 * 1024;
+
+	private static final char[] hexDigits = "0123456789abcdef".toCharArray(); //$NON-NLS-1$
+
+	private final File directory;
+
+	// code source location -> cached classes of the location
+	private final Map<String, Location> locations = new ConcurrentHashMap<String, Location>();
+
+	private final ThreadLocal<MessageDigest> digests = new ThreadLocal<MessageDigest>() {
+		@Override
+		protected MessageDigest initialValue() {
+			try {
+				return MessageDigest.getInstance("SHA1"); //$NON-NLS-1$
+			}
+			catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException("Unsupported JVM", e); //$NON-NLS-1$
+			}
+		}
+	};
+
+	private static class Location {
+		final File file;
+
+		// hash of original classfile -> instrumented classfile, entries are removed once used to not keep the classfiles in memory
+		final Map<ByteBuffer, byte[]> cached = new ConcurrentHashMap<ByteBuffer, byte[]>();
+
+		// hashes of all classfiles in the cache file, including the used ones
+		final Map<ByteBuffer, Boolean> stored = new ConcurrentHashMap<ByteBuffer, Boolean>();
+
+		// classfiles instrumented by this VM
+		final Map<ByteBuffer, byte[]> added = new ConcurrentHashMap<ByteBuffer, byte[]>();
+
+		Location(File file) {
+			this.file = file;
+		}
+	}
+
+	ClassfileCache(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Returns the key of the given classfile.
+	 */
+	ByteBuffer key(byte[] classfileBuffer) {
+		MessageDigest digest = digests.get();
+		digest.reset();
+		return ByteBuffer.wrap(digest.digest(classfileBuffer));
+	}
+
+	/**
+	 * Returns the cached instrumented classfile with the given key loaded from the given location, or {@code null} if there is none.
+	 */
+	byte[] get(String location, ByteBuffer key) {
+		return getLocation(location).cached.remove(key);
+	}
+
+	/**
+	 * Records the instrumented classfile with the given key loaded from the given location, to be stored when the VM exits.
+	 */
+	void put(String location, ByteBuffer key, byte[] classfileBuffer) {
+		Location cache = getLocation(location);
+		if (!cache.stored.containsKey(key)) {
+			cache.added.put(key, classfileBuffer);
+		}
+	}
+
+	/**
+	 * Appends the classfiles instrumented by this VM to the cache files.
+	 */
+	void save() throws IOException {
+		for (Location cache : locations.values()) {
+			if (cache.added.isEmpty()) {
+				continue;
+			}
+			ByteArrayOutputStream buf = new ByteArrayOutputStream();
+			DataOutputStream records = new DataOutputStream(buf);
+			for (Iterator<Map.Entry<ByteBuffer, byte[]>> iter = cache.added.entrySet().iterator(); iter.hasNext();) {
+				Map.Entry<ByteBuffer, byte[]> entry = iter.next();
+				iter.remove();
+				records.write(entry.getKey().array());
+				records.writeInt(entry.getValue().length);
+				records.write(entry.getValue());
+			}
+			records.flush();
+			if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+				throw new IOException("Could not create directory " + directory); //$NON-NLS-1$
+			}
+			// a single append, so records of concurrently exiting VMs do not interleave
+			OutputStream os = new FileOutputStream(cache.file, true);
+			try {
+				os.write(buf.toByteArray());
+			}
+			finally {
+				os.close();
+			}
+		}
+	}
+
+	private Location getLocation(String location) {
+		Location cache = locations.get(location);
+		if (cache == null) {
+			synchronized (locations) {
+				cache = locations.get(location);
+				if (cache == null) {
+					cache = new Location(new File(directory, fileName(location)));
+					try {
+						load(cache);
+					}
+					catch (IOException e) {
+						// unreadable cache file, start over
+						cache.cached.clear();
+						cache.stored.clear();
+						cache.file.delete();
+					}
+					locations.put(location, cache);
+				}
+			}
+		}
+		return cache;
+	}
+
+	private String fileName(String location) {
+		MessageDigest digest = digests.get();
+		digest.reset();
+		try {
+			return toHex(digest.digest((FORMAT + location).getBytes("UTF-8"))); //$NON-NLS-1$
+		}
+		catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException("Unsupported JVM", e); //$NON-NLS-1$
+		}
+	}
+
+	private static void load(Location cache) throws IOException {
+		long length = cache.file.length(); // 0 if the file does not exist
+		if (length <= 0) {
+			return;
+		}
+		if (length > MAX_FILE_LENGTH) {
+			cache.file.delete();
+			return;
+		}
+		byte[] bytes = new byte[(int) length];
+		RandomAccessFile file = new RandomAccessFile(cache.file, "r"); //$NON-NLS-1$
+		try {
+			file.readFully(bytes);
+		}
+		finally {
+			file.close();
+		}
+		ByteBuffer records = ByteBuffer.wrap(bytes);
+		// ignore a truncated last record, left behind by a VM that died while appending
+		while (records.remaining() >= HASH_LENGTH + 4) {
+			byte[] hash = new byte[HASH_LENGTH];
+			records.get(hash);
+			int classfileLength = records.getInt();
+			if (classfileLength <= 0 || classfileLength > records.remaining()) {
+				break;
+			}
+			byte[] classfile = new byte[classfileLength];
+			records.get(classfile);
+			ByteBuffer key = ByteBuffer.wrap(hash);
+			cache.cached.put(key, classfile);
+			cache.stored.put(key, Boolean.TRUE);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(2 * bytes.length);
+		for (byte b : bytes) {
+			sb.append(hexDigits[(b >> 4) & 0xf]).append(hexDigits[b & 0xf]);
+		}
+		return sb.toString();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011-2016 Igor Fedorenko
+ * Copyright (c) 2011-2019 Igor Fedorenko
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,7 @@ import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.IllegalClassFormatException;
 import java.lang.instrument.Instrumentation;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.security.CodeSource;
 import java.security.ProtectionDomain;
 
@@ -28,7 +29,9 @@ public class Premain {
 	private static final ClassfileTransformer transformer = new ClassfileTransformer();
 
 	public static void premain(final String agentArgs, final Instrumentation inst) {
-		final boolean debuglog = "debuglog".equals(agentArgs); //$NON-NLS-1$
+		final AgentOptions options = AgentOptions.parse(agentArgs);
+		final boolean debuglog = options.debuglog;
+		final ClassfileCache cache = options.cacheDirectory != null ? new ClassfileCache(options.cacheDirectory) : null;
 
 		// disable instrumentation if Object.class class format is not supported
 		short major = readJavaLangObjectMajor(debuglog);
@@ -62,7 +65,24 @@ public class Premain {
 
 					final String location = locationUrl.toExternalForm();
 
-					return transformer.transform(classfileBuffer, location);
+					if (!options.isIncluded(location)) {
+						return null;
+					}
+
+					// the transformer returns null for classes that are already instrumented, e.g. archived in a CDS archive, to keep them as they are
+					if (cache == null) {
+						return transformer.transform(classfileBuffer, location);
+					}
+
+					final ByteBuffer key = cache.key(classfileBuffer);
+					byte[] transformed = cache.get(location, key);
+					if (transformed == null) {
+						transformed = transformer.transform(classfileBuffer, location);
+						if (transformed != null) {
+							cache.put(location, key, transformed);
+						}
+					}
+					return transformed;
 				}
 				catch (Exception e) {
 					System.err.printf("Could not instrument class %s: %s.\n", className, e.getMessage()); //$NON-NLS-1$
@@ -74,6 +94,23 @@ public class Premain {
 			}
 		});
 
+		if (cache != null) {
+			Runtime.getRuntime().addShutdownHook(new Thread("Advanced source lookup cache") { //$NON-NLS-1$
+				@Override
+				public void run() {
+					try {
+						cache.save();
+					}
+					catch (IOException e) {
+						System.err.printf("Could not save advanced source lookup cache: %s.\n", e.getMessage()); //$NON-NLS-1$
+						if (debuglog) {
+							e.printStackTrace(System.err);
+						}
+					}
+				}
+			});
+		}
+
 		if (debuglog) {
 			System.err.println("Advanced source lookup enabled."); //$NON-NLS-1$
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Igor Fedorenko
+ * Copyright (c) 2014-2019 Igor Fedorenko
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -29,10 +29,22 @@ public class ClassfileTransformer {
 	/** supported ASM API version, must match {@link #MAX_CLASS_MAJOR} above */
 	private static final int ASM_API = Opcodes.ASM7;
 
+	/** stratum section header of the SMAP added by {@link #transform(byte[], String)} */
+	private static final byte[] STRATUM_MARKER = ("\n*S " + STRATA_ID + "\n").getBytes(); //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * Returns the instrumented classfile, or {@code null} if the classfile already carries the SMAP added by this method, for example because it
+	 * was archived in a CDS/AppCDS archive dumped with the javaagent enabled or is being redefined.
+	 */
 	public byte[] transform(byte[] classfileBuffer, final String location) {
 
 		final ClassReader r = new ClassReader(classfileBuffer, 0, classfileBuffer.length);
-		final ClassWriter w = new ClassWriter(0);
+
+		if (isTransformed(r, classfileBuffer)) {
+			return null;
+		}
+
+		final ClassWriter w = new ClassWriter(r, 0); // copies the constant pool and unchanged methods as is, much faster than rewriting them
 
 		r.accept(new ClassVisitor(ASM_API, w) {
 			@Override
@@ -62,4 +74,54 @@ public class ClassfileTransformer {
 
 		return w.toByteArray();
 	}
+
+	/**
+	 * Returns {@code true} if the SourceDebugExtension attribute of the class contains the stratum added by this transformer. Only the headers
+	 * of the fields, methods and attributes are walked, the bytecode is skipped.
+	 */
+	private static boolean isTransformed(ClassReader r, byte[] classfileBuffer) {
+		// https://docs.oracle.com/javase/specs/jvms/se11/html/jvms-4.html#jvms-4.1
+		int offset = r.header + 6; // access_flags, this_class, super_class
+		offset += 2 + 2 * r.readUnsignedShort(offset); // interfaces
+		for (int members = 0; members < 2; members++) { // fields, then methods
+			int count = r.readUnsignedShort(offset);
+			offset += 2;
+			for (int i = 0; i < count; i++) {
+				offset = skipAttributes(r, offset + 6); // access_flags, name_index, descriptor_index
+			}
+		}
+		int count = r.readUnsignedShort(offset);
+		offset += 2;
+		char[] charBuffer = new char[r.getMaxStringLength()];
+		for (int i = 0; i < count; i++) {
+			int length = r.readInt(offset + 2);
+			if ("SourceDebugExtension".equals(r.readUTF8(offset, charBuffer))) { //$NON-NLS-1$
+				return contains(classfileBuffer, offset + 6, length, STRATUM_MARKER);
+			}
+			offset += 6 + length;
+		}
+		return false;
+	}
+
+	private static int skipAttributes(ClassReader r, int offset) {
+		int count = r.readUnsignedShort(offset);
+		offset += 2;
+		for (int i = 0; i < count; i++) {
+			offset += 6 + r.readInt(offset + 2);
+		}
+		return offset;
+	}
+
+	private static boolean contains(byte[] bytes, int offset, int length, byte[] marker) {
+		int last = offset + length - marker.length;
+		outer: for (int i = offset; i <= last; i++) {
+			for (int j = 0; j < marker.length; j++) {
+				if (bytes[i + j] != marker[j]) {
+					continue outer;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
 }
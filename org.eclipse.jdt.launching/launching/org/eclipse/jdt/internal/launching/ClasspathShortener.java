@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 Cedric Chabanois and others.
+ * Copyright (c) 2018, 2019 Cedric Chabanois and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,12 +16,15 @@ package org.eclipse.jdt.internal.launching;
 
 import static org.eclipse.jdt.internal.launching.LaunchingPlugin.LAUNCH_TEMP_FILE_PREFIX;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -29,8 +32,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.jar.Attributes;
+import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
-import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
@@ -43,6 +47,7 @@ import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.IStatusHandler;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.internal.launching.ClasspathShortenerCache.ContentWriter;
 import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
 import org.eclipse.jdt.launching.IVMInstall;
 import org.eclipse.jdt.launching.IVMInstall2;
@@ -53,6 +58,9 @@ import org.eclipse.jdt.launching.IVMInstall2;
  * Depending on the java version, os and launch configuration, the classpath argument will be replaced by an argument file, a classpath-only jar or
  * env variable. The modulepath is replaced by an argument file if necessary.
  *
+ * Argument files and classpath-only jars are streamed to disk and kept in a {@link ClasspathShortenerCache}, so that launching the same path
+ * again only links the existing file into the temp files directory.
+ *
  */
 public class ClasspathShortener {
 	private static final String CLASSPATH_ENV_VAR_PREFIX = "CLASSPATH="; //$NON-NLS-1$
@@ -340,24 +348,85 @@ public class ClasspathShortener {
 			File jarFile = new File(processTempFilesDir, String.format(LAUNCH_TEMP_FILE_PREFIX
 					+ "%s-classpathOnly-%s.jar", getLaunchConfigurationName(), timeStamp)); //$NON-NLS-1$
 			URI workingDirUri = processTempFilesDir.toURI();
-			StringBuilder manifestClasspath = new StringBuilder();
 			String[] classpathArray = getClasspathAsArray(classpath);
+			// the manifest holds paths relative to the directory of the jar, directories end with a slash
+			StringBuilder directories = new StringBuilder(classpathArray.length);
+			for (String element : classpathArray) {
+				directories.append(new File(element).isDirectory() ? '1' : '0');
+			}
+			String key = ClasspathShortenerCache.getKey("classpathOnly", workingDirUri.toString(), directories.toString(), classpath); //$NON-NLS-1$
+			writeFile(jarFile, key, ".jar", out -> writeClasspathOnlyJar(out, classpathArray, workingDirUri)); //$NON-NLS-1$
+			return jarFile;
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, LaunchingPlugin.getUniqueIdentifier(), IStatus.ERROR, "Cannot create classpath only jar", e)); // $NON-NLS-1$ //$NON-NLS-1$
+		}
+	}
+
+	private void writeClasspathOnlyJar(OutputStream out, String[] classpathArray, URI workingDirUri) throws IOException {
+		try (JarOutputStream jar = new JarOutputStream(out)) {
+			jar.putNextEntry(new ZipEntry(JarFile.MANIFEST_NAME));
+			BufferedOutputStream manifestOut = new BufferedOutputStream(jar);
+			ManifestWriter manifest = new ManifestWriter(manifestOut);
+			manifest.write(Attributes.Name.MANIFEST_VERSION + ": 1.0"); //$NON-NLS-1$
+			manifest.newLine();
+			manifest.write(Attributes.Name.CLASS_PATH + ": "); //$NON-NLS-1$
+			// one entry at a time, the manifest is never built in memory
 			for (int i = 0; i < classpathArray.length; i++) {
 				if (i != 0) {
-					manifestClasspath.append(' ');
+					manifest.write(" "); //$NON-NLS-1$
 				}
 				File file = new File(classpathArray[i]);
-				String relativePath = URIUtil.makeRelative(file.toURI(), workingDirUri).toString();
-				manifestClasspath.append(relativePath);
+				manifest.write(URIUtil.makeRelative(file.toURI(), workingDirUri).toString());
 			}
-			Manifest manifest = new Manifest();
-			manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0"); //$NON-NLS-1$
-			manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, manifestClasspath.toString());
-			try (JarOutputStream target = new JarOutputStream(new FileOutputStream(jarFile), manifest)) {
+			manifest.newLine();
+			manifest.newLine();
+			manifestOut.flush();
+			jar.closeEntry();
+		}
+	}
+
+	/**
+	 * Writes the lines of a manifest, continuing lines longer than 72 bytes on the next line as required by the jar file specification
+	 */
+	private static class ManifestWriter {
+		private static final int MAX_LINE_LENGTH = 72;
+		private final OutputStream out;
+		private int lineLength;
+
+		ManifestWriter(OutputStream out) {
+			this.out = out;
+		}
+
+		void write(String text) throws IOException {
+			for (int i = 0; i < text.length();) {
+				int codePoint = text.codePointAt(i);
+				int charCount = Character.charCount(codePoint);
+				if (codePoint < 0x80) {
+					continueLineIfFull(1);
+					out.write(codePoint);
+				} else {
+					// never split the UTF-8 bytes of a character across lines
+					byte[] bytes = text.substring(i, i + charCount).getBytes(StandardCharsets.UTF_8);
+					continueLineIfFull(bytes.length);
+					out.write(bytes);
+				}
+				i += charCount;
 			}
-			return jarFile;
-		} catch (IOException e) {
-			throw new CoreException(new Status(IStatus.ERROR, LaunchingPlugin.getUniqueIdentifier(), IStatus.ERROR, "Cannot create classpath only jar", e)); // $NON-NLS-1$ //$NON-NLS-1$
+		}
+
+		void newLine() throws IOException {
+			out.write('\r');
+			out.write('\n');
+			lineLength = 0;
+		}
+
+		private void continueLineIfFull(int length) throws IOException {
+			if (lineLength + length > MAX_LINE_LENGTH) {
+				newLine();
+				out.write(' ');
+				lineLength = 1;
+			}
+			lineLength += length;
 		}
 	}
 
@@ -383,9 +452,8 @@ public class ClasspathShortener {
 			File classPathFile = new File(processTempFilesDir, String.format(LAUNCH_TEMP_FILE_PREFIX
 					+ "%s-classpath-arg-%s.txt", getLaunchConfigurationName(), timeStamp)); //$NON-NLS-1$
 
-			byte[] bytes = ("-classpath " + classpath).getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
-
-			Files.write(classPathFile.toPath(), bytes);
+			String key = ClasspathShortenerCache.getKey("classpath-arg", classpath); //$NON-NLS-1$
+			writeFile(classPathFile, key, ".txt", out -> writeArgumentFile(out, "-classpath ", classpath)); //$NON-NLS-1$ //$NON-NLS-2$
 			return classPathFile;
 		} catch (IOException e) {
 			throw new CoreException(new Status(IStatus.ERROR, LaunchingPlugin.getUniqueIdentifier(), IStatus.ERROR, "Cannot create classpath argument file", e)); //$NON-NLS-1$
@@ -398,15 +466,45 @@ public class ClasspathShortener {
 			File modulePathFile = new File(processTempFilesDir, String.format(LAUNCH_TEMP_FILE_PREFIX
 					+ "%s-module-path-arg-%s.txt", getLaunchConfigurationName(), timeStamp)); //$NON-NLS-1$
 
-			byte[] bytes = ("--module-path " + modulePath).getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
-
-			Files.write(modulePathFile.toPath(), bytes);
+			String key = ClasspathShortenerCache.getKey("module-path-arg", modulePath); //$NON-NLS-1$
+			writeFile(modulePathFile, key, ".txt", out -> writeArgumentFile(out, "--module-path ", modulePath)); //$NON-NLS-1$ //$NON-NLS-2$
 			return modulePathFile;
 		} catch (IOException e) {
 			throw new CoreException(new Status(IStatus.ERROR, LaunchingPlugin.getUniqueIdentifier(), IStatus.ERROR, "Cannot create module-path argument file", e)); //$NON-NLS-1$
 		}
 	}
 
+	private static void writeArgumentFile(OutputStream out, String option, String value) throws IOException {
+		// encoded through the writer buffer, the argument is never copied as a whole
+		Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+		writer.write(option);
+		writer.write(value);
+		writer.flush();
+	}
+
+	/**
+	 * Creates the given file with the contents of the given writer, linking it to the cached file of the given key if there is a cache
+	 */
+	private void writeFile(File file, String key, String extension, ContentWriter writer) throws IOException {
+		ClasspathShortenerCache cache = getCache();
+		if (cache == null) {
+			try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+				writer.write(out);
+			}
+			return;
+		}
+		cache.link(cache.getFile(key, extension, writer), file);
+	}
+
+	/**
+	 * Returns the cache of argument files and classpath-only jars
+	 *
+	 * @return the cache or <code>null</code> to always write the files
+	 */
+	protected ClasspathShortenerCache getCache() {
+		return ClasspathShortenerCache.getDefault();
+	}
+
 	protected String getLaunchTimeStamp() {
 		String timeStamp = launch.getAttribute(DebugPlugin.ATTR_LAUNCH_TIMESTAMP);
 		if (timeStamp == null) {
@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.launching;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Bounded directory of the argument files and classpath-only jars created by
+ * {@link ClasspathShortener}, named after a digest of what they are made of, so
+ * that launching the same classpath again does not write them again.
+ * <p>
+ * A launch gets a link to the cached file in its own temporary files
+ * directory, or a copy if links are not supported there, which is deleted when
+ * the process terminates as before. Cached files are touched when reused and
+ * the least recently used ones are deleted once there are more than the
+ * maximum number of files. Files used in the last seconds are never deleted,
+ * as a concurrent launch may not have linked the file it got yet.
+ * </p>
+ *
+ * @since 3.14
+ */
+public class ClasspathShortenerCache {
+
+	/**
+	 * Default maximum number of cached files
+	 */
+	public static final int DEFAULT_MAX_FILES = 32;
+
+	/**
+	 * Files touched more recently than this number of milliseconds are not
+	 * pruned, so that a launch has the time to link the file it got
+	 */
+	private static final long PRUNE_GRACE_PERIOD = 10000;
+
+	/**
+	 * Extension of files being written
+	 */
+	private static final String TEMP_FILE_EXTENSION = ".tmp"; //$NON-NLS-1$
+
+	/**
+	 * Cache in the launching state location, <code>null</code> until first
+	 * access
+	 */
+	private static ClasspathShortenerCache fgDefault;
+
+	/**
+	 * Writes the contents of a file that is not cached.
+	 */
+	public interface ContentWriter {
+		/**
+		 * @param out
+		 *            the stream to write to, buffered
+		 * @throws IOException
+		 *             if unable to write
+		 */
+		void write(OutputStream out) throws IOException;
+	}
+
+	/**
+	 * Directory holding the cached files
+	 */
+	private final File fDirectory;
+
+	/**
+	 * Maximum number of cached files
+	 */
+	private final int fMaxFiles;
+
+	/**
+	 * Creates a cache of the given number of files at most in the given
+	 * directory
+	 *
+	 * @param directory
+	 *            the directory holding the cached files
+	 * @param maxFiles
+	 *            the maximum number of cached files
+	 */
+	public ClasspathShortenerCache(File directory, int maxFiles) {
+		fDirectory = directory;
+		fMaxFiles = maxFiles;
+	}
+
+	/**
+	 * Returns the cache in the launching state location, or <code>null</code>
+	 * if the launching plug-in is not running
+	 *
+	 * @return the default cache or <code>null</code>
+	 */
+	public static synchronized ClasspathShortenerCache getDefault() {
+		if (fgDefault == null) {
+			LaunchingPlugin plugin = LaunchingPlugin.getDefault();
+			if (plugin == null) {
+				return null;
+			}
+			fgDefault = new ClasspathShortenerCache(plugin.getStateLocation().append("classpathShortener").toFile(), DEFAULT_MAX_FILES); //$NON-NLS-1$
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Returns the directory holding the cached files
+	 *
+	 * @return the cache directory
+	 */
+	public File getDirectory() {
+		return fDirectory;
+	}
+
+	/**
+	 * Returns a key made of the SHA-1 digest of the given parts
+	 *
+	 * @param parts
+	 *            what the contents of a file are made of
+	 * @return a key for {@link #getFile(String, String, ContentWriter)}
+	 */
+	public static String getKey(String... parts) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		for (String part : parts) {
+			digest.update(part.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+		StringBuilder key = new StringBuilder();
+		for (byte b : digest.digest()) {
+			key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Returns the cached file of the given key, writing it with the given writer
+	 * if it is not cached yet
+	 *
+	 * @param key
+	 *            the key of the file, see {@link #getKey(String...)}
+	 * @param extension
+	 *            the extension of the file, like <code>.jar</code>
+	 * @param writer
+	 *            writes the contents of the file if it is not cached
+	 * @return the cached file
+	 * @throws IOException
+	 *             if unable to write the file
+	 */
+	public File getFile(String key, String extension, ContentWriter writer) throws IOException {
+		File file = new File(fDirectory, key + extension);
+		if (file.isFile() && file.setLastModified(System.currentTimeMillis())) {
+			if (LaunchingPlugin.DEBUG_CLASSPATH_SHORTENER) {
+				LaunchingPlugin.trace("Classpath shortener file reused: " + file); //$NON-NLS-1$
+			}
+			return file;
+		}
+		fDirectory.mkdirs();
+		// concurrent launches of the same classpath write the same contents, the last one wins
+		File temp = File.createTempFile("shortener", TEMP_FILE_EXTENSION, fDirectory); //$NON-NLS-1$
+		try {
+			try (OutputStream out = new BufferedOutputStream(new FileOutputStream(temp))) {
+				writer.write(out);
+			}
+			try {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			temp.delete();
+		}
+		if (LaunchingPlugin.DEBUG_CLASSPATH_SHORTENER) {
+			LaunchingPlugin.trace("Classpath shortener file written: " + file); //$NON-NLS-1$
+		}
+		prune(file);
+		return file;
+	}
+
+	/**
+	 * Makes the given cached file available at the given location, through a
+	 * hard link when possible, or else a copy
+	 *
+	 * @param file
+	 *            a file returned by {@link #getFile(String, String, ContentWriter)}
+	 * @param target
+	 *            the location of the link or copy, which must not exist
+	 * @throws IOException
+	 *             if unable to link or copy the file
+	 */
+	public void link(File file, File target) throws IOException {
+		try {
+			Files.createLink(target.toPath(), file.toPath());
+		} catch (IOException | UnsupportedOperationException | SecurityException e) {
+			// other file system or no hard links, the copy is still cheaper than writing the file again
+			Files.copy(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Deletes the least recently used files once there are more than the
+	 * maximum number of files, keeping the given file and the files used
+	 * during the grace period.
+	 */
+	private void prune(File keep) {
+		File[] files = fDirectory.listFiles((dir, name) -> !name.endsWith(TEMP_FILE_EXTENSION));
+		if (files == null || files.length <= fMaxFiles) {
+			return;
+		}
+		long[] lastModified = new long[files.length];
+		Integer[] order = new Integer[files.length];
+		for (int i = 0; i < files.length; i++) {
+			lastModified[i] = files[i].lastModified();
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingLong(i -> lastModified[i]));
+		long recent = System.currentTimeMillis() - PRUNE_GRACE_PERIOD;
+		int excess = files.length - fMaxFiles;
+		for (int i = 0; i < order.length && excess > 0 && lastModified[order[i]] < recent; i++) {
+			File file = files[order[i]];
+			if (!file.equals(keep)) {
+				// a file still in use by a launch stays readable through its link
+				file.delete();
+				excess--;
+			}
+		}
+	}
+}
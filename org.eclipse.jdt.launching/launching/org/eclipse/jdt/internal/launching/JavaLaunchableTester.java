@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2017 IBM Corporation and others.
+ * Copyright (c) 2005, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -29,7 +29,6 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IPath;
-import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.IClassFile;
@@ -169,16 +168,7 @@ public class JavaLaunchableTester extends PropertyTester {
 		try {
             IType type = getType(element);
             if(type != null && type.exists()) {
-				if(hasMainMethod(type)) {
-					return true;
-				}
-				//failed to find in public type, check static inner types
-				IJavaElement[] children = type.getChildren();
-				for(int i = 0; i < children.length; i++) {
-					if(hasMainInChildren(getType(children[i]))) {
-						return true;
-					}
-				}
+				return LaunchableTypeCache.getDefault().hasMain(type);
             }
 		}
 		catch (JavaModelException e) {}
@@ -186,46 +176,6 @@ public class JavaLaunchableTester extends PropertyTester {
 		return false;
 	}
 
-	/**
-	 * Returns if the specified <code>IType</code> has a main method
-	 * @param type the type to inspect for a main type
-	 * @return true if the specified type has a main method, false otherwise
-	 * @throws JavaModelException if there is an error in the backing Java model
-	 * @since 3.3
-	 */
-	private boolean hasMainMethod(IType type) throws JavaModelException {
-		IMethod[] methods = type.getMethods();
-		for (int i= 0; i < methods.length; i++) {
-			if(methods[i].isMainMethod()) {
-				return true;
-			}
-		}
-		return false;
-	}
-
-	/**
-	 * This method asks the specified <code>IType</code> if it has a main method, if not it recurses through all of its children
-	 * When recursing we only care about child <code>IType</code>s that are static.
-	 * @param type the <code>IType</code> to inspect for a main method
-	 * @return true if a main method was found in specified <code>IType</code>, false otherwise
-	 * @throws CoreException if there is an error
-	 * @since 3.3
-	 */
-	private boolean hasMainInChildren(IType type) throws CoreException {
-		if(type.isClass() & Flags.isStatic(type.getFlags())) {
-			if(hasMainMethod(type)) {
-				return true;
-			}
-			IJavaElement[] children = type.getChildren();
-			for(int i = 0; i < children.length; i++) {
-				if(children[i].getElementType() == IJavaElement.TYPE) {
-					return hasMainInChildren((IType) children[i]);
-				}
-			}
-		}
-		return false;
-	}
-
 	/**
 	 * Determines is the java element contains a specific method.
      * <p>
@@ -468,12 +418,7 @@ public class JavaLaunchableTester extends PropertyTester {
 		try {
 			IType type = getType(element);
 			if(type != null) {
-				IType[] stypes = type.newSupertypeHierarchy(new NullProgressMonitor()).getAllSuperclasses(type);
-				for(int i = 0; i < stypes.length; i++) {
-					if(stypes[i].getFullyQualifiedName().equals(qname) || stypes[i].getElementName().equals(qname)) {
-						return true;
-					}
-				}
+				return LaunchableTypeCache.getDefault().hasSuperclass(type, qname);
 			}
 		}
 		catch(JavaModelException e) {}
@@ -547,12 +492,7 @@ public class JavaLaunchableTester extends PropertyTester {
 		try {
 			IType type = getType(element);
 			if(type != null) {
-				IType[] itypes = type.newSupertypeHierarchy(new NullProgressMonitor()).getAllInterfaces();
-				for(int i = 0; i < itypes.length; i++) {
-					if(itypes[i].getFullyQualifiedName().equals(qname)) {
-						return true;
-					}
-				}
+				return LaunchableTypeCache.getDefault().implementsInterface(type, qname);
 			}
 		}
 		catch(JavaModelException e) {}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -40,6 +40,22 @@ public class JavaSourceLookupDirector extends AbstractSourceLookupDirector {
 		fFilteredTypes.add("org.eclipse.debug.ui.containerType.workingSet"); //$NON-NLS-1$
 	}
 
+	/**
+	 * Source elements found by the Java source lookup participant of this director
+	 */
+	private final SourceLookupCache fSourceLookupCache = new SourceLookupCache();
+
+	/**
+	 * Returns the cache of the source elements found by the Java source lookup
+	 * participant of this director.
+	 *
+	 * @return the source lookup cache
+	 * @since 3.14
+	 */
+	public SourceLookupCache getSourceLookupCache() {
+		return fSourceLookupCache;
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.debug.internal.core.sourcelookup.ISourceLookupDirector#initializeParticipants()
 	 */
@@ -0,0 +1,450 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.launching;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * Bounded cache of the facts about types that the launch shortcuts of the
+ * contextual launch menu ask {@link JavaLaunchableTester} about: whether a type
+ * has a main method, and the names of its superclasses and interfaces. All
+ * supertypes of a type are found with a single supertype hierarchy, which is
+ * then not built again for each property nor each time the menu is shown.
+ * <p>
+ * Facts are dropped as the Java model changes, including changes of working
+ * copies being edited. Changes inside a compilation unit or class file, like
+ * methods added or removed, only drop the facts about the types of that unit.
+ * Changes that may change the supertypes of other types drop all facts: types,
+ * units, packages, imports or package fragment roots added or removed,
+ * supertypes changed, classpaths changed or projects opened or closed.
+ * </p>
+ *
+ * @since 3.14
+ */
+public class LaunchableTypeCache {
+
+	/**
+	 * Default maximum number of types cached
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1000;
+
+	/**
+	 * Package fragment root delta flags that may change the supertypes of
+	 * types
+	 */
+	private static final int ROOT_FLAGS = IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH
+			| IJavaElementDelta.F_REORDER | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED;
+
+	/**
+	 * Java project delta flags that may change the supertypes of types
+	 */
+	private static final int PROJECT_FLAGS = IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED
+			| IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED;
+
+	/**
+	 * The started cache, <code>null</code> when not started
+	 */
+	private static LaunchableTypeCache fgDefault;
+
+	/**
+	 * Facts about a type, <code>null</code> until computed
+	 */
+	private static class Facts {
+		Boolean hasMain;
+		/**
+		 * Fully qualified and simple names of all superclasses
+		 */
+		Set<String> superclasses;
+		/**
+		 * Fully qualified names of all interfaces
+		 */
+		Set<String> interfaces;
+	}
+
+	/**
+	 * Facts by type, least recently used first
+	 */
+	private final LinkedHashMap<IType, Facts> fFacts;
+
+	/**
+	 * Listens to Java model changes, <code>null</code> when not started
+	 */
+	private IElementChangedListener fListener;
+
+	/**
+	 * Incremented whenever facts are dropped, so that facts computed at that
+	 * time are not cached
+	 */
+	private long fEpoch;
+
+	private long fHits;
+	private long fMisses;
+
+	/**
+	 * Creates a cache of the given number of types at most
+	 *
+	 * @param maxSize
+	 *            the maximum number of types cached
+	 */
+	public LaunchableTypeCache(final int maxSize) {
+		fFacts = new LinkedHashMap<IType, Facts>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<IType, Facts> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Starts the cache returned by {@link #getDefault()}
+	 */
+	public static synchronized void start() {
+		if (fgDefault == null) {
+			fgDefault = new LaunchableTypeCache(DEFAULT_MAX_SIZE);
+			fgDefault.startListening();
+		}
+	}
+
+	/**
+	 * Stops the cache returned by {@link #getDefault()}
+	 */
+	public static synchronized void stop() {
+		if (fgDefault != null) {
+			fgDefault.stopListening();
+			fgDefault = null;
+		}
+	}
+
+	/**
+	 * Returns the started cache, or a cache that keeps nothing if the cache is
+	 * not started, as changes would not be noticed
+	 *
+	 * @return a cache
+	 */
+	public static synchronized LaunchableTypeCache getDefault() {
+		if (fgDefault == null) {
+			return new LaunchableTypeCache(0);
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Starts dropping facts on Java model changes
+	 */
+	public synchronized void startListening() {
+		if (fListener == null) {
+			fListener = new IElementChangedListener() {
+				@Override
+				public void elementChanged(ElementChangedEvent event) {
+					Set<IJavaElement> changed = new HashSet<>();
+					if (affectsAllTypes(event.getDelta(), changed)) {
+						clear();
+					} else if (!changed.isEmpty()) {
+						remove(changed);
+					}
+				}
+			};
+			// reconcile deltas tell about unsaved changes in editors
+			JavaCore.addElementChangedListener(fListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		}
+	}
+
+	/**
+	 * Stops listening to Java model changes
+	 */
+	public synchronized void stopListening() {
+		if (fListener != null) {
+			JavaCore.removeElementChangedListener(fListener);
+			fListener = null;
+		}
+	}
+
+	/**
+	 * Returns whether the given type or one of its static member classes
+	 * declares a main method
+	 *
+	 * @param type
+	 *            the type
+	 * @return whether a main method is declared
+	 * @throws CoreException
+	 *             if unable to inspect the type
+	 */
+	public boolean hasMain(IType type) throws CoreException {
+		long epoch;
+		synchronized (this) {
+			Facts facts = fFacts.get(type);
+			if (facts != null && facts.hasMain != null) {
+				fHits++;
+				return facts.hasMain.booleanValue();
+			}
+			fMisses++;
+			epoch = fEpoch;
+		}
+		boolean hasMain = computeHasMain(type);
+		synchronized (this) {
+			if (fEpoch == epoch) {
+				getFacts(type).hasMain = Boolean.valueOf(hasMain);
+			}
+		}
+		return hasMain;
+	}
+
+	/**
+	 * Returns whether the given type has a superclass of the given fully
+	 * qualified or simple name
+	 *
+	 * @param type
+	 *            the type
+	 * @param name
+	 *            the fully qualified or simple name of the superclass
+	 * @return whether the type has the superclass
+	 * @throws JavaModelException
+	 *             if unable to compute the supertypes of the type
+	 */
+	public boolean hasSuperclass(IType type, String name) throws JavaModelException {
+		return getSupertypes(type).superclasses.contains(name);
+	}
+
+	/**
+	 * Returns whether the given type implements the interface of the given
+	 * fully qualified name
+	 *
+	 * @param type
+	 *            the type
+	 * @param qualifiedName
+	 *            the fully qualified name of the interface
+	 * @return whether the type implements the interface
+	 * @throws JavaModelException
+	 *             if unable to compute the supertypes of the type
+	 */
+	public boolean implementsInterface(IType type, String qualifiedName) throws JavaModelException {
+		return getSupertypes(type).interfaces.contains(qualifiedName);
+	}
+
+	/**
+	 * Drops all facts.
+	 */
+	public synchronized void clear() {
+		fFacts.clear();
+		fEpoch++;
+	}
+
+	/**
+	 * @return the number of questions answered from this cache
+	 */
+	public synchronized long getHitCount() {
+		return fHits;
+	}
+
+	/**
+	 * @return the number of questions not answered from this cache
+	 */
+	public synchronized long getMissCount() {
+		return fMisses;
+	}
+
+	/**
+	 * Returns facts holding the supertypes of the given type, computing them
+	 * with a supertype hierarchy if they are not cached
+	 */
+	private Facts getSupertypes(IType type) throws JavaModelException {
+		long epoch;
+		synchronized (this) {
+			Facts facts = fFacts.get(type);
+			if (facts != null && facts.superclasses != null) {
+				fHits++;
+				return facts;
+			}
+			fMisses++;
+			epoch = fEpoch;
+		}
+		// the hierarchy is built without holding the lock, the listener is not blocked
+		ITypeHierarchy hierarchy = type.newSupertypeHierarchy(new NullProgressMonitor());
+		Set<String> superclasses = new HashSet<>();
+		for (IType superclass : hierarchy.getAllSuperclasses(type)) {
+			superclasses.add(superclass.getFullyQualifiedName());
+			superclasses.add(superclass.getElementName());
+		}
+		Set<String> interfaces = new HashSet<>();
+		for (IType superInterface : hierarchy.getAllInterfaces()) {
+			interfaces.add(superInterface.getFullyQualifiedName());
+		}
+		synchronized (this) {
+			Facts facts = fEpoch == epoch ? getFacts(type) : new Facts();
+			facts.superclasses = Collections.unmodifiableSet(superclasses);
+			facts.interfaces = Collections.unmodifiableSet(interfaces);
+			return facts;
+		}
+	}
+
+	/**
+	 * Returns the cached facts about the given type, adding them if needed.
+	 * Must be called holding the lock of this cache.
+	 */
+	private Facts getFacts(IType type) {
+		Facts facts = fFacts.get(type);
+		if (facts == null) {
+			facts = new Facts();
+			fFacts.put(type, facts);
+		}
+		return facts;
+	}
+
+	/**
+	 * Drops the facts about the types of the given compilation units and class
+	 * files
+	 */
+	private synchronized void remove(Set<IJavaElement> openables) {
+		if (fFacts.keySet().removeIf(type -> openables.contains(type.getOpenable()))) {
+			fEpoch++;
+		}
+	}
+
+	/**
+	 * Returns whether the given delta may change the supertypes of any type,
+	 * else collects the compilation units and class files whose types may have
+	 * changed
+	 */
+	static boolean affectsAllTypes(IJavaElementDelta delta, Set<IJavaElement> changed) {
+		IJavaElement element = delta.getElement();
+		int kind = delta.getKind();
+		int flags = delta.getFlags();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				break;
+			case IJavaElement.JAVA_PROJECT:
+				if (kind != IJavaElementDelta.CHANGED || (flags & PROJECT_FLAGS) != 0) {
+					return true;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (kind != IJavaElementDelta.CHANGED || (flags & ROOT_FLAGS) != 0) {
+					return true;
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				if (kind != IJavaElementDelta.CHANGED) {
+					return true;
+				}
+				if ((flags & IJavaElementDelta.F_CONTENT) != 0 && (flags & IJavaElementDelta.F_FINE_GRAINED) == 0) {
+					// no telling what changed in the unit
+					return true;
+				}
+				changed.add(element.getPrimaryElement());
+				break;
+			case IJavaElement.CLASS_FILE:
+				// binary supertypes may have changed
+				return true;
+			case IJavaElement.TYPE:
+				if (kind != IJavaElementDelta.CHANGED || (flags & IJavaElementDelta.F_SUPER_TYPES) != 0) {
+					return true;
+				}
+				break;
+			case IJavaElement.METHOD:
+			case IJavaElement.FIELD:
+			case IJavaElement.INITIALIZER:
+			case IJavaElement.ANNOTATION:
+			case IJavaElement.TYPE_PARAMETER:
+				// facts about the type of the enclosing unit, collected above
+				return false;
+			default:
+				// packages, imports and package declarations change how supertypes resolve
+				if (kind != IJavaElementDelta.CHANGED) {
+					return true;
+				}
+				break;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (affectsAllTypes(child, changed)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Determines if the given type or one of its static member classes
+	 * declares a main method
+	 */
+	private static boolean computeHasMain(IType type) throws CoreException {
+		if (hasMainMethod(type)) {
+			return true;
+		}
+		//failed to find in public type, check static inner types
+		IJavaElement[] children = type.getChildren();
+		for (int i = 0; i < children.length; i++) {
+			if (children[i].getElementType() == IJavaElement.TYPE && hasMainInChildren((IType) children[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns if the specified <code>IType</code> has a main method
+	 * @param type the type to inspect for a main type
+	 * @return true if the specified type has a main method, false otherwise
+	 * @throws JavaModelException if there is an error in the backing Java model
+	 */
+	private static boolean hasMainMethod(IType type) throws JavaModelException {
+		IMethod[] methods = type.getMethods();
+		for (int i= 0; i < methods.length; i++) {
+			if(methods[i].isMainMethod()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * This method asks the specified <code>IType</code> if it has a main method, if not it recurses through all of its children
+	 * When recursing we only care about child <code>IType</code>s that are static.
+	 * @param type the <code>IType</code> to inspect for a main method
+	 * @return true if a main method was found in specified <code>IType</code>, false otherwise
+	 * @throws CoreException if there is an error
+	 */
+	private static boolean hasMainInChildren(IType type) throws CoreException {
+		if(type.isClass() & Flags.isStatic(type.getFlags())) {
+			if(hasMainMethod(type)) {
+				return true;
+			}
+			IJavaElement[] children = type.getChildren();
+			for(int i = 0; i < children.length; i++) {
+				if(children[i].getElementType() == IJavaElement.TYPE) {
+					return hasMainInChildren((IType) children[i]);
+				}
+			}
+		}
+		return false;
+	}
+}
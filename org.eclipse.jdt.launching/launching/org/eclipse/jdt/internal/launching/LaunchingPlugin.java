@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,25 +14,17 @@
 package org.eclipse.jdt.internal.launching;
 
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -87,12 +79,6 @@ import org.eclipse.osgi.service.debug.DebugTrace;
 import org.eclipse.osgi.util.NLS;
 import org.osgi.framework.BundleContext;
 import org.osgi.service.prefs.BackingStoreException;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
 @SuppressWarnings("deprecation")
@@ -103,8 +89,14 @@ public class LaunchingPlugin extends Plugin implements DebugOptionsListener, IEc
 	 */
 	public static boolean DEBUG = false;
 	public static boolean DEBUG_JRE_CONTAINER = false;
+	public static boolean DEBUG_CLASSPATH_CACHE = false;
+	public static boolean DEBUG_SOURCE_LOOKUP_CACHE = false;
+	public static boolean DEBUG_CLASSPATH_SHORTENER = false;
 
 	public static final String DEBUG_JRE_CONTAINER_FLAG = "org.eclipse.jdt.launching/debug/classpath/jreContainer"; //$NON-NLS-1$
+	public static final String DEBUG_CLASSPATH_CACHE_FLAG = "org.eclipse.jdt.launching/debug/classpath/cache"; //$NON-NLS-1$
+	public static final String DEBUG_SOURCE_LOOKUP_CACHE_FLAG = "org.eclipse.jdt.launching/debug/sourceLookup/cache"; //$NON-NLS-1$
+	public static final String DEBUG_CLASSPATH_SHORTENER_FLAG = "org.eclipse.jdt.launching/debug/classpath/shortener"; //$NON-NLS-1$
 	public static final String DEBUG_FLAG = "org.eclipse.jdt.launching/debug"; //$NON-NLS-1$
 
 	/**
@@ -155,26 +147,15 @@ public class LaunchingPlugin extends Plugin implements DebugOptionsListener, IEc
 	private static final String EMPTY_STRING = "";    //$NON-NLS-1$
 
 	/**
-	 * Mapping of top-level VM installation directories to library info for that
-	 * VM.
-	 */
-	private static Map<String, LibraryInfo> fgLibraryInfoMap = null;
-
-	/**
-	 * Mapping of the last time the directory of a given SDK was modified.
-	 * <br><br>
-	 * Mapping: <code>Map&lt;String,Long&gt;</code>
-	 * @since 3.7
-	 */
-	private static Map<String, Long> fgInstallTimeMap = null;
-	/**
-	 * List of install locations that have been detected to have changed
+	 * Library information of VM installs by top-level installation directory,
+	 * created on first access.
 	 *
-	 * @since 3.7
+	 * @since 3.14
 	 */
-	private static HashSet<String> fgHasChanged = new HashSet<>();
+	private static LibraryInfoStore fgLibraryInfoStore = null;
+
 	/**
-	 * Mutex for checking the time stamp of an install location
+	 * Mutex for creating the library information store
 	 *
 	 * @since 3.7
 	 */
@@ -425,10 +406,7 @@ public class LaunchingPlugin extends Plugin implements DebugOptionsListener, IEc
 	 * path, or <code>null</code> if none
 	 */
 	public static LibraryInfo getLibraryInfo(String javaInstallPath) {
-		if (fgLibraryInfoMap == null) {
-			restoreLibraryInfo();
-		}
-		return fgLibraryInfoMap.get(javaInstallPath);
+		return getLibraryInfoStore().get(javaInstallPath);
 	}
 
 	/**
@@ -442,22 +420,8 @@ public class LaunchingPlugin extends Plugin implements DebugOptionsListener, IEc
 		if (isVMLogging()) {
 			LaunchingPlugin.log(LaunchingMessages.VMLogging_2 + javaInstallPath);
 		}
-		if (fgLibraryInfoMap == null) {
-			restoreLibraryInfo();
-		}
-		if (info == null) {
-			fgLibraryInfoMap.remove(javaInstallPath);
-			if(fgInstallTimeMap != null) {
-				fgInstallTimeMap.remove(javaInstallPath);
-				writeInstallInfo();
-			}
-
-		} else {
-			fgLibraryInfoMap.put(javaInstallPath, info);
-		}
 		//once the library info has been set we can forget it has changed
-		fgHasChanged.remove(javaInstallPath);
-		saveLibraryInfo();
+		getLibraryInfoStore().put(javaInstallPath, info);
 	}
 
 	public static boolean isVMLogging() {
@@ -534,6 +498,9 @@ public class LaunchingPlugin extends Plugin implements DebugOptionsListener, IEc
 	public void stop(BundleContext context) throws Exception {
 		try {
 			AdvancedSourceLookupSupport.stop();
+			RuntimeClasspathCache.stop();
+			SourceLookupCache.stop();
+			LaunchableTypeCache.stop();
 
 			DebugPlugin.getDefault().getLaunchManager().removeLaunchListener(this);
 			DebugPlugin.getDefault().removeDebugEventListener(this);
@@ -572,8 +539,6 @@ public class LaunchingPlugin extends Plugin implements DebugOptionsListener, IEc
 				} catch (BackingStoreException e) {
 					log(e);
 				}
-				//catch in case any install times are still cached for removed JREs
-				writeInstallInfo();
 			}
 		});
 
@@ -584,6 +549,9 @@ public class LaunchingPlugin extends Plugin implements DebugOptionsListener, IEc
 		DebugPlugin.getDefault().addDebugEventListener(this);
 
 		AdvancedSourceLookupSupport.start();
+		RuntimeClasspathCache.start();
+		SourceLookupCache.start();
+		LaunchableTypeCache.start();
 	}
 
 	/**
@@ -847,317 +815,42 @@ public class LaunchingPlugin extends Plugin implements DebugOptionsListener, IEc
 	}
 
 	/**
-	 * Return the VM definitions contained in this object as a String of XML.  The String
-	 * is suitable for storing in the workbench preferences.
-	 * <p>
-	 * The resulting XML is compatible with the static method <code>parseXMLIntoContainer</code>.
-	 * </p>
-	 * @return String the results of flattening this object into XML
-	 * @throws CoreException if this method fails. Reasons include:<ul>
-	 * <li>serialization of the XML document failed</li>
-	 * </ul>
-	 */
-	private static String getLibraryInfoAsXML() throws CoreException {
-
-		Document doc = DebugPlugin.newDocument();
-		Element config = doc.createElement("libraryInfos");    //$NON-NLS-1$
-		doc.appendChild(config);
-
-		// Create a node for each info in the table
-		Iterator<String> locations = fgLibraryInfoMap.keySet().iterator();
-		while (locations.hasNext()) {
-			String home = locations.next();
-			LibraryInfo info = fgLibraryInfoMap.get(home);
-			Element locationElemnet = infoAsElement(doc, info);
-			locationElemnet.setAttribute("home", home); //$NON-NLS-1$
-			config.appendChild(locationElemnet);
-		}
-
-		// Serialize the Document and return the resulting String
-		return DebugPlugin.serializeDocument(doc);
-	}
-
-	/**
-	 * Creates an XML element for the given info.
-	 *
-	 * @param doc the backing {@link Document}
-	 * @param info the {@link LibraryInfo} to add to the {@link Document}
-	 * @return Element
-	 */
-	private static Element infoAsElement(Document doc, LibraryInfo info) {
-		Element libraryElement = doc.createElement("libraryInfo"); //$NON-NLS-1$
-		libraryElement.setAttribute("version", info.getVersion()); //$NON-NLS-1$
-		appendPathElements(doc, "bootpath", libraryElement, info.getBootpath()); //$NON-NLS-1$
-		appendPathElements(doc, "extensionDirs", libraryElement, info.getExtensionDirs()); //$NON-NLS-1$
-		appendPathElements(doc, "endorsedDirs", libraryElement, info.getEndorsedDirs()); //$NON-NLS-1$
-		return libraryElement;
-	}
-
-	/**
-	 * Appends path elements to the given library element, rooted by an
-	 * element of the given type.
-	 *
-	 * @param doc the backing {@link Document}
-	 * @param elementType the kind of {@link Element} to create
-	 * @param libraryElement the {@link Element} describing a given {@link LibraryInfo} object
-	 * @param paths the paths to add
-	 */
-	private static void appendPathElements(Document doc, String elementType, Element libraryElement, String[] paths) {
-		if (paths.length > 0) {
-			Element child = doc.createElement(elementType);
-			libraryElement.appendChild(child);
-			for (int i = 0; i < paths.length; i++) {
-				String path = paths[i];
-				Element entry = doc.createElement("entry"); //$NON-NLS-1$
-				child.appendChild(entry);
-				entry.setAttribute("path", path); //$NON-NLS-1$
-			}
-		}
-	}
-
-	/**
-	 * Saves the library info in a local workspace state location
-	 */
-	private static void saveLibraryInfo() {
-		try {
-			String xml = getLibraryInfoAsXML();
-			IPath libPath = getDefault().getStateLocation();
-			libPath = libPath.append("libraryInfos.xml"); //$NON-NLS-1$
-			File file = libPath.toFile();
-			if (!file.exists()) {
-				file.createNewFile();
-			}
-			try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(file))) {
-				stream.write(xml.getBytes("UTF8")); //$NON-NLS-1$
-			}
-		} catch (IOException e) {
-			log(e);
-		}  catch (CoreException e) {
-			log(e);
-		}
-	}
-
-	/**
-	 * Restores library information for VMs
-	 */
-	private static void restoreLibraryInfo() {
-		fgLibraryInfoMap = new HashMap<>(10);
-		IPath libPath = getDefault().getStateLocation();
-		libPath = libPath.append("libraryInfos.xml"); //$NON-NLS-1$
-		File file = libPath.toFile();
-		if (file.exists()) {
-			try {
-				InputStream stream = new BufferedInputStream(new FileInputStream(file));
-				DocumentBuilder parser = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-				parser.setErrorHandler(new DefaultHandler());
-				Element root = parser.parse(new InputSource(stream)).getDocumentElement();
-				if(!root.getNodeName().equals("libraryInfos")) { //$NON-NLS-1$
-					return;
-				}
-
-				NodeList list = root.getChildNodes();
-				int length = list.getLength();
-				for (int i = 0; i < length; ++i) {
-					Node node = list.item(i);
-					short type = node.getNodeType();
-					if (type == Node.ELEMENT_NODE) {
-						Element element = (Element) node;
-						String nodeName = element.getNodeName();
-						if (nodeName.equalsIgnoreCase("libraryInfo")) { //$NON-NLS-1$
-							String version = element.getAttribute("version"); //$NON-NLS-1$
-							String location = element.getAttribute("home"); //$NON-NLS-1$
-							String[] bootpath = getPathsFromXML(element, "bootpath"); //$NON-NLS-1$
-							String[] extDirs = getPathsFromXML(element, "extensionDirs"); //$NON-NLS-1$
-							String[] endDirs = getPathsFromXML(element, "endorsedDirs"); //$NON-NLS-1$
-							if (location != null) {
-								if (isVMLogging()) {
-									LaunchingPlugin.log(LaunchingMessages.VMLogging_1 + location);
-								}
-								LibraryInfo info = new LibraryInfo(version, bootpath, extDirs, endDirs);
-								fgLibraryInfoMap.put(location, info);
-							}
-						}
-					}
-				}
-			} catch (IOException e) {
-				log(e);
-			} catch (ParserConfigurationException e) {
-				log(e);
-			} catch (SAXException e) {
-				log(e);
-			}
-		}
-	}
-
-	/**
-	 * Checks to see if the time stamp of the file describe by the given location string
-	 * has been modified since the last recorded time stamp. If there is no last recorded
-	 * time stamp we assume it has changed. See https://bugs.eclipse.org/bugs/show_bug.cgi?id=266651 for more information
+	 * Checks to see if the install described by the given location string has
+	 * been modified since its library information was recorded. The install is
+	 * compared by the modification time of its directory and the size and
+	 * modification time of its <code>release</code> and <code>lib/modules</code>
+	 * files. If there is no recorded information the install is recorded as it
+	 * is now and is not considered changed. See
+	 * https://bugs.eclipse.org/bugs/show_bug.cgi?id=266651 for more information
 	 *
 	 * @param location the location of the SDK we want to check the time stamp for
-	 * @return <code>true</code> if the time stamp has changed compared to the cached one or if there is
-	 * no recorded time stamp, <code>false</code> otherwise.
+	 * @return <code>true</code> if the install has changed compared to the recorded one,
+	 * <code>false</code> otherwise.
 	 *
 	 * @since 3.7
 	 */
 	public static boolean timeStampChanged(String location) {
-		synchronized (installLock) {
-			if(fgHasChanged.contains(location)) {
-				return true;
-			}
-			File file = new File(location);
-			if(file.exists()) {
-				if(fgInstallTimeMap == null) {
-					readInstallInfo();
-				}
-				Long stamp = fgInstallTimeMap.get(location);
-				long fstamp = file.lastModified();
-				if(stamp != null) {
-					if(stamp.longValue() == fstamp) {
-						return false;
-					}
-				}
-				//if there is no recorded stamp we have to assume it is new
-				stamp = new Long(fstamp);
-				fgInstallTimeMap.put(location, stamp);
-				writeInstallInfo();
-				fgHasChanged.add(location);
-				return true;
-			}
-		}
-		return false;
+		return getLibraryInfoStore().hasChanged(location);
 	}
 
 	/**
-	 * Reads the file of saved time stamps and populates the {@link #fgInstallTimeMap}.
-	 * See https://bugs.eclipse.org/bugs/show_bug.cgi?id=266651 for more information
+	 * Returns the store of library information, restoring it from the local
+	 * workspace state location on first access.
 	 *
-	 * @since 3.7
+	 * @return the store of library information
+	 * @since 3.14
 	 */
-	private static void readInstallInfo() {
-		fgInstallTimeMap = new HashMap<>();
-		IPath libPath = getDefault().getStateLocation();
-		libPath = libPath.append(".install.xml"); //$NON-NLS-1$
-		File file = libPath.toFile();
-		if (file.exists()) {
-			try {
-				InputStream stream = new BufferedInputStream(new FileInputStream(file));
-				DocumentBuilder parser = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-				parser.setErrorHandler(new DefaultHandler());
-				Element root = parser.parse(new InputSource(stream)).getDocumentElement();
-				if(root.getNodeName().equalsIgnoreCase("dirs")) { //$NON-NLS-1$
-					NodeList nodes = root.getChildNodes();
-					Node node = null;
-					Element element = null;
-					for (int i = 0; i < nodes.getLength(); i++) {
-						node = nodes.item(i);
-						if(node.getNodeType() == Node.ELEMENT_NODE) {
-							element = (Element) node;
-							if(element.getNodeName().equalsIgnoreCase("entry")) { //$NON-NLS-1$
-								String loc = element.getAttribute("loc"); //$NON-NLS-1$
-								String stamp = element.getAttribute("stamp"); //$NON-NLS-1$
-								try {
-									Long l = new Long(stamp);
-									fgInstallTimeMap.put(loc, l);
-								}
-								catch(NumberFormatException nfe) {
-								//do nothing
-								}
-							}
-						}
-					}
-				}
-			} catch (IOException e) {
-				log(e);
-			} catch (ParserConfigurationException e) {
-				log(e);
-			} catch (SAXException e) {
-				log(e);
-			}
-		}
-	}
-
-	/**
-	 * Writes out the mappings of SDK install time stamps to disk. See
-	 * https://bugs.eclipse.org/bugs/show_bug.cgi?id=266651 for more information.
-	 *
-	 * @since 3.7
-	 */
-	private static void writeInstallInfo() {
-		if(fgInstallTimeMap != null) {
-			try {
-				Document doc = DebugPlugin.newDocument();
-				Element root = doc.createElement("dirs");    //$NON-NLS-1$
-				doc.appendChild(root);
-				Entry<String, Long> entry = null;
-				Element e = null;
-				String key = null;
-				for(Iterator<Entry<String, Long>> i = fgInstallTimeMap.entrySet().iterator(); i.hasNext();) {
-					entry = i.next();
-					key = entry.getKey();
-					if(fgLibraryInfoMap == null || fgLibraryInfoMap.containsKey(key)) {
-						//only persist the info if the library map also has info OR is null - prevent persisting deleted JRE information
-						e = doc.createElement("entry"); //$NON-NLS-1$
-						root.appendChild(e);
-						e.setAttribute("loc", key); //$NON-NLS-1$
-						e.setAttribute("stamp", entry.getValue().toString()); //$NON-NLS-1$
-					}
-				}
-				String xml = DebugPlugin.serializeDocument(doc);
-				IPath libPath = getDefault().getStateLocation();
-				libPath = libPath.append(".install.xml"); //$NON-NLS-1$
-				File file = libPath.toFile();
-				if (!file.exists()) {
-					file.createNewFile();
-				}
-				try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(file))) {
-					stream.write(xml.getBytes("UTF8")); //$NON-NLS-1$
-				}
-			} catch (IOException e) {
-				log(e);
-			}  catch (CoreException e) {
-				log(e);
-			}
-		}
-	}
-
-	/**
-	 * Returns paths stored in XML
-	 * @param lib the library path in {@link Element} form
-	 * @param pathType the type of the path
-	 * @return paths stored in XML
-	 */
-	private static String[] getPathsFromXML(Element lib, String pathType) {
-		List<String> paths = new ArrayList<>();
-		NodeList list = lib.getChildNodes();
-		int length = list.getLength();
-		for (int i = 0; i < length; ++i) {
-			Node node = list.item(i);
-			short type = node.getNodeType();
-			if (type == Node.ELEMENT_NODE) {
-				Element element = (Element) node;
-				String nodeName = element.getNodeName();
-				if (nodeName.equalsIgnoreCase(pathType)) {
-					NodeList entries = element.getChildNodes();
-					int numEntries = entries.getLength();
-					for (int j = 0; j < numEntries; j++) {
-						Node n = entries.item(j);
-						short t = n.getNodeType();
-						if (t == Node.ELEMENT_NODE) {
-							Element entryElement = (Element)n;
-							String name = entryElement.getNodeName();
-							if (name.equals("entry")) { //$NON-NLS-1$
-								String path = entryElement.getAttribute("path"); //$NON-NLS-1$
-								if (path != null && path.length() > 0) {
-									paths.add(path);
-								}
-							}
-						}
-					}
-				}
+	private static LibraryInfoStore getLibraryInfoStore() {
+		synchronized (installLock) {
+			if (fgLibraryInfoStore == null) {
+				IPath stateLocation = getDefault().getStateLocation();
+				fgLibraryInfoStore = new LibraryInfoStore(stateLocation.append("libraryInfos").toFile()); //$NON-NLS-1$
+				// library information and time stamps used to be kept in XML files
+				fgLibraryInfoStore.migrate(stateLocation.append("libraryInfos.xml").toFile(), //$NON-NLS-1$
+						stateLocation.append(".install.xml").toFile()); //$NON-NLS-1$
 			}
+			return fgLibraryInfoStore;
 		}
-		return paths.toArray(new String[paths.size()]);
 	}
 
 	/* (non-Javadoc)
@@ -1326,6 +1019,9 @@ public class LaunchingPlugin extends Plugin implements DebugOptionsListener, IEc
 	public void optionsChanged(DebugOptions options) {
 		DEBUG = options.getBooleanOption(DEBUG_FLAG, false);
 		DEBUG_JRE_CONTAINER = DEBUG && options.getBooleanOption(DEBUG_JRE_CONTAINER_FLAG, false);
+		DEBUG_CLASSPATH_CACHE = DEBUG && options.getBooleanOption(DEBUG_CLASSPATH_CACHE_FLAG, false);
+		DEBUG_SOURCE_LOOKUP_CACHE = DEBUG && options.getBooleanOption(DEBUG_SOURCE_LOOKUP_CACHE_FLAG, false);
+		DEBUG_CLASSPATH_SHORTENER = DEBUG && options.getBooleanOption(DEBUG_CLASSPATH_SHORTENER_FLAG, false);
 	}
 
 	/**
@@ -0,0 +1,388 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.launching;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Persistent cache of the {@link LibraryInfo} of VM installs by install path.
+ * <p>
+ * Each install is stored in a small binary file of its own, together with a
+ * fingerprint of the install, so that storing the information of one install
+ * does not rewrite the others. The fingerprint is made of the modification
+ * time of the install directory and the size and modification time of its
+ * <code>release</code> and <code>lib/modules</code> files. An install whose
+ * fingerprint differs from the stored one is reported as changed until new
+ * information is stored for it. An install without stored information is
+ * not reported as changed: its fingerprint is recorded when first checked.
+ * </p>
+ * <p>
+ * The information kept in the <code>libraryInfos.xml</code> and
+ * <code>.install.xml</code> files of earlier versions is migrated once.
+ * </p>
+ *
+ * @since 3.14
+ */
+public class LibraryInfoStore {
+
+	/**
+	 * Version of the format of the stored files
+	 */
+	private static final int FORMAT_VERSION = 1;
+
+	/**
+	 * Extension of the stored files
+	 */
+	private static final String FILE_EXTENSION = ".info"; //$NON-NLS-1$
+
+	/**
+	 * Directory holding one file per install
+	 */
+	private final File fDirectory;
+
+	/**
+	 * Library information by install path
+	 */
+	private final Map<String, LibraryInfo> fInfos = new ConcurrentHashMap<>();
+
+	/**
+	 * Fingerprints of the installs by install path, as stored or as last seen
+	 * for changed installs. Guarded by this store.
+	 */
+	private final Map<String, String> fFingerprints = new ConcurrentHashMap<>();
+
+	/**
+	 * Install paths whose fingerprint changed since their information was
+	 * stored. Guarded by this store.
+	 */
+	private final Set<String> fChanged = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Creates a store and restores the information kept in the given
+	 * directory.
+	 *
+	 * @param directory
+	 *            the directory holding the stored files, created on demand
+	 */
+	LibraryInfoStore(File directory) {
+		fDirectory = directory;
+		restore();
+	}
+
+	/**
+	 * Returns the library information of the given install, or
+	 * <code>null</code> if none.
+	 *
+	 * @param installPath
+	 *            the absolute path of the install
+	 * @return the library information or <code>null</code>
+	 */
+	LibraryInfo get(String installPath) {
+		return fInfos.get(installPath);
+	}
+
+	/**
+	 * Stores the library information of the given install along with its
+	 * current fingerprint, or removes it.
+	 *
+	 * @param installPath
+	 *            the absolute path of the install
+	 * @param info
+	 *            the library information, or <code>null</code> to remove
+	 */
+	void put(String installPath, LibraryInfo info) {
+		File file = fileFor(installPath);
+		if (info == null) {
+			synchronized (this) {
+				fInfos.remove(installPath);
+				fFingerprints.remove(installPath);
+				fChanged.remove(installPath);
+			}
+			file.delete();
+			return;
+		}
+		String fingerprint = fingerprint(new File(installPath));
+		synchronized (this) {
+			fInfos.put(installPath, info);
+			fFingerprints.put(installPath, fingerprint);
+			fChanged.remove(installPath);
+		}
+		try {
+			write(file, installPath, fingerprint, info);
+		} catch (IOException e) {
+			LaunchingPlugin.log(e);
+		}
+	}
+
+	/**
+	 * Migrates the library information and install time stamps kept in the
+	 * XML files of earlier versions, then deletes the files. The information
+	 * of an install is only kept if the modification time of its directory is
+	 * the recorded one, otherwise the install is probed again.
+	 *
+	 * @param libraryInfos
+	 *            the former <code>libraryInfos.xml</code> file
+	 * @param installTimes
+	 *            the former <code>.install.xml</code> file
+	 */
+	void migrate(File libraryInfos, File installTimes) {
+		if (!libraryInfos.exists()) {
+			installTimes.delete();
+			return;
+		}
+		try {
+			Map<String, Long> stamps = new HashMap<>();
+			if (installTimes.exists()) {
+				Element root = parse(installTimes);
+				if (root.getNodeName().equalsIgnoreCase("dirs")) { //$NON-NLS-1$
+					for (Element entry : getChildElements(root, "entry")) { //$NON-NLS-1$
+						try {
+							stamps.put(entry.getAttribute("loc"), Long.valueOf(entry.getAttribute("stamp"))); //$NON-NLS-1$ //$NON-NLS-2$
+						} catch (NumberFormatException e) {
+							// not recorded
+						}
+					}
+				}
+			}
+			Map<String, LibraryInfo> infos = new HashMap<>();
+			Element root = parse(libraryInfos);
+			if (root.getNodeName().equals("libraryInfos")) { //$NON-NLS-1$
+				for (Element element : getChildElements(root, "libraryInfo")) { //$NON-NLS-1$
+					String location = element.getAttribute("home"); //$NON-NLS-1$
+					if (location.length() > 0) {
+						infos.put(location, new LibraryInfo(element.getAttribute("version"), //$NON-NLS-1$
+								getPaths(element, "bootpath"), //$NON-NLS-1$
+								getPaths(element, "extensionDirs"), //$NON-NLS-1$
+								getPaths(element, "endorsedDirs"))); //$NON-NLS-1$
+					}
+				}
+			}
+			for (Entry<String, LibraryInfo> entry : infos.entrySet()) {
+				String installPath = entry.getKey();
+				File home = new File(installPath);
+				Long stamp = stamps.get(installPath);
+				if (fInfos.containsKey(installPath) || !home.exists() || stamp == null || stamp.longValue() != home.lastModified()) {
+					continue;
+				}
+				if (LaunchingPlugin.isVMLogging()) {
+					LaunchingPlugin.log(LaunchingMessages.VMLogging_1 + installPath);
+				}
+				put(installPath, entry.getValue());
+			}
+		} catch (IOException | ParserConfigurationException | SAXException e) {
+			LaunchingPlugin.log(e);
+		}
+		libraryInfos.delete();
+		installTimes.delete();
+	}
+
+	/**
+	 * Returns whether the given install changed since its information was
+	 * stored. An install without a stored fingerprint is not considered
+	 * changed, its current fingerprint is recorded instead.
+	 *
+	 * @param installPath
+	 *            the absolute path of the install
+	 * @return whether the install changed, <code>false</code> if it does not
+	 *         exist
+	 */
+	synchronized boolean hasChanged(String installPath) {
+		if (fChanged.contains(installPath)) {
+			return true;
+		}
+		File home = new File(installPath);
+		if (!home.exists()) {
+			return false;
+		}
+		String fingerprint = fingerprint(home);
+		String stored = fFingerprints.get(installPath);
+		if (stored == null) {
+			// nothing recorded yet, compare against the install as it is now
+			fFingerprints.put(installPath, fingerprint);
+			return false;
+		}
+		if (fingerprint.equals(stored)) {
+			return false;
+		}
+		fFingerprints.put(installPath, fingerprint);
+		fChanged.add(installPath);
+		return true;
+	}
+
+	/**
+	 * Returns the fingerprint of the given install.
+	 *
+	 * @param home
+	 *            the install directory
+	 * @return the fingerprint
+	 */
+	public static String fingerprint(File home) {
+		File release = new File(home, "release"); //$NON-NLS-1$
+		File modules = new File(new File(home, "lib"), "modules"); //$NON-NLS-1$ //$NON-NLS-2$
+		StringBuilder buf = new StringBuilder();
+		buf.append(home.lastModified());
+		buf.append(';').append(release.length()).append(':').append(release.lastModified());
+		buf.append(';').append(modules.length()).append(':').append(modules.lastModified());
+		return buf.toString();
+	}
+
+	/**
+	 * Returns the file storing the information of the given install.
+	 */
+	private File fileFor(String installPath) {
+		return new File(fDirectory, UUID.nameUUIDFromBytes(installPath.getBytes(StandardCharsets.UTF_8)) + FILE_EXTENSION);
+	}
+
+	/**
+	 * Reads all stored files, deleting those that cannot be read.
+	 */
+	private void restore() {
+		File[] files = fDirectory.listFiles((dir, name) -> name.endsWith(FILE_EXTENSION));
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+				if (in.readInt() != FORMAT_VERSION) {
+					file.delete();
+					continue;
+				}
+				String installPath = in.readUTF();
+				String fingerprint = in.readUTF();
+				String version = in.readUTF();
+				String[] bootpath = readPaths(in);
+				String[] extDirs = readPaths(in);
+				String[] endDirs = readPaths(in);
+				if (LaunchingPlugin.isVMLogging()) {
+					LaunchingPlugin.log(LaunchingMessages.VMLogging_1 + installPath);
+				}
+				fInfos.put(installPath, new LibraryInfo(version, bootpath, extDirs, endDirs));
+				fFingerprints.put(installPath, fingerprint);
+			} catch (IOException e) {
+				file.delete();
+			}
+		}
+	}
+
+	/**
+	 * Writes the information of an install to a temporary file that then
+	 * replaces the given file, so that an interrupted write does not leave a
+	 * truncated file behind.
+	 */
+	private void write(File file, String installPath, String fingerprint, LibraryInfo info) throws IOException {
+		fDirectory.mkdirs();
+		File temp = File.createTempFile("library", ".tmp", fDirectory); //$NON-NLS-1$ //$NON-NLS-2$
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(installPath);
+				out.writeUTF(fingerprint);
+				out.writeUTF(info.getVersion());
+				writePaths(out, info.getBootpath());
+				writePaths(out, info.getExtensionDirs());
+				writePaths(out, info.getEndorsedDirs());
+			}
+			try {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			temp.delete();
+		}
+	}
+
+	private static Element parse(File file) throws IOException, ParserConfigurationException, SAXException {
+		DocumentBuilder parser = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+		parser.setErrorHandler(new DefaultHandler());
+		return parser.parse(file).getDocumentElement();
+	}
+
+	/**
+	 * Returns the child elements of the given element with the given name,
+	 * ignoring case.
+	 */
+	private static List<Element> getChildElements(Element parent, String name) {
+		List<Element> elements = new ArrayList<>();
+		NodeList nodes = parent.getChildNodes();
+		for (int i = 0; i < nodes.getLength(); i++) {
+			Node node = nodes.item(i);
+			if (node.getNodeType() == Node.ELEMENT_NODE && node.getNodeName().equalsIgnoreCase(name)) {
+				elements.add((Element) node);
+			}
+		}
+		return elements;
+	}
+
+	/**
+	 * Returns the paths of the entries of the given type of a former
+	 * <code>libraryInfo</code> element.
+	 */
+	private static String[] getPaths(Element library, String pathType) {
+		List<String> paths = new ArrayList<>();
+		for (Element element : getChildElements(library, pathType)) {
+			for (Element entry : getChildElements(element, "entry")) { //$NON-NLS-1$
+				String path = entry.getAttribute("path"); //$NON-NLS-1$
+				if (path.length() > 0) {
+					paths.add(path);
+				}
+			}
+		}
+		return paths.toArray(new String[paths.size()]);
+	}
+
+	private static void writePaths(DataOutputStream out, String[] paths) throws IOException {
+		out.writeInt(paths.length);
+		for (String path : paths) {
+			out.writeUTF(path);
+		}
+	}
+
+	private static String[] readPaths(DataInputStream in) throws IOException {
+		String[] paths = new String[in.readInt()];
+		for (int i = 0; i < paths.length; i++) {
+			paths[i] = in.readUTF();
+		}
+		return paths;
+	}
+}
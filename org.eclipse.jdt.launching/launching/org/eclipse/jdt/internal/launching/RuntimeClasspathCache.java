@@ -0,0 +1,401 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.launching;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchConfigurationListener;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
+import org.eclipse.jdt.launching.IRuntimeClasspathEntry;
+
+/**
+ * Workspace wide cache of the resolved default classpath of Java projects.
+ * <p>
+ * Resolving the default classpath of a project expands the classpath of all
+ * the projects it requires, container by container. The result is cached per
+ * project, context, test code exclusion, classpath property and exported
+ * entries setting, and either per launch configuration or for the project
+ * context alone. A result is dropped as soon as the classpath of one of the
+ * projects it was computed from changes, including updates of their classpath
+ * containers and variables, or when its launch configuration changes.
+ * </p>
+ * <p>
+ * Only results computed outside of the resolution of another container are
+ * cached, since nested resolutions skip the projects already visited. Results
+ * involving modular projects or entries other than plain runtime classpath
+ * entries are not cached either.
+ * </p>
+ *
+ * @since 3.14
+ */
+public class RuntimeClasspathCache implements IElementChangedListener, ILaunchConfigurationListener {
+
+	/**
+	 * Computes a resolution that is not cached.
+	 */
+	public interface Resolver {
+		/**
+		 * @return the resolved entries
+		 * @throws CoreException if unable to resolve
+		 */
+		IRuntimeClasspathEntry[] resolve() throws CoreException;
+	}
+
+	/**
+	 * Identifies a resolution
+	 */
+	private static final class Key {
+		final String fProject;
+		final String fContext;
+		final ILaunchConfiguration fConfiguration;
+		final boolean fExcludeTestCode;
+		final boolean fExportedEntriesOnly;
+		final int fClasspathProperty;
+
+		Key(String project, String context, ILaunchConfiguration configuration, boolean excludeTestCode, boolean exportedEntriesOnly, int classpathProperty) {
+			fProject = project;
+			fContext = context;
+			fConfiguration = configuration;
+			fExcludeTestCode = excludeTestCode;
+			fExportedEntriesOnly = exportedEntriesOnly;
+			fClasspathProperty = classpathProperty;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) obj;
+			return fProject.equals(key.fProject) && Objects.equals(fContext, key.fContext)
+					&& Objects.equals(fConfiguration, key.fConfiguration) && fExcludeTestCode == key.fExcludeTestCode
+					&& fExportedEntriesOnly == key.fExportedEntriesOnly && fClasspathProperty == key.fClasspathProperty;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(fProject, fContext, fConfiguration, Boolean.valueOf(fExcludeTestCode), Boolean.valueOf(fExportedEntriesOnly), Integer.valueOf(fClasspathProperty));
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder buf = new StringBuilder(fProject);
+			if (fConfiguration != null) {
+				buf.append(" in ").append(fConfiguration.getName()); //$NON-NLS-1$
+			} else if (fContext != null) {
+				buf.append(" in ").append(fContext); //$NON-NLS-1$
+			}
+			buf.append(" (excludeTestCode=").append(fExcludeTestCode); //$NON-NLS-1$
+			buf.append(", exportedEntriesOnly=").append(fExportedEntriesOnly); //$NON-NLS-1$
+			buf.append(", property=").append(fClasspathProperty).append(')'); //$NON-NLS-1$
+			return buf.toString();
+		}
+	}
+
+	/**
+	 * A cached resolution and the names of the projects it depends on
+	 */
+	private static final class Resolution {
+		final RuntimeClasspathEntry[] fEntries;
+		final Set<String> fProjects;
+
+		Resolution(RuntimeClasspathEntry[] entries, Set<String> projects) {
+			fEntries = entries;
+			fProjects = projects;
+		}
+	}
+
+	/**
+	 * Java project delta flags that may change the resolved classpath
+	 */
+	private static final int CLASSPATH_FLAGS = IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+			| IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED;
+
+	/**
+	 * Package fragment root delta flags that change the resolved classpath
+	 */
+	private static final int ROOT_FLAGS = IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
+	private static final String MODULE_INFO_JAVA = "module-info.java"; //$NON-NLS-1$
+
+	private static volatile RuntimeClasspathCache fgDefault;
+
+	private final Map<Key, Resolution> fResolutions = new ConcurrentHashMap<>();
+
+	/**
+	 * Incremented on each invalidation, so that a resolution computed while
+	 * the classpath changed is not cached
+	 */
+	private volatile int fGeneration = 0;
+
+	private RuntimeClasspathCache() {
+	}
+
+	public static synchronized void start() {
+		fgDefault = new RuntimeClasspathCache();
+		JavaCore.addElementChangedListener(fgDefault, ElementChangedEvent.POST_CHANGE);
+		DebugPlugin.getDefault().getLaunchManager().addLaunchConfigurationListener(fgDefault);
+	}
+
+	public static synchronized void stop() {
+		if (fgDefault != null) {
+			JavaCore.removeElementChangedListener(fgDefault);
+			DebugPlugin.getDefault().getLaunchManager().removeLaunchConfigurationListener(fgDefault);
+			fgDefault = null;
+		}
+	}
+
+	/**
+	 * Returns the resolution of the default classpath of the given entry,
+	 * cached or computed by the given resolver.
+	 *
+	 * @param entry the default classpath entry of a project
+	 * @param context the project context or <code>null</code>
+	 * @param configuration the launch configuration context or <code>null</code>
+	 * @param excludeTestCode whether test code is excluded
+	 * @param resolver computes the resolution
+	 * @return the resolved entries
+	 * @throws CoreException if unable to resolve
+	 */
+	public static IRuntimeClasspathEntry[] resolve(DefaultProjectClasspathEntry entry, IJavaProject context, ILaunchConfiguration configuration, boolean excludeTestCode, Resolver resolver) throws CoreException {
+		RuntimeClasspathCache cache = fgDefault;
+		if (cache == null || (configuration != null && configuration.isWorkingCopy())) {
+			return resolver.resolve();
+		}
+		return cache.doResolve(entry, context, configuration, excludeTestCode, resolver);
+	}
+
+	private IRuntimeClasspathEntry[] doResolve(DefaultProjectClasspathEntry entry, IJavaProject context, ILaunchConfiguration configuration, boolean excludeTestCode, Resolver resolver) throws CoreException {
+		String project = entry.getJavaProject().getElementName();
+		String contextProject = null;
+		if (configuration != null) {
+			contextProject = configuration.getAttribute(IJavaLaunchConfigurationConstants.ATTR_PROJECT_NAME, (String) null);
+		} else if (context != null) {
+			contextProject = context.getElementName();
+		}
+		Key key = new Key(project, contextProject, configuration, excludeTestCode, entry.isExportedEntriesOnly(), entry.getClasspathProperty());
+		Resolution resolution = fResolutions.get(key);
+		if (resolution != null) {
+			if (LaunchingPlugin.DEBUG_CLASSPATH_CACHE) {
+				LaunchingPlugin.trace("[classpath cache] hit: " + key); //$NON-NLS-1$
+			}
+			return copy(resolution.fEntries);
+		}
+		int generation = fGeneration;
+		IRuntimeClasspathEntry[] resolved = resolver.resolve();
+		RuntimeClasspathEntry[] entries = copyIfCacheable(resolved);
+		Set<String> projects = entries == null ? null : getRequiredProjects(project, contextProject);
+		if (projects != null) {
+			fResolutions.put(key, new Resolution(entries, projects));
+			if (generation != fGeneration) {
+				// the classpath changed while resolving, the result may be stale
+				fResolutions.remove(key);
+				projects = null;
+			}
+		}
+		if (LaunchingPlugin.DEBUG_CLASSPATH_CACHE) {
+			LaunchingPlugin.trace("[classpath cache] miss: " + key + (projects == null ? ", not cached" : ", depends on " + projects)); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return resolved;
+	}
+
+	/**
+	 * Returns the names of the given projects and of all the projects they
+	 * require, or <code>null</code> if one of them is modular.
+	 */
+	private static Set<String> getRequiredProjects(String project, String context) throws CoreException {
+		Set<String> names = new HashSet<>();
+		Deque<String> pending = new ArrayDeque<>();
+		pending.add(project);
+		if (context != null && !context.isEmpty()) {
+			pending.add(context);
+		}
+		while (!pending.isEmpty()) {
+			String name = pending.poll();
+			if (names.add(name)) {
+				IJavaProject required = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot().getProject(name));
+				if (required.exists()) {
+					if (required.getModuleDescription() != null) {
+						return null;
+					}
+					Collections.addAll(pending, required.getRequiredProjectNames());
+				}
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Returns copies of the given entries, or <code>null</code> if they cannot
+	 * be copied.
+	 */
+	private static RuntimeClasspathEntry[] copyIfCacheable(IRuntimeClasspathEntry[] entries) {
+		RuntimeClasspathEntry[] copies = new RuntimeClasspathEntry[entries.length];
+		for (int i = 0; i < entries.length; i++) {
+			if (entries[i].getClass() != RuntimeClasspathEntry.class) {
+				return null;
+			}
+			copies[i] = new RuntimeClasspathEntry((RuntimeClasspathEntry) entries[i]);
+		}
+		return copies;
+	}
+
+	/**
+	 * Returns copies of the given cached entries, which callers are free to
+	 * modify.
+	 */
+	private static IRuntimeClasspathEntry[] copy(RuntimeClasspathEntry[] entries) {
+		IRuntimeClasspathEntry[] copies = new IRuntimeClasspathEntry[entries.length];
+		for (int i = 0; i < entries.length; i++) {
+			copies[i] = new RuntimeClasspathEntry(entries[i]);
+		}
+		return copies;
+	}
+
+	/**
+	 * Drops the resolutions depending on any of the given projects.
+	 */
+	private void invalidate(Set<String> projects) {
+		fGeneration++;
+		fResolutions.entrySet().removeIf(e -> {
+			boolean stale = !Collections.disjoint(e.getValue().fProjects, projects);
+			if (stale && LaunchingPlugin.DEBUG_CLASSPATH_CACHE) {
+				LaunchingPlugin.trace("[classpath cache] invalidated: " + e.getKey()); //$NON-NLS-1$
+			}
+			return stale;
+		});
+	}
+
+	/**
+	 * Drops the resolutions of the given launch configuration.
+	 */
+	private void invalidate(ILaunchConfiguration configuration) {
+		if (!configuration.isWorkingCopy()) {
+			fGeneration++;
+			fResolutions.keySet().removeIf(key -> configuration.equals(key.fConfiguration));
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.core.IElementChangedListener#elementChanged(org.eclipse.jdt.core.ElementChangedEvent)
+	 */
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		Set<String> projects = new HashSet<>();
+		collectChangedProjects(event.getDelta(), projects);
+		if (!projects.isEmpty()) {
+			invalidate(projects);
+		}
+	}
+
+	/**
+	 * Collects the names of the projects whose resolved classpath may have
+	 * changed according to the given delta.
+	 */
+	private static void collectChangedProjects(IJavaElementDelta delta, Set<String> projects) {
+		IJavaElement element = delta.getElement();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				for (IJavaElementDelta child : delta.getAffectedChildren()) {
+					collectChangedProjects(child, projects);
+				}
+				break;
+			case IJavaElement.JAVA_PROJECT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & CLASSPATH_FLAGS) != 0 || changesRoots(delta)
+						|| addsModuleInfo(delta)) {
+					projects.add(element.getElementName());
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * Returns whether the given project delta adds or removes package fragment
+	 * roots, or adds them to or removes them from the classpath.
+	 */
+	private static boolean changesRoots(IJavaElementDelta delta) {
+		for (IJavaElementDelta root : delta.getAffectedChildren()) {
+			if (root.getElement() instanceof IPackageFragmentRoot
+					&& (root.getKind() != IJavaElementDelta.CHANGED || (root.getFlags() & ROOT_FLAGS) != 0)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether the given project delta adds a module descriptor, which
+	 * makes the project modular.
+	 */
+	private static boolean addsModuleInfo(IJavaElementDelta delta) {
+		for (IJavaElementDelta root : delta.getAffectedChildren()) {
+			if (root.getElement() instanceof IPackageFragmentRoot && !((IPackageFragmentRoot) root.getElement()).isArchive()) {
+				for (IJavaElementDelta fragment : root.getAffectedChildren()) {
+					if (fragment.getElement().getElementName().isEmpty()) {
+						for (IJavaElementDelta unit : fragment.getAffectedChildren()) {
+							if (unit.getKind() == IJavaElementDelta.ADDED && MODULE_INFO_JAVA.equals(unit.getElement().getElementName())) {
+								return true;
+							}
+						}
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.debug.core.ILaunchConfigurationListener#launchConfigurationAdded(org.eclipse.debug.core.ILaunchConfiguration)
+	 */
+	@Override
+	public void launchConfigurationAdded(ILaunchConfiguration configuration) {
+		invalidate(configuration);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.debug.core.ILaunchConfigurationListener#launchConfigurationChanged(org.eclipse.debug.core.ILaunchConfiguration)
+	 */
+	@Override
+	public void launchConfigurationChanged(ILaunchConfiguration configuration) {
+		invalidate(configuration);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.debug.core.ILaunchConfigurationListener#launchConfigurationRemoved(org.eclipse.debug.core.ILaunchConfiguration)
+	 */
+	@Override
+	public void launchConfigurationRemoved(ILaunchConfiguration configuration) {
+		invalidate(configuration);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -135,6 +135,21 @@ public class RuntimeClasspathEntry implements IRuntimeClasspathEntry {
 		setClasspathProperty(classpathProperty);
 	}
 
+	/**
+	 * Constructs a copy of the given runtime classpath entry.
+	 *
+	 * @param entry the entry to copy
+	 * @since 3.14
+	 */
+	RuntimeClasspathEntry(RuntimeClasspathEntry entry) {
+		fType = entry.fType;
+		fClasspathProperty = entry.fClasspathProperty;
+		fClasspathEntry = entry.fClasspathEntry;
+		fResolvedEntry = entry.fResolvedEntry;
+		fJavaProject = entry.fJavaProject;
+		fInvalidPath = entry.fInvalidPath;
+	}
+
 	/**
 	 * Reconstructs a runtime classpath entry from the given
 	 * XML document root not.
@@ -0,0 +1,302 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.launching;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Bounded cache of the source elements found for source names by the source
+ * containers of one source lookup director, including empty results.
+ * <p>
+ * A source name is derived from the declaring type and stratum of the element
+ * being looked up, so the source elements found for it only depend on the
+ * source containers. The cache is cleared when the source containers of the
+ * director change, and all caches are cleared when the Java model changes in a
+ * way that may add or remove source elements: projects, classpaths, package
+ * fragment roots, source attachments, packages, compilation units, class files
+ * and non-Java resources added or removed. Changes of files outside of the
+ * workspace are not tracked.
+ * </p>
+ *
+ * @since 3.14
+ */
+public class SourceLookupCache {
+
+	/**
+	 * Default maximum number of source names cached
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1000;
+
+	/**
+	 * Package fragment root delta flags that may change the source elements
+	 * found in the root
+	 */
+	private static final int ROOT_FLAGS = IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH
+			| IJavaElementDelta.F_SOURCEATTACHED | IJavaElementDelta.F_SOURCEDETACHED | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED;
+
+	/**
+	 * Java project delta flags that may change the source elements found in
+	 * the project
+	 */
+	private static final int PROJECT_FLAGS = IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED
+			| IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED;
+
+	/**
+	 * Incremented whenever the Java model changes in a way that may change
+	 * cached source elements
+	 */
+	private static volatile long fgGeneration;
+
+	/**
+	 * Listens to Java model changes, <code>null</code> when not started
+	 */
+	private static IElementChangedListener fgListener;
+
+	/**
+	 * Source elements by source name, least recently used first
+	 */
+	private final LinkedHashMap<String, Object[]> fElements;
+
+	/**
+	 * Whether the cached results include duplicates
+	 */
+	private boolean fFindDuplicates;
+
+	/**
+	 * Generation of the Java model the cached results were computed in
+	 */
+	private long fGeneration = fgGeneration;
+
+	/**
+	 * Incremented whenever this cache is cleared, so that results of lookups
+	 * running at that time are not cached
+	 */
+	private long fEpoch;
+
+	private long fHits;
+	private long fMisses;
+
+	/**
+	 * Creates a cache of {@link #DEFAULT_MAX_SIZE} source names at most
+	 */
+	public SourceLookupCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Creates a cache of the given number of source names at most
+	 *
+	 * @param maxSize
+	 *            the maximum number of source names cached
+	 */
+	public SourceLookupCache(final int maxSize) {
+		fElements = new LinkedHashMap<String, Object[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Object[]> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Starts clearing the caches on Java model changes
+	 */
+	public static synchronized void start() {
+		if (fgListener == null) {
+			fgListener = new IElementChangedListener() {
+				@Override
+				public void elementChanged(ElementChangedEvent event) {
+					if (affectsSourceElements(event.getDelta())) {
+						fgGeneration++;
+					}
+				}
+			};
+			JavaCore.addElementChangedListener(fgListener, ElementChangedEvent.POST_CHANGE);
+		}
+	}
+
+	/**
+	 * Stops listening to Java model changes
+	 */
+	public static synchronized void stop() {
+		if (fgListener != null) {
+			JavaCore.removeElementChangedListener(fgListener);
+			fgListener = null;
+		}
+	}
+
+	/**
+	 * Finds source elements that are not cached.
+	 */
+	public interface Finder {
+		/**
+		 * @param sourceName
+		 *            the source name
+		 * @return the source elements found, possibly empty
+		 * @throws CoreException
+		 *             if unable to find the source elements
+		 */
+		Object[] find(String sourceName) throws CoreException;
+	}
+
+	/**
+	 * Returns the source elements of the given source name, from the cache or
+	 * found with the given finder. Results of lookups that fail or that run
+	 * while the Java model changes are not cached.
+	 *
+	 * @param sourceName
+	 *            the source name
+	 * @param findDuplicates
+	 *            whether all source elements are wanted or only the first one
+	 * @param finder
+	 *            finds the source elements if they are not cached
+	 * @return the source elements, possibly empty
+	 * @throws CoreException
+	 *             if unable to find the source elements
+	 */
+	public Object[] find(String sourceName, boolean findDuplicates, Finder finder) throws CoreException {
+		long epoch;
+		synchronized (this) {
+			validate(findDuplicates);
+			Object[] elements = fElements.get(sourceName);
+			if (elements != null) {
+				fHits++;
+				return elements.clone();
+			}
+			fMisses++;
+			epoch = fEpoch;
+		}
+		if (LaunchingPlugin.DEBUG_SOURCE_LOOKUP_CACHE) {
+			LaunchingPlugin.trace("Source lookup cache miss: " + sourceName); //$NON-NLS-1$
+		}
+		// the containers are searched without holding the lock, lookups of other source names are not blocked
+		Object[] elements = finder.find(sourceName);
+		synchronized (this) {
+			validate(findDuplicates);
+			if (elements != null && fEpoch == epoch) {
+				fElements.put(sourceName, elements.clone());
+			}
+		}
+		return elements;
+	}
+
+	/**
+	 * Clears this cache.
+	 */
+	public synchronized void clear() {
+		fElements.clear();
+		fEpoch++;
+	}
+
+	/**
+	 * @return the number of lookups answered from this cache
+	 */
+	public synchronized long getHitCount() {
+		return fHits;
+	}
+
+	/**
+	 * @return the number of lookups not answered from this cache
+	 */
+	public synchronized long getMissCount() {
+		return fMisses;
+	}
+
+	/**
+	 * Drops the cached results if the Java model or the duplicates setting
+	 * changed since they were computed
+	 */
+	private void validate(boolean findDuplicates) {
+		long generation = fgGeneration;
+		if (fGeneration != generation || fFindDuplicates != findDuplicates) {
+			if (LaunchingPlugin.DEBUG_SOURCE_LOOKUP_CACHE && !fElements.isEmpty()) {
+				LaunchingPlugin.trace("Source lookup cache invalidated"); //$NON-NLS-1$
+			}
+			fElements.clear();
+			fEpoch++;
+			fGeneration = generation;
+			fFindDuplicates = findDuplicates;
+		}
+	}
+
+	/**
+	 * Returns whether the given delta may add or remove source elements
+	 */
+	static boolean affectsSourceElements(IJavaElementDelta delta) {
+		int kind = delta.getKind();
+		if (kind == IJavaElementDelta.ADDED || kind == IJavaElementDelta.REMOVED) {
+			return delta.getElement().getElementType() != IJavaElement.JAVA_MODEL;
+		}
+		int flags = delta.getFlags();
+		switch (delta.getElement().getElementType()) {
+			case IJavaElement.JAVA_PROJECT:
+				if ((flags & PROJECT_FLAGS) != 0) {
+					return true;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if ((flags & ROOT_FLAGS) != 0) {
+					return true;
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+			case IJavaElement.CLASS_FILE:
+				// content changes don't matter
+				return false;
+			default:
+				break;
+		}
+		IResourceDelta[] resourceDeltas = delta.getResourceDeltas();
+		if (resourceDeltas != null) {
+			for (IResourceDelta resourceDelta : resourceDeltas) {
+				if (affectsResources(resourceDelta)) {
+					return true;
+				}
+			}
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (affectsSourceElements(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether the given non-Java resource delta adds or removes
+	 * resources
+	 */
+	private static boolean affectsResources(IResourceDelta delta) {
+		if ((delta.getKind() & (IResourceDelta.ADDED | IResourceDelta.REMOVED)) != 0) {
+			return true;
+		}
+		for (IResourceDelta child : delta.getAffectedChildren()) {
+			if (affectsResources(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -28,6 +28,7 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -37,6 +38,11 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.CoreException;
@@ -116,7 +122,15 @@ public class StandardVMType extends AbstractVMInstallType {
 	 * Map of the install path for which we were unable to generate
 	 * the library info during this session.
 	 */
-	private static Map<String, LibraryInfo> fgFailedInstallPath = new HashMap<>();
+	private static Map<String, LibraryInfo> fgFailedInstallPath = new ConcurrentHashMap<>();
+
+	/**
+	 * Locks by install path, so that the library info of an install is only
+	 * generated once while different installs can be probed at the same time.
+	 *
+	 * @since 3.14
+	 */
+	private static Map<String, Object> fgLibraryInfoLocks = new ConcurrentHashMap<>();
 
 	/**
 	 * Cache for default library locations. See {@link #getDefaultLibraryLocations(File)}
@@ -226,8 +240,14 @@ public class StandardVMType extends AbstractVMInstallType {
 	 * @param javaExecutable the Java executable file
 	 * @return the {@link LibraryInfo} for the home and executable path or an empty object, never <code>null</code>
 	 */
-	protected synchronized LibraryInfo getLibraryInfo(File javaHome, File javaExecutable) {
+	protected LibraryInfo getLibraryInfo(File javaHome, File javaExecutable) {
 		String installPath = javaHome.getAbsolutePath();
+		synchronized (fgLibraryInfoLocks.computeIfAbsent(installPath, path -> new Object())) {
+			return doGetLibraryInfo(installPath, javaHome, javaExecutable);
+		}
+	}
+
+	private LibraryInfo doGetLibraryInfo(String installPath, File javaHome, File javaExecutable) {
 		LibraryInfo info = LaunchingPlugin.getLibraryInfo(installPath);
 		if (info == null || LaunchingPlugin.timeStampChanged(installPath)) {
 			info = fgFailedInstallPath.get(installPath);
@@ -255,6 +275,58 @@ public class StandardVMType extends AbstractVMInstallType {
 		return info;
 	}
 
+	/**
+	 * Makes sure the library information of the given install locations is
+	 * available, generating the missing or outdated information of several
+	 * locations in parallel rather than running their Java executables one
+	 * after the other.
+	 *
+	 * @param javaHomes the Java home folders
+	 * @return the absolute paths of the locations that changed since their
+	 *         library information was recorded
+	 * @since 3.14
+	 */
+	public Set<String> prepareLibraryInfos(Collection<File> javaHomes) {
+		Set<String> changed = new HashSet<>();
+		List<Callable<LibraryInfo>> probes = new ArrayList<>();
+		for (File javaHome : javaHomes) {
+			String installPath = javaHome.getAbsolutePath();
+			// the change has to be detected before the information is generated again
+			boolean stale = LaunchingPlugin.timeStampChanged(installPath);
+			if (stale) {
+				changed.add(installPath);
+			}
+			if (stale || LaunchingPlugin.getLibraryInfo(installPath) == null) {
+				File javaExecutable = findJavaExecutable(javaHome);
+				if (javaExecutable != null) {
+					probes.add(() -> getLibraryInfo(javaHome, javaExecutable));
+				}
+			}
+		}
+		if (probes.size() == 1) {
+			try {
+				probes.get(0).call();
+			} catch (Exception e) {
+				LaunchingPlugin.log(e);
+			}
+		} else if (!probes.isEmpty()) {
+			int threads = Math.min(probes.size(), Runtime.getRuntime().availableProcessors());
+			ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+				Thread thread = new Thread(runnable, "Library Detection"); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			});
+			try {
+				executor.invokeAll(probes);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+		return changed;
+	}
+
 	/**
 	 * Return <code>true</code> if the appropriate system libraries can be found for the
 	 * specified java executable, <code>false</code> otherwise.
@@ -872,7 +944,7 @@ public class StandardVMType extends AbstractVMInstallType {
 		return null;
 	}
 
-	public synchronized String readReleaseVersion(File javaHome) {
+	public String readReleaseVersion(File javaHome) {
 
 		String version = ""; //$NON-NLS-1$
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,7 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -493,8 +494,20 @@ public class VMDefinitionsContainer {
 		if (vmType != null) {
 			// For each VM child node, populate the container with a subordinate node
 			NodeList vmNodeList = vmTypeElement.getElementsByTagName("vm"); //$NON-NLS-1$
+			Set<String> changed = Collections.emptySet();
+			if (StandardVMType.ID_STANDARD_VM_TYPE.equals(vmType.getId()) && vmType instanceof StandardVMType) {
+				// detect the libraries of all the VMs at once rather than while validating each of them
+				List<File> installLocations = new ArrayList<>();
+				for (int i = 0; i < vmNodeList.getLength(); ++i) {
+					String installPath = ((Element) vmNodeList.item(i)).getAttribute("path"); //$NON-NLS-1$
+					if (installPath.length() > 0) {
+						installLocations.add(new File(installPath));
+					}
+				}
+				changed = ((StandardVMType) vmType).prepareLibraryInfos(installLocations);
+			}
 			for (int i = 0; i < vmNodeList.getLength(); ++i) {
-				populateVMForType(vmType, (Element) vmNodeList.item(i), container);
+				populateVMForType(vmType, (Element) vmNodeList.item(i), container, changed);
 			}
 		} else {
 			// status information for removed VMs (missing VM type)
@@ -526,8 +539,9 @@ public class VMDefinitionsContainer {
 	 * @param vmType VM type
 	 * @param vmElement XML element
 	 * @param container container to add VM to
+	 * @param changedInstalls the absolute paths of the installs already known to have changed
 	 */
-	private static void populateVMForType(IVMInstallType vmType, Element vmElement, VMDefinitionsContainer container) {
+	private static void populateVMForType(IVMInstallType vmType, Element vmElement, VMDefinitionsContainer container, Set<String> changedInstalls) {
 		String id= vmElement.getAttribute("id"); //$NON-NLS-1$
 		if (id != null) {
 
@@ -557,7 +571,7 @@ public class VMDefinitionsContainer {
 			String install = installLocation.getAbsolutePath();
 			//only consider a VM changed it is a standard VM
 			boolean changed = StandardVMType.ID_STANDARD_VM_TYPE.equals(vmType.getId()) &&
-										LaunchingPlugin.timeStampChanged(install);
+										(changedInstalls.contains(install) || LaunchingPlugin.timeStampChanged(install));
 			container.addVM(vmStandin);
 
 			// Look for subordinate nodes.  These may be 'libraryLocation',
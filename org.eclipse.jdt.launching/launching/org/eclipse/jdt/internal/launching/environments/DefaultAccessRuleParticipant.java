@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2006, 2018 IBM Corporation and others.
+ *  Copyright (c) 2006, 2019 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -13,10 +13,10 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.launching.environments;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
@@ -38,45 +38,99 @@ import org.osgi.framework.Constants;
 public class DefaultAccessRuleParticipant implements IAccessRuleParticipant {
 
 	/**
-	 * Cache of access rules per environment. Re-use rules between projects.
+	 * Rules of environments whose access rules are superseded by limit-modules
 	 */
-	private static Map<String, IAccessRule[][]> fgRules = new HashMap<>();
+	private static final IAccessRule[][] NO_RULES = new IAccessRule[0][];
+
+	/**
+	 * Package rules of environments whose access rules are superseded by
+	 * limit-modules
+	 */
+	private static final IAccessRule[] SUPERSEDED = new IAccessRule[0];
+
+	/**
+	 * Cache of access rules per environment and number of libraries. Re-use
+	 * rules between projects: all libraries share the package rules of the
+	 * environment, which are computed once.
+	 */
+	private static final Map<String, IAccessRule[][]> fgRules = new ConcurrentHashMap<>();
+
+	/**
+	 * Cache of package rules per environment. The system packages they are
+	 * made of are also stored per VM fingerprint, see
+	 * {@link EnvironmentAnalysisStore}, so that the profiles of the
+	 * environments are not read again after a restart.
+	 */
+	private static final Map<String, IAccessRule[]> fgPackageRules = new ConcurrentHashMap<>();
 
 	/* (non-Javadoc)
 	 * @see org.eclipse.jdt.launching.environments.IAccessRuleParticipant#getAccessRules(org.eclipse.jdt.launching.environments.IExecutionEnvironment, org.eclipse.jdt.launching.IVMInstall, org.eclipse.jdt.launching.LibraryLocation[], org.eclipse.jdt.core.IJavaProject)
 	 */
 	@Override
 	public IAccessRule[][] getAccessRules(IExecutionEnvironment environment, IVMInstall vm, LibraryLocation[] libraries, IJavaProject project) {
+		IAccessRule[] packageRules = fgPackageRules.computeIfAbsent(environment.getId(), id -> computePackageRules(environment, vm));
+		if (packageRules == SUPERSEDED) {
+			return NO_RULES;
+		}
+		return fgRules.computeIfAbsent(environment.getId() + '/' + libraries.length, key -> {
+			IAccessRule[][] allRules = new IAccessRule[libraries.length][];
+			for (int i = 0; i < allRules.length; i++) {
+				allRules[i] = packageRules;
+			}
+			return allRules;
+		});
+	}
+
+	/**
+	 * Returns the rules shared by all libraries of the given environment, or
+	 * {@link #SUPERSEDED} if access rules are superseded by limit-modules
+	 */
+	private IAccessRule[] computePackageRules(IExecutionEnvironment environment, IVMInstall vm) {
+		EnvironmentsManager manager = EnvironmentsManager.getDefault();
+		EnvironmentAnalysisStore store = vm == null ? null : manager.getAnalysisStore();
+		String fingerprint = store == null ? null : manager.getFingerprint(vm);
+		String[] packages = null;
+		if (store != null) {
+			packages = store.getPackages(environment.getId(), vm, fingerprint);
+		}
+		if (packages == null) {
+			packages = computeSystemPackages(environment);
+			if (store != null) {
+				store.putPackages(environment.getId(), vm, fingerprint, packages);
+				store.save();
+			}
+		}
+		if (packages == EnvironmentAnalysisStore.SUPERSEDED) {
+			return SUPERSEDED;
+		}
+		IAccessRule[] packageRules = null;
+		if (packages.length > 0) {
+			packageRules = new IAccessRule[packages.length + 1];
+			for (int i = 0; i < packages.length; i++) {
+				packageRules[i] = JavaCore.newAccessRule(new Path(packages[i].replace('.', IPath.SEPARATOR)), IAccessRule.K_ACCESSIBLE);
+			}
+			// add IGNORE_IF_BETTER flag in case another explicit entry allows access (see bug 228488)
+			packageRules[packages.length] = JavaCore.newAccessRule(new Path("**/*"), IAccessRule.K_NON_ACCESSIBLE | IAccessRule.IGNORE_IF_BETTER); //$NON-NLS-1$
+		} else {
+			packageRules = new IAccessRule[0];
+		}
+		return packageRules;
+	}
+
+	/**
+	 * Returns the system packages of the given environment, or
+	 * {@link EnvironmentAnalysisStore#SUPERSEDED} if access rules are
+	 * superseded by limit-modules
+	 */
+	private String[] computeSystemPackages(IExecutionEnvironment environment) {
 		Map<String, String> complianceOptions = environment.getComplianceOptions();
 		if (complianceOptions != null) {
 			String compliance = complianceOptions.get(JavaCore.COMPILER_COMPLIANCE);
 			if (JavaCore.compareJavaVersions(compliance, "9") >= 0) { //$NON-NLS-1$
-				return new IAccessRule[0][]; // in 9+ access rules are superseded by limit-modules
-			}
-		}
-		IAccessRule[][] allRules = null;
-		allRules = fgRules.get(environment.getId());
-		if (allRules == null || allRules.length != libraries.length) {
-			// if a different number of libraries, create a new set of rules
-			String[] packages = retrieveSystemPackages(environment);
-			IAccessRule[] packageRules = null;
-			if (packages.length > 0) {
-				packageRules = new IAccessRule[packages.length + 1];
-				for (int i = 0; i < packages.length; i++) {
-					packageRules[i] = JavaCore.newAccessRule(new Path(packages[i].replace('.', IPath.SEPARATOR)), IAccessRule.K_ACCESSIBLE);
-				}
-				// add IGNORE_IF_BETTER flag in case another explicit entry allows access (see bug 228488)
-				packageRules[packages.length] = JavaCore.newAccessRule(new Path("**/*"), IAccessRule.K_NON_ACCESSIBLE | IAccessRule.IGNORE_IF_BETTER); //$NON-NLS-1$
-			} else {
-				packageRules = new IAccessRule[0];
-			}
-			allRules = new IAccessRule[libraries.length][];
-			for (int i = 0; i < allRules.length; i++) {
-				allRules[i] = packageRules;
+				return EnvironmentAnalysisStore.SUPERSEDED; // in 9+ access rules are superseded by limit-modules
 			}
-			fgRules.put(environment.getId(), allRules);
 		}
-		return allRules;
+		return retrieveSystemPackages(environment);
 	}
 
 	private String[] retrieveSystemPackages(IExecutionEnvironment environment) {
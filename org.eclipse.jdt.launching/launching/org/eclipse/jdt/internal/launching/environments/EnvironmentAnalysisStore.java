@@ -0,0 +1,415 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.launching.environments;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.jdt.internal.launching.LaunchingPlugin;
+import org.eclipse.jdt.internal.launching.LibraryInfoStore;
+import org.eclipse.jdt.launching.AbstractVMInstall;
+import org.eclipse.jdt.launching.IVMInstall;
+import org.eclipse.jdt.launching.IVMInstall2;
+import org.eclipse.jdt.launching.JavaRuntime;
+import org.eclipse.jdt.launching.environments.CompatibleEnvironment;
+import org.eclipse.jdt.launching.environments.IExecutionEnvironment;
+import org.osgi.framework.Bundle;
+
+/**
+ * Persistent cache of the execution environments each analyzer found
+ * compatible with each VM install, and of the system packages the default
+ * access rules of each environment are made of for each VM install.
+ * <p>
+ * Results are stored by analyzer and VM together with a fingerprint of the VM:
+ * its type, install location, Java version and attributes, and the fingerprint
+ * of the install computed by {@link LibraryInfoStore}. The fingerprint also
+ * covers the registered environments and analyzers and the versions of the
+ * bundles contributing them, as an updated analyzer or a new environment may
+ * give another result for the same VM. A result whose
+ * fingerprint differs from the current one is not used, so the VM is analyzed
+ * again. All results are kept in one small file, written by {@link #save()}
+ * when results were added or removed.
+ * </p>
+ *
+ * @since 3.14
+ */
+class EnvironmentAnalysisStore {
+
+	/**
+	 * Version of the format of the stored file
+	 */
+	private static final int FORMAT_VERSION = 2;
+
+	/**
+	 * System packages of environments whose access rules are superseded by
+	 * limit-modules, stored and returned as this very array
+	 */
+	static final String[] SUPERSEDED = new String[0];
+
+	/**
+	 * Compatible environments found by an analyzer for a VM
+	 */
+	private static class Result {
+		final String fingerprint;
+		final String[] environmentIds;
+		final boolean[] strict;
+
+		Result(String fingerprint, String[] environmentIds, boolean[] strict) {
+			this.fingerprint = fingerprint;
+			this.environmentIds = environmentIds;
+			this.strict = strict;
+		}
+	}
+
+	/**
+	 * System packages of the default access rules of an environment for a VM
+	 */
+	private static class PackageRules {
+		final String fingerprint;
+		final String[] packages;
+
+		PackageRules(String fingerprint, String[] packages) {
+			this.fingerprint = fingerprint;
+			this.packages = packages;
+		}
+	}
+
+	/**
+	 * The stored file
+	 */
+	private final File fFile;
+
+	/**
+	 * Results by analyzer id and VM composite id. Guarded by this store.
+	 */
+	private final Map<String, Result> fResults = new HashMap<>();
+
+	/**
+	 * Package rules by environment id and VM composite id. Guarded by this
+	 * store.
+	 */
+	private final Map<String, PackageRules> fPackageRules = new HashMap<>();
+
+	/**
+	 * Whether results were added or removed since the file was written.
+	 * Guarded by this store.
+	 */
+	private boolean fDirty;
+
+	/**
+	 * Creates a store and restores the results kept in the given file.
+	 *
+	 * @param file
+	 *            the stored file, created on demand
+	 */
+	EnvironmentAnalysisStore(File file) {
+		fFile = file;
+		restore();
+	}
+
+	/**
+	 * Returns the stored environments the given analyzer found compatible with
+	 * the given VM, or <code>null</code> if the VM changed since or the
+	 * result is not stored.
+	 *
+	 * @param analyzerId
+	 *            the id of the analyzer
+	 * @param vm
+	 *            the VM
+	 * @param fingerprint
+	 *            the current fingerprint of the VM, see
+	 *            {@link #fingerprint(IVMInstall, String)}
+	 * @return compatible environments or <code>null</code>
+	 */
+	CompatibleEnvironment[] get(String analyzerId, IVMInstall vm, String fingerprint) {
+		Result result;
+		synchronized (this) {
+			result = fResults.get(key(analyzerId, vm));
+		}
+		if (result == null || !result.fingerprint.equals(fingerprint)) {
+			return null;
+		}
+		CompatibleEnvironment[] environments = new CompatibleEnvironment[result.environmentIds.length];
+		for (int i = 0; i < environments.length; i++) {
+			IExecutionEnvironment environment = EnvironmentsManager.getDefault().getEnvironment(result.environmentIds[i]);
+			if (environment == null) {
+				// contributed by a bundle that is gone
+				return null;
+			}
+			environments[i] = new CompatibleEnvironment(environment, result.strict[i]);
+		}
+		return environments;
+	}
+
+	/**
+	 * Stores the environments the given analyzer found compatible with the
+	 * given VM.
+	 *
+	 * @param analyzerId
+	 *            the id of the analyzer
+	 * @param vm
+	 *            the VM
+	 * @param fingerprint
+	 *            the fingerprint of the VM at the time of the analysis
+	 * @param environments
+	 *            compatible environments
+	 */
+	synchronized void put(String analyzerId, IVMInstall vm, String fingerprint, CompatibleEnvironment[] environments) {
+		String[] ids = new String[environments.length];
+		boolean[] strict = new boolean[environments.length];
+		for (int i = 0; i < environments.length; i++) {
+			ids[i] = environments[i].getCompatibleEnvironment().getId();
+			strict[i] = environments[i].isStrictlyCompatbile();
+		}
+		fResults.put(key(analyzerId, vm), new Result(fingerprint, ids, strict));
+		fDirty = true;
+	}
+
+	/**
+	 * Returns the stored system packages of the default access rules of the
+	 * given environment for the given VM, an empty array if there are no
+	 * rules, {@link #SUPERSEDED} if the access rules are superseded by
+	 * limit-modules, or <code>null</code> if the VM changed since or the
+	 * packages are not stored.
+	 *
+	 * @param environmentId
+	 *            the id of the environment
+	 * @param vm
+	 *            the VM
+	 * @param fingerprint
+	 *            the current fingerprint of the VM, see
+	 *            {@link #fingerprint(IVMInstall, String)}
+	 * @return system packages or <code>null</code>
+	 */
+	synchronized String[] getPackages(String environmentId, IVMInstall vm, String fingerprint) {
+		PackageRules rules = fPackageRules.get(key(environmentId, vm));
+		if (rules == null || !rules.fingerprint.equals(fingerprint)) {
+			return null;
+		}
+		return rules.packages;
+	}
+
+	/**
+	 * Stores the system packages of the default access rules of the given
+	 * environment for the given VM.
+	 *
+	 * @param environmentId
+	 *            the id of the environment
+	 * @param vm
+	 *            the VM
+	 * @param fingerprint
+	 *            the fingerprint of the VM at the time the packages were
+	 *            computed
+	 * @param packages
+	 *            system packages, empty if there are no rules or
+	 *            {@link #SUPERSEDED}
+	 */
+	synchronized void putPackages(String environmentId, IVMInstall vm, String fingerprint, String[] packages) {
+		fPackageRules.put(key(environmentId, vm), new PackageRules(fingerprint, packages));
+		fDirty = true;
+	}
+
+	/**
+	 * Removes the results of all analyzers and the package rules of all
+	 * environments for the given VM.
+	 *
+	 * @param vm
+	 *            the VM
+	 */
+	synchronized void remove(IVMInstall vm) {
+		String suffix = '\n' + JavaRuntime.getCompositeIdFromVM(vm);
+		fDirty |= fResults.keySet().removeIf(key -> key.endsWith(suffix));
+		fDirty |= fPackageRules.keySet().removeIf(key -> key.endsWith(suffix));
+	}
+
+	/**
+	 * Returns the fingerprint of the given VM.
+	 *
+	 * @param vm
+	 *            the VM
+	 * @param contributions
+	 *            the fingerprint of the registered environments and
+	 *            analyzers, see {@link #fingerprint(IConfigurationElement[])}
+	 * @return the fingerprint
+	 */
+	static String fingerprint(IVMInstall vm, String contributions) {
+		StringBuilder buf = new StringBuilder(contributions);
+		buf.append(';').append(vm.getVMInstallType().getId());
+		File location = vm.getInstallLocation();
+		if (location != null) {
+			buf.append(';').append(location.getAbsolutePath());
+			buf.append(';').append(LibraryInfoStore.fingerprint(location));
+		}
+		if (vm instanceof IVMInstall2) {
+			buf.append(';').append(((IVMInstall2) vm).getJavaVersion());
+		}
+		if (vm instanceof AbstractVMInstall) {
+			for (Entry<String, String> attribute : new TreeMap<>(((AbstractVMInstall) vm).getAttributes()).entrySet()) {
+				buf.append(';').append(attribute.getKey()).append('=').append(attribute.getValue());
+			}
+		}
+		return buf.toString();
+	}
+
+	/**
+	 * Returns the fingerprint of the given contributions to the execution
+	 * environments extension point: the sorted ids of the environments and
+	 * analyzers, and the sorted names and versions of the bundles contributing
+	 * them and of the OSGi framework, which provides the default profiles of
+	 * the environments.
+	 *
+	 * @param configs
+	 *            the configuration elements of the extension point
+	 * @return the fingerprint
+	 */
+	static String fingerprint(IConfigurationElement[] configs) {
+		TreeSet<String> ids = new TreeSet<>();
+		TreeSet<String> bundles = new TreeSet<>();
+		Bundle framework = Platform.getBundle("org.eclipse.osgi"); //$NON-NLS-1$
+		if (framework != null) {
+			bundles.add(framework.getSymbolicName() + '_' + framework.getVersion());
+		}
+		for (IConfigurationElement element : configs) {
+			String id = element.getAttribute("id"); //$NON-NLS-1$
+			if (id == null) {
+				continue;
+			}
+			ids.add(element.getName() + ':' + id);
+			String contributor = element.getContributor().getName();
+			Bundle bundle = Platform.getBundle(contributor);
+			bundles.add(bundle == null ? contributor : contributor + '_' + bundle.getVersion());
+		}
+		StringBuilder buf = new StringBuilder();
+		for (String bundle : bundles) {
+			buf.append(bundle).append(',');
+		}
+		for (String id : ids) {
+			buf.append(id).append(',');
+		}
+		return buf.toString();
+	}
+
+	private static String key(String id, IVMInstall vm) {
+		return id + '\n' + JavaRuntime.getCompositeIdFromVM(vm);
+	}
+
+	/**
+	 * Reads the stored file, deleting it if it cannot be read.
+	 */
+	private void restore() {
+		if (!fFile.isFile()) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fFile)))) {
+			if (in.readInt() != FORMAT_VERSION) {
+				fFile.delete();
+				return;
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String key = in.readUTF();
+				String fingerprint = in.readUTF();
+				int length = in.readInt();
+				String[] ids = new String[length];
+				boolean[] strict = new boolean[length];
+				for (int j = 0; j < length; j++) {
+					ids[j] = in.readUTF();
+					strict[j] = in.readBoolean();
+				}
+				fResults.put(key, new Result(fingerprint, ids, strict));
+			}
+			count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String key = in.readUTF();
+				String fingerprint = in.readUTF();
+				int length = in.readInt();
+				String[] packages = length < 0 ? SUPERSEDED : new String[length];
+				for (int j = 0; j < length; j++) {
+					packages[j] = in.readUTF();
+				}
+				fPackageRules.put(key, new PackageRules(fingerprint, packages));
+			}
+		} catch (IOException e) {
+			fResults.clear();
+			fPackageRules.clear();
+			fFile.delete();
+		}
+	}
+
+	/**
+	 * Writes the results to a temporary file that then replaces the stored
+	 * file, if results were added or removed since the last write.
+	 */
+	synchronized void save() {
+		if (!fDirty) {
+			return;
+		}
+		fDirty = false;
+		try {
+			fFile.getParentFile().mkdirs();
+			File temp = File.createTempFile("environments", ".tmp", fFile.getParentFile()); //$NON-NLS-1$ //$NON-NLS-2$
+			try {
+				try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+					out.writeInt(FORMAT_VERSION);
+					out.writeInt(fResults.size());
+					for (Entry<String, Result> entry : fResults.entrySet()) {
+						Result result = entry.getValue();
+						out.writeUTF(entry.getKey());
+						out.writeUTF(result.fingerprint);
+						out.writeInt(result.environmentIds.length);
+						for (int i = 0; i < result.environmentIds.length; i++) {
+							out.writeUTF(result.environmentIds[i]);
+							out.writeBoolean(result.strict[i]);
+						}
+					}
+					out.writeInt(fPackageRules.size());
+					for (Entry<String, PackageRules> entry : fPackageRules.entrySet()) {
+						PackageRules rules = entry.getValue();
+						out.writeUTF(entry.getKey());
+						out.writeUTF(rules.fingerprint);
+						out.writeInt(rules.packages == SUPERSEDED ? -1 : rules.packages.length);
+						for (String name : rules.packages) {
+							out.writeUTF(name);
+						}
+					}
+				}
+				try {
+					Files.move(temp.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(temp.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				temp.delete();
+			}
+		} catch (IOException e) {
+			LaunchingPlugin.log(e);
+		}
+	}
+}
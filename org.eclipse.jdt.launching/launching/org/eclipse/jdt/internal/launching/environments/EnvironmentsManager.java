@@ -104,6 +104,17 @@ public class EnvironmentsManager implements IExecutionEnvironmentsManager, IVMIn
 	 */
 	private Map<String, Analyzer> fAnalyzers = null;
 
+	/**
+	 * Persisted analysis results, <code>null</code> until first access
+	 */
+	private EnvironmentAnalysisStore fAnalysisStore = null;
+
+	/**
+	 * Fingerprint of the contributed environments and analyzers, which
+	 * invalidates stored analysis results when they change
+	 */
+	private String fContributionsFingerprint = null;
+
 	/**
 	 * <code>true</code> while updating the default settings preferences
 	 */
@@ -230,6 +241,7 @@ public class EnvironmentsManager implements IExecutionEnvironmentsManager, IVMIn
 		if (fEnvironments == null) {
 			IExtensionPoint extensionPoint = Platform.getExtensionRegistry().getExtensionPoint(LaunchingPlugin.ID_PLUGIN, JavaRuntime.EXTENSION_POINT_EXECUTION_ENVIRONMENTS);
 			IConfigurationElement[] configs= extensionPoint.getConfigurationElements();
+			fContributionsFingerprint = EnvironmentAnalysisStore.fingerprint(configs);
 			fEnvironments = new TreeSet<>(new Comparator<IExecutionEnvironment>() {
 				@Override
 				public int compare(IExecutionEnvironment o1, IExecutionEnvironment o2) {
@@ -294,6 +306,7 @@ public class EnvironmentsManager implements IExecutionEnvironmentsManager, IVMIn
 	                    analyze(install, new NullProgressMonitor());
 	                }
 	            }
+	            saveAnalysisResults();
 	            initializeDefaultVMs();
         	}
         }
@@ -381,10 +394,21 @@ public class EnvironmentsManager implements IExecutionEnvironmentsManager, IVMIn
 	 */
 	private void analyze(IVMInstall vm, IProgressMonitor monitor) {
 		Analyzer[] analyzers = getAnalyzers();
+		EnvironmentAnalysisStore store = getAnalysisStore();
+		String fingerprint = store == null ? null : EnvironmentAnalysisStore.fingerprint(vm, fContributionsFingerprint);
 		for (int i = 0; i < analyzers.length; i++) {
 			Analyzer analyzer = analyzers[i];
 			try {
-				CompatibleEnvironment[] environments = analyzer.analyze(vm, monitor);
+				CompatibleEnvironment[] environments = null;
+				if (store != null) {
+					environments = store.get(analyzer.getId(), vm, fingerprint);
+				}
+				if (environments == null) {
+					environments = analyzer.analyze(vm, monitor);
+					if (store != null) {
+						store.put(analyzer.getId(), vm, fingerprint, environments);
+					}
+				}
 				for (int j = 0; j < environments.length; j++) {
 					CompatibleEnvironment compatibleEnvironment = environments[j];
 					ExecutionEnvironment environment = (ExecutionEnvironment) compatibleEnvironment.getCompatibleEnvironment();
@@ -396,6 +420,47 @@ public class EnvironmentsManager implements IExecutionEnvironmentsManager, IVMIn
 		}
 	}
 
+	/**
+	 * Returns the store of analysis results in the launching state location,
+	 * or <code>null</code> if the launching plug-in is not running.
+	 *
+	 * @return the store of analysis results or <code>null</code>
+	 */
+	synchronized EnvironmentAnalysisStore getAnalysisStore() {
+		if (fAnalysisStore == null) {
+			LaunchingPlugin plugin = LaunchingPlugin.getDefault();
+			if (plugin == null) {
+				return null;
+			}
+			fAnalysisStore = new EnvironmentAnalysisStore(plugin.getStateLocation().append("environmentAnalysis.dat").toFile()); //$NON-NLS-1$
+		}
+		return fAnalysisStore;
+	}
+
+	/**
+	 * Returns the fingerprint of the given VM that the results stored for it
+	 * must match.
+	 *
+	 * @param vm
+	 *            the VM
+	 * @return the fingerprint
+	 * @see EnvironmentAnalysisStore#fingerprint(IVMInstall, String)
+	 */
+	String getFingerprint(IVMInstall vm) {
+		initializeExtensions();
+		return EnvironmentAnalysisStore.fingerprint(vm, fContributionsFingerprint);
+	}
+
+	/**
+	 * Writes the analysis results if they changed.
+	 */
+	private void saveAnalysisResults() {
+		EnvironmentAnalysisStore store = getAnalysisStore();
+		if (store != null) {
+			store.save();
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.jdt.launching.IVMInstallChangedListener#defaultVMInstallChanged(org.eclipse.jdt.launching.IVMInstall, org.eclipse.jdt.launching.IVMInstall)
 	 */
@@ -427,6 +492,7 @@ public class EnvironmentsManager implements IExecutionEnvironmentsManager, IVMIn
 			return;
 		}
 		analyze(vm, new NullProgressMonitor());
+		saveAnalysisResults();
 	}
 
 	/* (non-Javadoc)
@@ -442,6 +508,12 @@ public class EnvironmentsManager implements IExecutionEnvironmentsManager, IVMIn
 			ExecutionEnvironment environment = (ExecutionEnvironment) environments[i];
 			environment.remove(vm);
 		}
+		// a changed VM is analyzed again, whatever its fingerprint
+		EnvironmentAnalysisStore store = getAnalysisStore();
+		if (store != null) {
+			store.remove(vm);
+			store.save();
+		}
 	}
 
 	synchronized void updateDefaultVMs() {
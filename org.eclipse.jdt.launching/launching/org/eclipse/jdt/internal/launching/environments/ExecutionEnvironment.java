@@ -17,12 +17,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 
@@ -119,6 +121,17 @@ class ExecutionEnvironment implements IExecutionEnvironment {
 	 */
 	private boolean fPropertiesInitialized;
 
+	/**
+	 * Compiler settings of the profile properties, or <code>null</code> if
+	 * none. Only valid once {@link #fComplianceOptionsInitialized} is set.
+	 */
+	private Map<String, String> fComplianceOptions;
+
+	/**
+	 * Whether compliance options have been initialized
+	 */
+	private volatile boolean fComplianceOptionsInitialized;
+
 	/**
 	 * Set of compatible vm's - just the strictly compatible ones
 	 */
@@ -323,7 +336,7 @@ class ExecutionEnvironment implements IExecutionEnvironment {
 		Map<IAccessRuleParticipant, IAccessRule[][]> rulesByParticipant = collectRulesByParticipant(participants, vm, libraries, project);
 		synchronized (this) {
 			Map<IAccessRuleParticipant, IAccessRule[][]> cachedRules = fParticipantMap.get(vm);
-			if (cachedRules == null || !cachedRules.equals(rulesByParticipant)) {
+			if (cachedRules == null || !sameRules(cachedRules, rulesByParticipant)) {
 				ArrayList<List<IAccessRule>> libLists = new ArrayList<>(); // array of lists of access rules
 				for (int i = 0; i < libraries.length; i++) {
 					libLists.add(new ArrayList<IAccessRule>());
@@ -345,6 +358,29 @@ class ExecutionEnvironment implements IExecutionEnvironment {
 		}
 	}
 
+	/**
+	 * Returns whether the given participants returned the same rules, which is
+	 * usually the same arrays. Participants that create new arrays on each call
+	 * are compared by contents, so that the union of their rules does not need
+	 * to be computed again for each project.
+	 *
+	 * @param cached the rules cached for a VM
+	 * @param current the rules just returned by the participants
+	 * @return whether the rules are the same
+	 */
+	private static boolean sameRules(Map<IAccessRuleParticipant, IAccessRule[][]> cached, Map<IAccessRuleParticipant, IAccessRule[][]> current) {
+		if (cached.size() != current.size()) {
+			return false;
+		}
+		for (Entry<IAccessRuleParticipant, IAccessRule[][]> entry : current.entrySet()) {
+			IAccessRule[][] rules = cached.get(entry.getKey());
+			if (rules != entry.getValue() && (rules == null || !Arrays.deepEquals(rules, entry.getValue()))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Returns all access rule participants to consider for this environment.
 	 * Includes any participant contributed with this environment and all other
@@ -543,21 +579,27 @@ class ExecutionEnvironment implements IExecutionEnvironment {
 	 */
 	@Override
 	public Map<String, String> getComplianceOptions() {
-		Properties properties = getProfileProperties();
-		if (properties != null) {
-			Map<String, String> map = new HashMap<>();
-			Iterator<?> iterator = properties.keySet().iterator();
-			while (iterator.hasNext()) {
-				String key = (String) iterator.next();
-				if (key.startsWith(COMPILER_SETTING_PREFIX)) {
-					map.put(key, properties.getProperty(key));
+		if (!fComplianceOptionsInitialized) {
+			Properties properties = getProfileProperties();
+			Map<String, String> map = null;
+			if (properties != null) {
+				map = new HashMap<>();
+				Iterator<?> iterator = properties.keySet().iterator();
+				while (iterator.hasNext()) {
+					String key = (String) iterator.next();
+					if (key.startsWith(COMPILER_SETTING_PREFIX)) {
+						map.put(key, properties.getProperty(key));
+					}
+				}
+				if (map.isEmpty()) {
+					map = null;
 				}
 			}
-			if (!map.isEmpty()) {
-				return map;
-			}
+			fComplianceOptions = map;
+			fComplianceOptionsInitialized = true;
 		}
-		return null;
+		// callers own the returned map
+		return fComplianceOptions == null ? null : new HashMap<>(fComplianceOptions);
 	}
 
 	private String getCompliance() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015-2016 Igor Fedorenko
+ * Copyright (c) 2015-2019 Igor Fedorenko
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -51,11 +51,13 @@ public class AdvancedSourceLookupSupport {
 
 	public static void start() {
 		backgroundJob = new BackgroundProcessingJob();
+		FileHashing.start(LaunchingPlugin.getDefault().getStateLocation().toFile());
 	}
 
 	public static void stop() {
 		backgroundJob.cancel();
 		backgroundJob = null;
+		FileHashing.stop();
 
 		workspaceProjectsLock.lock();
 		try {
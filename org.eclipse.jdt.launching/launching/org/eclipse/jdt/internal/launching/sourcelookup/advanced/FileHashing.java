@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011-2016 Igor Fedorenko
+ * Copyright (c) 2011-2019 Igor Fedorenko
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,77 +13,133 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.launching.sourcelookup.advanced;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.internal.launching.LaunchingPlugin;
 
 /**
- * Helpers to compute file content digests. Provides long-lived hasher instance with bounded cache of most recently requested files, which is useful
- * to handle source lookup requests. Also provides factory of hasher instances with unbounded caches, which is useful to perform bulk workspace
- * indexing.
+ * Helpers to compute file content digests. Provides long-lived hasher instance with a concurrent cache of file hashes, which is shared by source
+ * lookup requests and bulk workspace indexing. The cache is keyed by canonical file path, file size and last modification time and is persisted
+ * across sessions, so unchanged files are not hashed again after restart.
  */
 public class FileHashing {
 
 	public static interface Hasher {
 		Object hash(File file);
+
+		/**
+		 * Hashes the given files in parallel. The result maps each file to its hash, or to {@code null} if the file can't be hashed.
+		 */
+		Map<File, Object> hash(Collection<File> files);
 	}
 
-	// default hasher with bounded cache.
-	// this is used when performing source lookup and number of unique files requested during the same debugging session is likely to be small.
-	private static final HasherImpl HASHER = new HasherImpl(5000);
+	// files smaller than this are read into heap buffers, mapping them costs more than reading them
+	private static final long MAP_THRESHOLD = 64 * 1024;
+
+	// large files are mapped one window at a time to bound address space use
+	private static final long MAP_WINDOW = 64 * 1024 * 1024;
+
+	// a mapped file can't be deleted on Windows until the mapping is garbage collected, which would break builds replacing jars
+	private static final boolean MAP_FILES = !System.getProperty("os.name", "").startsWith("Windows"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+	private static final int MAX_THREADS = 4;
+
+	private static final int CACHE_FORMAT = 1;
+
+	// upper bound of the number of cached hashes, pruned down to three quarters of it when exceeded
+	private static final int MAX_CACHE_SIZE = 50_000;
+
+	private static final String CACHE_FILE = "fileHashes.bin"; //$NON-NLS-1$
+
+	private static final HasherImpl HASHER = new HasherImpl();
+
+	private static ThreadPoolExecutor executor;
 
 	/**
-	 * Returns default long-lived Hasher instance with bounded hash cache.
+	 * Returns default long-lived Hasher instance.
 	 */
 	public static Hasher hasher() {
 		return HASHER;
 	}
 
 	/**
-	 * Returns new Hasher instance with unbounded hash cache, useful for bulk hashing of projects and their dependencies.
+	 * Sets the directory the hash cache is persisted to. The cache is read from there on first use.
 	 */
-	public static Hasher newHasher() {
-		return new HasherImpl(HASHER);
+	public static void start(File stateLocation) {
+		HASHER.setStore(new File(stateLocation, CACHE_FILE));
 	}
 
-	private static class CacheKey {
-		public final File file;
+	/**
+	 * Persists the hash cache, if it changed.
+	 */
+	public static void stop() {
+		HASHER.save();
+		synchronized (FileHashing.class) {
+			if (executor != null) {
+				executor.shutdown();
+				executor = null;
+			}
+		}
+	}
 
-		private final long length;
+	private static synchronized ThreadPoolExecutor getExecutor() {
+		if (executor == null) {
+			int threads = Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors());
+			executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), r -> {
+				Thread thread = new Thread(r, "File Hashing"); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			});
+			executor.allowCoreThreadTimeOut(true);
+		}
+		return executor;
+	}
 
-		private final long lastModified;
+	private static class CachedHash {
+		public final long length;
 
-		public CacheKey(File file) throws IOException {
-			this.file = file.getCanonicalFile();
-			this.length = file.length();
-			this.lastModified = file.lastModified();
-		}
+		public final long lastModified;
 
-		@Override
-		public int hashCode() {
-			int hash = 17;
-			hash = hash * 31 + file.hashCode();
-			hash = hash * 31 + (int) length;
-			hash = hash * 31 + (int) lastModified;
-			return hash;
+		public final HashCode hash;
+
+		public CachedHash(long length, long lastModified, HashCode hash) {
+			this.length = length;
+			this.lastModified = lastModified;
+			this.hash = hash;
 		}
 
-		@Override
-		public boolean equals(Object obj) {
-			if (obj == this) {
-				return true;
-			}
-			if (!(obj instanceof CacheKey)) {
-				return false;
-			}
-			CacheKey other = (CacheKey) obj;
-			return file.equals(other.file) && length == other.length && lastModified == other.lastModified;
+		public boolean matches(File file) {
+			return length == file.length() && lastModified == file.lastModified();
 		}
 	}
 
@@ -124,20 +180,19 @@ public class FileHashing {
 
 	private static class HasherImpl implements Hasher {
 
-		private final Map<CacheKey, HashCode> cache;
+		// canonical file -> hash of the file with the recorded size and modification time
+		private final Map<File, CachedHash> cache = new ConcurrentHashMap<>();
 
-		@SuppressWarnings("serial")
-		public HasherImpl(int cacheSize) {
-			this.cache = new LinkedHashMap<CacheKey, HashCode>() {
-				@Override
-				protected boolean removeEldestEntry(Map.Entry<CacheKey, HashCode> eldest) {
-					return size() > cacheSize;
-				}
-			};
-		}
+		private File store;
+
+		// read without locking on the hashing path, the cache is only loaded once per store
+		private volatile boolean loaded;
 
-		public HasherImpl(HasherImpl initial) {
-			this.cache = new LinkedHashMap<>(initial.cache);
+		private volatile boolean dirty;
+
+		synchronized void setStore(File store) {
+			this.store = store;
+			this.loaded = false;
 		}
 
 		@Override
@@ -145,18 +200,20 @@ public class FileHashing {
 			if (file == null || !file.isFile()) {
 				return null;
 			}
+			load();
 			try {
-				CacheKey cacheKey = new CacheKey(file);
-				synchronized (cache) {
-					HashCode hashCode = cache.get(cacheKey);
-					if (hashCode != null) {
-						return hashCode;
-					}
+				File canonicalFile = file.getCanonicalFile();
+				long length = canonicalFile.length();
+				long lastModified = canonicalFile.lastModified();
+				CachedHash cached = cache.get(canonicalFile);
+				if (cached != null && cached.length == length && cached.lastModified == lastModified) {
+					return cached.hash;
 				}
-				// don't hold cache lock while hashing file
-				HashCode hashCode = sha1(file);
-				synchronized (cache) {
-					cache.put(cacheKey, hashCode);
+				HashCode hashCode = sha1(canonicalFile);
+				cache.put(canonicalFile, new CachedHash(length, lastModified, hashCode));
+				dirty = true;
+				if (cache.size() > MAX_CACHE_SIZE) {
+					prune();
 				}
 				return hashCode;
 			}
@@ -165,6 +222,127 @@ public class FileHashing {
 			}
 		}
 
+		@Override
+		public Map<File, Object> hash(Collection<File> files) {
+			Map<File, Object> result = new HashMap<>();
+			if (files.size() < 2) {
+				files.forEach(file -> result.put(file, hash(file)));
+				return result;
+			}
+			List<Callable<Object>> tasks = new ArrayList<>(files.size());
+			files.forEach(file -> tasks.add(() -> hash(file)));
+			try {
+				List<Future<Object>> futures = getExecutor().invokeAll(tasks);
+				int i = 0;
+				for (File file : files) {
+					result.put(file, futures.get(i++).get());
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt(); // restore interrupted status
+			}
+			catch (ExecutionException e) {
+				throw new IllegalStateException(e.getCause());
+			}
+			return result;
+		}
+
+		private void load() {
+			if (loaded) {
+				return;
+			}
+			synchronized (this) {
+				if (loaded || store == null) {
+					return;
+				}
+				read();
+				loaded = true;
+			}
+		}
+
+		private void read() {
+			if (!store.isFile()) {
+				return;
+			}
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(store)))) {
+				if (in.readInt() != CACHE_FORMAT) {
+					return;
+				}
+				for (int i = Math.min(in.readInt(), MAX_CACHE_SIZE); i > 0; i--) {
+					File file = new File(in.readUTF());
+					long length = in.readLong();
+					long lastModified = in.readLong();
+					byte[] bytes = new byte[in.readUnsignedShort()];
+					in.readFully(bytes);
+					cache.putIfAbsent(file, new CachedHash(length, lastModified, new HashCode(bytes)));
+				}
+			}
+			catch (IOException e) {
+				// corrupt or truncated cache, start over
+				cache.clear();
+			}
+		}
+
+		/**
+		 * Forgets the files that no longer exist or changed since they were hashed, then arbitrary files until the cache is back to three
+		 * quarters of its bound.
+		 */
+		private synchronized void prune() {
+			if (cache.size() <= MAX_CACHE_SIZE) {
+				return; // pruned by another thread
+			}
+			cache.entrySet().removeIf(entry -> !entry.getValue().matches(entry.getKey()));
+			int excess = cache.size() - MAX_CACHE_SIZE * 3 / 4;
+			Iterator<File> files = cache.keySet().iterator();
+			while (excess-- > 0 && files.hasNext()) {
+				files.next();
+				files.remove();
+			}
+		}
+
+		synchronized void save() {
+			if (!dirty || store == null) {
+				return;
+			}
+			dirty = false;
+			// forget files that no longer exist or changed since they were hashed
+			List<Map.Entry<File, CachedHash>> entries = new ArrayList<>();
+			cache.entrySet().forEach(entry -> {
+				if (entry.getValue().matches(entry.getKey())) {
+					entries.add(entry);
+				}
+			});
+			try {
+				store.getParentFile().mkdirs();
+				File temp = File.createTempFile("fileHashes", ".tmp", store.getParentFile()); //$NON-NLS-1$ //$NON-NLS-2$
+				try {
+					try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+						out.writeInt(CACHE_FORMAT);
+						out.writeInt(entries.size());
+						for (Map.Entry<File, CachedHash> entry : entries) {
+							CachedHash cached = entry.getValue();
+							out.writeUTF(entry.getKey().getPath());
+							out.writeLong(cached.length);
+							out.writeLong(cached.lastModified);
+							out.writeShort(cached.hash.bytes.length);
+							out.write(cached.hash.bytes);
+						}
+					}
+					try {
+						Files.move(temp.toPath(), store.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+					}
+					catch (AtomicMoveNotSupportedException e) {
+						Files.move(temp.toPath(), store.toPath(), StandardCopyOption.REPLACE_EXISTING);
+					}
+				}
+				finally {
+					temp.delete();
+				}
+			}
+			catch (IOException e) {
+				LaunchingPlugin.log(e);
+			}
+		}
 	}
 
 	private static HashCode sha1(File file) throws IOException {
@@ -175,11 +353,19 @@ public class FileHashing {
 		catch (NoSuchAlgorithmException e) {
 			throw new IllegalStateException("Unsupported JVM", e); //$NON-NLS-1$
 		}
-		byte[] buf = new byte[4096];
-		try (InputStream is = new FileInputStream(file)) {
-			int len;
-			while ((len = is.read(buf)) > 0) {
-				digest.update(buf, 0, len);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (MAP_FILES && size >= MAP_THRESHOLD) {
+				for (long position = 0; position < size; position += MAP_WINDOW) {
+					digest.update(channel.map(MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position)));
+				}
+			} else {
+				ByteBuffer buf = ByteBuffer.allocate((int) Math.min(size > 0 ? size : 4096, MAP_THRESHOLD));
+				while (channel.read(buf) > 0 || buf.position() > 0) {
+					buf.flip();
+					digest.update(buf);
+					buf.clear();
+				}
 			}
 		}
 		return new HashCode(digest.digest());
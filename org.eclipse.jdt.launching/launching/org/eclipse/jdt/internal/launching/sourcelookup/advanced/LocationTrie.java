@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Igor Fedorenko
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Igor Fedorenko - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.launching.sourcelookup.advanced;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps filesystem locations to values, organized as a trie of path segments, so a location nested in a mapped location, like a subdirectory of a
+ * project output folder, resolves to the value of the closest mapped parent.
+ *
+ * <p>
+ * Reads do not lock and can run concurrently with updates. Updates must be serialized by the caller.
+ */
+class LocationTrie<T> {
+
+	// File.equals ignores case on Windows, locations are expected to behave the same
+	private static final boolean IGNORE_CASE = File.separatorChar == '\\';
+
+	private static class Node<T> {
+		final Map<String, Node<T>> children = new ConcurrentHashMap<>();
+
+		volatile T value;
+	}
+
+	private final Node<T> root = new Node<>();
+
+	/**
+	 * Associates the given location with the given value, replacing any previous value of the location.
+	 */
+	public void put(File location, T value) {
+		Node<T> node = root;
+		for (String segment : segments(location)) {
+			node = node.children.computeIfAbsent(segment, s -> new Node<>());
+		}
+		node.value = value;
+	}
+
+	/**
+	 * Removes the given location if it is associated with the given value.
+	 */
+	public void remove(File location, T value) {
+		List<String> segments = segments(location);
+		List<Node<T>> path = new ArrayList<>(segments.size() + 1);
+		Node<T> node = root;
+		path.add(node);
+		for (String segment : segments) {
+			node = node.children.get(segment);
+			if (node == null) {
+				return;
+			}
+			path.add(node);
+		}
+		if (node.value != value) {
+			return;
+		}
+		node.value = null;
+		// prune nodes that no longer lead to any value
+		for (int i = segments.size(); i > 0; i--) {
+			Node<T> child = path.get(i);
+			if (child.value != null || !child.children.isEmpty()) {
+				break;
+			}
+			path.get(i - 1).children.remove(segments.get(i - 1));
+		}
+	}
+
+	/**
+	 * Returns the value of the given location or of its closest mapped parent location, or {@code null} if neither the location nor any of its
+	 * parents are mapped.
+	 */
+	public T find(File location) {
+		T result = null;
+		Node<T> node = root;
+		for (String segment : segments(location)) {
+			node = node.children.get(segment);
+			if (node == null) {
+				break;
+			}
+			T value = node.value;
+			if (value != null) {
+				result = value;
+			}
+		}
+		return result;
+	}
+
+	public void clear() {
+		root.children.clear();
+		root.value = null;
+	}
+
+	private static List<String> segments(File location) {
+		String path = location.getAbsolutePath();
+		if (IGNORE_CASE) {
+			path = path.toLowerCase(Locale.ROOT);
+		}
+		List<String> segments = new ArrayList<>();
+		int start = 0;
+		for (int i = 0; i <= path.length(); i++) {
+			if (i == path.length() || path.charAt(i) == File.separatorChar) {
+				if (i > start) {
+					segments.add(path.substring(start, i));
+				}
+				start = i + 1;
+			}
+		}
+		return segments;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012-2016 Igor Fedorenko
+ * Copyright (c) 2012-2019 Igor Fedorenko
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,13 +22,21 @@ import static org.eclipse.jdt.core.IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGE
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
 
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -36,6 +44,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtensionRegistry;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.debug.core.sourcelookup.ISourceContainer;
@@ -190,27 +199,25 @@ public class WorkspaceProjectSourceContainers {
 	}
 
 	/**
-	 * Guards concurrent access to {@link #locations}, {@link #hashes} and {@link #projects}. Necessary because source lookup queries and java model
-	 * changes are processed on different threads.
-	 *
-	 * @TODO consider using ConcurrentMaps instead of explicit locking.
+	 * Serializes updates of {@link #locations}, {@link #hashes} and {@link #projects}. Source lookup queries read {@link #locations} and
+	 * {@link #hashes} without locking, because they run on different threads, including the UI thread, than java model change processing.
 	 */
 	private final Object lock = new Object() {
 	};
 
 	/**
-	 * Maps project classes location to project description.
+	 * Maps project classes location to project description. Locations nested in project classes locations map to the project too.
 	 */
-	private final Map<File, JavaProjectDescription> locations = new HashMap<>();
+	private final LocationTrie<JavaProjectDescription> locations = new LocationTrie<>();
 
 	/**
 	 * Maps project dependency hash to project descriptions. Hash-based source lookup is useful when runtime uses copies of jars used by the
-	 * workspace.
+	 * workspace. The collections are immutable and replaced on update.
 	 */
-	private final Map<Object, Collection<JavaProjectDescription>> hashes = new HashMap<>();
+	private final Map<Object, Collection<JavaProjectDescription>> hashes = new ConcurrentHashMap<>();
 
 	/**
-	 * Maps java project to project description.
+	 * Maps java project to project description. Only accessed while holding {@link #lock}.
 	 */
 	private final Map<IJavaProject, JavaProjectDescription> projects = new HashMap<>();
 
@@ -219,12 +226,10 @@ public class WorkspaceProjectSourceContainers {
 	 * workspace project.
 	 */
 	public ISourceContainer createProjectContainer(File projectLocation) {
-		Hasher hasher = FileHashing.hasher(); // use long-lived hasher
-
 		JavaProjectDescription description = getProjectByLocation(projectLocation);
 
 		if (description == null) {
-			Collection<JavaProjectDescription> desciptions = getProjectsByHash(projectLocation, hasher);
+			Collection<JavaProjectDescription> desciptions = getProjectsByHash(projectLocation, FileHashing.hasher());
 			if (!desciptions.isEmpty()) {
 				// it is possible, but unlikely, to have multiple binary projects for the same jar
 				description = desciptions.iterator().next();
@@ -244,17 +249,16 @@ public class WorkspaceProjectSourceContainers {
 	}
 
 	private JavaProjectDescription getProjectByLocation(File projectLocation) {
-		synchronized (lock) {
-			return locations.get(projectLocation);
-		}
+		return locations.find(projectLocation);
 	}
 
 	private Collection<JavaProjectDescription> getProjectsByHash(File projectLocation, FileHashing.Hasher hasher) {
-		Collection<JavaProjectDescription> projects;
-		synchronized (lock) {
-			projects = hashes.get(hasher.hash(projectLocation));
-			return projects != null ? new HashSet<>(projects) : Collections.emptySet();
+		// only files have hashes, don't bother hashing if no project can match
+		if (hashes.isEmpty() || !projectLocation.isFile()) {
+			return Collections.emptySet();
 		}
+		Collection<JavaProjectDescription> projects = hashes.get(hasher.hash(projectLocation));
+		return projects != null ? projects : Collections.emptySet();
 	}
 
 	/**
@@ -262,15 +266,31 @@ public class WorkspaceProjectSourceContainers {
 	 * {@code null} if there is no such project classpath entry or if the classpath entry does not have associated sources.
 	 */
 	public ISourceContainer createClasspathEntryContainer(File projectLocation, File entryLocation) {
-		Hasher hasher = FileHashing.hasher(); // use long-lived hasher
+		Hasher hasher = FileHashing.hasher();
 
 		JavaProjectDescription projectByLocation = getProjectByLocation(projectLocation);
 
-		IPackageFragmentRoot dependency = getProjectDependency(projectByLocation, entryLocation, hasher);
+		// the entry is hashed at most once, and only if it is not found by location
+		Supplier<Object> entryHash = new Supplier<Object>() {
+			private Object hash;
+
+			private boolean hashed;
+
+			@Override
+			public Object get() {
+				if (!hashed) {
+					hash = hasher.hash(entryLocation);
+					hashed = true;
+				}
+				return hash;
+			}
+		};
+
+		IPackageFragmentRoot dependency = getProjectDependency(projectByLocation, entryLocation, entryHash);
 
 		if (dependency == null && projectByLocation == null) {
 			for (JavaProjectDescription projectByHash : getProjectsByHash(projectLocation, hasher)) {
-				dependency = getProjectDependency(projectByHash, entryLocation, hasher);
+				dependency = getProjectDependency(projectByHash, entryLocation, entryHash);
 				if (dependency != null) {
 					break;
 				}
@@ -288,15 +308,15 @@ public class WorkspaceProjectSourceContainers {
 		return new PackageFragmentRootSourceContainer(dependency);
 	}
 
-	private IPackageFragmentRoot getProjectDependency(JavaProjectDescription project, File entryLocation, FileHashing.Hasher hasher) {
+	private IPackageFragmentRoot getProjectDependency(JavaProjectDescription project, File entryLocation, Supplier<Object> entryHash) {
 		if (project == null) {
 			return null;
 		}
 
 		IPackageFragmentRoot dependency = project.dependencies.get(entryLocation);
 
-		if (dependency == null) {
-			dependency = project.dependencyHashes.get(hasher.hash(entryLocation));
+		if (dependency == null && !project.dependencyHashes.isEmpty()) {
+			dependency = project.dependencyHashes.get(entryHash.get());
 		}
 		return dependency;
 	}
@@ -306,20 +326,12 @@ public class WorkspaceProjectSourceContainers {
 		// this guarantees the events aren't lost when they are delivered while the initialization is running
 		JavaCore.addElementChangedListener(changeListener);
 
-		final IJavaModel javaModel = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot());
-		final IJavaProject[] javaProjects = javaModel.getJavaProjects();
-
-		SubMonitor progress = SubMonitor.convert(monitor, javaProjects.length);
+		final IJavaProject[] javaProjects = getJavaProjects();
 
-		// TODO this can take significant time for large workspaces, consider running on multiple threads
 		// NB: can't persist state across restarts because java element change events are not delivered when this plugin isn't active
+		// file hashes are persisted though
 
-		Hasher hasher = FileHashing.newHasher(); // short-lived hasher for bulk workspace indexing
-
-		List<IWorkspaceProjectDescriber> describers = getJavaProjectDescribers();
-		for (IJavaProject project : javaProjects) {
-			addJavaProject(project, describers, hasher, progress.split(1));
-		}
+		updateProjects(Collections.emptySet(), new LinkedHashSet<>(Arrays.asList(javaProjects)), monitor);
 	}
 
 	public void close() {
@@ -331,7 +343,70 @@ public class WorkspaceProjectSourceContainers {
 		}
 	}
 
-	private void addJavaProject(IJavaProject project, List<IWorkspaceProjectDescriber> describers, FileHashing.Hasher hasher, IProgressMonitor monitor) throws CoreException {
+	/**
+	 * Returns the java projects indexed on initialization.
+	 */
+	protected IJavaProject[] getJavaProjects() throws JavaModelException {
+		final IJavaModel javaModel = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot());
+		return javaModel.getJavaProjects();
+	}
+
+	/**
+	 * Describes the given projects, in parallel if there are several of them, and hashes their files in one batch.
+	 */
+	private Map<IJavaProject, JavaProjectDescription> describeJavaProjects(Collection<IJavaProject> projects, List<IWorkspaceProjectDescriber> describers, SubMonitor progress) throws CoreException {
+		Map<IJavaProject, JavaProjectDescriptionBuilder> builders = new LinkedHashMap<>();
+		if (projects.size() < 2) {
+			for (IJavaProject project : projects) {
+				builders.put(project, describeJavaProject(project, describers));
+				progress.split(1);
+			}
+		} else {
+			int threads = Math.min(projects.size(), Runtime.getRuntime().availableProcessors());
+			ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+				Thread thread = new Thread(runnable, "Workspace Project Indexing"); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			});
+			try {
+				Map<IJavaProject, Future<JavaProjectDescriptionBuilder>> futures = new LinkedHashMap<>();
+				for (IJavaProject project : projects) {
+					futures.put(project, executor.submit(() -> describeJavaProject(project, describers)));
+				}
+				// the monitor is only used from this thread
+				for (Map.Entry<IJavaProject, Future<JavaProjectDescriptionBuilder>> future : futures.entrySet()) {
+					builders.put(future.getKey(), future.getValue().get());
+					progress.split(1);
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt(); // restore interrupted status
+				throw new OperationCanceledException();
+			}
+			catch (ExecutionException e) {
+				if (e.getCause() instanceof CoreException) {
+					throw (CoreException) e.getCause();
+				}
+				throw new IllegalStateException(e.getCause());
+			}
+			finally {
+				executor.shutdownNow();
+			}
+		}
+
+		Set<File> files = new HashSet<>();
+		builders.values().forEach(builder -> {
+			files.addAll(builder.locations);
+			files.addAll(builder.dependencyLocations.keySet());
+		});
+		Map<File, Object> fileHashes = FileHashing.hasher().hash(files);
+
+		Map<IJavaProject, JavaProjectDescription> descriptions = new LinkedHashMap<>();
+		builders.forEach((project, builder) -> descriptions.put(project, newJavaProjectDescription(builder, fileHashes)));
+		return descriptions;
+	}
+
+	private static JavaProjectDescriptionBuilder describeJavaProject(IJavaProject project, List<IWorkspaceProjectDescriber> describers) throws CoreException {
 		if (project == null) {
 			throw new IllegalArgumentException();
 		}
@@ -342,42 +417,33 @@ public class WorkspaceProjectSourceContainers {
 			describer.describeProject(project, builder);
 		}
 
+		// make binary project support little easier to implement
+		builder.locations.forEach(location -> builder.dependencyLocations.remove(location));
+
+		return builder;
+	}
+
+	private static JavaProjectDescription newJavaProjectDescription(JavaProjectDescriptionBuilder builder, Map<File, Object> fileHashes) {
 		Set<File> locations = builder.locations;
-		List<Supplier<ISourceContainer>> factories = builder.factories;
 		Map<File, IPackageFragmentRoot> dependencies = builder.dependencyLocations;
 
-		// make binary project support little easier to implement
-		locations.forEach(location -> dependencies.remove(location));
-
 		Set<Object> hashes = new HashSet<>();
 		locations.forEach(location -> {
-			Object hash = hasher.hash(location);
+			Object hash = fileHashes.get(location);
 			if (hash != null) {
 				hashes.add(hash);
 			}
 		});
 
 		Map<Object, IPackageFragmentRoot> dependencyHashes = new HashMap<>();
-		dependencies.forEach((location, packageFragmentRoot) -> dependencyHashes.put(hasher.hash(location), packageFragmentRoot));
-
-		JavaProjectDescription info = new JavaProjectDescription(locations, hashes, factories, dependencies, dependencyHashes);
-
-		synchronized (this.lock) {
-			for (File location : locations) {
-				this.locations.put(location, info);
-			}
-			for (Object hash : hashes) {
-				Collection<JavaProjectDescription> hashProjects = this.hashes.get(hash);
-				if (hashProjects == null) {
-					hashProjects = new HashSet<>();
-					this.hashes.put(hash, hashProjects);
-				}
-				hashProjects.add(info);
+		dependencies.forEach((location, packageFragmentRoot) -> {
+			Object hash = fileHashes.get(location);
+			if (hash != null) {
+				dependencyHashes.put(hash, packageFragmentRoot);
 			}
-			this.projects.put(project, info);
-		}
+		});
 
-		SubMonitor.done(monitor);
+		return new JavaProjectDescription(locations, hashes, builder.factories, dependencies, dependencyHashes);
 	}
 
 	protected List<IWorkspaceProjectDescriber> getJavaProjectDescribers() {
@@ -402,22 +468,42 @@ public class WorkspaceProjectSourceContainers {
 		return result;
 	}
 
-	private void removeJavaProject(IJavaProject project) {
+	/**
+	 * Replaces the description of the given project, or removes it if the new description is {@code null}. Readers see either the old or the new
+	 * description of each location, never a missing project.
+	 */
+	private void setJavaProject(IJavaProject project, JavaProjectDescription description) {
 		if (project == null) {
 			throw new IllegalArgumentException();
 		}
 		synchronized (lock) {
-			JavaProjectDescription description = projects.remove(project);
 			if (description != null) {
 				for (File location : description.classesLocations) {
-					locations.remove(location);
+					locations.put(location, description);
 				}
 				for (Object hash : description.classesLocationsHashes) {
+					Collection<JavaProjectDescription> hashProjects = new HashSet<>(hashes.getOrDefault(hash, Collections.emptySet()));
+					// replaces the previous description of the project, which is equal if its locations did not change
+					hashProjects.remove(description);
+					hashProjects.add(description);
+					hashes.put(hash, Collections.unmodifiableCollection(hashProjects));
+				}
+			}
+			JavaProjectDescription previous = description != null ? projects.put(project, description) : projects.remove(project);
+			if (previous != null && previous != description) {
+				for (File location : previous.classesLocations) {
+					locations.remove(location, previous);
+				}
+				for (Object hash : previous.classesLocationsHashes) {
 					Collection<JavaProjectDescription> hashProjects = hashes.get(hash);
-					if (hashProjects != null) {
-						hashProjects.remove(description);
+					// descriptions are equal if their locations are, remove by identity to keep the new description
+					if (hashProjects != null && hashProjects.stream().anyMatch(p -> p == previous)) {
+						hashProjects = new HashSet<>(hashProjects);
+						hashProjects.removeIf(p -> p == previous);
 						if (hashProjects.isEmpty()) {
 							hashes.remove(hash);
+						} else {
+							hashes.put(hash, Collections.unmodifiableCollection(hashProjects));
 						}
 					}
 				}
@@ -425,18 +511,20 @@ public class WorkspaceProjectSourceContainers {
 		}
 	}
 
+	/**
+	 * Removes the given projects from the index and adds or updates the given projects in place.
+	 */
 	void updateProjects(final Set<IJavaProject> remove, final Set<IJavaProject> add, IProgressMonitor monitor) throws CoreException {
 		SubMonitor progress = SubMonitor.convert(monitor, 1 + add.size());
 
 		progress.split(1);
 		for (IJavaProject project : remove) {
-			removeJavaProject(project);
+			if (!add.contains(project)) {
+				setJavaProject(project, null);
+			}
 		}
 		List<IWorkspaceProjectDescriber> describers = getJavaProjectDescribers();
-		Hasher hasher = FileHashing.newHasher();
-		for (IJavaProject project : add) {
-			addJavaProject(project, describers, hasher, progress.split(1));
-		}
+		describeJavaProjects(add, describers, progress).forEach(this::setJavaProject);
 	}
 
 }
@@ -82,6 +82,7 @@ import org.eclipse.jdt.internal.launching.JREContainerInitializer;
 import org.eclipse.jdt.internal.launching.JavaSourceLookupUtil;
 import org.eclipse.jdt.internal.launching.LaunchingMessages;
 import org.eclipse.jdt.internal.launching.LaunchingPlugin;
+import org.eclipse.jdt.internal.launching.RuntimeClasspathCache;
 import org.eclipse.jdt.internal.launching.RuntimeClasspathEntry;
 import org.eclipse.jdt.internal.launching.RuntimeClasspathEntryResolver;
 import org.eclipse.jdt.internal.launching.RuntimeClasspathProvider;
@@ -1279,6 +1280,10 @@ public final class JavaRuntime {
 				abort(NLS.bind(LaunchingMessages.JavaRuntime_Classpath_references_non_existant_archive___0__4, new String[] { entry.getPath().toString() }), null);
 			case IRuntimeClasspathEntry.OTHER:
 				resolver = getContributedResolver(((IRuntimeClasspathEntry2)entry).getTypeId());
+				if (entry instanceof DefaultProjectClasspathEntry && fgProjects.get() == null) {
+					IRuntimeClasspathEntryResolver contributed = resolver;
+					return RuntimeClasspathCache.resolve((DefaultProjectClasspathEntry) entry, null, configuration, excludeTestCode, () -> contributed.resolveRuntimeClasspathEntry(entry, configuration));
+				}
 				return resolver.resolveRuntimeClasspathEntry(entry, configuration);
 			default:
 				break;
@@ -1505,6 +1510,10 @@ public final class JavaRuntime {
 				return resolver.resolveRuntimeClasspathEntry(entry, project, excludeTestCode);
 			case IRuntimeClasspathEntry.OTHER:
 				resolver = getContributedResolver(((IRuntimeClasspathEntry2)entry).getTypeId());
+				if (entry instanceof DefaultProjectClasspathEntry && fgProjects.get() == null) {
+					IRuntimeClasspathEntryResolver contributed = resolver;
+					return RuntimeClasspathCache.resolve((DefaultProjectClasspathEntry) entry, project, null, excludeTestCode, () -> contributed.resolveRuntimeClasspathEntry(entry, project, excludeTestCode));
+				}
 				return resolver.resolveRuntimeClasspathEntry(entry, project, excludeTestCode);
 			default:
 				break;
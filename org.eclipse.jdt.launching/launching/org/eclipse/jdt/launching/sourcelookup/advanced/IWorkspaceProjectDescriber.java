@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011-2016 Igor Fedorenko
+ * Copyright (c) 2011-2019 Igor Fedorenko
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -36,6 +36,8 @@ import org.eclipse.jdt.core.IPackageFragmentRoot;
  * standard Java APIs are used side-by-side. For this reason multiple project describers can provide information about the same project and all
  * projects descriptions will be considered when performing source lookup.
  *
+ * Projects are described in parallel, implementations must support concurrent calls for different projects.
+ *
  * @since 3.10
  * @provisional This is part of work in progress and can be changed, moved or removed without notice
  */
@@ -80,6 +82,10 @@ public interface IWorkspaceProjectDescriber {
 
 	/**
 	 * Populate the given description with the given project's description.
+	 *
+	 * This method is called concurrently from several threads, for different projects. Implementations must tolerate concurrent calls: any
+	 * state they share between calls must be thread-safe, and they must not rely on the calling thread. The given description is only used by the
+	 * calling thread and must not be kept after the call returns.
 	 */
 	public void describeProject(IJavaProject project, IJavaProjectSourceDescription description) throws CoreException;
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -31,6 +31,8 @@ import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.internal.debug.core.JavaDebugUtils;
+import org.eclipse.jdt.internal.launching.JavaSourceLookupDirector;
+import org.eclipse.jdt.internal.launching.SourceLookupCache;
 
 /**
  * A source lookup participant that searches for Java source code.
@@ -49,6 +51,12 @@ public class JavaSourceLookupParticipant extends AbstractSourceLookupParticipant
 	 */
 	private Map<ISourceContainer, PackageFragmentRootSourceContainer> fDelegateContainers;
 
+	/**
+	 * Source elements found by source name. Shared with the director if it is
+	 * a Java source lookup director.
+	 */
+	private SourceLookupCache fCache;
+
 	/**
 	 * Returns the source name associated with the given object, or <code>null</code>
 	 * if none.
@@ -64,6 +72,20 @@ public class JavaSourceLookupParticipant extends AbstractSourceLookupParticipant
 		return JavaDebugUtils.getSourceName(object);
 	}
 
+	/* (non-Javadoc)
+	 * @see org.eclipse.debug.core.sourcelookup.AbstractSourceLookupParticipant#findSourceElements(java.lang.Object)
+	 */
+	@Override
+	public Object[] findSourceElements(Object object) throws CoreException {
+		SourceLookupCache cache = fCache;
+		String sourceName = cache != null ? getSourceName(object) : null;
+		if (sourceName == null) {
+			return super.findSourceElements(object);
+		}
+		// the source name is looked up rather than the object, so it is not computed again
+		return cache.find(sourceName, isFindDuplicates(), name -> super.findSourceElements(name));
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.debug.internal.core.sourcelookup.ISourceLookupParticipant#dispose()
 	 */
@@ -75,6 +97,10 @@ public class JavaSourceLookupParticipant extends AbstractSourceLookupParticipant
 			container.dispose();
 		}
 		fDelegateContainers = null;
+		if (fCache != null) {
+			fCache.clear();
+			fCache = null;
+		}
 		super.dispose();
 
 	}
@@ -97,6 +123,11 @@ public class JavaSourceLookupParticipant extends AbstractSourceLookupParticipant
 	public void init(ISourceLookupDirector director) {
 		super.init(director);
 		fDelegateContainers = new HashMap<>();
+		if (director instanceof JavaSourceLookupDirector) {
+			fCache = ((JavaSourceLookupDirector) director).getSourceLookupCache();
+		} else {
+			fCache = new SourceLookupCache();
+		}
 	}
 	/* (non-Javadoc)
 	 * @see org.eclipse.debug.internal.core.sourcelookup.ISourceLookupParticipant#sourceContainersChanged(org.eclipse.debug.internal.core.sourcelookup.ISourceLookupDirector)
@@ -105,6 +136,9 @@ public class JavaSourceLookupParticipant extends AbstractSourceLookupParticipant
 	public void sourceContainersChanged(ISourceLookupDirector director) {
 		// use package fragment roots in place of local archives, where they exist
 		fDelegateContainers.clear();
+		if (fCache != null) {
+			fCache.clear();
+		}
 		ISourceContainer[] containers = director.getSourceContainers();
 		for (int i = 0; i < containers.length; i++) {
 			ISourceContainer container = containers[i];